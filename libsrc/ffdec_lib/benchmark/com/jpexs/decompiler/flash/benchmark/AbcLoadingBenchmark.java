@@ -0,0 +1,82 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash.benchmark;
+
+import com.jpexs.decompiler.flash.SWF;
+import com.jpexs.decompiler.flash.abc.ABC;
+import com.jpexs.decompiler.flash.abc.ABCInputStream;
+import com.jpexs.decompiler.flash.tags.ABCContainerTag;
+import com.jpexs.helpers.MemoryInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Loading of the ABC data of the DoABC tags, without the rest of the SWF.
+ *
+ * @author JPEXS
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AbcLoadingBenchmark {
+
+    @Param({BenchmarkCorpus.AS3, BenchmarkCorpus.FLEX})
+    public String file;
+
+    private SWF swf;
+
+    private final List<ABCContainerTag> tags = new ArrayList<>();
+
+    private final List<byte[]> abcData = new ArrayList<>();
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        BenchmarkCorpus.configure();
+        swf = BenchmarkCorpus.open(file);
+        for (ABCContainerTag tag : swf.getAbcList()) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            tag.getABC().saveToStream(baos);
+            tags.add(tag);
+            abcData.add(baos.toByteArray());
+        }
+    }
+
+    @Benchmark
+    public void load(Blackhole blackhole) throws IOException {
+        for (int i = 0; i < abcData.size(); i++) {
+            ABCInputStream ais = new ABCInputStream(new MemoryInputStream(abcData.get(i)));
+            blackhole.consume(new ABC(ais, swf, tags.get(i)));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash.benchmark;
+
+import com.jpexs.decompiler.flash.SWF;
+import com.jpexs.decompiler.flash.SWFInputStream;
+import com.jpexs.decompiler.flash.action.Action;
+import com.jpexs.decompiler.flash.action.ActionList;
+import com.jpexs.decompiler.flash.action.ActionListReader;
+import com.jpexs.decompiler.flash.helpers.CodeFormatting;
+import com.jpexs.decompiler.flash.helpers.HighlightedTextWriter;
+import com.jpexs.decompiler.flash.tags.base.ASMSource;
+import com.jpexs.helpers.ByteArrayRange;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * ActionScript 2 action list reading (ActionListReader) and decompilation of
+ * all ASM sources, without the action list cache of the SWF.
+ *
+ * @author JPEXS
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class As2ActionBenchmark {
+
+    @Param({BenchmarkCorpus.AS2, BenchmarkCorpus.SYNTHETIC})
+    public String file;
+
+    private SWF swf;
+
+    private List<ASMSource> sources;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        BenchmarkCorpus.configure();
+        swf = BenchmarkCorpus.open(file);
+        sources = new ArrayList<>(swf.getASMs(false).values());
+    }
+
+    private ActionList readActions(ASMSource source) throws IOException, InterruptedException {
+        ByteArrayRange actionBytes = source.getActionBytes();
+        int pos = actionBytes.getPos();
+        SWFInputStream sis = new SWFInputStream(swf, actionBytes.getArray());
+        if (pos != 0) {
+            sis.seek(pos);
+        }
+
+        return ActionListReader.readActionList(new ArrayList<>(), sis, swf.version, pos, pos + actionBytes.getLength(), source.toString(), 0);
+    }
+
+    @Benchmark
+    public void readActionLists(Blackhole blackhole) throws IOException, InterruptedException {
+        for (ASMSource source : sources) {
+            blackhole.consume(readActions(source));
+        }
+    }
+
+    @Benchmark
+    public void decompile(Blackhole blackhole) throws IOException, InterruptedException {
+        for (ASMSource source : sources) {
+            HighlightedTextWriter writer = new HighlightedTextWriter(new CodeFormatting(), false);
+            Action.actionsToSource(source, readActions(source), source.toString(), writer);
+            blackhole.consume(writer.toString());
+        }
+    }
+}
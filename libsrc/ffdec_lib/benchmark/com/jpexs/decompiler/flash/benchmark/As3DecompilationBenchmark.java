@@ -0,0 +1,77 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+package com.jpexs.decompiler.flash.benchmark;
+
+import com.jpexs.decompiler.flash.SWF;
+import com.jpexs.decompiler.flash.abc.ScriptPack;
+import com.jpexs.decompiler.flash.abc.types.ConvertData;
+import com.jpexs.decompiler.flash.abc.types.ScriptInfo;
+import com.jpexs.decompiler.flash.exporters.modes.ScriptExportMode;
+import com.jpexs.decompiler.flash.helpers.CodeFormatting;
+import com.jpexs.decompiler.flash.helpers.HighlightedTextWriter;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * ActionScript 3 decompilation of all script packs (MethodBody.convert and
+ * writing of the source), without the decompiled script cache.
+ *
+ * @author JPEXS
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class As3DecompilationBenchmark {
+
+    @Param({BenchmarkCorpus.AS3, BenchmarkCorpus.FLEX})
+    public String file;
+
+    private List<ScriptPack> packs;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        BenchmarkCorpus.configure();
+        SWF swf = BenchmarkCorpus.open(file);
+        packs = swf.getAS3Packs();
+    }
+
+    @Benchmark
+    public void decompile(Blackhole blackhole) throws InterruptedException {
+        for (ScriptPack pack : packs) {
+            ScriptInfo script = pack.abc.script_info.get(pack.scriptIndex);
+            HighlightedTextWriter writer = new HighlightedTextWriter(new CodeFormatting(), false);
+            pack.toSource(writer, script.traits.traits, new ConvertData(), ScriptExportMode.AS, false);
+            blackhole.consume(writer.toString());
+        }
+    }
+}
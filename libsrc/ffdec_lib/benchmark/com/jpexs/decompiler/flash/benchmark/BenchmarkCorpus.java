@@ -0,0 +1,127 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash.benchmark;
+
+import com.jpexs.decompiler.flash.SWF;
+import com.jpexs.decompiler.flash.configuration.Configuration;
+import com.jpexs.helpers.Helper;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SWF files the benchmarks run on.
+ *
+ * The sample files are read from the testdata directory of the library, it can
+ * be changed with the benchmark.testdata system property. The synthetic file
+ * is generated by SyntheticSwfGenerator.
+ *
+ * @author JPEXS
+ */
+public class BenchmarkCorpus {
+
+    /**
+     * ActionScript 2 sample
+     */
+    public static final String AS2 = "as2";
+
+    /**
+     * ActionScript 3 sample compiled with Flash
+     */
+    public static final String AS3 = "as3";
+
+    /**
+     * ActionScript 3 sample compiled with Flex
+     */
+    public static final String FLEX = "flex";
+
+    /**
+     * Generated shapes, filters and ActionScript 2 frame scripts
+     */
+    public static final String SYNTHETIC = "synthetic";
+
+    private static final Map<String, byte[]> data = new HashMap<>();
+
+    private BenchmarkCorpus() {
+    }
+
+    /**
+     * Sets the configuration for repeatable results: single threaded
+     * decompilation and no persistent cache.
+     */
+    public static void configure() {
+        Configuration.parallelSpeedUp.set(false);
+        Configuration.persistentCacheDirectory.set("");
+        Configuration.scriptSearchIndex.set(false);
+        Configuration.decompile.set(true);
+    }
+
+    /**
+     * Gets the uncompressed or compressed data of the SWF file.
+     *
+     * @param name Name of the file (one of the constants)
+     * @return SWF data
+     * @throws IOException
+     */
+    public static synchronized byte[] getData(String name) throws IOException {
+        byte[] result = data.get(name);
+        if (result == null) {
+            switch (name) {
+                case AS2:
+                    result = readSample("as2/as2.swf");
+                    break;
+                case AS3:
+                    result = readSample("as3/as3.swf");
+                    break;
+                case FLEX:
+                    result = readSample("flex/TestFlex.swf");
+                    break;
+                case SYNTHETIC:
+                    result = new SyntheticSwfGenerator(1).generate(24, 12, 4);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown corpus file: " + name);
+            }
+
+            data.put(name, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Parses the SWF file.
+     *
+     * @param name Name of the file (one of the constants)
+     * @return SWF
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public static SWF open(String name) throws IOException, InterruptedException {
+        return new SWF(new ByteArrayInputStream(getData(name)), false);
+    }
+
+    private static byte[] readSample(String path) throws IOException {
+        File file = new File(System.getProperty("benchmark.testdata", "testdata"), path);
+        if (!file.exists()) {
+            throw new IOException("Sample file not found: " + file.getAbsolutePath());
+        }
+
+        return Helper.readFileEx(file.getPath());
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash.benchmark;
+
+import com.jpexs.decompiler.flash.types.filters.Filtering;
+import com.jpexs.helpers.SerializableImage;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bitmap filters applied to a generated image.
+ *
+ * @author JPEXS
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FilteringBenchmark {
+
+    @Param({"128", "512"})
+    public int size;
+
+    private SerializableImage image;
+
+    private final float[][] colorMatrix = {
+        {0.3f, 0.59f, 0.11f, 0, 0},
+        {0.3f, 0.59f, 0.11f, 0, 0},
+        {0.3f, 0.59f, 0.11f, 0, 0},
+        {0, 0, 0, 1, 0}
+    };
+
+    private final float[] sharpen = {
+        0, -1, 0,
+        -1, 5, -1,
+        0, -1, 0
+    };
+
+    @Setup
+    public void setup() {
+        image = new SerializableImage(size, size, SerializableImage.TYPE_INT_ARGB_PRE);
+        image.fillTransparent();
+        Graphics2D g = (Graphics2D) image.getGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        Random random = new Random(1);
+        for (int i = 0; i < 20; i++) {
+            int x = random.nextInt(size);
+            int y = random.nextInt(size);
+            int w = 1 + random.nextInt(size / 2);
+            int h = 1 + random.nextInt(size / 2);
+            g.setPaint(new GradientPaint(x, y, new Color(random.nextInt(), true), x + w, y + h, new Color(random.nextInt(), true)));
+            if (i % 2 == 0) {
+                g.fillOval(x, y, w, h);
+            } else {
+                g.fillRect(x, y, w, h);
+            }
+        }
+
+        g.dispose();
+    }
+
+    @Benchmark
+    public SerializableImage blur() {
+        return Filtering.blur(image, 8, 8, 2);
+    }
+
+    @Benchmark
+    public SerializableImage dropShadow() {
+        return Filtering.dropShadow(image, 6, 6, (float) (Math.PI / 4), 5, new Color(0, 0, 0, 128), false, 1, 1, false);
+    }
+
+    @Benchmark
+    public SerializableImage glow() {
+        return Filtering.glow(image, 8, 8, 2, Color.red, false, false, 1);
+    }
+
+    @Benchmark
+    public SerializableImage bevel() {
+        return Filtering.bevel(image, 4, 4, 1, Filtering.INNER, Color.white.getRGB(), Color.black.getRGB(), (float) (Math.PI / 4), 4, false, 1);
+    }
+
+    @Benchmark
+    public SerializableImage colorMatrix() {
+        return Filtering.colorMatrix(image, colorMatrix);
+    }
+
+    @Benchmark
+    public SerializableImage convolution() {
+        return Filtering.convolution(image, sharpen, 3, 3);
+    }
+}
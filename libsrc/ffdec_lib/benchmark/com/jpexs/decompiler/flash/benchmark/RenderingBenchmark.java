@@ -0,0 +1,79 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash.benchmark;
+
+import com.jpexs.decompiler.flash.SWF;
+import com.jpexs.decompiler.flash.exporters.commonshape.Matrix;
+import com.jpexs.decompiler.flash.timeline.Timeline;
+import java.awt.Color;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Rendering of all frames of the main timeline (Timeline.toImage), with and
+ * without the image caches of the SWF.
+ *
+ * @author JPEXS
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RenderingBenchmark {
+
+    @Param({BenchmarkCorpus.AS2, BenchmarkCorpus.SYNTHETIC})
+    public String file;
+
+    private SWF swf;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        BenchmarkCorpus.configure();
+        swf = BenchmarkCorpus.open(file);
+    }
+
+    private void renderFrames(Blackhole blackhole) {
+        Timeline timeline = swf.getTimeline();
+        for (int frame = 0; frame < timeline.getFrameCount(); frame++) {
+            blackhole.consume(SWF.frameToImageGet(timeline, frame, 0, null, 0, timeline.displayRect, new Matrix(), null, Color.white, 1.0));
+        }
+    }
+
+    @Benchmark
+    public void render(Blackhole blackhole) {
+        swf.clearImageCache();
+        renderFrames(blackhole);
+    }
+
+    @Benchmark
+    public void renderCached(Blackhole blackhole) {
+        renderFrames(blackhole);
+    }
+}
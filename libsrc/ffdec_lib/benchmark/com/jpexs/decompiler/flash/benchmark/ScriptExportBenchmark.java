@@ -0,0 +1,109 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+package com.jpexs.decompiler.flash.benchmark;
+
+import com.jpexs.decompiler.flash.AbortRetryIgnoreHandler;
+import com.jpexs.decompiler.flash.SWF;
+import com.jpexs.decompiler.flash.exporters.modes.ScriptExportMode;
+import com.jpexs.decompiler.flash.exporters.settings.ScriptExportSettings;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Export of all scripts to files (SWF.exportActionScript) with empty script
+ * caches.
+ *
+ * @author JPEXS
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScriptExportBenchmark {
+
+    @Param({BenchmarkCorpus.AS2, BenchmarkCorpus.AS3, BenchmarkCorpus.SYNTHETIC})
+    public String file;
+
+    @Param({"AS", "PCODE"})
+    public ScriptExportMode mode;
+
+    private SWF swf;
+
+    private File outDir;
+
+    private final AbortRetryIgnoreHandler handler = new AbortRetryIgnoreHandler() {
+        @Override
+        public int handle(Throwable thrown) {
+            return AbortRetryIgnoreHandler.IGNORE;
+        }
+
+        @Override
+        public AbortRetryIgnoreHandler getNewInstance() {
+            return this;
+        }
+    };
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        BenchmarkCorpus.configure();
+        swf = BenchmarkCorpus.open(file);
+        outDir = Files.createTempDirectory("ffdec-benchmark").toFile();
+    }
+
+    @TearDown
+    public void tearDown() {
+        deleteFolder(outDir);
+    }
+
+    private static void deleteFolder(File folder) {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                if (f.isDirectory()) {
+                    deleteFolder(f);
+                } else {
+                    f.delete();
+                }
+            }
+        }
+
+        folder.delete();
+    }
+
+    @Benchmark
+    public List<File> export() throws IOException {
+        swf.clearScriptCache();
+        return swf.exportActionScript(handler, outDir.getAbsolutePath(), new ScriptExportSettings(mode, false), false, null);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash.benchmark;
+
+import com.jpexs.decompiler.flash.SWF;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading of the SWF header and tags, including the ABC of DoABC tags.
+ *
+ * @author JPEXS
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SwfParsingBenchmark {
+
+    @Param({BenchmarkCorpus.AS2, BenchmarkCorpus.AS3, BenchmarkCorpus.FLEX, BenchmarkCorpus.SYNTHETIC})
+    public String file;
+
+    private byte[] data;
+
+    @Setup
+    public void setup() throws IOException {
+        BenchmarkCorpus.configure();
+        data = BenchmarkCorpus.getData(file);
+    }
+
+    @Benchmark
+    public SWF parse() throws IOException, InterruptedException {
+        return new SWF(new ByteArrayInputStream(data), false);
+    }
+
+    @Benchmark
+    public SWF parseLazy() throws IOException, InterruptedException {
+        return new SWF(new ByteArrayInputStream(data), false, true);
+    }
+}
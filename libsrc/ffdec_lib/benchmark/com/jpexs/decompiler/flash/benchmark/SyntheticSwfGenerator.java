@@ -0,0 +1,248 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+package com.jpexs.decompiler.flash.benchmark;
+
+import com.jpexs.decompiler.flash.SWF;
+import com.jpexs.decompiler.flash.SWFCompression;
+import com.jpexs.decompiler.flash.action.parser.ActionParseException;
+import com.jpexs.decompiler.flash.action.parser.script.ActionScript2Parser;
+import com.jpexs.decompiler.flash.importers.svg.SvgImporter;
+import com.jpexs.decompiler.flash.tags.DefineShape4Tag;
+import com.jpexs.decompiler.flash.tags.DoActionTag;
+import com.jpexs.decompiler.flash.tags.PlaceObject3Tag;
+import com.jpexs.decompiler.flash.tags.SetBackgroundColorTag;
+import com.jpexs.decompiler.flash.tags.ShowFrameTag;
+import com.jpexs.decompiler.flash.types.MATRIX;
+import com.jpexs.decompiler.flash.types.RECT;
+import com.jpexs.decompiler.flash.types.RGB;
+import com.jpexs.decompiler.flash.types.RGBA;
+import com.jpexs.decompiler.flash.types.filters.BEVELFILTER;
+import com.jpexs.decompiler.flash.types.filters.BLURFILTER;
+import com.jpexs.decompiler.flash.types.filters.DROPSHADOWFILTER;
+import com.jpexs.decompiler.flash.types.filters.FILTER;
+import com.jpexs.decompiler.flash.types.filters.GLOWFILTER;
+import com.jpexs.decompiler.graph.CompilationException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates SWF files for the benchmarks with the library itself: vector
+ * shapes imported from SVG, placed with filters on an animated timeline and
+ * ActionScript 2 frame scripts compiled from generated source.
+ *
+ * The output depends only on the parameters, so the results of different
+ * versions can be compared.
+ *
+ * @author JPEXS
+ */
+public class SyntheticSwfGenerator {
+
+    private static final int WIDTH = 550;
+
+    private static final int HEIGHT = 400;
+
+    private final Random random;
+
+    public SyntheticSwfGenerator(long seed) {
+        random = new Random(seed);
+    }
+
+    /**
+     * Generates the SWF.
+     *
+     * @param frameCount Number of frames
+     * @param shapeCount Number of shapes placed on each frame
+     * @param functionsPerFrame Number of ActionScript functions in each frame
+     * script
+     * @return Uncompressed SWF data
+     * @throws IOException
+     */
+    public byte[] generate(int frameCount, int shapeCount, int functionsPerFrame) throws IOException {
+        SWF swf = new SWF();
+        swf.compression = SWFCompression.NONE;
+        swf.version = 10;
+        swf.frameRate = 24;
+        swf.frameCount = frameCount;
+        swf.displayRect = new RECT(0, WIDTH * (int) SWF.unitDivisor, 0, HEIGHT * (int) SWF.unitDivisor);
+        swf.addTag(new SetBackgroundColorTag(swf, new RGB(255, 255, 255)));
+
+        int[] shapeIds = new int[shapeCount];
+        for (int i = 0; i < shapeCount; i++) {
+            DefineShape4Tag shape = new DefineShape4Tag(swf);
+            new SvgImporter().importSvg(shape, generateSvg());
+            swf.addTag(shape);
+            shapeIds[i] = shape.getCharacterId();
+        }
+
+        for (int f = 0; f < frameCount; f++) {
+            for (int i = 0; i < shapeCount; i++) {
+                MATRIX matrix = new MATRIX();
+                matrix.translateX = (int) ((20 + (i * 97 + f * 7) % (WIDTH - 200)) * SWF.unitDivisor);
+                matrix.translateY = (int) ((20 + (i * 61 + f * 5) % (HEIGHT - 200)) * SWF.unitDivisor);
+                boolean first = f == 0;
+                swf.addTag(new PlaceObject3Tag(swf, !first, i + 1, null, first ? shapeIds[i] : -1, matrix, null, -1, null, -1, generateFilters(i), -1, null, -1, null, null));
+            }
+
+            DoActionTag doAction = new DoActionTag(swf);
+            try {
+                doAction.setActions(new ActionScript2Parser(swf.version).actionsFromString(generateScript(f, functionsPerFrame)));
+            } catch (ActionParseException | CompilationException ex) {
+                throw new IOException("Cannot compile generated script", ex);
+            }
+
+            swf.addTag(doAction);
+            swf.addTag(new ShowFrameTag(swf));
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        swf.saveTo(baos);
+        return baos.toByteArray();
+    }
+
+    private String color() {
+        return String.format("#%06x", random.nextInt(0x1000000));
+    }
+
+    private String generateSvg() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"200\" height=\"200\">");
+        sb.append("<defs>");
+        sb.append("<linearGradient id=\"lg\" x1=\"0\" y1=\"0\" x2=\"1\" y2=\"1\">");
+        sb.append("<stop offset=\"0\" stop-color=\"").append(color()).append("\"/>");
+        sb.append("<stop offset=\"1\" stop-color=\"").append(color()).append("\"/>");
+        sb.append("</linearGradient>");
+        sb.append("<radialGradient id=\"rg\">");
+        sb.append("<stop offset=\"0\" stop-color=\"").append(color()).append("\"/>");
+        sb.append("<stop offset=\"0.6\" stop-color=\"").append(color()).append("\" stop-opacity=\"0.5\"/>");
+        sb.append("<stop offset=\"1\" stop-color=\"").append(color()).append("\"/>");
+        sb.append("</radialGradient>");
+        sb.append("</defs>");
+        sb.append("<rect x=\"").append(random.nextInt(40)).append("\" y=\"").append(random.nextInt(40))
+                .append("\" width=\"").append(60 + random.nextInt(80)).append("\" height=\"").append(40 + random.nextInt(80))
+                .append("\" rx=\"8\" fill=\"url(#lg)\" stroke=\"").append(color()).append("\" stroke-width=\"3\"/>");
+        sb.append("<circle cx=\"").append(80 + random.nextInt(60)).append("\" cy=\"").append(80 + random.nextInt(60))
+                .append("\" r=\"").append(20 + random.nextInt(40)).append("\" fill=\"url(#rg)\"/>");
+        sb.append("<path d=\"M 10 150");
+        for (int i = 0; i < 6; i++) {
+            sb.append(" C ").append(random.nextInt(200)).append(" ").append(random.nextInt(200))
+                    .append(" ").append(random.nextInt(200)).append(" ").append(random.nextInt(200))
+                    .append(" ").append(random.nextInt(200)).append(" ").append(random.nextInt(200));
+            sb.append(" Q ").append(random.nextInt(200)).append(" ").append(random.nextInt(200))
+                    .append(" ").append(random.nextInt(200)).append(" ").append(random.nextInt(200));
+        }
+        sb.append(" Z\" fill=\"").append(color()).append("\" fill-opacity=\"0.7\" stroke=\"").append(color()).append("\" stroke-width=\"2\"/>");
+        sb.append("</svg>");
+        return sb.toString();
+    }
+
+    private List<FILTER> generateFilters(int index) {
+        List<FILTER> filters = new ArrayList<>();
+        switch (index % 4) {
+            case 0:
+                BLURFILTER blur = new BLURFILTER();
+                blur.blurX = 6;
+                blur.blurY = 6;
+                blur.passes = 2;
+                filters.add(blur);
+                break;
+            case 1:
+                DROPSHADOWFILTER dropShadow = new DROPSHADOWFILTER();
+                dropShadow.dropShadowColor = new RGBA(0, 0, 0, 128);
+                dropShadow.blurX = 5;
+                dropShadow.blurY = 5;
+                dropShadow.angle = Math.PI / 4;
+                dropShadow.distance = 4;
+                dropShadow.strength = 1;
+                dropShadow.compositeSource = true;
+                dropShadow.passes = 1;
+                filters.add(dropShadow);
+                break;
+            case 2:
+                BEVELFILTER bevel = new BEVELFILTER();
+                bevel.highlightColor = new RGBA(255, 255, 255, 255);
+                bevel.shadowColor = new RGBA(0, 0, 0, 255);
+                bevel.blurX = 4;
+                bevel.blurY = 4;
+                bevel.angle = Math.PI / 4;
+                bevel.distance = 4;
+                bevel.strength = 1;
+                bevel.innerShadow = true;
+                bevel.compositeSource = true;
+                bevel.passes = 1;
+                filters.add(bevel);
+                break;
+            default:
+                GLOWFILTER glow = new GLOWFILTER();
+                glow.glowColor = new RGBA(255, 0, 0, 255);
+                glow.blurX = 8;
+                glow.blurY = 8;
+                glow.strength = 2;
+                glow.compositeSource = true;
+                glow.passes = 1;
+                filters.add(glow);
+                break;
+        }
+
+        return filters;
+    }
+
+    private String generateScript(int frame, int functionCount) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < functionCount; i++) {
+            String name = "f" + frame + "_" + i;
+            sb.append("var obj_").append(name).append(" = {value: 0, name: \"item").append(i).append("\", items: [1, 2, 3]};\n");
+            sb.append("function ").append(name).append("(a, b) {\n");
+            sb.append("    var s = 0;\n");
+            sb.append("    for (var j = 0; j < a; j++) {\n");
+            sb.append("        if (j % 3 == 0) {\n");
+            sb.append("            s += j * b;\n");
+            sb.append("        } else if (j % 3 == 1 && s > ").append(random.nextInt(50)).append(") {\n");
+            sb.append("            s -= b;\n");
+            sb.append("        } else {\n");
+            sb.append("            s = s ^ j;\n");
+            sb.append("        }\n");
+            sb.append("    }\n");
+            sb.append("    switch (s % 4) {\n");
+            sb.append("        case 0:\n");
+            sb.append("            trace(\"zero\" + s);\n");
+            sb.append("            break;\n");
+            sb.append("        case 1:\n");
+            sb.append("            s = Math.max(s, b);\n");
+            sb.append("            break;\n");
+            sb.append("        default:\n");
+            sb.append("            s++;\n");
+            sb.append("    }\n");
+            sb.append("    while (s > 100) {\n");
+            sb.append("        s = Math.floor(s / 2);\n");
+            sb.append("    }\n");
+            sb.append("    try {\n");
+            sb.append("        obj_").append(name).append(".value = s;\n");
+            sb.append("        obj_").append(name).append(".items.push(s);\n");
+            sb.append("    } catch (e) {\n");
+            sb.append("        trace(e);\n");
+            sb.append("    }\n");
+            sb.append("    return s > b ? s : b;\n");
+            sb.append("}\n");
+            sb.append("trace(").append(name).append("(").append(random.nextInt(100)).append(", ").append(random.nextInt(10)).append("));\n");
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,4 @@
+package com.jpexs.decompiler.flash.benchmark.generated;
+public class AbcLoadingBenchmark_jmhType extends AbcLoadingBenchmark_jmhType_B3 {
+}
+
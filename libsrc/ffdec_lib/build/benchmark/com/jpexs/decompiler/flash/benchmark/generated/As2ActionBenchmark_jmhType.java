@@ -0,0 +1,4 @@
+package com.jpexs.decompiler.flash.benchmark.generated;
+public class As2ActionBenchmark_jmhType extends As2ActionBenchmark_jmhType_B3 {
+}
+
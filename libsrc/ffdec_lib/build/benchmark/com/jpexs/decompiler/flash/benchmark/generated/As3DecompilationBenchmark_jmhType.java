@@ -0,0 +1,4 @@
+package com.jpexs.decompiler.flash.benchmark.generated;
+public class As3DecompilationBenchmark_jmhType extends As3DecompilationBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.jpexs.decompiler.flash.benchmark.generated;
+public class FilteringBenchmark_jmhType extends FilteringBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.jpexs.decompiler.flash.benchmark.generated;
+public class RenderingBenchmark_jmhType extends RenderingBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.jpexs.decompiler.flash.benchmark.generated;
+public class ScriptExportBenchmark_jmhType extends ScriptExportBenchmark_jmhType_B3 {
+}
+
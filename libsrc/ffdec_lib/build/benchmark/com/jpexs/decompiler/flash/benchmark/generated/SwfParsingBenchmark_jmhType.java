@@ -0,0 +1,4 @@
+package com.jpexs.decompiler.flash.benchmark.generated;
+public class SwfParsingBenchmark_jmhType extends SwfParsingBenchmark_jmhType_B3 {
+}
+
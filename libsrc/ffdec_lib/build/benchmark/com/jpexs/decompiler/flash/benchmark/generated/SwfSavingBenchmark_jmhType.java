@@ -0,0 +1,4 @@
+package com.jpexs.decompiler.flash.benchmark.generated;
+public class SwfSavingBenchmark_jmhType extends SwfSavingBenchmark_jmhType_B3 {
+}
+
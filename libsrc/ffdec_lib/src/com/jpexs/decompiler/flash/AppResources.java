@@ -15,6 +15,7 @@
  * License along with this library. */
 package com.jpexs.decompiler.flash;
 
+import java.util.Locale;
 import java.util.ResourceBundle;
 
 /**
@@ -29,6 +30,15 @@ public class AppResources {
         return resourceBundle.getString(key);
     }
 
+    /**
+     * Gets the locale of the translations used in the decompiled texts.
+     *
+     * @return Locale
+     */
+    public static Locale getLocale() {
+        return resourceBundle.getLocale();
+    }
+
     public static String translate(String bundle, String key) {
         ResourceBundle b = ResourceBundle.getBundle(bundle);
         return b.getString(key);
@@ -19,6 +19,7 @@ import com.jpexs.decompiler.flash.abc.ScriptPack;
 import com.jpexs.decompiler.flash.abc.types.ConvertData;
 import com.jpexs.decompiler.flash.abc.types.ScriptInfo;
 import com.jpexs.decompiler.flash.action.ActionList;
+import com.jpexs.decompiler.flash.cache.PersistentScriptCache;
 import com.jpexs.decompiler.flash.cache.ScriptDecompiledListener;
 import com.jpexs.decompiler.flash.configuration.Configuration;
 import com.jpexs.decompiler.flash.exporters.modes.ScriptExportMode;
@@ -29,8 +30,6 @@ import com.jpexs.helpers.ImmediateFuture;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -41,13 +40,7 @@ import java.util.logging.Logger;
  */
 public class DecompilerPool {
 
-    private final ThreadPoolExecutor executor;
-
     public DecompilerPool() {
-        int threadCount = Configuration.getParallelThreadCount();
-        executor = new ThreadPoolExecutor(threadCount, threadCount,
-                0L, TimeUnit.MILLISECONDS,
-                new LinkedBlockingQueue<>());
     }
 
     public Future<HighlightedText> submitTask(ASMSource src, ActionList actions, ScriptDecompiledListener<HighlightedText> listener) {
@@ -58,15 +51,24 @@ public class DecompilerPool {
                     listener.onStart();
                 }
 
-                HighlightedTextWriter writer = new HighlightedTextWriter(Configuration.getCodeFormatting(), true);
-                writer.startFunction("!script");
-                src.getActionScriptSource(writer, actions);
-                writer.endFunction();
+                PersistentScriptCache.Key cacheKey = PersistentScriptCache.isEnabled() ? PersistentScriptCache.getKey(src, true) : null;
+                HighlightedText result = PersistentScriptCache.get(cacheKey);
+                if (result == null) {
+                    HighlightedTextWriter writer = new HighlightedTextWriter(Configuration.getCodeFormatting(), true);
+                    writer.startFunction("!script");
+                    src.getActionScriptSource(writer, actions);
+                    writer.endFunction();
+
+                    result = new HighlightedText(writer);
+                    PersistentScriptCache.put(cacheKey, result);
+                }
 
-                HighlightedText result = new HighlightedText(writer);
                 SWF swf = src.getSwf();
                 if (swf != null) {
                     swf.as2Cache.put(src, result);
+                    if (Configuration.scriptSearchIndex.get()) {
+                        swf.as2SearchIndex.put(src, result.text);
+                    }
                 }
 
                 if (listener != null) {
@@ -93,14 +95,23 @@ public class DecompilerPool {
                 if (scriptIndex > -1) {
                     script = pack.abc.script_info.get(scriptIndex);
                 }
-                boolean parallel = Configuration.parallelSpeedUp.get();
-                HighlightedTextWriter writer = new HighlightedTextWriter(Configuration.getCodeFormatting(), true);
-                pack.toSource(writer, script == null ? null : script.traits.traits, new ConvertData(), ScriptExportMode.AS, parallel);
+                PersistentScriptCache.Key cacheKey = PersistentScriptCache.isEnabled() ? PersistentScriptCache.getKey(pack, true) : null;
+                HighlightedText result = PersistentScriptCache.get(cacheKey);
+                if (result == null) {
+                    boolean parallel = Configuration.parallelSpeedUp.get();
+                    HighlightedTextWriter writer = new HighlightedTextWriter(Configuration.getCodeFormatting(), true);
+                    pack.toSource(writer, script == null ? null : script.traits.traits, new ConvertData(), ScriptExportMode.AS, parallel);
+
+                    result = new HighlightedText(writer);
+                    PersistentScriptCache.put(cacheKey, result);
+                }
 
-                HighlightedText result = new HighlightedText(writer);
                 SWF swf = pack.getSwf();
                 if (swf != null) {
                     swf.as3Cache.put(pack, result);
+                    if (Configuration.scriptSearchIndex.get()) {
+                        swf.as3SearchIndex.put(pack, result.text);
+                    }
                 }
 
                 if (listener != null) {
@@ -117,7 +128,7 @@ public class DecompilerPool {
     private Future<HighlightedText> submit(Callable<HighlightedText> callable) {
         boolean parallel = Configuration.parallelSpeedUp.get();
         if (parallel) {
-            Future<HighlightedText> f = executor.submit(callable);
+            Future<HighlightedText> f = ParallelScheduler.submit(callable);
             return f;
         } else {
             boolean cancelled = false;
@@ -136,13 +147,7 @@ public class DecompilerPool {
     }
 
     public String getStat() {
-        return "core: " + executor.getCorePoolSize()
-                + " size: " + executor.getPoolSize()
-                + " largest: " + executor.getLargestPoolSize()
-                + " max: " + executor.getMaximumPoolSize()
-                + " active: " + executor.getActiveCount()
-                + " count: " + executor.getTaskCount()
-                + " completed: " + executor.getCompletedTaskCount();
+        return ParallelScheduler.getStat();
     }
 
     public HighlightedText decompile(ASMSource src, ActionList actions) throws InterruptedException {
@@ -174,8 +179,7 @@ public class DecompilerPool {
     }
 
     public void shutdown() throws InterruptedException {
-        executor.shutdown();
-        if (!executor.awaitTermination(100, TimeUnit.SECONDS)) {
-        }
+        // the scheduler is shared, just wait for the submitted tasks
+        ParallelScheduler.getPool().awaitQuiescence(100, TimeUnit.SECONDS);
     }
 }
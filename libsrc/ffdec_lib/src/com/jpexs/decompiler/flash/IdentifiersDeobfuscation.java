@@ -399,8 +399,9 @@ public class IdentifiersDeobfuscation {
 
         Cache<String, String> nameCache = as3 ? as3NameCache : as2NameCache;
 
-        if (nameCache.contains(s)) {
-            return nameCache.get(s);
+        String cached = nameCache.get(s);
+        if (cached != null) {
+            return cached;
         }
 
         if (isValidName(as3, s)) {
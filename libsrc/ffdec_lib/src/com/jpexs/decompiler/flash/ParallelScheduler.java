@@ -0,0 +1,324 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash;
+
+import com.jpexs.decompiler.flash.configuration.Configuration;
+import com.jpexs.helpers.CancellableWorker;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Process-wide work stealing scheduler for parallel decompilation, export and
+ * tag parsing.
+ *
+ * Tasks submitted from a worker thread of the scheduler are forked to the local
+ * queue of the worker, so nested parallel work (script packs -> traits ->
+ * method bodies) does not create new threads and waiting tasks help executing
+ * the queued ones.
+ *
+ * @author JPEXS
+ */
+public class ParallelScheduler {
+
+    private static final ThreadLocal<Task<?>> CURRENT_TASK = new ThreadLocal<>();
+
+    private static final Object POOL_LOCK = new Object();
+
+    private static volatile ForkJoinPool pool;
+
+    private ParallelScheduler() {
+    }
+
+    /**
+     * Gets the shared pool. The pool is recreated when the configured thread
+     * count changes.
+     *
+     * @return Pool
+     */
+    public static ForkJoinPool getPool() {
+        int threadCount = Configuration.getParallelThreadCount();
+        ForkJoinPool p = pool;
+        if (p != null && p.getParallelism() == threadCount) {
+            return p;
+        }
+
+        synchronized (POOL_LOCK) {
+            p = pool;
+            if (p != null && p.getParallelism() == threadCount) {
+                return p;
+            }
+
+            if (p != null) {
+                p.shutdown();
+            }
+
+            p = new ForkJoinPool(threadCount, new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+                @Override
+                public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("ffdec-worker-" + thread.getPoolIndex());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            }, null, false);
+            pool = p;
+            return p;
+        }
+    }
+
+    /**
+     * Schedules the task. When called from a worker thread, the task is forked
+     * to the queue of the current worker.
+     *
+     * @param <T> Result type
+     * @param callable Task
+     * @return Future of the task
+     */
+    public static <T> Future<T> submit(Callable<T> callable) {
+        Task<T> task = new Task<>(callable);
+        ForkJoinPool p = getPool();
+        if (isWorkerThread(p)) {
+            task.fork();
+        } else {
+            p.execute(task);
+        }
+
+        return task;
+    }
+
+    /**
+     * Calls the callable as a scheduler task with a cooperative deadline. When
+     * called from a worker thread, the callable runs directly on it, otherwise
+     * the caller waits for the task. No additional thread is created in either
+     * case.
+     *
+     * @param <T> Result type
+     * @param callable Callable
+     * @param timeout Timeout
+     * @param timeUnit Time unit
+     * @return Result of the callable
+     * @throws InterruptedException
+     * @throws ExecutionException
+     * @throws TimeoutException
+     */
+    public static <T> T call(final Callable<T> callable, final long timeout, final TimeUnit timeUnit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (isWorkerThread(getPool())) {
+            return CancellableWorker.callWithDeadline(callable, timeout, timeUnit);
+        }
+
+        Future<T> future = submit(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return CancellableWorker.callWithDeadline(callable, timeout, timeUnit);
+            }
+        });
+
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            throw ex;
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            while (cause instanceof TaskException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+
+            if (cause instanceof TimeoutException) {
+                throw (TimeoutException) cause;
+            }
+
+            if (cause instanceof ExecutionException) {
+                throw (ExecutionException) cause;
+            }
+
+            throw new ExecutionException(cause);
+        }
+    }
+
+    private static boolean isWorkerThread(ForkJoinPool p) {
+        Thread thread = Thread.currentThread();
+        return thread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) thread).getPool() == p;
+    }
+
+    /**
+     * Schedules all the tasks.
+     *
+     * @param <T> Result type
+     * @param callables Tasks
+     * @return Futures of the tasks in the same order
+     */
+    public static <T> List<Future<T>> submitAll(List<? extends Callable<T>> callables) {
+        List<Future<T>> futures = new ArrayList<>(callables.size());
+        for (Callable<T> callable : callables) {
+            futures.add(submit(callable));
+        }
+
+        return futures;
+    }
+
+    /**
+     * Waits until all the futures are done or the timeout elapses. Failed
+     * futures are not reported, the caller should check them with get. All
+     * unfinished futures are cancelled on timeout or interruption.
+     *
+     * @param futures Futures
+     * @param timeout Timeout
+     * @param timeUnit Time unit
+     * @return True when all futures are done in time
+     * @throws InterruptedException
+     */
+    public static boolean awaitAll(List<? extends Future<?>> futures, long timeout, TimeUnit timeUnit) throws InterruptedException {
+        long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+        try {
+            for (Future<?> future : futures) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 && !future.isDone()) {
+                    cancelAll(futures);
+                    return false;
+                }
+
+                try {
+                    future.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+                } catch (ExecutionException ex) {
+                    // reported by the caller
+                } catch (TimeoutException ex) {
+                    cancelAll(futures);
+                    return false;
+                }
+            }
+        } catch (InterruptedException ex) {
+            cancelAll(futures);
+            throw ex;
+        }
+
+        return true;
+    }
+
+    public static void cancelAll(List<? extends Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    public static String getStat() {
+        ForkJoinPool p = getPool();
+        return "parallelism: " + p.getParallelism()
+                + " size: " + p.getPoolSize()
+                + " active: " + p.getActiveThreadCount()
+                + " running: " + p.getRunningThreadCount()
+                + " queued: " + p.getQueuedTaskCount()
+                + " steals: " + p.getStealCount();
+    }
+
+    /**
+     * Fork join task which interrupts its runner thread on cancel, so the
+     * callables can be stopped the same way as in a thread pool executor. The
+     * cooperative deadline of the submitting thread applies to the task too.
+     *
+     * @param <T> Result type
+     */
+    private static class Task<T> extends ForkJoinTask<T> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Callable<T> callable;
+
+        private final CancellableWorker.Deadline deadline;
+
+        private T result;
+
+        private Thread runner;
+
+        public Task(Callable<T> callable) {
+            this.callable = callable;
+            this.deadline = CancellableWorker.getDeadline();
+        }
+
+        @Override
+        public T getRawResult() {
+            return result;
+        }
+
+        @Override
+        protected void setRawResult(T value) {
+            result = value;
+        }
+
+        @Override
+        protected boolean exec() {
+            Thread thread = Thread.currentThread();
+            Task<?> outerTask = CURRENT_TASK.get();
+            CancellableWorker.Deadline outerDeadline = CancellableWorker.getDeadline();
+            synchronized (this) {
+                runner = thread;
+            }
+
+            CURRENT_TASK.set(this);
+            CancellableWorker.setDeadline(deadline);
+            try {
+                result = callable.call();
+                return true;
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new TaskException(ex);
+            } finally {
+                CURRENT_TASK.set(outerTask);
+                CancellableWorker.setDeadline(outerDeadline);
+                synchronized (this) {
+                    runner = null;
+                }
+
+                // do not leak the interrupt flag of a cancelled task to the next task of the worker
+                if (outerTask == null && thread instanceof ForkJoinWorkerThread) {
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (mayInterruptIfRunning) {
+                synchronized (this) {
+                    if (runner != null) {
+                        runner.interrupt();
+                    }
+                }
+            }
+
+            return cancelled;
+        }
+    }
+
+    private static class TaskException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public TaskException(Throwable cause) {
+            super(cause);
+        }
+    }
+}
@@ -71,6 +71,7 @@ import com.jpexs.decompiler.flash.action.swf5.ActionSetMember;
 import com.jpexs.decompiler.flash.action.swf7.ActionDefineFunction2;
 import com.jpexs.decompiler.flash.cache.AS2Cache;
 import com.jpexs.decompiler.flash.cache.AS3Cache;
+import com.jpexs.decompiler.flash.cache.PersistentScriptCache;
 import com.jpexs.decompiler.flash.cache.ScriptDecompiledListener;
 import com.jpexs.decompiler.flash.configuration.Configuration;
 import com.jpexs.decompiler.flash.dumpview.DumpInfo;
@@ -88,6 +89,7 @@ import com.jpexs.decompiler.flash.helpers.NulWriter;
 import com.jpexs.decompiler.flash.helpers.SWFDecompilerPlugin;
 import com.jpexs.decompiler.flash.helpers.collections.MyEntry;
 import com.jpexs.decompiler.flash.helpers.hilight.Highlighting;
+import com.jpexs.decompiler.flash.search.ScriptSearchIndex;
 import com.jpexs.decompiler.flash.tags.ABCContainerTag;
 import com.jpexs.decompiler.flash.tags.DebugIDTag;
 import com.jpexs.decompiler.flash.tags.DefineBinaryDataTag;
@@ -132,6 +134,7 @@ import com.jpexs.decompiler.flash.tags.gfx.DefineCompactedFont;
 import com.jpexs.decompiler.flash.timeline.AS2Package;
 import com.jpexs.decompiler.flash.timeline.Frame;
 import com.jpexs.decompiler.flash.timeline.FrameScript;
+import com.jpexs.decompiler.flash.timeline.ShapeImageKey;
 import com.jpexs.decompiler.flash.timeline.TagScript;
 import com.jpexs.decompiler.flash.timeline.Timeline;
 import com.jpexs.decompiler.flash.timeline.Timelined;
@@ -157,9 +160,11 @@ import com.jpexs.decompiler.graph.model.IfItem;
 import com.jpexs.decompiler.graph.model.LocalData;
 import com.jpexs.helpers.ByteArrayRange;
 import com.jpexs.helpers.Cache;
+import com.jpexs.helpers.CacheWeigher;
 import com.jpexs.helpers.Helper;
 import com.jpexs.helpers.ImmediateFuture;
 import com.jpexs.helpers.NulStream;
+import com.jpexs.helpers.PreallocatedByteArrayOutputStream;
 import com.jpexs.helpers.ProgressListener;
 import com.jpexs.helpers.SerializableImage;
 import com.jpexs.helpers.utf8.Utf8Helper;
@@ -169,6 +174,7 @@ import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -176,6 +182,10 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -275,6 +285,13 @@ public final class SWF implements SWFContainerItem, Timelined {
     @Internal
     public byte[] originalUncompressedData;
 
+    /**
+     * Memory mapped uncompressed data, used instead of the arrays for large
+     * files
+     */
+    @Internal
+    private ByteBuffer mappedUncompressedData;
+
     /**
      * ScaleForm GFx
      */
@@ -289,6 +306,13 @@ public final class SWF implements SWFContainerItem, Timelined {
     @Internal
     private String fileTitle;
 
+    /**
+     * Ids of the tags which are parsed when the SWF is read, null = all tags.
+     * The bodies of the other tags stay unparsed until resolveTags is called.
+     */
+    @Internal
+    private Set<Integer> tagIdFilter;
+
     @Internal
     private volatile Map<Integer, CharacterTag> characters;
 
@@ -311,6 +335,12 @@ public final class SWF implements SWFContainerItem, Timelined {
 
     private static final Logger logger = Logger.getLogger(SWF.class.getName());
 
+    private static final int MIN_PREALLOCATION = 64 * 1024;
+
+    private static final int MAX_PREALLOCATION = 64 * 1024 * 1024;
+
+    private static final int MAX_PREALLOCATION_COMPRESSION_RATIO = 8;
+
     @Internal
     private boolean isModified;
 
@@ -318,7 +348,7 @@ public final class SWF implements SWFContainerItem, Timelined {
     private Timeline timeline;
 
     @Internal
-    public DumpInfoSwfNode dumpInfo;
+    private DumpInfoSwfNode dumpInfo;
 
     @Internal
     public DefineBinaryDataTag binaryData;
@@ -329,8 +359,20 @@ public final class SWF implements SWFContainerItem, Timelined {
     @Internal
     private final IdentifiersDeobfuscation deobfuscation = new IdentifiersDeobfuscation();
 
+    /**
+     * Frames are weighted by the size of their ARGB pixel data
+     */
+    private static final CacheWeigher<String, SerializableImage> FRAME_CACHE_WEIGHER = (String key, SerializableImage img) -> 4L * img.getWidth() * img.getHeight();
+
+    private static final CacheWeigher<ShapeImageKey, SerializableImage> SHAPE_IMAGE_CACHE_WEIGHER = (ShapeImageKey key, SerializableImage img) -> 4L * img.getWidth() * img.getHeight();
+
+    private static final CacheWeigher<SoundTag, byte[]> SOUND_CACHE_WEIGHER = (SoundTag key, byte[] data) -> data.length;
+
+    @Internal
+    private final Cache<String, SerializableImage> frameCache = Cache.getInstance(false, false, "frame", FRAME_CACHE_WEIGHER);
+
     @Internal
-    private final Cache<String, SerializableImage> frameCache = Cache.getInstance(false, false, "frame");
+    private final Cache<ShapeImageKey, SerializableImage> shapeImageCache = Cache.getInstance(false, true, "shapeImage", SHAPE_IMAGE_CACHE_WEIGHER);
 
     @Internal
     private final Cache<CharacterTag, RECT> rectCache = Cache.getInstance(true, true, "rect");
@@ -339,7 +381,7 @@ public final class SWF implements SWFContainerItem, Timelined {
     private final Cache<SHAPE, ShapeExportData> shapeExportDataCache = Cache.getInstance(true, true, "shapeExportData");
 
     @Internal
-    private final Cache<SoundTag, byte[]> soundCache = Cache.getInstance(false, false, "sound");
+    private final Cache<SoundTag, byte[]> soundCache = Cache.getInstance(false, false, "sound", SOUND_CACHE_WEIGHER);
 
     @Internal
     public final AS2Cache as2Cache = new AS2Cache();
@@ -347,6 +389,12 @@ public final class SWF implements SWFContainerItem, Timelined {
     @Internal
     public final AS3Cache as3Cache = new AS3Cache();
 
+    @Internal
+    public final ScriptSearchIndex<ASMSource> as2SearchIndex = new ScriptSearchIndex<>();
+
+    @Internal
+    public final ScriptSearchIndex<ScriptPack> as3SearchIndex = new ScriptSearchIndex<>();
+
     private static final DecompilerPool decompilerPool = new DecompilerPool();
 
     public static final String AS2_PKG_PREFIX = "__Packages.";
@@ -402,16 +450,37 @@ public final class SWF implements SWFContainerItem, Timelined {
 
         as2Cache.clear();
         as3Cache.clear();
+        as2SearchIndex.clear();
+        as3SearchIndex.clear();
         frameCache.clear();
+        shapeImageCache.clear();
         soundCache.clear();
 
         timeline = null;
-        clearDumpInfo(dumpInfo);
-        dumpInfo = null;
+        if (dumpInfo != null) {
+            clearDumpInfo(dumpInfo);
+            dumpInfo = null;
+        }
+
         jtt = null;
         binaryData = null;
     }
 
+    /**
+     * Gets the root node of the dump view. The file is parsed without dump
+     * information, the nodes are read from the original data when the dump
+     * view expands them.
+     *
+     * @return Dump info of the SWF
+     */
+    public synchronized DumpInfoSwfNode getDumpInfo() {
+        if (dumpInfo == null) {
+            dumpInfo = new DumpInfoSwfNode(this, "rootswf", "", null, 0, fileSize);
+        }
+
+        return dumpInfo;
+    }
+
     private void clearDumpInfo(DumpInfo di) {
         for (DumpInfo childInfo : di.getChildInfos()) {
             clearDumpInfo(childInfo);
@@ -868,13 +937,11 @@ public final class SWF implements SWFContainerItem, Timelined {
      * @throws IOException
      */
     public void saveTo(OutputStream os) throws IOException {
-        byte[] uncompressedData = saveToByteArray();
-        compress(new ByteArrayInputStream(uncompressedData), os, compression, lzmaProperties);
+        saveTo(os, gfx);
     }
 
     public void saveTo(OutputStream os, boolean gfx) throws IOException {
-        byte[] uncompressedData = saveToByteArray(gfx);
-        compress(new ByteArrayInputStream(uncompressedData), os, compression, lzmaProperties);
+        compress(getUncompressedStream(gfx), os, compression, lzmaProperties);
     }
 
     public byte[] getHeaderBytes() {
@@ -910,39 +977,70 @@ public final class SWF implements SWFContainerItem, Timelined {
     }
 
     private byte[] saveToByteArray() throws IOException {
-        return saveToByteArray(gfx);
+        return Helper.readStream(getUncompressedStream(gfx));
     }
 
-    private byte[] saveToByteArray(boolean gfx) throws IOException {
+    /**
+     * Gets the uncompressed SWF data as a stream. Only the modified tags are
+     * serialized, the unmodified tags are read directly from the original
+     * data, so the whole file is never held in memory.
+     *
+     * @param gfx Write GFX header
+     * @return Uncompressed SWF stream
+     * @throws IOException
+     */
+    private InputStream getUncompressedStream(boolean gfx) throws IOException {
         fixCharactersOrder(false);
 
-        byte[] data;
+        List<InputStream> parts = new ArrayList<>();
+        long fileSize = 8;
+        byte[] headerRest;
         try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
                 SWFOutputStream sos = new SWFOutputStream(baos, version)) {
-            sos.write(getHeaderBytes(SWFCompression.NONE, gfx));
-            sos.writeUI8(version);
-            sos.writeUI32(0); // placeholder for file length
             sos.writeRECT(displayRect);
             sos.writeFIXED8(frameRate);
             sos.writeUI16(frameCount);
+            headerRest = baos.toByteArray();
+        }
 
-            sos.writeTags(getLocalTags());
-            if (hasEndTag) {
-                sos.writeUI16(0);
+        fileSize += headerRest.length;
+        parts.add(new ByteArrayInputStream(headerRest));
+
+        boolean debugCopy = Configuration._debugCopy.get();
+        for (Tag tag : getLocalTags()) {
+            ByteArrayRange range = tag.getOriginalRange();
+            if (!debugCopy && !tag.isModified() && range != null) {
+                fileSize += range.getLength();
+                parts.add(range.getInputStream());
+            } else {
+                byte[] tagData;
+                try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                        SWFOutputStream sos = new SWFOutputStream(baos, version)) {
+                    tag.writeTag(sos);
+                    tagData = baos.toByteArray();
+                }
+
+                fileSize += tagData.length;
+                parts.add(new ByteArrayInputStream(tagData));
             }
+        }
 
-            data = baos.toByteArray();
+        if (hasEndTag) {
+            fileSize += 2;
+            parts.add(new ByteArrayInputStream(new byte[2]));
         }
 
-        // update file size
+        byte[] header;
         try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
                 SWFOutputStream sos = new SWFOutputStream(baos, version)) {
-            sos.writeUI32(data.length);
-            byte[] lengthData = baos.toByteArray();
-            System.arraycopy(lengthData, 0, data, 4, lengthData.length);
+            sos.write(getHeaderBytes(SWFCompression.NONE, gfx));
+            sos.writeUI8(version);
+            sos.writeUI32(fileSize);
+            header = baos.toByteArray();
         }
 
-        return data;
+        parts.add(0, new ByteArrayInputStream(header));
+        return new SequenceInputStream(Collections.enumeration(parts));
     }
 
     /**
@@ -1009,20 +1107,10 @@ public final class SWF implements SWFContainerItem, Timelined {
             }
             enc.SetDictionarySize(dictionarySize);
             enc.SetLcLpPb(lc, lp, pb);
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
             enc.SetEndMarkerMode(true);
-            enc.Code(is, baos, -1, -1, null);
-            byte[] data = baos.toByteArray();
-            if (compression == SWFCompression.LZMA) {
-                byte[] udata = new byte[4];
-                udata[0] = (byte) (data.length & 0xFF);
-                udata[1] = (byte) ((data.length >> 8) & 0xFF);
-                udata[2] = (byte) ((data.length >> 16) & 0xFF);
-                udata[3] = (byte) ((data.length >> 24) & 0xFF);
-                os.write(udata);
-            }
-            enc.WriteCoderProperties(os);
             if (compression == SWFCompression.LZMA_ABC) {
+                // no compressed size in the header, the encoder can write directly to the output
+                enc.WriteCoderProperties(os);
                 byte[] udata = new byte[8];
                 udata[0] = (byte) (uncompressedLength & 0xFF);
                 udata[1] = (byte) ((uncompressedLength >> 8) & 0xFF);
@@ -1033,8 +1121,20 @@ public final class SWF implements SWFContainerItem, Timelined {
                 udata[6] = (byte) ((uncompressedLength >> 48) & 0xFF);
                 udata[7] = (byte) ((uncompressedLength >> 56) & 0xFF);
                 os.write(udata);
+                enc.Code(is, os, -1, -1, null);
+            } else {
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                enc.Code(is, baos, -1, -1, null);
+                byte[] data = baos.toByteArray();
+                byte[] udata = new byte[4];
+                udata[0] = (byte) (data.length & 0xFF);
+                udata[1] = (byte) ((data.length >> 8) & 0xFF);
+                udata[2] = (byte) ((data.length >> 16) & 0xFF);
+                udata[3] = (byte) ((data.length >> 24) & 0xFF);
+                os.write(udata);
+                enc.WriteCoderProperties(os);
+                os.write(data);
             }
-            os.write(data);
         } else if (compression == SWFCompression.ZLIB) {
             DeflaterOutputStream dos = new DeflaterOutputStream(os);
             try {
@@ -1187,23 +1287,52 @@ public final class SWF implements SWFContainerItem, Timelined {
      * @throws java.lang.InterruptedException
      */
     public SWF(InputStream is, String file, String fileTitle, ProgressListener listener, boolean parallelRead, boolean checkOnly, boolean lazy, UrlResolver resolver) throws IOException, InterruptedException {
+        this(is, file, fileTitle, listener, parallelRead, checkOnly, lazy, resolver, null);
+    }
+
+    /**
+     * Construct SWF from stream
+     *
+     * @param is Stream to read SWF from
+     * @param file Path to the file
+     * @param fileTitle Title of the SWF
+     * @param listener
+     * @param parallelRead Use parallel threads?
+     * @param checkOnly Check only file validity
+     * @param lazy
+     * @param resolver Resolver for imported tags
+     * @param tagIdFilter Ids of the tags to parse, the other tags stay
+     * unparsed TagStubs. Null = parse all tags
+     * @throws IOException
+     * @throws java.lang.InterruptedException
+     */
+    public SWF(InputStream is, String file, String fileTitle, ProgressListener listener, boolean parallelRead, boolean checkOnly, boolean lazy, UrlResolver resolver, Set<Integer> tagIdFilter) throws IOException, InterruptedException {
         this.file = file;
         this.fileTitle = fileTitle;
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        SWFHeader header = decompress(is, baos, true);
+        this.tagIdFilter = tagIdFilter;
+        byte[] hdr = readHeaderBytes(is);
+        SWFHeader header = decodeHeader(hdr);
+
+        int mappedLoadingThreshold = Configuration.mappedLoadingThreshold.get();
+        if (mappedLoadingThreshold >= 0 && header.fileSize >= mappedLoadingThreshold * 1024L * 1024L && header.fileSize <= Integer.MAX_VALUE) {
+            mappedUncompressedData = mapUncompressedData(is, hdr, header, file);
+        } else {
+            // decompress directly to an array of the size from the header to avoid growing and copying the buffer,
+            // the size is not trusted, so the preallocation is limited by the length of the input
+            PreallocatedByteArrayOutputStream baos = new PreallocatedByteArrayOutputStream(header.fileSize, getMaxPreallocation(is, hdr));
+            decompress(is, hdr, header, baos, true);
+            uncompressedData = baos.getData();
+            originalUncompressedData = uncompressedData;
+        }
+
         gfx = header.gfx;
         compression = header.compression;
         lzmaProperties = header.lzmaProperties;
-        uncompressedData = baos.toByteArray();
-        originalUncompressedData = uncompressedData;
 
-        SWFInputStream sis = new SWFInputStream(this, uncompressedData);
-        dumpInfo = new DumpInfoSwfNode(this, "rootswf", "", null, 0, 0);
-        sis.dumpInfo = dumpInfo;
+        SWFInputStream sis = new SWFInputStream(this, getUncompressedRange());
         sis.skipBytesEx(3, "signature"); // skip siganture
         version = sis.readUI8("version");
         fileSize = sis.readUI32("fileSize");
-        dumpInfo.lengthBytes = fileSize;
         if (listener != null) {
             sis.addPercentListener(listener);
         }
@@ -1511,8 +1640,128 @@ public final class SWF implements SWFContainerItem, Timelined {
         return header;
     }
 
-    private static SWFHeader decompress(InputStream is, OutputStream os, boolean allowUncompressed) throws IOException {
+    /**
+     * Gets the maximum size of the buffer for the uncompressed data which can be
+     * allocated before reading. It is derived from the number of the available
+     * input bytes, the buffer grows when the data really is larger.
+     *
+     * @param is Input stream positioned after the header
+     * @param hdr Header bytes
+     * @return Maximum preallocation size
+     */
+    private static int getMaxPreallocation(InputStream is, byte[] hdr) {
+        long available;
+        try {
+            available = is.available();
+        } catch (IOException ex) {
+            available = 0;
+        }
+
+        long size = hdr[0] == 'F' ? available + hdr.length : available * MAX_PREALLOCATION_COMPRESSION_RATIO;
+        return (int) Math.max(MIN_PREALLOCATION, Math.min(size, MAX_PREALLOCATION));
+    }
+
+    /**
+     * Maps the uncompressed data to the memory instead of reading them to the
+     * heap. Uncompressed files are mapped directly when the path is known, the
+     * other files are decompressed to a temporary file which is mapped.
+     *
+     * @param is Input stream positioned after the header
+     * @param hdr Header bytes
+     * @param header Decoded header
+     * @param file Path to the file or null
+     * @return Read only buffer with the uncompressed data
+     * @throws IOException
+     */
+    private static ByteBuffer mapUncompressedData(InputStream is, byte[] hdr, SWFHeader header, String file) throws IOException {
+        if ((hdr[0] == 'F' || hdr[0] == 'G') && file != null) { // FWS, GFX
+            ByteBuffer mapped = mapUncompressedFile(new File(file), hdr, header.fileSize);
+            if (mapped != null) {
+                return mapped;
+            }
+        }
+
+        File tempFile = File.createTempFile("ffdec_swf_", ".tmp");
+        try {
+            try (OutputStream os = new BufferedOutputStream(new FileOutputStream(tempFile))) {
+                decompress(is, hdr, header, os, true);
+            }
+
+            try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        } finally {
+            // the mapping stays valid after deleting the file, Windows does not allow it, delete it at least on exit
+            if (!tempFile.delete()) {
+                tempFile.deleteOnExit();
+            }
+        }
+    }
+
+    private static ByteBuffer mapUncompressedFile(File file, byte[] hdr, long fileSize) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // the path can belong to a container of the SWF, the file must start with the same header
+            ByteBuffer fileHdr = ByteBuffer.allocate(hdr.length);
+            channel.read(fileHdr, 0);
+
+            if (!Arrays.equals(fileHdr.array(), hdr)) {
+                return null;
+            }
+
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), fileSize));
+        }
+    }
+
+    /**
+     * Gets the current uncompressed data. It is the memory mapped data for
+     * large files until the SWF is saved.
+     *
+     * @return Range of the whole data
+     */
+    public ByteArrayRange getUncompressedRange() {
+        if (mappedUncompressedData == null || uncompressedData != null) {
+            return new ByteArrayRange(uncompressedData, 0, uncompressedData == null ? 0 : uncompressedData.length);
+        }
 
+        return new ByteArrayRange(mappedUncompressedData, 0, mappedUncompressedData.limit());
+    }
+
+    /**
+     * Gets the uncompressed data of the SWF as it was read
+     *
+     * @return Range of the whole data or null when the SWF was not read
+     */
+    public ByteArrayRange getOriginalUncompressedRange() {
+        if (mappedUncompressedData != null) {
+            return new ByteArrayRange(mappedUncompressedData, 0, mappedUncompressedData.limit());
+        }
+
+        if (originalUncompressedData == null) {
+            return null;
+        }
+
+        return new ByteArrayRange(originalUncompressedData);
+    }
+
+    /**
+     * Gets the uncompressed data of the SWF as it was read. The memory mapped
+     * data of large files are copied to the heap on the first call.
+     *
+     * @return Data
+     */
+    public synchronized byte[] getOriginalUncompressedData() {
+        if (originalUncompressedData == null && mappedUncompressedData != null) {
+            originalUncompressedData = getOriginalUncompressedRange().getRangeData();
+        }
+
+        return originalUncompressedData;
+    }
+
+    private static byte[] readHeaderBytes(InputStream is) throws IOException {
         byte[] hdr = new byte[8];
 
         // SWFheader: signature, version and fileSize
@@ -1520,7 +1769,16 @@ public final class SWF implements SWFContainerItem, Timelined {
             throw new SwfOpenException("SWF header is too short");
         }
 
+        return hdr;
+    }
+
+    private static SWFHeader decompress(InputStream is, OutputStream os, boolean allowUncompressed) throws IOException {
+        byte[] hdr = readHeaderBytes(is);
         SWFHeader header = decodeHeader(hdr);
+        return decompress(is, hdr, header, os, allowUncompressed);
+    }
+
+    private static SWFHeader decompress(InputStream is, byte[] hdr, SWFHeader header, OutputStream os, boolean allowUncompressed) throws IOException {
         long fileSize = header.fileSize;
 
         try (SWFOutputStream sos = new SWFOutputStream(os, header.version)) {
@@ -2514,32 +2772,38 @@ public final class SWF implements SWFContainerItem, Timelined {
     }
 
     public SerializableImage getFromCache(String key) {
-        if (frameCache.contains(key)) {
-            return frameCache.get(key);
-        }
-        return null;
+        return frameCache.get(key);
+    }
+
+    public SerializableImage getFromCache(ShapeImageKey key) {
+        return shapeImageCache.get(key);
     }
 
     public byte[] getFromCache(SoundTag soundTag) {
-        if (soundCache.contains(soundTag)) {
-            return soundCache.get(soundTag);
-        }
-        return null;
+        return soundCache.get(soundTag);
     }
 
     public void putToCache(String key, SerializableImage img) {
         if (Configuration.useFrameCache.get()) {
+            frameCache.setMaxWeight(Configuration.frameCacheSizeLimit.get() * 1024L * 1024L);
             frameCache.put(key, img);
         }
     }
 
+    public void putToCache(ShapeImageKey key, SerializableImage img) {
+        shapeImageCache.setMaxWeight(Configuration.shapeImageCacheSizeLimit.get() * 1024L * 1024L);
+        shapeImageCache.put(key, img);
+    }
+
     public void putToCache(SoundTag soundTag, byte[] data) {
+        soundCache.setMaxWeight(Configuration.soundCacheSizeLimit.get() * 1024L * 1024L);
         soundCache.put(soundTag, data);
     }
 
     public void clearImageCache() {
         jtt = null;
         frameCache.clear();
+        shapeImageCache.clear();
         rectCache.clear();
         for (Tag tag : getTags()) {
             if (tag instanceof ImageTag) {
@@ -2557,7 +2821,10 @@ public final class SWF implements SWFContainerItem, Timelined {
     public void clearScriptCache() {
         as2Cache.clear();
         as3Cache.clear();
+        as2SearchIndex.clear();
+        as3SearchIndex.clear();
         IdentifiersDeobfuscation.clearCache();
+        PersistentScriptCache.invalidate(this);
     }
 
     public void clearReadOnlyListCache() {
@@ -2579,6 +2846,149 @@ public final class SWF implements SWFContainerItem, Timelined {
         abcList = null;
     }
 
+    public Set<Integer> getTagIdFilter() {
+        return tagIdFilter;
+    }
+
+    /**
+     * Parses the bodies of the tags which were skipped by the tag filter or
+     * released by releaseTags. Tags inside sprites are resolved, too.
+     *
+     * @param tagIds Ids of the tags to resolve, null = all tags
+     * @return Number of resolved tags
+     * @throws InterruptedException
+     */
+    public int resolveTags(Collection<Integer> tagIds) throws InterruptedException {
+        if (tagIds == null) {
+            tagIdFilter = null;
+        } else if (tagIdFilter != null) {
+            tagIdFilter = new HashSet<>(tagIdFilter);
+            tagIdFilter.addAll(tagIds);
+        }
+
+        int count = resolveTags(this, getTags(), 0, tagIds);
+        if (count > 0) {
+            tagsSwapped();
+            assignExportNamesToSymbols();
+            assignClassesToSymbols();
+        }
+
+        return count;
+    }
+
+    private int resolveTags(Timelined timelined, ReadOnlyTagList list, int level, Collection<Integer> tagIds) throws InterruptedException {
+        int count = 0;
+        for (int i = 0; i < list.size(); i++) {
+            Tag tag = list.get(i);
+            if (tag instanceof TagStub && ((TagStub) tag).isDeferred() && (tagIds == null || tagIds.contains(tag.getId()))) {
+                tag = SWFInputStream.resolveTag((TagStub) tag, level, false, true, true);
+                swapTag(timelined, i, tag);
+                count++;
+            }
+
+            if (tag instanceof DefineSpriteTag) {
+                count += resolveTags((DefineSpriteTag) tag, ((DefineSpriteTag) tag).getTags(), level + 1, tagIds);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Replaces unmodified tags with unparsed stubs to free the memory used by
+     * the parsed tag bodies. ABC tags are never released. The tags can be
+     * parsed again with resolveTags.
+     *
+     * @param tagIds Ids of the tags to release
+     * @return Number of released tags
+     */
+    public int releaseTags(Collection<Integer> tagIds) {
+        return releaseTags(tagIds, true);
+    }
+
+    /**
+     * Replaces unmodified tags with unparsed stubs, except the given tag
+     * types. Used by the command line export to free the tags which are not
+     * needed by the following export steps.
+     *
+     * @param keptTagIds Ids of the tags to keep
+     * @return Number of released tags
+     */
+    public int releaseTagsExcept(Collection<Integer> keptTagIds) {
+        return releaseTags(keptTagIds, false);
+    }
+
+    private int releaseTags(Collection<Integer> tagIds, boolean release) {
+        int count = releaseTags(this, getTags(), tagIds, release);
+        if (count > 0) {
+            tagsSwapped();
+            as2Cache.clear();
+        }
+
+        return count;
+    }
+
+    private int releaseTags(Timelined timelined, ReadOnlyTagList list, Collection<Integer> tagIds, boolean release) {
+        int count = 0;
+        for (int i = 0; i < list.size(); i++) {
+            Tag tag = list.get(i);
+            if (tagIds.contains(tag.getId()) == release && canRelease(tag)) {
+                ByteArrayRange range = tag.getOriginalRange();
+                try {
+                    SWFInputStream sis = new SWFInputStream(this, range.getBacking(), 0, range.getPos() + range.getLength());
+                    sis.seek(tag.getDataPos());
+                    TagStub stub = new TagStub(this, tag.getId(), "Unresolved", range, sis);
+                    stub.forceWriteAsLong = tag.forceWriteAsLong;
+                    stub.setDeferred(true);
+                    stub.setTimelined(timelined);
+                    swapTag(timelined, i, stub);
+                    count++;
+                } catch (IOException ex) {
+                    logger.log(Level.SEVERE, null, ex);
+                }
+            } else if (tag instanceof DefineSpriteTag) {
+                count += releaseTags((DefineSpriteTag) tag, ((DefineSpriteTag) tag).getTags(), tagIds, release);
+            }
+        }
+
+        return count;
+    }
+
+    private static boolean canRelease(Tag tag) {
+        if (tag instanceof TagStub || tag instanceof ABCContainerTag || tag.isModified() || tag.getOriginalRange() == null) {
+            return false;
+        }
+
+        // frame structure tags are always parsed, same as with the tag filter
+        if (tag instanceof EndTag || tag instanceof ShowFrameTag || tag instanceof FileAttributesTag) {
+            return false;
+        }
+
+        if (tag instanceof DefineSpriteTag) {
+            for (Tag subTag : ((DefineSpriteTag) tag).getTags()) {
+                if (subTag.isModified()) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private void swapTag(Timelined timelined, int index, Tag tag) {
+        if (timelined instanceof DefineSpriteTag) {
+            ((DefineSpriteTag) timelined).swapTag(index, tag);
+        } else {
+            tags.set(index, tag);
+        }
+    }
+
+    private void tagsSwapped() {
+        resetTimelines(this);
+        updateCharacters();
+        clearImageCache();
+    }
+
     public void clearAllCache() {
         characters = null;
         characterIdTags = null;
@@ -2595,6 +3005,7 @@ public final class SWF implements SWFContainerItem, Timelined {
             SWF swf = src.getSwf();
             if (swf != null) {
                 swf.as2Cache.remove(src);
+                swf.as2SearchIndex.remove(src);
             }
         }
     }
@@ -2604,6 +3015,8 @@ public final class SWF implements SWFContainerItem, Timelined {
             SWF swf = pack.getSwf();
             if (swf != null) {
                 swf.as3Cache.remove(pack);
+                swf.as3SearchIndex.remove(pack);
+                PersistentScriptCache.invalidate(swf);
             }
         }
     }
@@ -2678,8 +3091,8 @@ public final class SWF implements SWFContainerItem, Timelined {
         synchronized (src) {
             SWF swf = src.getSwf();
             int deobfuscationMode = Configuration.autoDeobfuscate.get() ? 1 : 0;
-            if (swf != null && swf.as2Cache.isPCodeCached(src)) {
-                ActionList result = swf.as2Cache.getPCode(src);
+            ActionList result = swf == null ? null : swf.as2Cache.getPCode(src);
+            if (result != null) {
                 if (result.deobfuscationMode == deobfuscationMode) {
                     return result;
                 }
@@ -2688,14 +3101,14 @@ public final class SWF implements SWFContainerItem, Timelined {
             try {
                 ByteArrayRange actionBytes = src.getActionBytes();
                 int prevLength = actionBytes.getPos();
-                SWFInputStream rri = new SWFInputStream(swf, actionBytes.getArray());
+                SWFInputStream rri = new SWFInputStream(swf, actionBytes.getBacking());
                 if (prevLength != 0) {
                     rri.seek(prevLength);
                 }
 
                 int version = swf == null ? SWF.DEFAULT_VERSION : swf.version;
                 ActionList list = ActionListReader.readActionListTimeout(listeners, rri, version, prevLength, prevLength + actionBytes.getLength(), src.toString()/*FIXME?*/, deobfuscationMode);
-                list.fileData = actionBytes.getArray();
+                list.fileData = actionBytes.getBacking();
                 list.deobfuscationMode = deobfuscationMode;
                 if (swf != null) {
                     swf.as2Cache.put(src, list);
@@ -2713,12 +3126,8 @@ public final class SWF implements SWFContainerItem, Timelined {
 
     public static HighlightedText getCached(ASMSource src, ActionList actions) throws InterruptedException {
         SWF swf = src.getSwf();
-        HighlightedText res;
         if (swf != null) {
-            res = swf.as2Cache.get(src);
-            if (res != null) {
-                return res;
-            }
+            return swf.as2Cache.get(src, (ASMSource s) -> decompilerPool.decompile(s, actions));
         }
 
         return decompilerPool.decompile(src, actions);
@@ -2726,12 +3135,8 @@ public final class SWF implements SWFContainerItem, Timelined {
 
     public static HighlightedText getCached(ScriptPack pack) throws InterruptedException {
         SWF swf = pack.getSwf();
-        HighlightedText res;
         if (swf != null) {
-            res = swf.as3Cache.get(pack);
-            if (res != null) {
-                return res;
-            }
+            return swf.as3Cache.get(pack, (ScriptPack p) -> decompilerPool.decompile(p));
         }
 
         return decompilerPool.decompile(pack);
@@ -276,7 +276,6 @@ import com.jpexs.helpers.ImmediateFuture;
 import com.jpexs.helpers.MemoryInputStream;
 import com.jpexs.helpers.ProgressListener;
 import com.jpexs.helpers.utf8.Utf8Helper;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
@@ -285,10 +284,9 @@ import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -313,12 +311,19 @@ public class SWFInputStream implements AutoCloseable {
 
     private long percentMax;
 
+    /**
+     * Position where the progress percent changes, listeners are not informed
+     * before reaching it
+     */
+    private long nextProgressPos = Long.MAX_VALUE;
+
     private SWF swf;
 
     public DumpInfo dumpInfo;
 
     public void addPercentListener(ProgressListener listener) {
         listeners.add(listener);
+        resetProgressPos();
     }
 
     public void removePercentListener(ProgressListener listener) {
@@ -326,22 +331,35 @@ public class SWFInputStream implements AutoCloseable {
         if (index > -1) {
             listeners.remove(index);
         }
+
+        resetProgressPos();
+    }
+
+    private void resetProgressPos() {
+        nextProgressPos = listeners.size() > 0 && percentMax > 0 ? 0 : Long.MAX_VALUE;
     }
 
     private void informListeners() {
-        if (listeners.size() > 0 && percentMax > 0) {
-            int percent = (int) (getPos() * 100 / percentMax);
-            if (lastPercent != percent) {
-                for (ProgressListener pl : listeners) {
-                    pl.progress(percent);
-                }
-                lastPercent = percent;
+        long pos = getPos();
+        if (pos < nextProgressPos) {
+            return;
+        }
+
+        int percent = (int) (pos * 100 / percentMax);
+        if (lastPercent != percent) {
+            for (ProgressListener pl : listeners) {
+                pl.progress(percent);
             }
+            lastPercent = percent;
         }
+
+        // first position of the next percent
+        nextProgressPos = ((percent + 1) * percentMax + 99) / 100;
     }
 
     public void setPercentMax(long percentMax) {
         this.percentMax = percentMax;
+        resetProgressPos();
     }
 
     /**
@@ -370,6 +388,43 @@ public class SWFInputStream implements AutoCloseable {
         this(swf, data, 0L, data.length);
     }
 
+    /**
+     * Constructor. The data can be backed by an array or by a memory mapped
+     * buffer.
+     *
+     * @param swf SWF to read
+     * @param data SWF data, the stream starts at the position of the range
+     * @param startingPos Position of the first byte reported by getPos
+     * @param limit Maximum number of bytes to read
+     * @throws java.io.IOException
+     */
+    public SWFInputStream(SWF swf, ByteArrayRange data, long startingPos, int limit) throws IOException {
+        this.swf = swf;
+        this.startingPos = startingPos;
+        if (data.hasArray()) {
+            is = new MemoryInputStream(data.getArray(), data.getPos(), limit);
+        } else {
+            is = new MemoryInputStream(data.getBuffer(), data.getPos(), limit);
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param swf SWF to read
+     * @param data SWF data
+     * @throws java.io.IOException
+     */
+    public SWFInputStream(SWF swf, ByteArrayRange data) throws IOException {
+        this(swf, data, 0L, data.getLength());
+    }
+
+    private SWFInputStream(SWF swf, MemoryInputStream is, long startingPos) {
+        this.swf = swf;
+        this.startingPos = startingPos;
+        this.is = is;
+    }
+
     public SWF getSwf() {
         return swf;
     }
@@ -430,6 +485,31 @@ public class SWFInputStream implements AutoCloseable {
         }
     }
 
+    private void endDumpLevel(int value) {
+        // box the value only when the dump info is collected
+        if (dumpInfo != null) {
+            endDumpLevel((Object) value);
+        }
+    }
+
+    private void endDumpLevel(long value) {
+        if (dumpInfo != null) {
+            endDumpLevel((Object) value);
+        }
+    }
+
+    private void endDumpLevel(float value) {
+        if (dumpInfo != null) {
+            endDumpLevel((Object) value);
+        }
+    }
+
+    private void endDumpLevel(double value) {
+        if (dumpInfo != null) {
+            endDumpLevel((Object) value);
+        }
+    }
+
     private void endDumpLevelUntil(DumpInfo di) {
         if (di != null) {
             while (dumpInfo != null && dumpInfo != di) {
@@ -488,6 +568,14 @@ public class SWFInputStream implements AutoCloseable {
      */
     public String readString(String name) throws IOException {
         newDumpLevel(name, "string");
+        int length = is.indexOf((byte) 0);
+        if (length > -1) {
+            String ret = length == 0 ? "" : new String(readBytesInternalEx(length), Utf8Helper.charset);
+            readEx();
+            endDumpLevel();
+            return ret;
+        }
+
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         int r;
         while (true) {
@@ -552,6 +640,13 @@ public class SWFInputStream implements AutoCloseable {
      * @throws IOException
      */
     private long readUI32Internal() throws IOException {
+        long ret = is.readUI32LE();
+        if (ret != -1) {
+            bitPos = 0;
+            informListeners();
+            return (int) ret;
+        }
+
         return (readEx() + (readEx() << 8) + (readEx() << 16) + (readEx() << 24)) & 0xffffffff;
     }
 
@@ -576,12 +671,26 @@ public class SWFInputStream implements AutoCloseable {
      * @throws IOException
      */
     private int readUI16Internal() throws IOException {
+        int ret = is.readUI16LE();
+        if (ret != -1) {
+            bitPos = 0;
+            informListeners();
+            return ret;
+        }
+
         return readEx() + (readEx() << 8);
     }
 
     public int readUI24(String name) throws IOException {
         newDumpLevel(name, "UI24");
-        int ret = readEx() + (readEx() << 8) + (readEx() << 16);
+        int ret = is.readUI24LE();
+        if (ret != -1) {
+            bitPos = 0;
+            informListeners();
+        } else {
+            ret = readEx() + (readEx() << 8) + (readEx() << 16);
+        }
+
         endDumpLevel(ret);
         return ret;
     }
@@ -595,10 +704,7 @@ public class SWFInputStream implements AutoCloseable {
      */
     public long readSI32(String name) throws IOException {
         newDumpLevel(name, "SI32");
-        long uval = readEx() + (readEx() << 8) + (readEx() << 16) + (readEx() << 24);
-        if (uval >= 0x80000000) {
-            uval = -(((~uval) & 0xffffffff) + 1);
-        }
+        long uval = (int) readUI32Internal();
         endDumpLevel(uval);
         return uval;
     }
@@ -612,7 +718,7 @@ public class SWFInputStream implements AutoCloseable {
      */
     public int readSI16(String name) throws IOException {
         newDumpLevel(name, "SI16");
-        int uval = readEx() + (readEx() << 8);
+        int uval = readUI16Internal();
         if (uval >= 0x8000) {
             uval = -(((~uval) & 0xffff) + 1);
         }
@@ -686,6 +792,15 @@ public class SWFInputStream implements AutoCloseable {
     }
 
     private long readLong() throws IOException {
+        if (is.available() >= 8) {
+            // high word first
+            long high = is.readUI32LE();
+            long low = is.readUI32LE();
+            bitPos = 0;
+            informListeners();
+            return (high << 32) | low;
+        }
+
         byte[] readBuffer = readBytesInternalEx(8);
         return (((long) readBuffer[3] << 56)
                 + ((long) (readBuffer[2] & 255) << 48)
@@ -816,7 +931,7 @@ public class SWFInputStream implements AutoCloseable {
         int startPos = (int) getPos();
         skipBytesEx(count);
         endDumpLevel();
-        return new ByteArrayRange(swf.uncompressedData, startPos, (int) count);
+        return swf.getUncompressedRange().getSubRange(startPos, (int) count);
     }
 
     /**
@@ -905,6 +1020,12 @@ public class SWFInputStream implements AutoCloseable {
             return BYTE_ARRAY_EMPTY;
         }
         newDumpLevel(name, "bytes");
+        if (is.available() >= count) {
+            byte[] ret = readBytesInternalEx(count);
+            endDumpLevel();
+            return ret;
+        }
+
         byte[] ret = new byte[count];
         int i = 0;
         try {
@@ -935,7 +1056,11 @@ public class SWFInputStream implements AutoCloseable {
     }
 
     public static byte[] uncompressByteArray(byte[] data, int offset, int length) throws IOException {
-        InflaterInputStream dis = new InflaterInputStream(new ByteArrayInputStream(data, offset, length));
+        return uncompressByteArray(new ByteArrayRange(data, offset, length));
+    }
+
+    public static byte[] uncompressByteArray(ByteArrayRange data) throws IOException {
+        InflaterInputStream dis = new InflaterInputStream(data.getInputStream());
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         byte[] buf = new byte[4096];
         int c;
@@ -954,6 +1079,15 @@ public class SWFInputStream implements AutoCloseable {
      */
     public long readEncodedU32(String name) throws IOException {
         newDumpLevel(name, "encodedU32");
+        long value = is.readVarU32();
+        if (value != -1) {
+            bitPos = 0;
+            informListeners();
+            int result = (int) value;
+            endDumpLevel(result);
+            return result;
+        }
+
         int result = readEx();
         if ((result & 0x00000080) == 0) {
             endDumpLevel(result);
@@ -1016,6 +1150,27 @@ public class SWFInputStream implements AutoCloseable {
         if (bitPos == 0) {
             tempByte = readNoBitReset();
         }
+        if (nBits < 32) {
+            // whole remaining bits of the current byte at once
+            int remaining = nBits;
+            while (true) {
+                int bitsLeft = 8 - bitPos;
+                if (remaining < bitsLeft) {
+                    ret = (ret << remaining) | ((tempByte >> (bitsLeft - remaining)) & ((1 << remaining) - 1));
+                    bitPos += remaining;
+                    return ret;
+                }
+
+                ret = (ret << bitsLeft) | (tempByte & ((1 << bitsLeft) - 1));
+                remaining -= bitsLeft;
+                bitPos = 0;
+                if (remaining == 0) {
+                    return ret;
+                }
+
+                tempByte = readNoBitReset();
+            }
+        }
         for (int bit = 0; bit < nBits; bit++) {
             int nb = (tempByte >> (7 - bitPos)) & 1;
             ret += (nb << (nBits - 1 - bit));
@@ -1192,12 +1347,7 @@ public class SWFInputStream implements AutoCloseable {
         }
 
         boolean parallel1 = level == 0 && parallel;
-        ExecutorService executor = null;
         List<Future<Tag>> futureResults = new ArrayList<>();
-        if (parallel1) {
-            executor = Executors.newFixedThreadPool(Configuration.getParallelThreadCount());
-            futureResults = new ArrayList<>();
-        }
         List<Tag> tags = new ArrayList<>();
         Tag tag;
         boolean isAS3 = false;
@@ -1255,6 +1405,11 @@ public class SWFInputStream implements AutoCloseable {
                 }
             }
 
+            if (parseTags && doParse && tag instanceof TagStub && isFilteredOut(tag.getId())) {
+                ((TagStub) tag).setDeferred(true);
+                doParse = false;
+            }
+
             if (parseTags && !parallel1 && doParse && (tag instanceof TagStub)) {
                 tag = resolveTag((TagStub) tag, level, parallel, skipUnusualTags, lazy);
             }
@@ -1275,8 +1430,8 @@ public class SWFInputStream implements AutoCloseable {
                 dumpTag(System.out, tag, tags.size() - 1, level);
             }
 
-            if (parseTags && doParse && parallel1 && tag instanceof TagStub && executor != null) {
-                Future<Tag> future = executor.submit(new TagResolutionTask((TagStub) tag, di, level, parallel1, skipUnusualTags, lazy));
+            if (parseTags && doParse && parallel1 && tag instanceof TagStub) {
+                Future<Tag> future = ParallelScheduler.submit(new TagResolutionTask((TagStub) tag, di, level, parallel1, skipUnusualTags, lazy));
                 futureResults.add(future);
             } else {
                 Future<Tag> future = new ImmediateFuture<>(tag);
@@ -1303,14 +1458,33 @@ public class SWFInputStream implements AutoCloseable {
                     logger.log(Level.SEVERE, "Error during tag reading", e);
                 }
             }
-
-            if (executor != null) {
-                executor.shutdown();
-            }
         }
         return tags;
     }
 
+    /**
+     * Checks whether the body of the tag should stay unparsed because of the
+     * tag filter of the SWF. Frame structure tags are always parsed.
+     *
+     * @param tagId Tag id
+     * @return True when the tag should stay a stub
+     */
+    private boolean isFilteredOut(int tagId) {
+        Set<Integer> tagIdFilter = swf == null ? null : swf.getTagIdFilter();
+        if (tagIdFilter == null) {
+            return false;
+        }
+
+        switch (tagId) {
+            case EndTag.ID:
+            case ShowFrameTag.ID:
+            case FileAttributesTag.ID:
+                return false;
+        }
+
+        return !tagIdFilter.contains(tagId);
+    }
+
     public static Tag resolveTag(TagStub tag, int level, boolean parallel, boolean skipUnusualTags, boolean lazy) throws InterruptedException {
         Tag ret;
 
@@ -1649,7 +1823,7 @@ public class SWFInputStream implements AutoCloseable {
             tagLength = available;
         }
 
-        ByteArrayRange dataRange = new ByteArrayRange(swf.uncompressedData, (int) pos, (int) (tagLength + headerLength));
+        ByteArrayRange dataRange = swf.getUncompressedRange().getSubRange((int) pos, (int) (tagLength + headerLength));
         skipBytes(tagLength);
 
         TagStub tagStub = new TagStub(swf, tagID, "Unresolved", dataRange, tagDataStream);
@@ -3589,13 +3763,13 @@ public class SWFInputStream implements AutoCloseable {
 
     public MemoryInputStream getBaseStream() throws IOException {
         int pos = (int) is.getPos();
-        MemoryInputStream mis = new MemoryInputStream(is.getAllRead(), 0, pos + is.available());
+        MemoryInputStream mis = is.createLimitedStream(pos + is.available());
         mis.seek(pos);
         return mis;
     }
 
     public SWFInputStream getLimitedStream(int limit) throws IOException {
-        SWFInputStream sis = new SWFInputStream(swf, is.getAllRead(), startingPos, (int) (is.getPos() + limit));
+        SWFInputStream sis = new SWFInputStream(swf, is.createLimitedStream((int) (is.getPos() + limit)), startingPos);
 
         // uncomment the following line to turn off lazy dump info collecting
         //sis.dumpInfo = dumpInfo;
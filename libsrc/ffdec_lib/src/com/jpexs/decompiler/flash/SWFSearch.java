@@ -22,10 +22,16 @@ import com.jpexs.helpers.ProgressListener;
 import com.jpexs.helpers.Searchable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  *
@@ -78,61 +84,108 @@ public class SWFSearch {
                 "ZWS".getBytes(), // LZMA compressed Flash
                 "GFX".getBytes(), // Uncompressed ScaleForm GFx
                 "CFX".getBytes()); // Compressed ScaleForm GFx
-        int pos = 0;
+
+        // validate the candidates in parallel, evaluate the results in the order of addresses
+        List<Long> addresses = new ArrayList<>(new TreeSet<>(ret.keySet()));
+        List<Callable<MemoryInputStream>> tasks = new ArrayList<>(addresses.size());
+        for (Long addr : addresses) {
+            InputStream candidate = ret.get(addr);
+            tasks.add(new Callable<MemoryInputStream>() {
+                @Override
+                public MemoryInputStream call() throws Exception {
+                    return validate(addr, candidate);
+                }
+            });
+        }
+
+        List<Future<MemoryInputStream>> futures = ParallelScheduler.submitAll(tasks);
         long biggestSize = 0;
         long smallestSize = Long.MAX_VALUE;
-        addressLoop:
-        for (Long addr : ret.keySet()) {
-            setProgress(pos * 100 / ret.size());
-            pos++;
-            try {
-                MemoryInputStream mis = (MemoryInputStream) ret.get(addr);
-                mis.reset();
-                PosMarkedInputStream pmi = new PosMarkedInputStream(mis);
-                SWF swf = noCheck ? new SWF(pmi) : new SWF(pmi, null, null, null, false, true, true);
-                boolean valid = swf.fileSize > 0
-                        && swf.version > 0
-                        && (!swf.getTags().isEmpty() || noCheck)
-                        && swf.version <= SWF.MAX_VERSION;
-                if (valid) {
-                    long limit = pmi.getPos();
-                    MemoryInputStream is = new MemoryInputStream(mis.getAllRead(), (int) (long) addr, (int) limit);
-                    switch (searchMode) {
-                        case ALL:
-                            swfStreams.put(addr, is);
-                            break;
-                        case BIGGEST:
-                            if (limit > biggestSize) {
-                                biggestSize = limit;
-                                swfStreams.clear();
-                                swfStreams.put(addr, is);
-                            }
-                            break;
-                        case SMALLEST:
-                            if (limit < smallestSize) {
-                                smallestSize = limit;
-                                swfStreams.clear();
-                                swfStreams.put(addr, is);
-                            }
-                            break;
-                        case FIRST:
+        try {
+            addressLoop:
+            for (int pos = 0; pos < futures.size(); pos++) {
+                setProgress(pos * 100 / futures.size());
+                MemoryInputStream is;
+                try {
+                    is = futures.get(pos).get();
+                } catch (ExecutionException ex) {
+                    is = null;
+                }
+
+                if (is == null) {
+                    continue;
+                }
+
+                long addr = addresses.get(pos);
+                long limit = is.available();
+                switch (searchMode) {
+                    case ALL:
+                        swfStreams.put(addr, is);
+                        break;
+                    case BIGGEST:
+                        if (limit > biggestSize) {
+                            biggestSize = limit;
+                            swfStreams.clear();
                             swfStreams.put(addr, is);
-                            break addressLoop;
-                        case LAST:
+                        }
+                        break;
+                    case SMALLEST:
+                        if (limit < smallestSize) {
+                            smallestSize = limit;
                             swfStreams.clear();
                             swfStreams.put(addr, is);
-                            break;
-                    }
+                        }
+                        break;
+                    case FIRST:
+                        swfStreams.put(addr, is);
+                        break addressLoop;
+                    case LAST:
+                        swfStreams.clear();
+                        swfStreams.put(addr, is);
+                        break;
                 }
-            } catch (OutOfMemoryError ome) {
-                Helper.freeMem();
-            } catch (Exception | Error ex) {
             }
+        } catch (InterruptedException ex) {
+            // return the streams found so far
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            // ignore
+        } finally {
+            ParallelScheduler.cancelAll(futures);
         }
         setProgress(100);
         processed = true;
     }
 
+    /**
+     * Checks whether there is a valid SWF file at the address.
+     *
+     * @param addr Address
+     * @param candidate Stream starting at the address
+     * @return Stream limited to the SWF file or null when it is not valid
+     */
+    private MemoryInputStream validate(long addr, InputStream candidate) {
+        try {
+            MemoryInputStream mis = (MemoryInputStream) candidate;
+            mis.reset();
+            PosMarkedInputStream pmi = new PosMarkedInputStream(mis);
+            SWF swf = noCheck ? new SWF(pmi) : new SWF(pmi, null, null, null, false, true, true);
+            boolean valid = swf.fileSize > 0
+                    && swf.version > 0
+                    && (!swf.getTags().isEmpty() || noCheck)
+                    && swf.version <= SWF.MAX_VERSION;
+            if (valid) {
+                long limit = pmi.getPos();
+                return new MemoryInputStream(mis.getAllRead(), (int) addr, (int) limit);
+            }
+        } catch (OutOfMemoryError ome) {
+            Helper.freeMem();
+        } catch (Exception | Error ex) {
+        }
+
+        return null;
+    }
+
     public MemoryInputStream get(ProgressListener listener, long address) throws IOException {
         if (!processed) {
             return null;
@@ -103,6 +103,8 @@ public class ABC {
 
     private ABCMethodIndexing abcMethodIndexing;
 
+    private volatile MultinameUsageIndex multinameUsageIndex;
+
     public static final int MINORwithDECIMAL = 17;
 
     protected Set<EventListener> listeners = new HashSet<>();
@@ -133,6 +135,7 @@ public class ABC {
     public int addMethodBody(MethodBody body) {
         bodies.add(body);
         abcMethodIndexing = null;
+        multinameUsageIndex = null;
         return bodies.size() - 1;
     }
 
@@ -213,6 +216,8 @@ public class ABC {
             instanceInfo.instance_traits.addTrait(trait);
         }
 
+        multinameUsageIndex = null;
+
         return trait;
     }
 
@@ -977,6 +982,60 @@ public class ABC {
         return deobfuscation;
     }
 
+    /**
+     * Gets index of multiname usages. The index is created on first use and
+     * after structural changes of the ABC.
+     *
+     * @return Multiname usage index or null when interrupted
+     */
+    private synchronized MultinameUsageIndex getMultinameUsageIndex() {
+        if (multinameUsageIndex == null || !multinameUsageIndex.isValid()) {
+            try {
+                multinameUsageIndex = new MultinameUsageIndex(this);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+
+        return multinameUsageIndex;
+    }
+
+    /**
+     * Marks the method body as changed, its multiname usages are indexed
+     * again on the next search. Changes of the temporary copies of the body,
+     * like the ones created for the decompilation, are ignored.
+     *
+     * @param body Method body
+     */
+    public void methodBodyChanged(MethodBody body) {
+        MultinameUsageIndex index = multinameUsageIndex;
+        if (index != null && findBody(body.method_info) == body) {
+            index.methodBodyChanged(body);
+        }
+    }
+
+    /**
+     * Marks the trait as changed, its multiname usages are indexed again on
+     * the next search.
+     *
+     * @param trait Trait
+     */
+    public void traitChanged(Trait trait) {
+        MultinameUsageIndex index = multinameUsageIndex;
+        if (index != null) {
+            index.traitChanged(trait);
+        }
+    }
+
+    /**
+     * Drops the multiname usage index after changes which can not be tracked
+     * by methodBodyChanged and traitChanged, like adding traits.
+     */
+    public void invalidateMultinameUsages() {
+        multinameUsageIndex = null;
+    }
+
     public final ABCMethodIndexing getMethodIndexing() {
         if (abcMethodIndexing == null) {
             abcMethodIndexing = new ABCMethodIndexing(this);
@@ -1253,47 +1312,75 @@ public class ABC {
     }
 
     public List<MultinameUsage> findMultinameUsage(int multinameIndex) {
+        if (multinameIndex == 0) {
+            return new ArrayList<>();
+        }
+        MultinameUsageIndex index = getMultinameUsageIndex();
+        if (index == null) {
+            return scanMultinameUsage(multinameIndex);
+        }
+        return index.findUsages(multinameIndex);
+    }
+
+    /**
+     * Finds multiname usages by walking the whole ABC, without the index.
+     *
+     * @param multinameIndex Multiname index
+     * @return Usages
+     */
+    public List<MultinameUsage> scanMultinameUsage(int multinameIndex) {
         List<MultinameUsage> ret = new ArrayList<>();
         if (multinameIndex == 0) {
             return ret;
         }
         for (int s = 0; s < script_info.size(); s++) {
-            findMultinameUsageInTraits(script_info.get(s).traits, multinameIndex, TraitMultinameUsage.TRAITS_TYPE_SCRIPT, s, -1, ret, -1);
+            findMultinameUsageInScript(s, multinameIndex, ret);
         }
         for (int c = 0; c < instance_info.size(); c++) {
-            if (instance_info.get(c).name_index == multinameIndex) {
-                ret.add(new ClassNameMultinameUsage(this, multinameIndex, c));
-            }
-            if (instance_info.get(c).super_index == multinameIndex) {
-                ret.add(new ExtendsMultinameUsage(this, multinameIndex, c));
-            }
-            for (int i = 0; i < instance_info.get(c).interfaces.length; i++) {
-                if (instance_info.get(c).interfaces[i] == multinameIndex) {
-                    ret.add(new ImplementsMultinameUsage(this, multinameIndex, c));
-                }
-            }
-            checkMultinameUsedInMethod(multinameIndex, instance_info.get(c).iinit_index, ret, -1/*FIXME*/, c, 0, TraitMultinameUsage.TRAITS_TYPE_INSTANCE, true, null, -1);
-            checkMultinameUsedInMethod(multinameIndex, class_info.get(c).cinit_index, ret, -1/*FIXME*/, c, 0, TraitMultinameUsage.TRAITS_TYPE_CLASS, true, null, -1);
-            findMultinameUsageInTraits(instance_info.get(c).instance_traits, multinameIndex, TraitMultinameUsage.TRAITS_TYPE_INSTANCE, -1/*FIXME*/, c, ret, -1);
-            findMultinameUsageInTraits(class_info.get(c).static_traits, multinameIndex, TraitMultinameUsage.TRAITS_TYPE_CLASS, -1/*FIXME*/, c, ret, -1);
+            findMultinameUsageInClass(c, multinameIndex, ret);
         }
-        loopm:
         for (int t = 1; t < constants.getMultinameCount(); t++) {
-            Multiname multiname = constants.getMultiname(t);
-            if (multiname.kind == Multiname.TYPENAME) {
-                if (multiname.qname_index == multinameIndex) {
+            findMultinameUsageInTypeName(t, multinameIndex, ret);
+        }
+        return ret;
+    }
+
+    void findMultinameUsageInScript(int scriptIndex, int multinameIndex, List<MultinameUsage> ret) {
+        findMultinameUsageInTraits(script_info.get(scriptIndex).traits, multinameIndex, TraitMultinameUsage.TRAITS_TYPE_SCRIPT, scriptIndex, -1, ret, -1);
+    }
+
+    void findMultinameUsageInClass(int c, int multinameIndex, List<MultinameUsage> ret) {
+        if (instance_info.get(c).name_index == multinameIndex) {
+            ret.add(new ClassNameMultinameUsage(this, multinameIndex, c));
+        }
+        if (instance_info.get(c).super_index == multinameIndex) {
+            ret.add(new ExtendsMultinameUsage(this, multinameIndex, c));
+        }
+        for (int i = 0; i < instance_info.get(c).interfaces.length; i++) {
+            if (instance_info.get(c).interfaces[i] == multinameIndex) {
+                ret.add(new ImplementsMultinameUsage(this, multinameIndex, c));
+            }
+        }
+        checkMultinameUsedInMethod(multinameIndex, instance_info.get(c).iinit_index, ret, -1/*FIXME*/, c, 0, TraitMultinameUsage.TRAITS_TYPE_INSTANCE, true, null, -1);
+        checkMultinameUsedInMethod(multinameIndex, class_info.get(c).cinit_index, ret, -1/*FIXME*/, c, 0, TraitMultinameUsage.TRAITS_TYPE_CLASS, true, null, -1);
+        findMultinameUsageInTraits(instance_info.get(c).instance_traits, multinameIndex, TraitMultinameUsage.TRAITS_TYPE_INSTANCE, -1/*FIXME*/, c, ret, -1);
+        findMultinameUsageInTraits(class_info.get(c).static_traits, multinameIndex, TraitMultinameUsage.TRAITS_TYPE_CLASS, -1/*FIXME*/, c, ret, -1);
+    }
+
+    void findMultinameUsageInTypeName(int t, int multinameIndex, List<MultinameUsage> ret) {
+        Multiname multiname = constants.getMultiname(t);
+        if (multiname.kind == Multiname.TYPENAME) {
+            if (multiname.qname_index == multinameIndex) {
+                ret.add(new TypeNameMultinameUsage(this, multinameIndex, t));
+                return;
+            }
+            for (int mp : multiname.params) {
+                if (mp == multinameIndex) {
                     ret.add(new TypeNameMultinameUsage(this, multinameIndex, t));
-                    continue;
-                }
-                for (int mp : multiname.params) {
-                    if (mp == multinameIndex) {
-                        ret.add(new TypeNameMultinameUsage(this, multinameIndex, t));
-                        continue loopm;
-                    }
+                    return;
                 }
             }
         }
-        return ret;
     }
 
     public List<List<MultinameUsage>> findAllMultinameUsage() {
@@ -1484,6 +1571,7 @@ public class ABC {
         }
         instance_info.add(index, ii);
         class_info.add(index, ci);
+        multinameUsageIndex = null;
     }
 
     private void addClassInTraits(Traits traits, int index) {
@@ -1528,6 +1616,7 @@ public class ABC {
             instance_info.set(to, backupInstanceInfos.get(from));
             class_info.set(to, backupClassInfos.get(from));
         }
+        multinameUsageIndex = null;
     }
 
     private void reorganizeClassesInTraits(Traits traits, Map<Integer, Integer> classIndexMap) {
@@ -1563,6 +1652,7 @@ public class ABC {
         }
         instance_info.remove(index);
         class_info.remove(index);
+        multinameUsageIndex = null;
     }
 
     private void removeMethodFromTraits(Traits traits, int index) {
@@ -1633,12 +1723,14 @@ public class ABC {
         }
 
         abcMethodIndexing = null;
+        multinameUsageIndex = null;
 
         method_info.remove(index);
     }
 
     public boolean replaceScriptPack(As3ScriptReplacerInterface replacer, ScriptPack pack, String as) throws As3ScriptReplaceException, IOException, InterruptedException {
         replacer.replaceScript(pack, as);
+        multinameUsageIndex = null;
         ((Tag) parentTag).setModified(true);
         return pack.isSimple;
     }
@@ -1941,6 +2033,7 @@ public class ABC {
 
         //clear caches
         abcMethodIndexing = null;
+        multinameUsageIndex = null;
         getSwf().clearScriptCache();
         ((Tag) parentTag).setModified(true);
     }
@@ -119,6 +119,31 @@ public class ABCInputStream implements AutoCloseable {
         }
     }
 
+    public void endDumpLevel(int value) {
+        // box the value only when the dump info is collected
+        if (dumpInfo != null) {
+            endDumpLevel((Object) value);
+        }
+    }
+
+    public void endDumpLevel(long value) {
+        if (dumpInfo != null) {
+            endDumpLevel((Object) value);
+        }
+    }
+
+    public void endDumpLevel(float value) {
+        if (dumpInfo != null) {
+            endDumpLevel((Object) value);
+        }
+    }
+
+    public void endDumpLevel(double value) {
+        if (dumpInfo != null) {
+            endDumpLevel((Object) value);
+        }
+    }
+
     public void endDumpLevelUntil(DumpInfo di) {
         if (di != null) {
             while (dumpInfo != null && dumpInfo != di) {
@@ -180,7 +205,24 @@ public class ABCInputStream implements AutoCloseable {
         return ret;
     }
 
+    /**
+     * Whether the values can be decoded directly from the underlying buffer
+     * instead of reading byte by byte.
+     *
+     * @return True when no copy of the read bytes is needed
+     */
+    private boolean isDirect() {
+        return bufferOs == null && !DEBUG_READ;
+    }
+
     private long readU32Internal() throws IOException {
+        if (isDirect()) {
+            long ret = is.readVarU32();
+            if (ret != -1) {
+                return ret;
+            }
+        }
+
         int i;
         long ret = 0;
         int bytePos = 0;
@@ -219,7 +261,10 @@ public class ABCInputStream implements AutoCloseable {
 
     public int readS24(String name) throws IOException {
         newDumpLevel(name, "S24");
-        int ret = (readInternal()) + (readInternal() << 8) + (readInternal() << 16);
+        int ret = isDirect() ? is.readUI24LE() : -1;
+        if (ret == -1) {
+            ret = (readInternal()) + (readInternal() << 8) + (readInternal() << 16);
+        }
 
         if ((ret >> 23) == 1) {
             ret |= 0xff000000;
@@ -231,7 +276,10 @@ public class ABCInputStream implements AutoCloseable {
 
     public int readU16(String name) throws IOException {
         newDumpLevel(name, "U16");
-        int ret = (readInternal()) + (readInternal() << 8);
+        int ret = isDirect() ? is.readUI16LE() : -1;
+        if (ret == -1) {
+            ret = (readInternal()) + (readInternal() << 8);
+        }
         endDumpLevel(ret);
         return ret;
     }
@@ -287,6 +335,15 @@ public class ABCInputStream implements AutoCloseable {
     }
 
     private void safeRead(int count, byte[] data) throws IOException {
+        if (!DEBUG_READ && is.available() >= count) {
+            is.read(data, 0, count);
+            if (bufferOs != null) {
+                bufferOs.write(data, 0, count);
+            }
+
+            return;
+        }
+
         for (int i = 0; i < count; i++) {
             data[i] = (byte) readInternal();
         }
@@ -378,7 +435,6 @@ public class ABCInputStream implements AutoCloseable {
     public Trait readTrait(String name) throws IOException {
         newDumpLevel(name, "Trait");
         long pos = getPosition();
-        startBuffer();
         int name_index = readU30("name_index");
         int kind = read("kind");
         int kindType = 0xf & kind;
@@ -431,11 +487,28 @@ public class ABCInputStream implements AutoCloseable {
                 trait.metadata[i] = readU30("metadata");
             }
         }
-        trait.bytes = stopBuffer();
+        trait.bytes = getBytesFrom(pos);
         endDumpLevel();
         return trait;
     }
 
+    /**
+     * Gets the bytes between the position and the current position of the
+     * stream
+     *
+     * @param startPos Start position
+     * @return Bytes
+     * @throws IOException
+     */
+    private byte[] getBytesFrom(long startPos) throws IOException {
+        long endPos = is.getPos();
+        byte[] ret = new byte[(int) (endPos - startPos)];
+        is.seek(startPos);
+        is.read(ret, 0, ret.length);
+        is.seek(endPos);
+        return ret;
+    }
+
     public Traits readTraits(String name) throws IOException {
         newDumpLevel(name, "Traits");
         int count = readU30("count");
@@ -449,9 +522,7 @@ public class ABCInputStream implements AutoCloseable {
 
     private byte[] readBytesInternal(int count) throws IOException {
         byte[] ret = new byte[count];
-        for (int i = 0; i < count; i++) {
-            ret[i] = (byte) readInternal();
-        }
+        safeRead(count, ret);
         return ret;
     }
 
@@ -0,0 +1,464 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash.abc;
+
+import com.jpexs.decompiler.flash.ParallelScheduler;
+import com.jpexs.decompiler.flash.abc.avm2.AVM2Code;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.AVM2Instruction;
+import com.jpexs.decompiler.flash.abc.types.ABCException;
+import com.jpexs.decompiler.flash.abc.types.ClassInfo;
+import com.jpexs.decompiler.flash.abc.types.InstanceInfo;
+import com.jpexs.decompiler.flash.abc.types.MethodBody;
+import com.jpexs.decompiler.flash.abc.types.MethodInfo;
+import com.jpexs.decompiler.flash.abc.types.Multiname;
+import com.jpexs.decompiler.flash.abc.types.traits.Trait;
+import com.jpexs.decompiler.flash.abc.types.traits.TraitMethodGetterSetter;
+import com.jpexs.decompiler.flash.abc.types.traits.TraitSlotConst;
+import com.jpexs.decompiler.flash.abc.types.traits.Traits;
+import com.jpexs.decompiler.flash.abc.usages.MultinameUsage;
+import com.jpexs.decompiler.flash.configuration.Configuration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Index of the multiname usages of an ABC.
+ *
+ * The ABC is split to units: scripts, classes (instance and class info with
+ * their initializers and traits) and typename multinames. For each multiname
+ * the index stores the sorted list of the units which refer to it, so
+ * findMultinameUsage has to check only these units instead of the whole ABC.
+ *
+ * Changed method bodies and traits are marked by ABC.methodBodyChanged and
+ * ABC.traitChanged, their units are indexed again before the next query.
+ * Adding or removing scripts and classes needs a new index.
+ *
+ * @author JPEXS
+ */
+public class MultinameUsageIndex {
+
+    /**
+     * Minimal number of the units to index them in parallel
+     */
+    private static final int PARALLEL_MIN_UNITS = 64;
+
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * Unit of a method info which is used by more units
+     */
+    private static final int SHARED = -2;
+
+    private final ABC abc;
+
+    private final int scriptCount;
+
+    private final int classCount;
+
+    /**
+     * Number of the indexed multinames, the multinames added later are
+     * indexed on the next query
+     */
+    private int multinameCount;
+
+    /**
+     * Sorted units referring to the multiname, the array can be longer than
+     * the count
+     */
+    private int[][] unitsByMultiname = new int[0][];
+
+    private int[] unitCounts = new int[0];
+
+    /**
+     * Sorted distinct multinames referred by the unit
+     */
+    private int[][] multinamesByUnit;
+
+    /**
+     * Unit of the method info, -1 or SHARED. Units of the method bodies are
+     * found by their method info.
+     */
+    private int[] methodUnits;
+
+    private final Map<Trait, Integer> traitUnits = new IdentityHashMap<>();
+
+    private final BitSet dirtyUnits = new BitSet();
+
+    private boolean valid = true;
+
+    public MultinameUsageIndex(ABC abc) throws InterruptedException {
+        this.abc = abc;
+        scriptCount = abc.script_info.size();
+        classCount = abc.instance_info.size();
+        multinameCount = abc.constants.getMultinameCount();
+        int unitCount = scriptCount + classCount + multinameCount;
+        multinamesByUnit = new int[unitCount][];
+        methodUnits = new int[abc.method_info.size()];
+        Arrays.fill(methodUnits, -1);
+        abc.getMethodIndexing();
+
+        List<UnitCollector> collectors = collectUnits(0, unitCount);
+        for (UnitCollector collector : collectors) {
+            addCollector(collector);
+        }
+    }
+
+    /**
+     * Checks whether the index still matches the structure of the ABC.
+     *
+     * @return False when the index should be created again
+     */
+    public synchronized boolean isValid() {
+        return valid && scriptCount == abc.script_info.size() && classCount == abc.instance_info.size();
+    }
+
+    /**
+     * Marks the unit of the method body as changed.
+     *
+     * @param body Method body
+     */
+    public synchronized void methodBodyChanged(MethodBody body) {
+        int methodInfo = body.method_info;
+        if (methodInfo < 0 || methodInfo >= methodUnits.length || methodUnits[methodInfo] < 0) {
+            // method which was not indexed or which is shared by more units
+            valid = false;
+            return;
+        }
+
+        dirtyUnits.set(methodUnits[methodInfo]);
+    }
+
+    /**
+     * Marks the unit of the trait as changed.
+     *
+     * @param trait Trait
+     */
+    public synchronized void traitChanged(Trait trait) {
+        Integer unit = traitUnits.get(trait);
+        if (unit == null) {
+            valid = false;
+            return;
+        }
+
+        dirtyUnits.set(unit);
+    }
+
+    /**
+     * Finds the usages of the multiname in the same order as the full scan of
+     * the ABC.
+     *
+     * @param multinameIndex Multiname index
+     * @return Usages
+     */
+    public synchronized List<MultinameUsage> findUsages(int multinameIndex) {
+        List<MultinameUsage> ret = new ArrayList<>();
+        update();
+        if (multinameIndex < 0 || multinameIndex >= unitsByMultiname.length) {
+            return ret;
+        }
+
+        int[] units = unitsByMultiname[multinameIndex];
+        int count = unitCounts[multinameIndex];
+        for (int i = 0; i < count; i++) {
+            int unit = units[i];
+            if (unit < scriptCount) {
+                abc.findMultinameUsageInScript(unit, multinameIndex, ret);
+            } else if (unit < scriptCount + classCount) {
+                abc.findMultinameUsageInClass(unit - scriptCount, multinameIndex, ret);
+            } else {
+                abc.findMultinameUsageInTypeName(unit - scriptCount - classCount, multinameIndex, ret);
+            }
+        }
+
+        return ret;
+    }
+
+    private void update() {
+        int newMultinameCount = abc.constants.getMultinameCount();
+        if (newMultinameCount > multinameCount) {
+            // new typename units
+            int unitCount = scriptCount + classCount + newMultinameCount;
+            multinamesByUnit = Arrays.copyOf(multinamesByUnit, unitCount);
+            for (int unit = scriptCount + classCount + multinameCount; unit < unitCount; unit++) {
+                dirtyUnits.set(unit);
+            }
+
+            multinameCount = newMultinameCount;
+        }
+
+        for (int unit = dirtyUnits.nextSetBit(0); unit >= 0; unit = dirtyUnits.nextSetBit(unit + 1)) {
+            int[] oldMultinames = multinamesByUnit[unit];
+            if (oldMultinames != null) {
+                for (int m : oldMultinames) {
+                    removeUnit(m, unit);
+                }
+            }
+
+            UnitCollector collector = new UnitCollector(unit, unit + 1);
+            collector.collect();
+            addCollector(collector);
+        }
+
+        dirtyUnits.clear();
+    }
+
+    private List<UnitCollector> collectUnits(int from, int to) throws InterruptedException {
+        List<UnitCollector> collectors = new ArrayList<>();
+        int count = to - from;
+        int tasks = Configuration.parallelSpeedUp.get() ? Math.min(Configuration.getParallelThreadCount(), count / PARALLEL_MIN_UNITS) : 1;
+        if (tasks <= 1) {
+            UnitCollector collector = new UnitCollector(from, to);
+            collector.collect();
+            collectors.add(collector);
+            return collectors;
+        }
+
+        int size = (count + tasks - 1) / tasks;
+        for (int start = from; start < to; start += size) {
+            collectors.add(new UnitCollector(start, Math.min(to, start + size)));
+        }
+
+        List<Future<Void>> futures = ParallelScheduler.submitAll(collectors);
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException ex) {
+                ParallelScheduler.cancelAll(futures);
+                throw ex;
+            } catch (ExecutionException ex) {
+                ParallelScheduler.cancelAll(futures);
+                Throwable cause = ex.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+
+                throw new RuntimeException(cause);
+            }
+        }
+
+        return collectors;
+    }
+
+    private void addCollector(UnitCollector collector) {
+        for (int unit = collector.from; unit < collector.to; unit++) {
+            int[] multinames = collector.multinames[unit - collector.from];
+            multinamesByUnit[unit] = multinames;
+            for (int m : multinames) {
+                addUnit(m, unit);
+            }
+        }
+
+        for (int i = 0; i < collector.methodInfos.size(); i++) {
+            int methodInfo = collector.methodInfos.get(i);
+            if (methodInfo >= methodUnits.length) {
+                int oldLength = methodUnits.length;
+                methodUnits = Arrays.copyOf(methodUnits, Math.max(methodInfo + 1, oldLength * 2));
+                Arrays.fill(methodUnits, oldLength, methodUnits.length, -1);
+            }
+
+            int unit = collector.methodInfoUnits.get(i);
+            if (methodUnits[methodInfo] == -1) {
+                methodUnits[methodInfo] = unit;
+            } else if (methodUnits[methodInfo] != unit) {
+                methodUnits[methodInfo] = SHARED;
+            }
+        }
+
+        for (Map.Entry<Trait, Integer> entry : collector.traitUnits.entrySet()) {
+            traitUnits.putIfAbsent(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void addUnit(int multinameIndex, int unit) {
+        if (multinameIndex >= unitsByMultiname.length) {
+            int length = Math.max(multinameIndex + 1, Math.max(multinameCount, unitsByMultiname.length * 2));
+            int oldLength = unitsByMultiname.length;
+            unitsByMultiname = Arrays.copyOf(unitsByMultiname, length);
+            Arrays.fill(unitsByMultiname, oldLength, length, EMPTY);
+            unitCounts = Arrays.copyOf(unitCounts, length);
+        }
+
+        int[] units = unitsByMultiname[multinameIndex];
+        int count = unitCounts[multinameIndex];
+        if (count == units.length) {
+            units = Arrays.copyOf(units, Math.max(4, count * 2));
+            unitsByMultiname[multinameIndex] = units;
+        }
+
+        // units are mostly added in ascending order
+        int pos = count;
+        while (pos > 0 && units[pos - 1] > unit) {
+            units[pos] = units[pos - 1];
+            pos--;
+        }
+
+        units[pos] = unit;
+        unitCounts[multinameIndex] = count + 1;
+    }
+
+    private void removeUnit(int multinameIndex, int unit) {
+        int[] units = unitsByMultiname[multinameIndex];
+        int count = unitCounts[multinameIndex];
+        int pos = Arrays.binarySearch(units, 0, count, unit);
+        if (pos < 0) {
+            return;
+        }
+
+        System.arraycopy(units, pos + 1, units, pos, count - pos - 1);
+        unitCounts[multinameIndex] = count - 1;
+    }
+
+    /**
+     * Collects the multinames referred by a range of the units. The collected
+     * multinames are a superset of the multinames found by the usage search
+     * of the unit.
+     */
+    private class UnitCollector implements Callable<Void> {
+
+        private final int from;
+
+        private final int to;
+
+        private final int[][] multinames;
+
+        private final List<Integer> methodInfos = new ArrayList<>();
+
+        private final List<Integer> methodInfoUnits = new ArrayList<>();
+
+        private final Map<Trait, Integer> traitUnits = new IdentityHashMap<>();
+
+        private int unit;
+
+        private int[] current = new int[16];
+
+        private int currentCount;
+
+        public UnitCollector(int from, int to) {
+            this.from = from;
+            this.to = to;
+            this.multinames = new int[to - from][];
+        }
+
+        @Override
+        public Void call() {
+            collect();
+            return null;
+        }
+
+        public void collect() {
+            for (unit = from; unit < to; unit++) {
+                currentCount = 0;
+                if (unit < scriptCount) {
+                    collectTraits(abc.script_info.get(unit).traits);
+                } else if (unit < scriptCount + classCount) {
+                    int c = unit - scriptCount;
+                    InstanceInfo ii = abc.instance_info.get(c);
+                    ClassInfo ci = abc.class_info.get(c);
+                    add(ii.name_index);
+                    add(ii.super_index);
+                    for (int i : ii.interfaces) {
+                        add(i);
+                    }
+
+                    collectMethod(ii.iinit_index);
+                    collectMethod(ci.cinit_index);
+                    collectTraits(ii.instance_traits);
+                    collectTraits(ci.static_traits);
+                } else {
+                    int t = unit - scriptCount - classCount;
+                    if (t > 0 && t < abc.constants.getMultinameCount()) {
+                        Multiname multiname = abc.constants.getMultiname(t);
+                        if (multiname != null && multiname.kind == Multiname.TYPENAME) {
+                            add(multiname.qname_index);
+                            for (int mp : multiname.params) {
+                                add(mp);
+                            }
+                        }
+                    }
+                }
+
+                int[] result = Arrays.copyOf(current, currentCount);
+                Arrays.sort(result);
+                int distinct = 0;
+                for (int i = 0; i < result.length; i++) {
+                    if (result[i] > 0 && (distinct == 0 || result[distinct - 1] != result[i])) {
+                        result[distinct++] = result[i];
+                    }
+                }
+
+                multinames[unit - from] = distinct == result.length ? result : Arrays.copyOf(result, distinct);
+            }
+        }
+
+        private void add(int multinameIndex) {
+            if (currentCount == current.length) {
+                current = Arrays.copyOf(current, currentCount * 2);
+            }
+
+            current[currentCount++] = multinameIndex;
+        }
+
+        private void collectTraits(Traits traits) {
+            for (Trait trait : traits.traits) {
+                traitUnits.put(trait, unit);
+                if (trait instanceof TraitSlotConst) {
+                    TraitSlotConst tsc = (TraitSlotConst) trait;
+                    add(tsc.name_index);
+                    add(tsc.type_index);
+                }
+                if (trait instanceof TraitMethodGetterSetter) {
+                    TraitMethodGetterSetter tmgs = (TraitMethodGetterSetter) trait;
+                    add(tmgs.name_index);
+                    collectMethod(tmgs.method_info);
+                }
+            }
+        }
+
+        private void collectMethod(int methodInfo) {
+            methodInfos.add(methodInfo);
+            methodInfoUnits.add(unit);
+            MethodInfo mi = abc.method_info.get(methodInfo);
+            for (int p : mi.param_types) {
+                add(p);
+            }
+
+            add(mi.ret_type);
+            MethodBody body = abc.findBody(methodInfo);
+            if (body != null) {
+                collectTraits(body.traits);
+                for (ABCException e : body.exceptions) {
+                    add(e.name_index);
+                    add(e.type_index);
+                }
+
+                for (AVM2Instruction ins : body.getCode().code) {
+                    int[] operandTypes = ins.definition.operands;
+                    for (int o = 0; o < operandTypes.length; o++) {
+                        if (operandTypes[o] == AVM2Code.DAT_MULTINAME_INDEX) {
+                            add(ins.operands[o]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -15,6 +15,7 @@
  * License along with this library. */
 package com.jpexs.decompiler.flash.abc;
 
+import com.jpexs.decompiler.flash.ParallelScheduler;
 import com.jpexs.decompiler.flash.SWF;
 import com.jpexs.decompiler.flash.abc.avm2.ConvertException;
 import com.jpexs.decompiler.flash.abc.avm2.instructions.AVM2Instruction;
@@ -31,6 +32,7 @@ import com.jpexs.decompiler.flash.abc.types.traits.TraitClass;
 import com.jpexs.decompiler.flash.abc.types.traits.TraitFunction;
 import com.jpexs.decompiler.flash.abc.types.traits.TraitMethodGetterSetter;
 import com.jpexs.decompiler.flash.abc.types.traits.Traits;
+import com.jpexs.decompiler.flash.cache.PersistentScriptCache;
 import com.jpexs.decompiler.flash.configuration.Configuration;
 import com.jpexs.decompiler.flash.exporters.modes.ScriptExportMode;
 import com.jpexs.decompiler.flash.exporters.settings.ScriptExportSettings;
@@ -38,13 +40,13 @@ import com.jpexs.decompiler.flash.helpers.FileTextWriter;
 import com.jpexs.decompiler.flash.helpers.GraphTextWriter;
 import com.jpexs.decompiler.flash.helpers.HighlightedText;
 import com.jpexs.decompiler.flash.helpers.NulWriter;
+import com.jpexs.decompiler.flash.helpers.StringBuilderTextWriter;
 import com.jpexs.decompiler.flash.helpers.hilight.Highlighting;
 import com.jpexs.decompiler.flash.search.MethodId;
 import com.jpexs.decompiler.flash.tags.Tag;
 import com.jpexs.decompiler.flash.treeitems.AS3ClassTreeItem;
 import com.jpexs.decompiler.graph.DottedChain;
 import com.jpexs.decompiler.graph.ScopeStack;
-import com.jpexs.helpers.CancellableWorker;
 import com.jpexs.helpers.Helper;
 import com.jpexs.helpers.Path;
 import java.io.File;
@@ -242,7 +244,7 @@ public class ScriptPack extends AS3ClassTreeItem {
         writer.suspendMeasure();
         int timeout = Configuration.decompilationTimeoutFile.get();
         try {
-            CancellableWorker.call(new Callable<Void>() {
+            ParallelScheduler.call(new Callable<Void>() {
                 @Override
                 public Void call() throws Exception {
                     convert(new NulWriter(), traits, convertData, exportMode, parallel);
@@ -284,7 +286,21 @@ public class ScriptPack extends AS3ClassTreeItem {
 
         try (FileTextWriter writer = exportSettings.singleFile ? null : new FileTextWriter(Configuration.getCodeFormatting(), new FileOutputStream(file))) {
             FileTextWriter writer2 = exportSettings.singleFile ? exportSettings.singleFileWriter : writer;
-            toSource(writer2, abc.script_info.get(scriptIndex).traits.traits, new ConvertData(), exportSettings.mode, parallel);
+            List<Trait> traits = abc.script_info.get(scriptIndex).traits.traits;
+            if (exportSettings.mode == ScriptExportMode.AS && PersistentScriptCache.isEnabled()) {
+                PersistentScriptCache.Key cacheKey = PersistentScriptCache.getKey(this, false);
+                HighlightedText cached = PersistentScriptCache.get(cacheKey);
+                if (cached == null) {
+                    StringBuilder sb = new StringBuilder();
+                    toSource(new StringBuilderTextWriter(Configuration.getCodeFormatting(), sb), traits, new ConvertData(), exportSettings.mode, parallel);
+                    cached = new HighlightedText(sb.toString());
+                    PersistentScriptCache.put(cacheKey, cached);
+                }
+
+                writer2.appendNoHilight(cached.text);
+            } else {
+                toSource(writer2, traits, new ConvertData(), exportSettings.mode, parallel);
+            }
         } catch (FileNotFoundException ex) {
             logger.log(Level.SEVERE, "The file path is probably too long", ex);
         }
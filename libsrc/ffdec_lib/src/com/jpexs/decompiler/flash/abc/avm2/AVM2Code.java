@@ -20,10 +20,7 @@ import com.jpexs.decompiler.flash.EndOfStreamException;
 import com.jpexs.decompiler.flash.abc.ABC;
 import com.jpexs.decompiler.flash.abc.ABCInputStream;
 import com.jpexs.decompiler.flash.abc.CopyOutputStream;
-import com.jpexs.decompiler.flash.abc.avm2.deobfuscation.AVM2DeobfuscatorGetSet;
-import com.jpexs.decompiler.flash.abc.avm2.deobfuscation.AVM2DeobfuscatorJumps;
-import com.jpexs.decompiler.flash.abc.avm2.deobfuscation.AVM2DeobfuscatorRegistersOld;
-import com.jpexs.decompiler.flash.abc.avm2.deobfuscation.AVM2DeobfuscatorSimpleOld;
+import com.jpexs.decompiler.flash.abc.avm2.deobfuscation.AVM2DeobfuscatorDataFlow;
 import com.jpexs.decompiler.flash.abc.avm2.exceptions.AVM2ExecutionException;
 import com.jpexs.decompiler.flash.abc.avm2.exceptions.AVM2VerifyErrorException;
 import com.jpexs.decompiler.flash.abc.avm2.graph.AVM2Graph;
@@ -265,6 +262,7 @@ import com.jpexs.decompiler.flash.abc.avm2.model.clauses.DeclarationAVM2Item;
 import com.jpexs.decompiler.flash.abc.avm2.model.clauses.ForEachInAVM2Item;
 import com.jpexs.decompiler.flash.abc.avm2.model.clauses.ForInAVM2Item;
 import com.jpexs.decompiler.flash.abc.avm2.parser.script.PropertyAVM2Item;
+import com.jpexs.helpers.CancellableWorker;
 import com.jpexs.helpers.Reference;
 import com.jpexs.decompiler.flash.abc.types.ABCException;
 import com.jpexs.decompiler.flash.abc.types.AssignedValue;
@@ -304,7 +302,10 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -877,18 +878,16 @@ public class AVM2Code implements Cloneable {
     }
 
     public AVM2Code(ABCInputStream ais, MethodBody body) throws IOException {
-        Map<Long, AVM2Instruction> codeMap = new HashMap<>();
         DumpInfo diParent = ais.dumpInfo;
-        List<Long> addresses = new ArrayList<>();
+        Deque<Long> addresses = new ArrayDeque<>();
         //Do not add new jumps when processing these addresses (unreachable code,etc.)
-        List<Long> unAdresses = new ArrayList<>();
+        Deque<Long> unAdresses = new ArrayDeque<>();
         //Handle lookupswitches at the end - they can be invalid. Handle other instruction first so we can decide lookupswitch to be invalid based on other instructions inside it
         //Flashplayer does not check casecount in lookupswitch instruction so the instruction can "be" long and over other instructions
-        List<Long> switchAddresses = new ArrayList<>();
+        Deque<Long> switchAddresses = new ArrayDeque<>();
         int availableBytes = ais.available();
-        for (int i = 0; i < availableBytes; i++) {
-            codeMap.put((long) i, new AVM2Instruction(i, AVM2Instructions.Nop, null));
-        }
+        //Instruction covering each byte, null = not decoded yet (nop)
+        AVM2Instruction[] codeMap = new AVM2Instruction[availableBytes];
 
         long startPos = ais.getPosition();
         addresses.add(startPos);
@@ -906,12 +905,12 @@ public class AVM2Code implements Cloneable {
             boolean isSwitch = false;
             boolean handleJumps = true;
             if (!addresses.isEmpty()) {
-                address = addresses.remove(0);
+                address = addresses.removeFirst();
             } else if (!switchAddresses.isEmpty()) {
-                address = switchAddresses.remove(0);
+                address = switchAddresses.removeFirst();
                 isSwitch = true;
             } else {
-                address = unAdresses.remove(0);
+                address = unAdresses.removeFirst();
                 handleJumps = false;
             }
             if (address < startPos) // no jump outside block
@@ -923,7 +922,7 @@ public class AVM2Code implements Cloneable {
                 while (ais.available() > 0) {
                     long startOffset = ais.getPosition();
 
-                    if (codeMap.containsKey(startOffset) && !(codeMap.get(startOffset).definition instanceof NopIns)) {
+                    if (isDecoded(codeMap, startOffset)) {
                         continue loopaddr;
                     }
 
@@ -954,7 +953,7 @@ public class AVM2Code implements Cloneable {
                                 boolean invalidSwitch = false;
                                 //If there are already some instructions in the lookupswitch bytes, the lookupswitch is invalid (obfuscation)
                                 for (long a = startOffset; a < afterCasePos; a++) {
-                                    if (codeMap.containsKey(a) && (!(codeMap.get(a).definition instanceof NopIns))) {
+                                    if (isDecoded(codeMap, a)) {
                                         invalidSwitch = true;
                                         break;
                                     }
@@ -1004,8 +1003,9 @@ public class AVM2Code implements Cloneable {
 
                             boolean hasRoom = true;
                             for (long p = startOffset; p < endOffset; p++) {
-                                if (codeMap.containsKey(p) && !(codeMap.get(p).definition instanceof NopIns)) {
+                                if (isDecoded(codeMap, p)) {
                                     hasRoom = false;
+                                    break;
                                 }
                             }
 
@@ -1013,8 +1013,8 @@ public class AVM2Code implements Cloneable {
                             if (!hasRoom) {
                                 continue loopaddr;
                             }
-                            for (long p = startOffset; p < endOffset; p++) {
-                                codeMap.put(p, ai);
+                            for (long p = Math.max(startOffset, 0); p < endOffset && p < codeMap.length; p++) {
+                                codeMap[(int) p] = ai;
                             }
 
                             if ((instr instanceof IfTypeIns)) {
@@ -1083,17 +1083,47 @@ public class AVM2Code implements Cloneable {
             diParent.sortChildren();
         }
 
-        code = new ArrayList<>(codeMap.size());
+        int count = 0;
         AVM2Instruction prev = null;
         for (int i = 0; i < availableBytes; i++) {
-            AVM2Instruction ins = codeMap.get((long) i);
-            if (prev != ins) {
+            AVM2Instruction ins = codeMap[i];
+            if (ins == null || prev != ins) {
+                count++;
+            }
+            prev = ins;
+        }
+
+        code = new ArrayList<>(count);
+        prev = null;
+        for (int i = 0; i < availableBytes; i++) {
+            AVM2Instruction ins = codeMap[i];
+            if (ins == null) {
+                //bytes which were not decoded are kept as nops
+                code.add(new AVM2Instruction(i, AVM2Instructions.Nop, null));
+            } else if (prev != ins) {
                 code.add(ins);
             }
             prev = ins;
         }
     }
 
+    /**
+     * Checks whether the byte at the address belongs to an already decoded
+     * instruction. Decoded nops can be overwritten as well.
+     *
+     * @param codeMap Instructions covering the bytes
+     * @param address Address
+     * @return True when the byte is used
+     */
+    private static boolean isDecoded(AVM2Instruction[] codeMap, long address) {
+        if (address < 0 || address >= codeMap.length) {
+            return false;
+        }
+
+        AVM2Instruction ins = codeMap[(int) address];
+        return ins != null && !(ins.definition instanceof NopIns);
+    }
+
     public void compact() {
         if (code instanceof ArrayList) {
             ((ArrayList) code).trimToSize();
@@ -1550,6 +1580,9 @@ public class AVM2Code implements Cloneable {
         //int addr;
         iploop:
         while (ip <= end) {
+            if (CancellableWorker.isInterrupted()) {
+                throw new InterruptedException();
+            }
 
             boolean processTry = processJumps;
             //addr = pos2adr(ip);
@@ -2429,17 +2462,8 @@ public class AVM2Code implements Cloneable {
 
     public int removeTraps(Trait trait, int methodInfo, MethodBody body, ABC abc, int scriptIndex, int classIndex, boolean isStatic, String path) throws InterruptedException {
         SWFDecompilerPlugin.fireAvm2CodeRemoveTraps(path, classIndex, isStatic, scriptIndex, abc, trait, methodInfo, body);
-        try (Statistics s = new Statistics("AVM2DeobfuscatorGetSet")) {
-            new AVM2DeobfuscatorGetSet().avm2CodeRemoveTraps(path, classIndex, isStatic, scriptIndex, abc, trait, methodInfo, body);
-        }
-        try (Statistics s = new Statistics("AVM2DeobfuscatorSimple")) {
-            new AVM2DeobfuscatorSimpleOld().avm2CodeRemoveTraps(path, classIndex, isStatic, scriptIndex, abc, trait, methodInfo, body);
-        }
-        try (Statistics s = new Statistics("AVM2DeobfuscatorRegisters")) {
-            new AVM2DeobfuscatorRegistersOld().avm2CodeRemoveTraps(path, classIndex, isStatic, scriptIndex, abc, trait, methodInfo, body);
-        }
-        try (Statistics s = new Statistics("AVM2DeobfuscatorJumps")) {
-            new AVM2DeobfuscatorJumps().avm2CodeRemoveTraps(path, classIndex, isStatic, scriptIndex, abc, trait, methodInfo, body);
+        try (Statistics s = new Statistics("AVM2DeobfuscatorDataFlow")) {
+            new AVM2DeobfuscatorDataFlow().avm2CodeRemoveTraps(path, classIndex, isStatic, scriptIndex, abc, trait, methodInfo, body);
         }
         return 1;
     }
@@ -2635,7 +2659,7 @@ public class AVM2Code implements Cloneable {
         toVisit.add(ip);
         toVisitLast.add(lastIp);
         while (!toVisit.isEmpty()) {
-            if (Thread.currentThread().isInterrupted()) {
+            if (CancellableWorker.isInterrupted()) {
                 throw new InterruptedException();
             }
             ip = toVisit.remove(0);
@@ -2712,14 +2736,168 @@ public class AVM2Code implements Cloneable {
     }
 
     public void removeIgnored(MethodBody body) throws InterruptedException {
-        //System.err.println("removing ignored...");
-        for (int i = 0; i < code.size(); i++) {
-            if (code.get(i).isIgnored()) {
-                removeInstruction(i, body);
-                i--;
+        int removedCount = 0;
+        for (AVM2Instruction ins : code) {
+            if (ins.isIgnored()) {
+                removedCount++;
             }
         }
-        //System.err.println("/ignored removed");
+
+        if (removedCount == 0) {
+            return;
+        }
+
+        //Same result as calling removeInstruction for each ignored instruction, but the offsets are updated only once
+        final long[] removedAddresses = new long[removedCount];
+        final long[] removedBytes = new long[removedCount + 1];
+        int r = 0;
+        for (AVM2Instruction ins : code) {
+            if (ins.isIgnored()) {
+                if (r > 0 && removedAddresses[r - 1] >= ins.getAddress()) {
+                    //addresses are not ordered, remove one by one
+                    for (int i = 0; i < code.size(); i++) {
+                        if (code.get(i).isIgnored()) {
+                            removeInstruction(i, body);
+                            i--;
+                        }
+                    }
+                    return;
+                }
+
+                removedAddresses[r] = ins.getAddress();
+                removedBytes[r + 1] = removedBytes[r] + ins.getBytesLength();
+                r++;
+            }
+        }
+
+        updateOffsets(new OffsetUpdater() {
+
+            /**
+             * Gets the number of the removed bytes before the address
+             */
+            private long shift(long address) {
+                int lo = 0;
+                int hi = removedAddresses.length;
+                while (lo < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (removedAddresses[mid] < address) {
+                        lo = mid + 1;
+                    } else {
+                        hi = mid;
+                    }
+                }
+
+                return removedBytes[lo];
+            }
+
+            @Override
+            public long updateInstructionOffset(long address) {
+                return address - shift(address);
+            }
+
+            @Override
+            public int updateOperandOffset(long jumpInsAddr, long jumpTargetAddr, int jumpOffset) {
+                return (int) (jumpOffset + shift(jumpInsAddr) - shift(jumpTargetAddr));
+            }
+        }, body);
+
+        List<AVM2Instruction> newCode = new ArrayList<>(code.size() - removedCount);
+        for (AVM2Instruction ins : code) {
+            if (!ins.isIgnored()) {
+                newCode.add(ins);
+            }
+        }
+
+        code.clear();
+        code.addAll(newCode);
+    }
+
+    /**
+     * Replaces the instructions at the specified positions and updates all the
+     * offsets once. An empty list removes the instruction. Jumps, switches and
+     * exceptions targeting a replaced instruction are moved to the first new
+     * instruction, or to the next remaining instruction when it was removed.
+     * Note: The address of the new instruction must be the address of the
+     * instruction it replaces, the jump offsets of the new instructions are
+     * relative to it.
+     *
+     * @param replacements Map of position to the new instructions
+     * @param body Method body (used for try handling)
+     */
+    public void replaceInstructions(Map<Integer, List<AVM2Instruction>> replacements, MethodBody body) {
+        if (replacements.isEmpty()) {
+            return;
+        }
+
+        int size = code.size();
+        long[] oldAddresses = new long[size + 1];
+        long[] newAddresses = new long[size + 1];
+        long address = size == 0 ? 0 : code.get(0).getAddress();
+        for (int i = 0; i < size; i++) {
+            oldAddresses[i] = code.get(i).getAddress();
+            newAddresses[i] = address;
+            List<AVM2Instruction> replacement = replacements.get(i);
+            if (replacement == null) {
+                address += code.get(i).getBytesLength();
+            } else {
+                for (AVM2Instruction ins : replacement) {
+                    address += ins.getBytesLength();
+                }
+            }
+        }
+
+        oldAddresses[size] = getEndOffset();
+        newAddresses[size] = address;
+
+        List<AVM2Instruction> newCode = new ArrayList<>(size);
+        address = newAddresses[0];
+        for (int i = 0; i < size; i++) {
+            List<AVM2Instruction> replacement = replacements.get(i);
+            if (replacement == null) {
+                replacement = code.subList(i, i + 1);
+            }
+
+            for (AVM2Instruction ins : replacement) {
+                if (ins.definition instanceof LookupSwitchIns) {
+                    for (int k = 0; k < ins.operands.length; k++) {
+                        if (k != 1) {
+                            long target = mapAddress(oldAddresses, newAddresses, ins.getAddress() + ins.operands[k]);
+                            ins.operands[k] = (int) (target - address);
+                        }
+                    }
+                    ins.setAddress(address);
+                } else if (ins.definition instanceof IfTypeIns) {
+                    long target = mapAddress(oldAddresses, newAddresses, ins.getTargetAddress());
+                    ins.setAddress(address);
+                    ins.operands[0] += (int) (target - ins.getTargetAddress());
+                } else {
+                    ins.setAddress(address);
+                }
+
+                address += ins.getBytesLength();
+                newCode.add(ins);
+            }
+        }
+
+        if (body != null) {
+            for (ABCException ex : body.exceptions) {
+                ex.start = (int) mapAddress(oldAddresses, newAddresses, ex.start);
+                ex.end = (int) mapAddress(oldAddresses, newAddresses, ex.end);
+                ex.target = (int) mapAddress(oldAddresses, newAddresses, ex.target);
+            }
+        }
+
+        code.clear();
+        code.addAll(newCode);
+    }
+
+    private static long mapAddress(long[] oldAddresses, long[] newAddresses, long address) {
+        int pos = Arrays.binarySearch(oldAddresses, address);
+        if (pos < 0) {
+            throw new ConvertException("Invalid jump to ofs" + Helper.formatAddress(address), -1);
+        }
+
+        return newAddresses[pos];
     }
 
     public int removeDeadCode(MethodBody body) throws InterruptedException {
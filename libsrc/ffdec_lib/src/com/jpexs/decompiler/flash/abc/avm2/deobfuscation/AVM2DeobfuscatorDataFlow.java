@@ -0,0 +1,1208 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+package com.jpexs.decompiler.flash.abc.avm2.deobfuscation;
+
+import com.jpexs.decompiler.flash.abc.ABC;
+import com.jpexs.decompiler.flash.abc.AVM2LocalData;
+import com.jpexs.decompiler.flash.abc.avm2.AVM2Code;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.AVM2Instruction;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.AVM2Instructions;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.DeobfuscatePopIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.IfTypeIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.InstructionDefinition;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.arithmetic.AddIIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.arithmetic.AddIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.arithmetic.DecrementIIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.arithmetic.DecrementIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.arithmetic.DivideIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.arithmetic.IncrementIIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.arithmetic.IncrementIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.arithmetic.ModuloIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.arithmetic.MultiplyIIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.arithmetic.MultiplyIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.arithmetic.NegateIIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.arithmetic.NegateIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.arithmetic.NotIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.arithmetic.SubtractIIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.arithmetic.SubtractIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.bitwise.BitAndIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.bitwise.BitNotIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.bitwise.BitOrIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.bitwise.BitXorIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.bitwise.LShiftIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.bitwise.RShiftIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.bitwise.URShiftIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.comparison.EqualsIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.comparison.GreaterEqualsIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.comparison.GreaterThanIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.comparison.LessEqualsIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.comparison.LessThanIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.comparison.StrictEqualsIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.construction.NewFunctionIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.jumps.JumpIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.jumps.LookupSwitchIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.localregs.GetLocalTypeIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.localregs.KillIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.localregs.SetLocalTypeIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.stack.DupIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.stack.PopIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.stack.PushByteIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.stack.PushDoubleIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.stack.PushFalseIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.stack.PushIntIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.stack.PushNanIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.stack.PushNullIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.stack.PushShortIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.stack.PushStringIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.stack.PushTrueIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.stack.PushUIntIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.stack.PushUndefinedIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.stack.SwapIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.types.CoerceAIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.types.CoerceSIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.types.ConvertBIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.types.ConvertDIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.types.ConvertIIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.types.ConvertSIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.types.ConvertUIns;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.types.TypeOfIns;
+import com.jpexs.decompiler.flash.abc.avm2.model.FloatValueAVM2Item;
+import com.jpexs.decompiler.flash.abc.avm2.model.IntegerValueAVM2Item;
+import com.jpexs.decompiler.flash.abc.avm2.model.NullAVM2Item;
+import com.jpexs.decompiler.flash.abc.avm2.model.StringAVM2Item;
+import com.jpexs.decompiler.flash.abc.avm2.model.UndefinedAVM2Item;
+import com.jpexs.decompiler.flash.abc.types.ABCException;
+import com.jpexs.decompiler.flash.abc.types.MethodBody;
+import com.jpexs.decompiler.flash.abc.types.traits.Trait;
+import com.jpexs.decompiler.flash.ecma.Null;
+import com.jpexs.decompiler.flash.ecma.Undefined;
+import com.jpexs.decompiler.flash.helpers.SWFDecompilerAdapter;
+import com.jpexs.decompiler.graph.Graph;
+import com.jpexs.decompiler.graph.GraphTargetItem;
+import com.jpexs.decompiler.graph.ScopeStack;
+import com.jpexs.decompiler.graph.TranslateStack;
+import com.jpexs.decompiler.graph.model.FalseItem;
+import com.jpexs.decompiler.graph.model.TrueItem;
+import com.jpexs.helpers.CancellableWorker;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AVM2 deobfuscator analyzing the whole method body at once.
+ *
+ * The code is split to basic blocks, the constant values of the operand stack
+ * and of the local registers are propagated over the control flow graph and
+ * the liveness of the registers is computed. Constant conditions, registers
+ * with single constant assignment (static single assignment), dead and self
+ * assignments, unused constants and jump chains are then simplified and all
+ * the changes are applied to the code in one rewrite.
+ *
+ * Example: var a = true; var b = false; ... if(a){ ...ok }else{ not executed }
+ *
+ * @author JPEXS
+ */
+public class AVM2DeobfuscatorDataFlow extends SWFDecompilerAdapter {
+
+    @Override
+    public void avm2CodeRemoveTraps(String path, int classIndex, boolean isStatic, int scriptIndex, ABC abc, Trait trait, int methodInfo, MethodBody body) throws InterruptedException {
+        if (body.getCode().code.isEmpty()) {
+            return;
+        }
+
+        new Analysis(abc, body, isStatic, classIndex, scriptIndex).execute();
+    }
+
+    /**
+     * Unknown value of a stack item or a register
+     */
+    private static final Object UNKNOWN = new Object();
+
+    private static boolean isKnown(Object value) {
+        return value != null && value != UNKNOWN;
+    }
+
+    private static boolean isConstantPush(InstructionDefinition def) {
+        return def instanceof PushByteIns
+                || def instanceof PushShortIns
+                || def instanceof PushIntIns
+                || def instanceof PushUIntIns
+                || def instanceof PushDoubleIns
+                || def instanceof PushStringIns
+                || def instanceof PushTrueIns
+                || def instanceof PushFalseIns
+                || def instanceof PushNullIns
+                || def instanceof PushUndefinedIns
+                || def instanceof PushNanIns;
+    }
+
+    /**
+     * Instructions without side effects when the operands are primitive
+     * constants.
+     */
+    private static boolean isEvaluable(InstructionDefinition def) {
+        return def instanceof AddIns
+                || def instanceof AddIIns
+                || def instanceof SubtractIns
+                || def instanceof SubtractIIns
+                || def instanceof MultiplyIns
+                || def instanceof MultiplyIIns
+                || def instanceof DivideIns
+                || def instanceof ModuloIns
+                || def instanceof NegateIns
+                || def instanceof NegateIIns
+                || def instanceof IncrementIns
+                || def instanceof IncrementIIns
+                || def instanceof DecrementIns
+                || def instanceof DecrementIIns
+                || def instanceof NotIns
+                || def instanceof BitAndIns
+                || def instanceof BitOrIns
+                || def instanceof BitXorIns
+                || def instanceof BitNotIns
+                || def instanceof LShiftIns
+                || def instanceof RShiftIns
+                || def instanceof URShiftIns
+                || def instanceof EqualsIns
+                || def instanceof StrictEqualsIns
+                || def instanceof LessThanIns
+                || def instanceof LessEqualsIns
+                || def instanceof GreaterThanIns
+                || def instanceof GreaterEqualsIns
+                || def instanceof TypeOfIns
+                || def instanceof CoerceAIns
+                || def instanceof CoerceSIns
+                || def instanceof ConvertBIns
+                || def instanceof ConvertDIns
+                || def instanceof ConvertIIns
+                || def instanceof ConvertSIns
+                || def instanceof ConvertUIns;
+    }
+
+    private static Object toValue(Object result) {
+        if (result instanceof Integer) {
+            return (long) (Integer) result;
+        }
+
+        if (result instanceof Long
+                || result instanceof Double
+                || result instanceof String
+                || result instanceof Boolean
+                || result == Null.INSTANCE
+                || result == Undefined.INSTANCE) {
+            return result;
+        }
+
+        return UNKNOWN;
+    }
+
+    private static GraphTargetItem toItem(Object value) {
+        if (value instanceof Long) {
+            return new IntegerValueAVM2Item(null, null, (Long) value);
+        }
+        if (value instanceof Double) {
+            return new FloatValueAVM2Item(null, null, (Double) value);
+        }
+        if (value instanceof String) {
+            return new StringAVM2Item(null, null, (String) value);
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? new TrueItem(null, null) : new FalseItem(null, null);
+        }
+        if (value == Null.INSTANCE) {
+            return new NullAVM2Item(null, null);
+        }
+
+        return new UndefinedAVM2Item(null, null);
+    }
+
+    /**
+     * Value can be pushed by a single instruction
+     */
+    private static boolean isPushable(Object value) {
+        if (value instanceof Long) {
+            long longValue = (Long) value;
+            return longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE;
+        }
+
+        return isKnown(value);
+    }
+
+    /**
+     * Values of the operand stack and of the local registers. Each value has an
+     * identifier, the same identifier means the same value inside a block.
+     */
+    private static final class State {
+
+        private Object[] stack;
+
+        private int[] stackIds;
+
+        private int size;
+
+        private final Object[] registers;
+
+        private final int[] registerIds;
+
+        public State(int registerCount) {
+            stack = new Object[8];
+            stackIds = new int[8];
+            registers = new Object[registerCount];
+            registerIds = new int[registerCount];
+        }
+
+        public State copy() {
+            State result = new State(registers.length);
+            result.stack = Arrays.copyOf(stack, stack.length);
+            result.stackIds = Arrays.copyOf(stackIds, stackIds.length);
+            result.size = size;
+            System.arraycopy(registers, 0, result.registers, 0, registers.length);
+            System.arraycopy(registerIds, 0, result.registerIds, 0, registers.length);
+            return result;
+        }
+
+        public void push(Object value, int id) {
+            if (size == stack.length) {
+                stack = Arrays.copyOf(stack, size * 2);
+                stackIds = Arrays.copyOf(stackIds, size * 2);
+            }
+
+            stack[size] = value;
+            stackIds[size] = id;
+            size++;
+        }
+
+        public Object pop() {
+            if (size == 0) {
+                return UNKNOWN;
+            }
+
+            size--;
+            return stack[size];
+        }
+
+        public Object[] pop(int count) {
+            Object[] result = new Object[count];
+            for (int i = count - 1; i >= 0; i--) {
+                result[i] = pop();
+            }
+
+            return result;
+        }
+
+        public int peekId() {
+            return size == 0 ? 0 : stackIds[size - 1];
+        }
+
+        public void setRegister(int reg, Object value, int id) {
+            if (reg >= 0 && reg < registers.length) {
+                registers[reg] = value;
+                registerIds[reg] = id;
+            }
+        }
+
+        public Object getRegister(int reg) {
+            return reg >= 0 && reg < registers.length ? registers[reg] : UNKNOWN;
+        }
+
+        public int getRegisterId(int reg) {
+            return reg >= 0 && reg < registers.length ? registerIds[reg] : 0;
+        }
+
+        private static boolean same(Object value1, Object value2) {
+            return value1 == value2 || (isKnown(value1) && value1.equals(value2));
+        }
+
+        /**
+         * Merges the incoming state, the values which differ become unknown.
+         *
+         * @param incoming Incoming state
+         * @return True when the state changed
+         */
+        public boolean merge(State incoming) {
+            boolean changed = false;
+            boolean sameSize = incoming.size == size;
+            if (incoming.size < size) {
+                size = incoming.size;
+                changed = true;
+            }
+
+            for (int i = 0; i < size; i++) {
+                if (stack[i] != UNKNOWN && (!sameSize || !same(stack[i], incoming.stack[i]))) {
+                    stack[i] = UNKNOWN;
+                    changed = true;
+                }
+            }
+
+            for (int i = 0; i < registers.length; i++) {
+                if (registers[i] != UNKNOWN && !same(registers[i], incoming.registers[i])) {
+                    registers[i] = UNKNOWN;
+                    changed = true;
+                }
+            }
+
+            return changed;
+        }
+    }
+
+    private static final class Analysis {
+
+        private final ABC abc;
+
+        private final MethodBody body;
+
+        private final AVM2Code code;
+
+        private final List<AVM2Instruction> list;
+
+        private final int size;
+
+        private final int localReservedCount;
+
+        private final AVM2LocalData localData;
+
+        private final List<GraphTargetItem> output = new ArrayList<>();
+
+        private int registerCount;
+
+        /**
+         * Start positions of the blocks, last item is the code size
+         */
+        private int[] blockStarts;
+
+        private int[] blockOf;
+
+        /**
+         * Target position of the jumps and ifs
+         */
+        private int[] targets;
+
+        private int[][] exceptionPositions;
+
+        private State[] entries;
+
+        private Boolean condition;
+
+        private int lastId;
+
+        // Results of the last execution of each reachable instruction
+        private Boolean[] conditions;
+
+        private Object[] results;
+
+        private boolean[] pure;
+
+        private boolean[] selfAssignments;
+
+        private boolean[] singleAssigned;
+
+        /**
+         * Registers released by kill. These are temporaries of the compiler
+         * (chained assignments, switch, XML filters), their values are not
+         * propagated so the decompiler still recognizes the patterns.
+         */
+        private boolean[] temporaries;
+
+        private boolean[] inlined;
+
+        private boolean[] deadStores;
+
+        // Rewrite
+        private boolean[] removed;
+
+        private final Map<Integer, List<AVM2Instruction>> replacements = new HashMap<>();
+
+        public Analysis(ABC abc, MethodBody body, boolean isStatic, int classIndex, int scriptIndex) {
+            this.abc = abc;
+            this.body = body;
+            code = body.getCode();
+            list = code.code;
+            size = list.size();
+            localReservedCount = body.getLocalReservedCount();
+            localData = new AVM2LocalData();
+            localData.isStatic = isStatic;
+            localData.classIndex = classIndex;
+            localData.localRegs = new HashMap<>();
+            localData.localRegAssignmentIps = new HashMap<>();
+            localData.scopeStack = new ScopeStack(true);
+            localData.methodBody = body;
+            localData.abc = abc;
+            localData.localRegNames = new HashMap<>();
+            localData.scriptIndex = scriptIndex;
+            localData.ip = 0;
+            localData.code = code;
+        }
+
+        public void execute() throws InterruptedException {
+            buildBlocks();
+            propagateConstants();
+            replay();
+            findInlinedRegisters();
+            computeLiveness();
+            simplify();
+            threadJumps();
+            removeUnreachable();
+            removeZeroJumps();
+
+            Map<Integer, List<AVM2Instruction>> result = new HashMap<>(replacements);
+            for (int i = 0; i < size; i++) {
+                if (removed[i]) {
+                    result.put(i, new ArrayList<>());
+                }
+            }
+
+            code.replaceInstructions(result, body);
+        }
+
+        private void buildBlocks() {
+            boolean[] leaders = new boolean[size + 1];
+            targets = new int[size];
+            leaders[0] = true;
+            leaders[size] = true;
+            registerCount = Math.max(body.max_regs, localReservedCount);
+            for (int i = 0; i < size; i++) {
+                AVM2Instruction ins = list.get(i);
+                InstructionDefinition def = ins.definition;
+                targets[i] = -1;
+                if (def instanceof IfTypeIns) {
+                    targets[i] = code.adr2pos(ins.getTargetAddress());
+                    leaders[targets[i]] = true;
+                    leaders[i + 1] = true;
+                } else if (def instanceof LookupSwitchIns) {
+                    for (int target : getSwitchTargets(ins)) {
+                        leaders[target] = true;
+                    }
+                    leaders[i + 1] = true;
+                } else if (ins.isExit()) {
+                    leaders[i + 1] = true;
+                }
+
+                for (int p = 0; p < def.operands.length; p++) {
+                    if (def.operands[p] == AVM2Code.DAT_LOCAL_REG_INDEX) {
+                        registerCount = Math.max(registerCount, ins.operands[p] + 1);
+                    }
+                }
+                if (def instanceof GetLocalTypeIns) {
+                    registerCount = Math.max(registerCount, ((GetLocalTypeIns) def).getRegisterId(ins) + 1);
+                } else if (def instanceof SetLocalTypeIns) {
+                    registerCount = Math.max(registerCount, ((SetLocalTypeIns) def).getRegisterId(ins) + 1);
+                }
+            }
+
+            exceptionPositions = new int[body.exceptions.length][];
+            for (int e = 0; e < body.exceptions.length; e++) {
+                ABCException ex = body.exceptions[e];
+                int[] positions = new int[]{code.adr2pos(ex.start, true), code.adr2pos(ex.end, true), code.adr2pos(ex.target, true)};
+                for (int position : positions) {
+                    leaders[position] = true;
+                }
+                exceptionPositions[e] = positions;
+            }
+
+            int blockCount = 0;
+            for (int i = 0; i < size; i++) {
+                if (leaders[i]) {
+                    blockCount++;
+                }
+            }
+
+            blockStarts = new int[blockCount + 1];
+            blockOf = new int[size + 1];
+            int b = -1;
+            for (int i = 0; i < size; i++) {
+                if (leaders[i]) {
+                    b++;
+                    blockStarts[b] = i;
+                }
+                blockOf[i] = b;
+            }
+
+            blockStarts[blockCount] = size;
+            blockOf[size] = blockCount;
+
+            temporaries = new boolean[registerCount];
+            for (int i = 0; i < size; i++) {
+                AVM2Instruction ins = list.get(i);
+                if (ins.definition instanceof KillIns) {
+                    temporaries[ins.operands[0]] = true;
+                }
+            }
+        }
+
+        private int[] getSwitchTargets(AVM2Instruction ins) {
+            int[] result = new int[ins.operands.length - 1];
+            result[0] = code.adr2pos(ins.getAddress() + ins.operands[0]);
+            for (int k = 2; k < ins.operands.length; k++) {
+                result[k - 1] = code.adr2pos(ins.getAddress() + ins.operands[k]);
+            }
+
+            return result;
+        }
+
+        private int getBlockCount() {
+            return blockStarts.length - 1;
+        }
+
+        /**
+         * Gets the successor blocks. The last executed condition is used for
+         * the if at the end of the block.
+         */
+        private List<Integer> getSuccessors(int b, Boolean blockCondition) {
+            List<Integer> result = new ArrayList<>(2);
+            int last = blockStarts[b + 1] - 1;
+            AVM2Instruction ins = list.get(last);
+            InstructionDefinition def = ins.definition;
+            if (def instanceof JumpIns) {
+                result.add(blockOf[targets[last]]);
+            } else if (def instanceof IfTypeIns) {
+                if (blockCondition != Boolean.TRUE && last + 1 < size) {
+                    result.add(b + 1);
+                }
+                if (blockCondition != Boolean.FALSE) {
+                    result.add(blockOf[targets[last]]);
+                }
+            } else if (def instanceof LookupSwitchIns) {
+                for (int target : getSwitchTargets(ins)) {
+                    result.add(blockOf[target]);
+                }
+            } else if (!ins.isExit() && last + 1 < size) {
+                result.add(b + 1);
+            }
+
+            return result;
+        }
+
+        private State createUnknownState() {
+            State state = new State(registerCount);
+            Arrays.fill(state.registers, UNKNOWN);
+            return state;
+        }
+
+        private void merge(int b, State state, Deque<Integer> queue, boolean[] queued) {
+            if (b >= getBlockCount()) {
+                return;
+            }
+
+            boolean changed;
+            if (entries[b] == null) {
+                entries[b] = state.copy();
+                changed = true;
+            } else {
+                changed = entries[b].merge(state);
+            }
+
+            if (changed && !queued[b]) {
+                queued[b] = true;
+                queue.add(b);
+            }
+        }
+
+        private void propagateConstants() throws InterruptedException {
+            int blockCount = getBlockCount();
+            entries = new State[blockCount];
+            Deque<Integer> queue = new ArrayDeque<>();
+            boolean[] queued = new boolean[blockCount];
+
+            State initial = new State(registerCount);
+            for (int r = 0; r < registerCount; r++) {
+                initial.registers[r] = r < localReservedCount ? UNKNOWN : Undefined.INSTANCE;
+            }
+            merge(0, initial, queue, queued);
+
+            for (int[] positions : exceptionPositions) {
+                State handler = createUnknownState();
+                handler.push(UNKNOWN, 0);
+                merge(blockOf[positions[2]], handler, queue, queued);
+            }
+
+            while (true) {
+                while (!queue.isEmpty()) {
+                    if (CancellableWorker.isInterrupted()) {
+                        throw new InterruptedException();
+                    }
+
+                    int b = queue.poll();
+                    queued[b] = false;
+                    State state = entries[b].copy();
+                    for (int i = blockStarts[b]; i < blockStarts[b + 1]; i++) {
+                        execute(i, state, false);
+                    }
+
+                    for (int successor : getSuccessors(b, condition)) {
+                        merge(successor, state, queue, queued);
+                    }
+                }
+
+                // Try block starts and ends are always visited, like in AVM2Code.visitCode
+                for (int[] positions : exceptionPositions) {
+                    for (int k = 0; k < 2; k++) {
+                        int b = blockOf[positions[k]];
+                        if (b < blockCount && entries[b] == null) {
+                            merge(b, createUnknownState(), queue, queued);
+                        }
+                    }
+                }
+
+                if (queue.isEmpty()) {
+                    break;
+                }
+            }
+        }
+
+        private Object evaluate(AVM2Instruction ins, Object[] operands) throws InterruptedException {
+            TranslateStack stack = new TranslateStack("deo");
+            for (Object operand : operands) {
+                stack.push(toItem(operand));
+            }
+
+            try {
+                ins.translate(localData, stack, output, Graph.SOP_USE_STATIC, "");
+                output.clear();
+                if (stack.size() != 1) {
+                    return UNKNOWN;
+                }
+
+                GraphTargetItem item = stack.pop();
+                if (!item.isCompileTime()) {
+                    return UNKNOWN;
+                }
+
+                if (ins.definition instanceof IfTypeIns) {
+                    return item.getResultAsBoolean();
+                }
+
+                return toValue(item.getResult());
+            } catch (RuntimeException ex) {
+                // not a compile time value
+                output.clear();
+                return UNKNOWN;
+            }
+        }
+
+        private static boolean allKnown(Object[] values) {
+            for (Object value : values) {
+                if (!isKnown(value)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Executes the instruction on the abstract state.
+         *
+         * @param pos Position
+         * @param state State
+         * @param record Record the results for the simplification
+         */
+        private void execute(int pos, State state, boolean record) throws InterruptedException {
+            AVM2Instruction ins = list.get(pos);
+            InstructionDefinition def = ins.definition;
+            condition = null;
+            Object result = UNKNOWN;
+            boolean isPure = false;
+            if (def instanceof GetLocalTypeIns) {
+                int reg = ((GetLocalTypeIns) def).getRegisterId(ins);
+                result = state.getRegister(reg);
+                state.push(result, state.getRegisterId(reg));
+                isPure = true;
+            } else if (def instanceof SetLocalTypeIns) {
+                int reg = ((SetLocalTypeIns) def).getRegisterId(ins);
+                int id = state.peekId();
+                result = state.pop();
+                if (record) {
+                    selfAssignments[pos] = id != 0 && id == state.getRegisterId(reg);
+                }
+                state.setRegister(reg, temporaries[reg] ? UNKNOWN : result, id);
+            } else if (def instanceof DupIns) {
+                int id = state.peekId();
+                result = state.pop();
+                state.push(result, id);
+                state.push(result, id);
+                isPure = true;
+            } else if (def instanceof SwapIns) {
+                int id2 = state.peekId();
+                Object value2 = state.pop();
+                int id1 = state.peekId();
+                Object value1 = state.pop();
+                state.push(value2, id2);
+                state.push(value1, id1);
+                isPure = true;
+            } else if (def instanceof PopIns) {
+                state.pop();
+            } else if (def instanceof IfTypeIns) {
+                Object[] operands = state.pop(def.getStackPopCount(ins, abc));
+                if (!(def instanceof JumpIns) && allKnown(operands)) {
+                    Object value = evaluate(ins, operands);
+                    condition = value instanceof Boolean ? (Boolean) value : null;
+                }
+            } else if (isConstantPush(def) || isEvaluable(def)) {
+                Object[] operands = state.pop(def.getStackPopCount(ins, abc));
+                isPure = allKnown(operands);
+                result = isPure ? evaluate(ins, operands) : UNKNOWN;
+                state.push(result, ++lastId);
+            } else {
+                state.pop(def.getStackPopCount(ins, abc));
+                int pushCount = def.getStackPushCount(ins, abc);
+                for (int i = 0; i < pushCount; i++) {
+                    state.push(UNKNOWN, ++lastId);
+                }
+
+                for (int p = 0; p < def.operands.length; p++) {
+                    if (def.operands[p] == AVM2Code.DAT_LOCAL_REG_INDEX) {
+                        state.setRegister(ins.operands[p], UNKNOWN, ++lastId);
+                    }
+                }
+
+                isPure = def instanceof NewFunctionIns;
+            }
+
+            if (record) {
+                results[pos] = result;
+                pure[pos] = isPure;
+                conditions[pos] = condition;
+            }
+        }
+
+        /**
+         * Executes all the reachable blocks once more with the final entry
+         * states and records the results of the instructions.
+         */
+        private void replay() throws InterruptedException {
+            conditions = new Boolean[size];
+            results = new Object[size];
+            pure = new boolean[size];
+            selfAssignments = new boolean[size];
+            for (int b = 0; b < getBlockCount(); b++) {
+                if (CancellableWorker.isInterrupted()) {
+                    throw new InterruptedException();
+                }
+
+                if (entries[b] == null) {
+                    continue;
+                }
+
+                // new identifiers, the values are the same only inside the block
+                State state = entries[b].copy();
+                for (int i = 0; i < state.size; i++) {
+                    state.stackIds[i] = ++lastId;
+                }
+                for (int r = 0; r < registerCount; r++) {
+                    state.registerIds[r] = ++lastId;
+                }
+
+                for (int i = blockStarts[b]; i < blockStarts[b + 1]; i++) {
+                    execute(i, state, true);
+                }
+            }
+        }
+
+        private int getRegisterId(AVM2Instruction ins) {
+            if (ins.definition instanceof GetLocalTypeIns) {
+                return ((GetLocalTypeIns) ins.definition).getRegisterId(ins);
+            }
+            if (ins.definition instanceof SetLocalTypeIns) {
+                return ((SetLocalTypeIns) ins.definition).getRegisterId(ins);
+            }
+
+            return -1;
+        }
+
+        /**
+         * Finds reads of registers with single assignment which can be
+         * replaced by the constant value.
+         */
+        private void findInlinedRegisters() {
+            int[] setCount = new int[registerCount];
+            boolean[] otherUsage = new boolean[registerCount];
+            for (int b = 0; b < getBlockCount(); b++) {
+                if (entries[b] == null) {
+                    continue;
+                }
+
+                for (int i = blockStarts[b]; i < blockStarts[b + 1]; i++) {
+                    AVM2Instruction ins = list.get(i);
+                    InstructionDefinition def = ins.definition;
+                    if (def instanceof SetLocalTypeIns) {
+                        setCount[getRegisterId(ins)]++;
+                    } else if (!(def instanceof GetLocalTypeIns)) {
+                        // generic getlocal has the register as an operand, too, but it is a plain read
+                        for (int p = 0; p < def.operands.length; p++) {
+                            if (def.operands[p] == AVM2Code.DAT_LOCAL_REG_INDEX) {
+                                otherUsage[ins.operands[p]] = true;
+                            }
+                        }
+                    }
+                }
+            }
+
+            singleAssigned = new boolean[registerCount];
+            for (int r = localReservedCount; r < registerCount; r++) {
+                singleAssigned[r] = setCount[r] <= 1 && !otherUsage[r];
+            }
+
+            inlined = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                AVM2Instruction ins = list.get(i);
+                if (ins.definition instanceof GetLocalTypeIns && results[i] != null) {
+                    inlined[i] = singleAssigned[getRegisterId(ins)] && isPushable(results[i]);
+                }
+            }
+        }
+
+        /**
+         * Computes the liveness of the registers and finds the assignments
+         * which are never read.
+         */
+        private void computeLiveness() throws InterruptedException {
+            int blockCount = getBlockCount();
+            BitSet[] liveIn = new BitSet[blockCount];
+            for (int b = 0; b < blockCount; b++) {
+                liveIn[b] = new BitSet();
+            }
+
+            boolean changed = true;
+            while (changed) {
+                if (CancellableWorker.isInterrupted()) {
+                    throw new InterruptedException();
+                }
+
+                changed = false;
+                for (int b = blockCount - 1; b >= 0; b--) {
+                    if (entries[b] != null) {
+                        BitSet live = computeBlockLiveness(b, liveIn, null);
+                        if (!live.equals(liveIn[b])) {
+                            liveIn[b] = live;
+                            changed = true;
+                        }
+                    }
+                }
+            }
+
+            deadStores = new boolean[size];
+            for (int b = 0; b < blockCount; b++) {
+                if (entries[b] != null) {
+                    computeBlockLiveness(b, liveIn, deadStores);
+                }
+            }
+        }
+
+        private BitSet computeBlockLiveness(int b, BitSet[] liveIn, boolean[] deadStores) {
+            int blockCount = getBlockCount();
+            int end = blockStarts[b + 1];
+            BitSet live = new BitSet();
+            for (int successor : getSuccessors(b, conditions[end - 1])) {
+                if (successor < blockCount) {
+                    live.or(liveIn[successor]);
+                }
+            }
+            for (int[] positions : exceptionPositions) {
+                if (blockStarts[b] >= positions[0] && blockStarts[b] < positions[1] && blockOf[positions[2]] < blockCount) {
+                    live.or(liveIn[blockOf[positions[2]]]);
+                }
+            }
+
+            for (int i = end - 1; i >= blockStarts[b]; i--) {
+                AVM2Instruction ins = list.get(i);
+                InstructionDefinition def = ins.definition;
+                if (def instanceof GetLocalTypeIns) {
+                    if (!inlined[i]) {
+                        live.set(getRegisterId(ins));
+                    }
+                } else if (def instanceof SetLocalTypeIns) {
+                    int reg = getRegisterId(ins);
+                    if (deadStores != null) {
+                        deadStores[i] = singleAssigned[reg] && !live.get(reg);
+                    }
+                    live.clear(reg);
+                } else if (def instanceof KillIns) {
+                    live.clear(ins.operands[0]);
+                } else {
+                    for (int p = 0; p < def.operands.length; p++) {
+                        if (def.operands[p] == AVM2Code.DAT_LOCAL_REG_INDEX) {
+                            live.set(ins.operands[p]);
+                        }
+                    }
+                }
+            }
+
+            return live;
+        }
+
+        /**
+         * Finds the instructions which push the operands of the instruction.
+         * All of them must be in the same block and without side effects.
+         *
+         * @param pos Position of the consumer
+         * @param count Number of the consumed values
+         * @param constant All the values must be constants or functions
+         * @return Position of the first instruction or -1
+         */
+        private int getPureOperandsStart(int pos, int count, boolean constant) {
+            int need = count;
+            int start = blockStarts[blockOf[pos]];
+            for (int i = pos - 1; i >= start; i--) {
+                AVM2Instruction ins = list.get(i);
+                InstructionDefinition def = ins.definition;
+                if (removed[i] || !pure[i]) {
+                    return -1;
+                }
+                if (constant && !isKnown(results[i]) && !(def instanceof NewFunctionIns)) {
+                    return -1;
+                }
+
+                need -= def.getStackPushCount(ins, abc);
+                if (need < 0) {
+                    return -1;
+                }
+
+                need += def.getStackPopCount(ins, abc);
+                if (need == 0) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        private void remove(int start, int end) {
+            for (int i = start; i <= end; i++) {
+                removed[i] = true;
+            }
+        }
+
+        private List<AVM2Instruction> createPops(int count, AVM2Instruction ins) {
+            List<AVM2Instruction> result = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                result.add(new AVM2Instruction(ins.getAddress(), DeobfuscatePopIns.getInstance(), null));
+            }
+
+            return result;
+        }
+
+        private void simplify() {
+            removed = new boolean[size];
+            for (int b = 0; b < getBlockCount(); b++) {
+                if (entries[b] == null) {
+                    continue;
+                }
+
+                for (int i = blockStarts[b]; i < blockStarts[b + 1]; i++) {
+                    AVM2Instruction ins = list.get(i);
+                    InstructionDefinition def = ins.definition;
+                    if (def instanceof IfTypeIns && conditions[i] != null) {
+                        int count = def.getStackPopCount(ins, abc);
+                        int start = getPureOperandsStart(i, count, false);
+                        List<AVM2Instruction> replacement;
+                        if (start > -1) {
+                            remove(start, i - 1);
+                            replacement = new ArrayList<>();
+                        } else {
+                            replacement = createPops(count, ins);
+                        }
+
+                        if (conditions[i]) {
+                            replacement.add(new AVM2Instruction(ins.getAddress(), AVM2Instructions.Jump, new int[]{ins.operands[0]}));
+                        }
+                        if (replacement.isEmpty()) {
+                            removed[i] = true;
+                        } else {
+                            replacements.put(i, replacement);
+                        }
+                    } else if (def instanceof SetLocalTypeIns
+                            && (selfAssignments[i] || (deadStores[i] && isKnown(results[i])))) {
+                        int start = getPureOperandsStart(i, 1, false);
+                        if (start > -1) {
+                            remove(start, i);
+                        } else {
+                            replacements.put(i, createPops(1, ins));
+                        }
+                    } else if (def instanceof PopIns) {
+                        int start = getPureOperandsStart(i, 1, true);
+                        if (start > -1) {
+                            remove(start, i);
+                        }
+                    }
+                }
+            }
+
+            for (int i = 0; i < size; i++) {
+                if (inlined[i] && !removed[i]) {
+                    AVM2Instruction push = abc.constants.makePush(results[i]);
+                    push.setAddress(list.get(i).getAddress());
+                    replacements.put(i, Arrays.asList(push));
+                }
+            }
+        }
+
+        private int firstAlive(int pos) {
+            while (pos < size && removed[pos]) {
+                pos++;
+            }
+
+            return pos;
+        }
+
+        /**
+         * Gets the instructions at the position after the simplification.
+         */
+        private List<AVM2Instruction> getInstructions(int pos) {
+            if (removed[pos]) {
+                return new ArrayList<>();
+            }
+
+            List<AVM2Instruction> replacement = replacements.get(pos);
+            return replacement != null ? replacement : list.subList(pos, pos + 1);
+        }
+
+        private int getTarget(AVM2Instruction ins) {
+            return code.adr2pos(ins.getTargetAddress());
+        }
+
+        /**
+         * Redirects jumps targeting other jumps to the final target.
+         */
+        private void threadJumps() {
+            for (int i = 0; i < size; i++) {
+                List<AVM2Instruction> instructions = getInstructions(i);
+                if (instructions.isEmpty()) {
+                    continue;
+                }
+
+                AVM2Instruction ins = instructions.get(instructions.size() - 1);
+                if (!(ins.definition instanceof IfTypeIns)) {
+                    continue;
+                }
+
+                int target = firstAlive(getTarget(ins));
+                for (int step = 0; step < size && target < size; step++) {
+                    AVM2Instruction targetIns = getInstructions(target).get(0);
+                    if (!(targetIns.definition instanceof JumpIns)) {
+                        break;
+                    }
+
+                    int next = firstAlive(getTarget(targetIns));
+                    if (next == target) {
+                        break;
+                    }
+                    target = next;
+                }
+
+                if (target != firstAlive(getTarget(ins))) {
+                    ins.operands[0] += (int) (code.pos2adr(target) - ins.getTargetAddress());
+                }
+            }
+        }
+
+        /**
+         * Removes jumps and conditional jumps to the next instruction. The
+         * operands of the conditional jumps are removed when they are pure,
+         * popped otherwise.
+         */
+        private void removeZeroJumps() {
+            for (int i = size - 1; i >= 0; i--) {
+                List<AVM2Instruction> instructions = getInstructions(i);
+                if (instructions.isEmpty()) {
+                    continue;
+                }
+
+                AVM2Instruction ins = instructions.get(instructions.size() - 1);
+                if (!(ins.definition instanceof IfTypeIns) || firstAlive(getTarget(ins)) != firstAlive(i + 1)) {
+                    continue;
+                }
+
+                List<AVM2Instruction> replacement = new ArrayList<>(instructions.subList(0, instructions.size() - 1));
+                if (!(ins.definition instanceof JumpIns)) {
+                    int count = ins.definition.getStackPopCount(ins, abc);
+                    int start = replacements.containsKey(i) ? -1 : getPureOperandsStart(i, count, false);
+                    if (start > -1) {
+                        remove(start, i - 1);
+                    } else {
+                        replacement.addAll(createPops(count, ins));
+                    }
+                }
+
+                if (replacement.isEmpty()) {
+                    removed[i] = true;
+                } else {
+                    replacements.put(i, replacement);
+                }
+            }
+        }
+
+        /**
+         * Removes the instructions which are not reachable after the
+         * simplification.
+         */
+        private void removeUnreachable() throws InterruptedException {
+            boolean[] visited = new boolean[size + 1];
+            Deque<Integer> queue = new ArrayDeque<>();
+            queue.add(firstAlive(0));
+            for (int[] positions : exceptionPositions) {
+                for (int position : positions) {
+                    queue.add(firstAlive(position));
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                if (CancellableWorker.isInterrupted()) {
+                    throw new InterruptedException();
+                }
+
+                int pos = queue.poll();
+                if (visited[pos]) {
+                    continue;
+                }
+
+                visited[pos] = true;
+                if (pos == size) {
+                    continue;
+                }
+
+                List<AVM2Instruction> instructions = getInstructions(pos);
+                AVM2Instruction ins = instructions.get(instructions.size() - 1);
+                InstructionDefinition def = ins.definition;
+                if (def instanceof LookupSwitchIns) {
+                    for (int target : getSwitchTargets(ins)) {
+                        queue.add(firstAlive(target));
+                    }
+                    continue;
+                }
+
+                if (def instanceof IfTypeIns) {
+                    queue.add(firstAlive(getTarget(ins)));
+                }
+
+                if (!(def instanceof JumpIns) && !ins.isExit()) {
+                    queue.add(firstAlive(pos + 1));
+                }
+            }
+
+            for (int i = 0; i < size; i++) {
+                if (!visited[i]) {
+                    removed[i] = true;
+                }
+            }
+        }
+    }
+}
@@ -33,6 +33,7 @@ import com.jpexs.decompiler.flash.abc.avm2.instructions.localregs.SetLocalTypeIn
 import com.jpexs.decompiler.flash.abc.avm2.instructions.other.ReturnValueIns;
 import com.jpexs.decompiler.flash.abc.avm2.instructions.other.ReturnVoidIns;
 import com.jpexs.decompiler.flash.abc.avm2.instructions.other.ThrowIns;
+import com.jpexs.helpers.CancellableWorker;
 import com.jpexs.helpers.Reference;
 import com.jpexs.decompiler.flash.abc.types.MethodBody;
 import com.jpexs.decompiler.flash.abc.types.MethodInfo;
@@ -107,7 +108,7 @@ public class AVM2DeobfuscatorRegisters extends AVM2DeobfuscatorSimple {
         Reference<AVM2Instruction> assignmentRef = new Reference<>(null);
 
         while (setReg > -1) {
-            if (Thread.currentThread().isInterrupted()) {
+            if (CancellableWorker.isInterrupted()) {
                 throw new InterruptedException();
             }
 
@@ -158,7 +159,7 @@ public class AVM2DeobfuscatorRegisters extends AVM2DeobfuscatorSimple {
         AVM2Code code = body.getCode();
 
         for (int i = 0; i < code.code.size(); i++) {
-            if (Thread.currentThread().isInterrupted()) {
+            if (CancellableWorker.isInterrupted()) {
                 throw new InterruptedException();
             }
 
@@ -202,7 +203,7 @@ public class AVM2DeobfuscatorRegisters extends AVM2DeobfuscatorSimple {
         toVisitStacks.add(stack);
         outer:
         while (!toVisit.isEmpty()) {
-            if (Thread.currentThread().isInterrupted()) {
+            if (CancellableWorker.isInterrupted()) {
                 throw new InterruptedException();
             }
 
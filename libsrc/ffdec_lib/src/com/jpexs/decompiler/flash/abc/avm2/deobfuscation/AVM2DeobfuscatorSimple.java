@@ -81,6 +81,7 @@ import com.jpexs.decompiler.flash.ecma.Undefined;
 import com.jpexs.decompiler.flash.helpers.SWFDecompilerAdapter;
 import com.jpexs.decompiler.flash.helpers.collections.FixItemCounterStack;
 import com.jpexs.decompiler.graph.TranslateException;
+import com.jpexs.helpers.CancellableWorker;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -115,7 +116,7 @@ public class AVM2DeobfuscatorSimple extends SWFDecompilerAdapter {
 
         int localReservedCount = body.getLocalReservedCount();
         for (int i = 0; i < code.code.size(); i++) {
-            if (Thread.currentThread().isInterrupted()) {
+            if (CancellableWorker.isInterrupted()) {
                 throw new InterruptedException();
             }
 
@@ -137,7 +138,7 @@ public class AVM2DeobfuscatorSimple extends SWFDecompilerAdapter {
             AVM2Instruction ins = code.code.get(i);
             if (ins.definition instanceof JumpIns) {
                 if (ins.operands[0] == 0) {
-                    if (Thread.currentThread().isInterrupted()) {
+                    if (CancellableWorker.isInterrupted()) {
                         throw new InterruptedException();
                     }
 
@@ -171,7 +172,7 @@ public class AVM2DeobfuscatorSimple extends SWFDecompilerAdapter {
                     || ins1.definition instanceof PushTrueIns
                     || ins1.definition instanceof PushUIntIns
                     || ins1.definition instanceof PushUndefinedIns)) {
-                if (Thread.currentThread().isInterrupted()) {
+                if (CancellableWorker.isInterrupted()) {
                     throw new InterruptedException();
                 }
 
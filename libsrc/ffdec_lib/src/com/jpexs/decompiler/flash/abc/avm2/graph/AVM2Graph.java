@@ -64,6 +64,7 @@ import com.jpexs.decompiler.graph.model.NotItem;
 import com.jpexs.decompiler.graph.model.PopItem;
 import com.jpexs.decompiler.graph.model.SwitchItem;
 import com.jpexs.decompiler.graph.model.WhileItem;
+import com.jpexs.helpers.CancellableWorker;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -587,6 +588,9 @@ public class AVM2Graph extends Graph {
 
     @Override
     protected void finalProcess(List<GraphTargetItem> list, int level, FinalProcessLocalData localData, String path) throws InterruptedException {
+        if (CancellableWorker.isInterrupted()) {
+            throw new InterruptedException();
+        }
 
         if (level == 0) {
             if (!list.isEmpty()) {
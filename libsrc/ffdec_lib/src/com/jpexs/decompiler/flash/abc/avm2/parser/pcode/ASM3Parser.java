@@ -217,6 +217,7 @@ public class ASM3Parser {
         tsc.value_kind = val.value_kind;
         tsc.value_index = val.value_index;
         tsc.name_index = name_index;
+        abc.traitChanged(tsc);
         return true;
     }
 
@@ -15,6 +15,7 @@
  * License along with this library. */
 package com.jpexs.decompiler.flash.abc.types;
 
+import com.jpexs.decompiler.flash.ParallelScheduler;
 import com.jpexs.decompiler.flash.SWFInputStream;
 import com.jpexs.decompiler.flash.abc.ABC;
 import com.jpexs.decompiler.flash.abc.ABCInputStream;
@@ -39,7 +40,6 @@ import com.jpexs.decompiler.graph.Graph;
 import com.jpexs.decompiler.graph.GraphTargetItem;
 import com.jpexs.decompiler.graph.ScopeStack;
 import com.jpexs.decompiler.graph.model.LocalData;
-import com.jpexs.helpers.CancellableWorker;
 import com.jpexs.helpers.Helper;
 import com.jpexs.helpers.MemoryInputStream;
 import com.jpexs.helpers.stat.Statistics;
@@ -120,10 +120,22 @@ public final class MethodBody implements Cloneable {
     public synchronized void setCodeBytes(byte codeBytes[]) {
         this.codeBytes = codeBytes;
         this.code = null;
+        codeChanged();
     }
 
     public void setModified() {
         this.codeBytes = null;
+        codeChanged();
+    }
+
+    /**
+     * Informs the ABC about changed code, so the multiname usage index can be
+     * updated.
+     */
+    private void codeChanged() {
+        if (abc != null) {
+            abc.methodBodyChanged(this);
+        }
     }
 
     public synchronized byte[] getCodeBytes() {
@@ -154,6 +166,7 @@ public final class MethodBody implements Cloneable {
     public void setCode(AVM2Code code) {
         this.code = code;
         this.codeBytes = null;
+        codeChanged();
     }
 
     public List<Integer> getExceptionEntries() {
@@ -197,11 +210,13 @@ public final class MethodBody implements Cloneable {
             removeTraps(abc, trait, scriptIndex, classIndex, isStatic, path);
         }
 
+        codeChanged();
         ((Tag) abc.parentTag).setModified(true);
     }
 
     public void removeInstruction(int pos) {
         getCode().removeInstruction(pos, this);
+        codeChanged();
     }
 
     /**
@@ -214,6 +229,7 @@ public final class MethodBody implements Cloneable {
      */
     public void replaceInstruction(int pos, AVM2Instruction instruction) {
         getCode().replaceInstruction(pos, instruction, this);
+        codeChanged();
     }
 
     /**
@@ -226,6 +242,7 @@ public final class MethodBody implements Cloneable {
      */
     public void insertInstruction(int pos, AVM2Instruction instruction) {
         getCode().insertInstruction(pos, instruction, this);
+        codeChanged();
     }
 
     public void insertAll(int pos, List<AVM2Instruction> list) {
@@ -246,6 +263,7 @@ public final class MethodBody implements Cloneable {
      */
     public void insertInstruction(int pos, AVM2Instruction instruction, boolean mapOffsetsAfterIns) {
         getCode().insertInstruction(pos, instruction, mapOffsetsAfterIns, this);
+        codeChanged();
     }
 
     public int getLocalReservedCount() {
@@ -321,7 +339,7 @@ public final class MethodBody implements Cloneable {
                     }
                 };
                 if (firstLevel) {
-                    CancellableWorker.call(callable, timeout, TimeUnit.SECONDS);
+                    ParallelScheduler.call(callable, timeout, TimeUnit.SECONDS);
                 } else {
                     callable.call();
                 }
@@ -15,9 +15,9 @@
  * License along with this library. */
 package com.jpexs.decompiler.flash.abc.types.traits;
 
+import com.jpexs.decompiler.flash.ParallelScheduler;
 import com.jpexs.decompiler.flash.abc.ABC;
 import com.jpexs.decompiler.flash.abc.types.ConvertData;
-import com.jpexs.decompiler.flash.configuration.Configuration;
 import com.jpexs.decompiler.flash.exporters.modes.ScriptExportMode;
 import com.jpexs.decompiler.flash.exporters.script.Dependency;
 import com.jpexs.decompiler.flash.helpers.GraphTextWriter;
@@ -29,8 +29,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -197,28 +195,24 @@ public class Traits implements Cloneable, Serializable {
                 task.call();
             }
         } else {
-            ExecutorService executor = Executors.newFixedThreadPool(Configuration.getParallelThreadCount());
-            List<Future<Void>> futureResults;
-
-            futureResults = new ArrayList<>();
+            List<TraitConvertTask> tasks = new ArrayList<>();
             for (int t = 0; t < traits.size(); t++) {
                 // each convert task needs a separate NulWriter, because they are executed parallel
                 TraitConvertTask task = new TraitConvertTask(traits.get(t), parent, convertData, makePackages, path, abc, isStatic, exportMode, scriptIndex, classIndex, new NulWriter(), fullyQualifiedNames, t, parallel);
-                Future<Void> future = executor.submit(task);
-                futureResults.add(future);
+                tasks.add(task);
             }
 
+            List<Future<Void>> futureResults = ParallelScheduler.submitAll(tasks);
             for (int f = 0; f < futureResults.size(); f++) {
                 try {
                     futureResults.get(f).get();
                 } catch (InterruptedException ex) {
-                    executor.shutdownNow();
+                    ParallelScheduler.cancelAll(futureResults);
                     throw ex;
                 } catch (ExecutionException ex) {
                     Logger.getLogger(Traits.class.getName()).log(Level.SEVERE, "Error during traits converting", ex);
                 }
             }
-            executor.shutdown();
         }
     }
 
@@ -510,7 +510,7 @@ public abstract class Action implements GraphSourceItem {
         HashMap<GraphSourceItemContainer, Integer> containersPos = new HashMap<>();
         offset = address;
         boolean lastPush = false;
-        byte[] fileData = list.fileData;
+        ByteArrayRange fileData = list.fileData;
         for (int pos = 0; pos < list.size(); pos++) {
             Action a = list.get(pos);
 
@@ -535,10 +535,10 @@ public abstract class Action implements GraphSourceItem {
                 writer.appendNoHilight(Helper.bytesToHexString(bytes));
 
                 if (Configuration.showOriginalBytesInPcodeHex.get()) {
-                    if (fileData != null && fileOffset != -1 && fileData.length > fileOffset + bytes.length - 1) {
+                    if (fileData != null && fileOffset != -1 && fileData.getLength() > fileOffset + bytes.length - 1) {
                         boolean same = true;
                         for (int i = 0; i < bytes.length; i++) {
-                            byte b = fileData[(int) (fileOffset + i)];
+                            byte b = fileData.get((int) (fileOffset + i));
                             if (b != bytes[i]) {
                                 same = false;
                                 break;
@@ -552,7 +552,7 @@ public abstract class Action implements GraphSourceItem {
                                     writer.appendNoHilight(" ");
                                 }
 
-                                writer.appendNoHilight(Helper.byteToHex(fileData[(int) (fileOffset + i)]));
+                                writer.appendNoHilight(Helper.byteToHex(fileData.get((int) (fileOffset + i))));
                             }
 
                             writer.appendNoHilight(")");
@@ -859,7 +859,7 @@ public abstract class Action implements GraphSourceItem {
         final SWF swf = asm == null ? null : asm.getSwf();
         final int version = swf == null ? SWF.DEFAULT_VERSION : swf.version;
         try {
-            tree = CancellableWorker.call(new Callable<List<GraphTargetItem>>() {
+            tree = CancellableWorker.callWithDeadline(new Callable<List<GraphTargetItem>>() {
                 @Override
                 public List<GraphTargetItem> call() throws Exception {
                     int staticOperation = Graph.SOP_USE_STATIC; //(Boolean) Configuration.getConfig("autoDeobfuscate", true) ? Graph.SOP_SKIP_STATIC : Graph.SOP_USE_STATIC;
@@ -31,6 +31,7 @@ import com.jpexs.decompiler.flash.helpers.CodeFormatting;
 import com.jpexs.decompiler.flash.helpers.FileTextWriter;
 import com.jpexs.decompiler.flash.helpers.HighlightedTextWriter;
 import com.jpexs.decompiler.graph.GraphSourceItemContainer;
+import com.jpexs.helpers.ByteArrayRange;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -49,7 +50,7 @@ public class ActionList extends ArrayList<Action> {
 
     public int deobfuscationMode;
 
-    public byte[] fileData;
+    public ByteArrayRange fileData;
 
     public ActionList() {
     }
@@ -17,6 +17,7 @@
 package com.jpexs.decompiler.flash.action;
 
 import com.jpexs.decompiler.flash.DisassemblyListener;
+import com.jpexs.decompiler.flash.ParallelScheduler;
 import com.jpexs.decompiler.flash.SWFInputStream;
 import com.jpexs.decompiler.flash.action.deobfuscation.ActionDeobfuscator;
 import com.jpexs.decompiler.flash.action.model.ConstantPool;
@@ -31,7 +32,6 @@ import com.jpexs.decompiler.flash.action.swf5.ActionConstantPool;
 import com.jpexs.decompiler.flash.configuration.Configuration;
 import com.jpexs.decompiler.flash.helpers.SWFDecompilerPlugin;
 import com.jpexs.decompiler.graph.GraphSourceItemContainer;
-import com.jpexs.helpers.CancellableWorker;
 import com.jpexs.helpers.Helper;
 import com.jpexs.helpers.stat.Statistics;
 import com.jpexs.helpers.utf8.Utf8Helper;
@@ -79,7 +79,7 @@ public class ActionListReader {
      */
     public static ActionList readActionListTimeout(final List<DisassemblyListener> listeners, final SWFInputStream sis, final int version, final int ip, final int endIp, final String path, final int deobfuscationMode) throws IOException, InterruptedException, TimeoutException {
         try {
-            ActionList actions = CancellableWorker.call(new Callable<ActionList>() {
+            ActionList actions = ParallelScheduler.call(new Callable<ActionList>() {
 
                 @Override
                 public ActionList call() throws IOException, InterruptedException {
@@ -0,0 +1,858 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash.action.deobfuscation;
+
+import com.jpexs.decompiler.flash.action.Action;
+import com.jpexs.decompiler.flash.action.LocalDataArea;
+import com.jpexs.decompiler.flash.action.Stage;
+import com.jpexs.decompiler.flash.action.fastactionlist.ActionItem;
+import com.jpexs.decompiler.flash.action.fastactionlist.FastActionList;
+import com.jpexs.decompiler.flash.action.swf4.ActionAdd;
+import com.jpexs.decompiler.flash.action.swf4.ActionAnd;
+import com.jpexs.decompiler.flash.action.swf4.ActionAsciiToChar;
+import com.jpexs.decompiler.flash.action.swf4.ActionCharToAscii;
+import com.jpexs.decompiler.flash.action.swf4.ActionDivide;
+import com.jpexs.decompiler.flash.action.swf4.ActionEquals;
+import com.jpexs.decompiler.flash.action.swf4.ActionGetVariable;
+import com.jpexs.decompiler.flash.action.swf4.ActionIf;
+import com.jpexs.decompiler.flash.action.swf4.ActionJump;
+import com.jpexs.decompiler.flash.action.swf4.ActionLess;
+import com.jpexs.decompiler.flash.action.swf4.ActionMBAsciiToChar;
+import com.jpexs.decompiler.flash.action.swf4.ActionMBStringLength;
+import com.jpexs.decompiler.flash.action.swf4.ActionMultiply;
+import com.jpexs.decompiler.flash.action.swf4.ActionNot;
+import com.jpexs.decompiler.flash.action.swf4.ActionOr;
+import com.jpexs.decompiler.flash.action.swf4.ActionPop;
+import com.jpexs.decompiler.flash.action.swf4.ActionPush;
+import com.jpexs.decompiler.flash.action.swf4.ActionSetVariable;
+import com.jpexs.decompiler.flash.action.swf4.ActionStringAdd;
+import com.jpexs.decompiler.flash.action.swf4.ActionStringEquals;
+import com.jpexs.decompiler.flash.action.swf4.ActionStringLength;
+import com.jpexs.decompiler.flash.action.swf4.ActionStringLess;
+import com.jpexs.decompiler.flash.action.swf4.ActionSubtract;
+import com.jpexs.decompiler.flash.action.swf4.ActionToInteger;
+import com.jpexs.decompiler.flash.action.swf4.ConstantIndex;
+import com.jpexs.decompiler.flash.action.swf4.RegisterNumber;
+import com.jpexs.decompiler.flash.action.swf5.ActionAdd2;
+import com.jpexs.decompiler.flash.action.swf5.ActionBitAnd;
+import com.jpexs.decompiler.flash.action.swf5.ActionBitLShift;
+import com.jpexs.decompiler.flash.action.swf5.ActionBitOr;
+import com.jpexs.decompiler.flash.action.swf5.ActionBitRShift;
+import com.jpexs.decompiler.flash.action.swf5.ActionBitURShift;
+import com.jpexs.decompiler.flash.action.swf5.ActionBitXor;
+import com.jpexs.decompiler.flash.action.swf5.ActionCallFunction;
+import com.jpexs.decompiler.flash.action.swf5.ActionConstantPool;
+import com.jpexs.decompiler.flash.action.swf5.ActionDecrement;
+import com.jpexs.decompiler.flash.action.swf5.ActionDefineLocal;
+import com.jpexs.decompiler.flash.action.swf5.ActionEquals2;
+import com.jpexs.decompiler.flash.action.swf5.ActionIncrement;
+import com.jpexs.decompiler.flash.action.swf5.ActionLess2;
+import com.jpexs.decompiler.flash.action.swf5.ActionModulo;
+import com.jpexs.decompiler.flash.action.swf5.ActionPushDuplicate;
+import com.jpexs.decompiler.flash.action.swf5.ActionStackSwap;
+import com.jpexs.decompiler.flash.action.swf5.ActionStoreRegister;
+import com.jpexs.decompiler.flash.action.swf5.ActionToNumber;
+import com.jpexs.decompiler.flash.action.swf5.ActionToString;
+import com.jpexs.decompiler.flash.action.swf5.ActionTypeOf;
+import com.jpexs.decompiler.flash.action.swf6.ActionGreater;
+import com.jpexs.decompiler.flash.action.swf6.ActionStringGreater;
+import com.jpexs.decompiler.flash.ecma.EcmaScript;
+import com.jpexs.decompiler.flash.ecma.Undefined;
+import com.jpexs.decompiler.graph.GraphSourceItemContainer;
+import com.jpexs.helpers.CancellableWorker;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Constant propagation on the control flow graph of an action list.
+ *
+ * The stack, variable and register values at the start of each basic block are
+ * computed once by a worklist algorithm which merges the values of all incoming
+ * edges, so the values are valid on every path, loops included. Then the If
+ * actions with constant conditions are replaced by jumps or removed together
+ * with the actions computing the condition, and the jump chains are shortened.
+ *
+ * @author JPEXS
+ */
+public class ActionConstantPropagation {
+
+    /**
+     * Value which is not known at compile time
+     */
+    private static final Object UNKNOWN = new Object();
+
+    private final ActionDeobfuscator deobfuscator;
+
+    private final Map<String, Object> fakeFunctions;
+
+    private final boolean useVariables;
+
+    private final LocalDataArea localData = new LocalDataArea(new Stage(null));
+
+    private List<String> constantPool;
+
+    private final Map<ActionItem, Block> blocks = new HashMap<>();
+
+    /**
+     * Constructs the propagation.
+     *
+     * @param deobfuscator Deobfuscator which recognizes the fake names
+     * @param fakeFunctions Results of the fake functions without parameters
+     * @param useVariables Use the values of the variables
+     */
+    public ActionConstantPropagation(ActionDeobfuscator deobfuscator, Map<String, Object> fakeFunctions, boolean useVariables) {
+        this.deobfuscator = deobfuscator;
+        this.fakeFunctions = fakeFunctions;
+        this.useVariables = useVariables;
+    }
+
+    /**
+     * Removes the If actions with constant conditions.
+     *
+     * @param actions Actions
+     * @param constantPool The only constant pool of the actions or null
+     * @return True when the actions were modified
+     * @throws InterruptedException
+     */
+    public boolean execute(FastActionList actions, ActionConstantPool constantPool) throws InterruptedException {
+        if (actions.isEmpty()) {
+            return false;
+        }
+
+        this.constantPool = constantPool == null ? null : constantPool.constantPool;
+        blocks.clear();
+        createBlocks(actions);
+        propagate(actions.first());
+
+        boolean ret = false;
+        List<Block> blockList = new ArrayList<>(blocks.values());
+        for (Block block : blockList) {
+            if (block.entry != null) {
+                ret |= replaceDuplicates(actions, block);
+                ret |= replaceAssignedValues(actions, block);
+                ret |= removeConstantPops(actions, block);
+                if (block.last.action instanceof ActionIf) {
+                    ret |= removeConstantIf(actions, block);
+                }
+            }
+        }
+
+        blocks.clear();
+        ret |= shortenJumpChains(actions);
+        if (ret) {
+            actions.removeUnreachableActions();
+            actions.removeZeroJumps();
+        }
+
+        return ret;
+    }
+
+    private static boolean endsBlock(ActionItem item) {
+        Action action = item.action;
+        return action instanceof ActionIf
+                || action instanceof ActionJump
+                || action instanceof GraphSourceItemContainer
+                || action.isExit()
+                || item.getJumpTarget() != null
+                || item.isContainerLastAction();
+    }
+
+    private void createBlocks(FastActionList actions) {
+        ActionItem first = actions.first();
+        Set<ActionItem> leaders = new HashSet<>();
+        leaders.add(first);
+        ActionItem item = first;
+        do {
+            if (item.isJumpTarget()) {
+                leaders.add(item);
+            }
+
+            if (item.next != first && endsBlock(item)) {
+                leaders.add(item.next);
+            }
+
+            if (item.action instanceof GraphSourceItemContainer) {
+                for (ActionItem lastActionItem : item.getContainerLastActions()) {
+                    if (lastActionItem != null && lastActionItem.next != first) {
+                        leaders.add(lastActionItem.next);
+                    }
+                }
+            }
+
+            item = item.next;
+        } while (item != first);
+
+        Block block = null;
+        item = first;
+        do {
+            if (leaders.contains(item)) {
+                block = new Block(item);
+                blocks.put(item, block);
+            }
+
+            block.last = item;
+            item = item.next;
+        } while (item != first);
+    }
+
+    private void propagate(ActionItem first) throws InterruptedException {
+        Deque<Block> worklist = new ArrayDeque<>();
+        Block firstBlock = blocks.get(first);
+        firstBlock.entry = new State();
+        firstBlock.queued = true;
+        worklist.add(firstBlock);
+        while (!worklist.isEmpty()) {
+            if (CancellableWorker.isInterrupted()) {
+                throw new InterruptedException();
+            }
+
+            Block block = worklist.poll();
+            block.queued = false;
+            State state = block.entry.copy();
+            ActionItem item = block.first;
+            while (item != block.last) {
+                execute(item, state);
+                item = item.next;
+            }
+
+            ActionItem last = block.last;
+            Action action = last.action;
+            List<ActionItem> successors = new ArrayList<>();
+            List<ActionItem> unknownSuccessors = new ArrayList<>();
+            if (action instanceof ActionIf) {
+                Object condition = state.pop();
+                if (condition == UNKNOWN) {
+                    successors.add(last.next);
+                    successors.add(last.getJumpTarget());
+                } else if (EcmaScript.toBoolean(condition)) {
+                    successors.add(last.getJumpTarget());
+                } else {
+                    successors.add(last.next);
+                }
+            } else if (action instanceof ActionJump) {
+                successors.add(last.getJumpTarget());
+            } else if (action instanceof GraphSourceItemContainer) {
+                unknownSuccessors.add(last.next);
+                for (ActionItem lastActionItem : last.getContainerLastActions()) {
+                    if (lastActionItem != null) {
+                        unknownSuccessors.add(lastActionItem.next);
+                    }
+                }
+            } else {
+                execute(last, state);
+                if (!action.isExit()) {
+                    successors.add(last.next);
+                }
+
+                if (last.getJumpTarget() != null) {
+                    successors.add(last.getJumpTarget());
+                }
+            }
+
+            for (ActionItem successor : successors) {
+                merge(worklist, successor, state);
+            }
+
+            if (!unknownSuccessors.isEmpty()) {
+                state.setUnknown();
+                for (ActionItem successor : unknownSuccessors) {
+                    merge(worklist, successor, state);
+                }
+            }
+        }
+    }
+
+    private void merge(Deque<Block> worklist, ActionItem item, State state) {
+        Block block = item == null ? null : blocks.get(item);
+        if (block == null) {
+            return;
+        }
+
+        boolean changed;
+        if (block.entry == null) {
+            block.entry = state.copy();
+            changed = true;
+        } else {
+            changed = block.entry.merge(state);
+        }
+
+        if (changed && !block.queued) {
+            block.queued = true;
+            worklist.add(block);
+        }
+    }
+
+    /**
+     * Replaces PushDuplicate actions which duplicate a constant by Push.
+     */
+    private boolean replaceDuplicates(FastActionList actions, Block block) {
+        List<ActionItem> duplicateItems = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        State state = block.entry.copy();
+        for (ActionItem item = block.first; item != block.last; item = item.next) {
+            if (item.action instanceof ActionPushDuplicate && !item.isContainerLastAction()) {
+                Object value = state.peek();
+                if (value != UNKNOWN && ActionPush.isValidValue(value)) {
+                    duplicateItems.add(item);
+                    values.add(value);
+                }
+            }
+
+            execute(item, state);
+        }
+
+        for (int i = 0; i < duplicateItems.size(); i++) {
+            ActionItem item = duplicateItems.get(i);
+            ActionItem pushItem = actions.insertItemAfter(item, new ActionPush(values.get(i)));
+            if (item == block.first) {
+                block.first = pushItem;
+            }
+
+            actions.removeItem(item);
+        }
+
+        return !duplicateItems.isEmpty();
+    }
+
+    /**
+     * Replaces the actions computing constant values of the variables by Push.
+     */
+    private boolean replaceAssignedValues(FastActionList actions, Block block) {
+        List<ActionItem> setItems = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        State state = block.entry.copy();
+        for (ActionItem item = block.first; item != block.last; item = item.next) {
+            // only the statements, the decompiler expects the variable reads before the assignments in the expressions
+            if ((item.action instanceof ActionSetVariable || item.action instanceof ActionDefineLocal) && state.stack.size() == 2) {
+                Object value = state.peek();
+                if (value != UNKNOWN && ActionPush.isValidValue(value)) {
+                    setItems.add(item);
+                    values.add(value);
+                }
+            }
+
+            execute(item, state);
+        }
+
+        boolean ret = false;
+        for (int i = 0; i < setItems.size(); i++) {
+            ActionItem setItem = setItems.get(i);
+            ActionItem segmentFirst = getSegmentFirst(block, setItem);
+            if (segmentFirst == null || segmentFirst == setItem
+                    || (segmentFirst.next == setItem && segmentFirst.action instanceof ActionPush)) {
+                continue;
+            }
+
+            ActionItem pushItem = actions.insertItemBefore(setItem, new ActionPush(values.get(i)));
+            if (segmentFirst == block.first) {
+                block.first = pushItem;
+            }
+
+            removeItems(actions, segmentFirst, pushItem.prev);
+            ret = true;
+        }
+
+        return ret;
+    }
+
+    /**
+     * Removes Pop actions of constant values and the actions computing the
+     * values.
+     */
+    private boolean removeConstantPops(FastActionList actions, Block block) {
+        List<ActionItem> popItems = new ArrayList<>();
+        State state = block.entry.copy();
+        for (ActionItem item = block.first; item != block.last; item = item.next) {
+            if (item.action instanceof ActionPop && state.peek() != UNKNOWN) {
+                popItems.add(item);
+            }
+
+            execute(item, state);
+        }
+
+        if (block.last.action instanceof ActionPop && !block.last.isContainerLastAction() && state.peek() != UNKNOWN) {
+            popItems.add(block.last);
+        }
+
+        boolean ret = false;
+        for (ActionItem popItem : popItems) {
+            ActionItem segmentFirst = getSegmentFirst(block, popItem);
+            if (segmentFirst == null) {
+                continue;
+            }
+
+            if (block.last == popItem) {
+                if (segmentFirst == block.first) {
+                    continue;
+                }
+
+                block.last = segmentFirst.prev;
+            }
+
+            if (segmentFirst == block.first) {
+                block.first = popItem.next;
+            }
+
+            removeItems(actions, segmentFirst, popItem);
+            ret = true;
+        }
+
+        return ret;
+    }
+
+    /**
+     * Removes If action with constant condition and the actions computing the
+     * condition.
+     */
+    private boolean removeConstantIf(FastActionList actions, Block block) {
+        ActionItem ifItem = block.last;
+        if (ifItem.isContainerLastAction() || ifItem.getJumpTarget() == null) {
+            return false;
+        }
+
+        State state = block.entry.copy();
+        for (ActionItem item = block.first; item != ifItem; item = item.next) {
+            execute(item, state);
+        }
+
+        Object condition = state.pop();
+        if (condition == UNKNOWN) {
+            return false;
+        }
+
+        ActionItem segmentFirst = getSegmentFirst(block, ifItem);
+        if (segmentFirst == null) {
+            return false;
+        }
+
+        ActionItem target = ifItem.getJumpTarget();
+        for (ActionItem item = segmentFirst; item != ifItem; item = item.next) {
+            if (item == target) {
+                return false;
+            }
+        }
+
+        if (EcmaScript.toBoolean(condition)) {
+            ActionItem jumpItem = new ActionItem(new ActionJump(0));
+            jumpItem.setJumpTarget(target);
+            actions.insertItemAfter(ifItem, jumpItem);
+        }
+
+        removeItems(actions, segmentFirst, ifItem);
+        return true;
+    }
+
+    /**
+     * Gets the first action of the actions in the block which compute the top
+     * stack value consumed by the action and have no other effects.
+     *
+     * @return First action, the consuming action when the value is popped from
+     * the empty stack or null when there are no such actions
+     */
+    private ActionItem getSegmentFirst(Block block, ActionItem consumer) {
+        ActionItem segmentFirst = consumer;
+        int needed = 1;
+        while (needed > 0) {
+            if (segmentFirst == block.first) {
+                // there can be pops from the empty stack which result in undefined
+                if (!block.entry.stack.isEmpty() || block.entry.stackUnknown) {
+                    return null;
+                }
+
+                break;
+            }
+
+            segmentFirst = segmentFirst.prev;
+            Action action = segmentFirst.action;
+            int pushCount;
+            int popCount;
+            if (action instanceof ActionPush) {
+                // keep the register reads, the stored values are used by the chained assignments
+                for (Object value : ((ActionPush) action).values) {
+                    if (value instanceof RegisterNumber) {
+                        return null;
+                    }
+                }
+
+                pushCount = ((ActionPush) action).values.size();
+                popCount = 0;
+            } else if (action instanceof ActionPushDuplicate) {
+                pushCount = 2;
+                popCount = 1;
+            } else if (action instanceof ActionStackSwap) {
+                pushCount = 2;
+                popCount = 2;
+            } else if (isUnaryOperation(action) || action instanceof ActionGetVariable) {
+                pushCount = 1;
+                popCount = 1;
+            } else if (isBinaryOperation(action) || (action instanceof ActionCallFunction && !fakeFunctions.isEmpty())) {
+                pushCount = 1;
+                popCount = 2;
+            } else {
+                return null;
+            }
+
+            if (pushCount > needed) {
+                return null;
+            }
+
+            needed += popCount - pushCount;
+        }
+
+        return segmentFirst;
+    }
+
+    private static void removeItems(FastActionList actions, ActionItem first, ActionItem last) {
+        ActionItem item = first;
+        while (true) {
+            boolean isLast = item == last;
+            item = actions.removeItem(item);
+            if (isLast) {
+                break;
+            }
+        }
+    }
+
+    private boolean shortenJumpChains(FastActionList actions) {
+        boolean ret = false;
+        ActionItem first = actions.first();
+        ActionItem item = first;
+        Set<ActionItem> visited = new HashSet<>();
+        do {
+            Action action = item.action;
+            ActionItem target = item.getJumpTarget();
+            if (target != null && (action instanceof ActionJump || action instanceof ActionIf)) {
+                visited.clear();
+                visited.add(item);
+                ActionItem newTarget = target;
+                while (newTarget.action instanceof ActionJump && newTarget.getJumpTarget() != null && visited.add(newTarget)) {
+                    newTarget = newTarget.getJumpTarget();
+                }
+
+                if (newTarget != target && !visited.contains(newTarget)) {
+                    item.setJumpTarget(newTarget);
+                    ret = true;
+                }
+            }
+
+            item = item.next;
+        } while (item != first);
+
+        return ret;
+    }
+
+    private static boolean isUnaryOperation(Action action) {
+        return action instanceof ActionAsciiToChar
+                || action instanceof ActionCharToAscii
+                || action instanceof ActionDecrement
+                || action instanceof ActionIncrement
+                || action instanceof ActionNot
+                || action instanceof ActionToInteger
+                || action instanceof ActionToNumber
+                || action instanceof ActionToString
+                || action instanceof ActionTypeOf
+                || action instanceof ActionStringLength
+                || action instanceof ActionMBAsciiToChar
+                || action instanceof ActionMBStringLength;
+    }
+
+    private static boolean isBinaryOperation(Action action) {
+        return action instanceof ActionAnd
+                || action instanceof ActionAdd
+                || action instanceof ActionAdd2
+                || action instanceof ActionBitAnd
+                || action instanceof ActionBitLShift
+                || action instanceof ActionBitOr
+                || action instanceof ActionBitRShift
+                || action instanceof ActionBitURShift
+                || action instanceof ActionBitXor
+                || action instanceof ActionDivide
+                || action instanceof ActionEquals
+                || action instanceof ActionEquals2
+                || action instanceof ActionGreater
+                || action instanceof ActionLess
+                || action instanceof ActionLess2
+                || action instanceof ActionModulo
+                || action instanceof ActionMultiply
+                || action instanceof ActionOr
+                || action instanceof ActionStringAdd
+                || action instanceof ActionStringEquals
+                || action instanceof ActionStringGreater
+                || action instanceof ActionStringLess
+                || action instanceof ActionSubtract;
+    }
+
+    private static boolean isSimpleVariableName(Object name) {
+        if (!(name instanceof String)) {
+            return false;
+        }
+
+        String str = (String) name;
+        return str.indexOf('.') == -1 && str.indexOf(':') == -1 && str.indexOf('/') == -1;
+    }
+
+    private Object evaluate(Action action, Object... operands) {
+        for (Object operand : operands) {
+            if (operand == UNKNOWN) {
+                return UNKNOWN;
+            }
+        }
+
+        localData.stack.clear();
+        for (Object operand : operands) {
+            localData.stack.push(operand);
+        }
+
+        try {
+            if (action.execute(localData) && localData.stack.size() == 1) {
+                return localData.stack.pop();
+            }
+        } catch (RuntimeException ex) {
+            // not a compile time constant
+        }
+
+        return UNKNOWN;
+    }
+
+    private void execute(ActionItem item, State state) {
+        Action action = item.action;
+        if (action instanceof ActionPush) {
+            for (Object value : ((ActionPush) action).values) {
+                if (value instanceof ConstantIndex) {
+                    int index = ((ConstantIndex) value).index;
+                    state.push(constantPool != null && index < constantPool.size() ? constantPool.get(index) : UNKNOWN);
+                } else if (value instanceof RegisterNumber) {
+                    Object registerValue = state.registers.get(((RegisterNumber) value).number);
+                    state.push(registerValue == null ? UNKNOWN : registerValue);
+                } else {
+                    state.push(value);
+                }
+            }
+        } else if (action instanceof ActionPop) {
+            state.pop();
+        } else if (action instanceof ActionPushDuplicate) {
+            Object value = state.pop();
+            state.push(value);
+            state.push(value);
+        } else if (action instanceof ActionStackSwap) {
+            Object value1 = state.pop();
+            Object value2 = state.pop();
+            state.push(value1);
+            state.push(value2);
+        } else if (isUnaryOperation(action)) {
+            state.push(evaluate(action, state.pop()));
+        } else if (isBinaryOperation(action)) {
+            Object value2 = state.pop();
+            Object value1 = state.pop();
+            state.push(evaluate(action, value1, value2));
+        } else if (action instanceof ActionGetVariable) {
+            Object name = state.pop();
+            Object value = UNKNOWN;
+            if (useVariables && isSimpleVariableName(name)) {
+                if (state.variables.containsKey(name)) {
+                    value = state.variables.get(name);
+                } else if (!state.variablesUnknown && deobfuscator.isFakeName((String) name)) {
+                    value = Undefined.INSTANCE;
+                }
+            }
+
+            state.push(value);
+        } else if (action instanceof ActionSetVariable || action instanceof ActionDefineLocal) {
+            Object value = state.pop();
+            Object name = state.pop();
+            if (isSimpleVariableName(name)) {
+                state.variables.put((String) name, value);
+            } else {
+                state.variables.clear();
+                state.variablesUnknown = true;
+            }
+        } else if (action instanceof ActionStoreRegister) {
+            Object value = state.pop();
+            state.push(value);
+            state.registers.put(((ActionStoreRegister) action).registerNumber, value);
+        } else if (action instanceof ActionCallFunction) {
+            Object name = state.pop();
+            Object numArgs = state.pop();
+            if (name != UNKNOWN && numArgs != UNKNOWN && EcmaScript.toUint32(numArgs) == 0
+                    && fakeFunctions.containsKey(EcmaScript.toString(name))) {
+                state.push(fakeFunctions.get(EcmaScript.toString(name)));
+            } else {
+                state.setUnknown();
+            }
+        } else if (action instanceof ActionConstantPool
+                || action instanceof ActionJump) {
+            // no effect on the values
+        } else if (action instanceof ActionIf) {
+            state.pop();
+        } else {
+            state.setUnknown();
+        }
+    }
+
+    private static boolean valueEquals(Object value1, Object value2) {
+        return value1 == value2 || (value1 != UNKNOWN && value2 != UNKNOWN
+                && value1 != null && value2 != null
+                && value1.getClass() == value2.getClass() && Objects.equals(value1, value2));
+    }
+
+    private static class Block {
+
+        public ActionItem first;
+
+        public ActionItem last;
+
+        public State entry;
+
+        public boolean queued;
+
+        public Block(ActionItem first) {
+            this.first = first;
+        }
+    }
+
+    /**
+     * Known values in a code position. The stack contains the known top part
+     * of the stack, the variables and the registers which are not in the maps
+     * are unknown. Only the uninitialized variables are not in the variable map
+     * when the variablesUnknown flag is false.
+     */
+    private static class State {
+
+        public List<Object> stack = new ArrayList<>();
+
+        public boolean stackUnknown;
+
+        public Map<String, Object> variables = new HashMap<>();
+
+        public boolean variablesUnknown;
+
+        public Map<Integer, Object> registers = new HashMap<>();
+
+        public State copy() {
+            State result = new State();
+            result.stack.addAll(stack);
+            result.stackUnknown = stackUnknown;
+            result.variables.putAll(variables);
+            result.variablesUnknown = variablesUnknown;
+            result.registers.putAll(registers);
+            return result;
+        }
+
+        public void push(Object value) {
+            stack.add(value);
+        }
+
+        public Object peek() {
+            if (stack.isEmpty()) {
+                return stackUnknown ? UNKNOWN : Undefined.INSTANCE;
+            }
+
+            return stack.get(stack.size() - 1);
+        }
+
+        public Object pop() {
+            if (stack.isEmpty()) {
+                // popping from the empty stack results in undefined
+                return stackUnknown ? UNKNOWN : Undefined.INSTANCE;
+            }
+
+            return stack.remove(stack.size() - 1);
+        }
+
+        public void setUnknown() {
+            stack.clear();
+            stackUnknown = true;
+            variables.clear();
+            variablesUnknown = true;
+            registers.clear();
+        }
+
+        public boolean merge(State state) {
+            boolean changed = false;
+            if (state.stack.size() < stack.size()) {
+                stack = new ArrayList<>(stack.subList(stack.size() - state.stack.size(), stack.size()));
+                stackUnknown = true;
+                changed = true;
+            } else if (state.stack.size() > stack.size() && !stackUnknown) {
+                stackUnknown = true;
+                changed = true;
+            }
+
+            int offset = state.stack.size() - stack.size();
+            for (int i = 0; i < stack.size(); i++) {
+                Object value = stack.get(i);
+                if (value != UNKNOWN && !valueEquals(value, state.stack.get(offset + i))) {
+                    stack.set(i, UNKNOWN);
+                    changed = true;
+                }
+            }
+
+            if (state.stackUnknown && !stackUnknown) {
+                stackUnknown = true;
+                changed = true;
+            }
+
+            Iterator<Map.Entry<String, Object>> iterator = variables.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Object> entry = iterator.next();
+                Object value = entry.getValue();
+                if (!state.variables.containsKey(entry.getKey())) {
+                    if (state.variablesUnknown) {
+                        iterator.remove();
+                        changed = true;
+                    } else if (value != UNKNOWN) {
+                        entry.setValue(UNKNOWN);
+                        changed = true;
+                    }
+                } else if (value != UNKNOWN && !valueEquals(value, state.variables.get(entry.getKey()))) {
+                    entry.setValue(UNKNOWN);
+                    changed = true;
+                }
+            }
+
+            for (String name : state.variables.keySet()) {
+                if (!variables.containsKey(name) && !variablesUnknown) {
+                    variables.put(name, UNKNOWN);
+                    changed = true;
+                }
+            }
+
+            if (state.variablesUnknown && !variablesUnknown) {
+                variablesUnknown = true;
+                changed = true;
+            }
+
+            Iterator<Map.Entry<Integer, Object>> registerIterator = registers.entrySet().iterator();
+            while (registerIterator.hasNext()) {
+                Map.Entry<Integer, Object> entry = registerIterator.next();
+                if (!valueEquals(entry.getValue(), state.registers.get(entry.getKey()))) {
+                    registerIterator.remove();
+                    changed = true;
+                }
+            }
+
+            return changed;
+        }
+    }
+}
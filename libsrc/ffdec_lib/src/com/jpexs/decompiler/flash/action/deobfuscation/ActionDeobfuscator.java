@@ -83,6 +83,7 @@ import com.jpexs.decompiler.flash.helpers.collections.FixItemCounterStack;
 import com.jpexs.decompiler.graph.GraphTargetItem;
 import com.jpexs.decompiler.graph.model.FalseItem;
 import com.jpexs.decompiler.graph.model.PushItem;
+import com.jpexs.helpers.CancellableWorker;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -192,130 +193,114 @@ public class ActionDeobfuscator extends SWFDecompilerAdapter {
             return false;
         }
 
-        boolean ret = false;
         actions.removeUnreachableActions();
         actions.removeZeroJumps();
 
+        boolean ret = executeFromStart(actions, fakeFunctions, useVariables);
+
+        ActionConstantPropagation propagation = new ActionConstantPropagation(this, fakeFunctions, useVariables);
+        ret |= propagation.execute(actions, getConstantPool(actions));
+        return ret;
+    }
+
+    /**
+     * Executes the actions from the first action, while the values are known,
+     * and replaces the executed code with the resulting variables, stack values
+     * and a jump. Only the start of the code is executed, the other code is
+     * handled by the constant propagation.
+     */
+    private boolean executeFromStart(FastActionList actions, Map<String, Object> fakeFunctions, boolean useVariables) throws InterruptedException {
+        if (actions.isEmpty()) {
+            return false;
+        }
+
+        ActionItem actionItem = actions.first();
         ActionConstantPool cPool = getConstantPool(actions);
         LocalDataArea localData = new LocalDataArea(new Stage(null), true);
         localData.stack = new FixItemCounterStack();
         ExecutionResult result = new ExecutionResult();
-        FastActionListIterator iterator = actions.iterator();
-        boolean first = true;
-        while (iterator.hasNext()) {
-            if (Thread.currentThread().isInterrupted()) {
-                throw new InterruptedException();
-            }
-
-            ActionItem actionItem = iterator.next();
-            result.clear();
-            localData.clear();
 
-            /*
-            When running code from first action,
-            there can be pops from stack when the stack is empty
-            which results in Undefined popped.
-            Some obfuscated code checks for these undefineds like:
+        /*
+        When running code from first action,
+        there can be pops from stack when the stack is empty
+        which results in Undefined popped.
+        Some obfuscated code checks for these undefineds like:
             
-            Not
-            If loc1
-                ConstantPool
-                Jump loc2
-            loc1:
-                <code>
-            loc2:
+        Not
+        If loc1
+            ConstantPool
+            Jump loc2
+        loc1:
+            <code>
+        loc2:
             
-             */
-            localData.checkStackSize = !first; //this enables popping undefineds
+         */
+        localData.checkStackSize = false; //this enables popping undefineds
 
-            executeActions(actionItem, localData, cPool, result, fakeFunctions, useVariables, first);
+        executeActions(actionItem, localData, cPool, result, fakeFunctions, useVariables, true);
 
-            if (result.item != null && result.resultValue == null) {
-                int newIstructionCount = 1 /*jump */ + result.stack.size();
-                if (result.constantPool != null) {
-                    newIstructionCount++;
-                }
+        if (result.item == null || result.resultValue != null) {
+            return false;
+        }
 
-                newIstructionCount += 3 * result.variables.size();
-                /* 2x Push + Set or Define */
+        int newIstructionCount = 1 /*jump */ + result.stack.size();
+        if (result.constantPool != null) {
+            newIstructionCount++;
+        }
 
-                boolean allValueValid = true;
-                for (Object value : result.variables.values()) {
-                    if (!ActionPush.isValidValue(value)) {
-                        allValueValid = false;
-                        break;
-                    }
-                }
+        newIstructionCount += 3 * result.variables.size();
+        /* 2x Push + Set or Define */
 
-                if (allValueValid && newIstructionCount < result.maxSkippedInstructions) {
-                    int unreachableCount = result.minSkippedInstructions;
-                    if (newIstructionCount >= result.minSkippedInstructions) {
-                        unreachableCount = actions.getUnreachableActionCount(actionItem, result.item);
-                    }
+        for (Object value : result.variables.values()) {
+            if (!ActionPush.isValidValue(value)) {
+                return false;
+            }
+        }
 
-                    if (newIstructionCount < unreachableCount) {
-                        if (result.stack.isEmpty() && result.variables.isEmpty() && result.constantPool == null && actionItem.action instanceof ActionJump) {
-                            actionItem.setJumpTarget(result.item);
-                        } else {
-                            ActionItem prevActionItem = actionItem.prev;
-                            if (result.constantPool != null) {
-                                ActionConstantPool constantPool2 = new ActionConstantPool(new ArrayList<>(result.constantPool.constantPool));
-                                ActionItem constantPoolItem = new ActionItem(constantPool2);
-                                iterator.addBefore(constantPoolItem);
-                            }
-
-                            for (String variableName : result.variables.keySet()) {
-                                Object value = result.variables.get(variableName);
-                                ActionPush push = new ActionPush(variableName);
-                                ActionItem pushItem = new ActionItem(push);
-                                iterator.addBefore(pushItem);
-                                push = new ActionPush(value);
-                                pushItem = new ActionItem(push);
-                                iterator.addBefore(pushItem);
-
-                                if (result.defines.contains(variableName)) {
-                                    ActionDefineLocal defineLocal = new ActionDefineLocal();
-                                    ActionItem defineLocalItem = new ActionItem(defineLocal);
-                                    iterator.addBefore(defineLocalItem);
-                                } else {
-                                    ActionSetVariable setVariable = new ActionSetVariable();
-                                    ActionItem setVariableItem = new ActionItem(setVariable);
-                                    iterator.addBefore(setVariableItem);
-                                }
-                            }
-
-                            if (!result.stack.isEmpty()) {
-                                for (Object obj : result.stack) {
-                                    ActionPush push = new ActionPush(obj);
-                                    ActionItem pushItem = new ActionItem(push);
-                                    iterator.addBefore(pushItem);
-                                }
-                            }
-
-                            ActionJump jump = new ActionJump(0);
-                            ActionItem jumpItem = new ActionItem(jump);
-                            jumpItem.setJumpTarget(result.item);
-                            iterator.addBefore(jumpItem);
-
-                            actions.replaceJumpTargets(actionItem, prevActionItem.next);
-                        }
+        if (newIstructionCount >= result.maxSkippedInstructions) {
+            return false;
+        }
 
-                        ActionItem prevItem = actionItem.prev;
+        int unreachableCount = result.minSkippedInstructions;
+        if (newIstructionCount >= result.minSkippedInstructions) {
+            unreachableCount = actions.getUnreachableActionCount(actionItem, result.item);
+        }
+
+        if (newIstructionCount >= unreachableCount) {
+            return false;
+        }
 
-                        actions.removeUnreachableActions();
-                        actions.removeZeroJumps();
+        if (result.stack.isEmpty() && result.variables.isEmpty() && result.constantPool == null && actionItem.action instanceof ActionJump) {
+            actionItem.setJumpTarget(result.item);
+        } else {
+            if (result.constantPool != null) {
+                ActionConstantPool constantPool2 = new ActionConstantPool(new ArrayList<>(result.constantPool.constantPool));
+                actions.insertItemBefore(actionItem, constantPool2);
+            }
 
-                        iterator.setCurrent(prevItem.next.next);
-                        ret = true;
-                    }
+            for (String variableName : result.variables.keySet()) {
+                Object value = result.variables.get(variableName);
+                actions.insertItemBefore(actionItem, new ActionPush(variableName));
+                actions.insertItemBefore(actionItem, new ActionPush(value));
+                if (result.defines.contains(variableName)) {
+                    actions.insertItemBefore(actionItem, new ActionDefineLocal());
+                } else {
+                    actions.insertItemBefore(actionItem, new ActionSetVariable());
                 }
             }
 
-            first = false;
+            for (Object obj : result.stack) {
+                actions.insertItemBefore(actionItem, new ActionPush(obj));
+            }
+
+            ActionItem jumpItem = new ActionItem(new ActionJump(0));
+            jumpItem.setJumpTarget(result.item);
+            actions.insertItemBefore(actionItem, jumpItem);
         }
 
-        //actions.setExcludedFlags(false);
-        return ret;
+        actions.removeUnreachableActions();
+        actions.removeZeroJumps();
+        return true;
     }
 
     private boolean removeObfuscatedUnusedVariables(FastActionList actions) throws InterruptedException {
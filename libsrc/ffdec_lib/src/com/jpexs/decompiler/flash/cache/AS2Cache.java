@@ -19,6 +19,7 @@ import com.jpexs.decompiler.flash.action.ActionList;
 import com.jpexs.decompiler.flash.helpers.HighlightedText;
 import com.jpexs.decompiler.flash.tags.base.ASMSource;
 import com.jpexs.helpers.Cache;
+import com.jpexs.helpers.CacheLoader;
 
 /**
  *
@@ -47,6 +48,19 @@ public class AS2Cache {
         return cache.get(src);
     }
 
+    /**
+     * Gets the cached text or decompiles the source. The source is decompiled
+     * only once when more threads ask for it at the same time.
+     *
+     * @param src Source
+     * @param loader Decompiler
+     * @return Decompiled text
+     * @throws InterruptedException
+     */
+    public HighlightedText get(ASMSource src, CacheLoader<ASMSource, HighlightedText> loader) throws InterruptedException {
+        return cache.computeIfAbsent(src, loader);
+    }
+
     public ActionList getPCode(ASMSource src) {
         return pcodeCache.get(src);
     }
@@ -18,6 +18,7 @@ package com.jpexs.decompiler.flash.cache;
 import com.jpexs.decompiler.flash.abc.ScriptPack;
 import com.jpexs.decompiler.flash.helpers.HighlightedText;
 import com.jpexs.helpers.Cache;
+import com.jpexs.helpers.CacheLoader;
 
 /**
  *
@@ -39,6 +40,19 @@ public class AS3Cache {
         return cache.get(pack);
     }
 
+    /**
+     * Gets the cached text or decompiles the pack. The pack is decompiled only
+     * once when more threads ask for it at the same time.
+     *
+     * @param pack Script pack
+     * @param loader Decompiler
+     * @return Decompiled text
+     * @throws InterruptedException
+     */
+    public HighlightedText get(ScriptPack pack, CacheLoader<ScriptPack, HighlightedText> loader) throws InterruptedException {
+        return cache.computeIfAbsent(pack, loader);
+    }
+
     public void put(ScriptPack pack, HighlightedText text) {
         cache.put(pack, text);
     }
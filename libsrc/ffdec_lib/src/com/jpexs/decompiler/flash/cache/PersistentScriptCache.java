@@ -0,0 +1,843 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash.cache;
+
+import com.jpexs.decompiler.flash.ApplicationInfo;
+import com.jpexs.decompiler.flash.AppResources;
+import com.jpexs.decompiler.flash.SWF;
+import com.jpexs.decompiler.flash.abc.ABC;
+import com.jpexs.decompiler.flash.abc.ScriptPack;
+import com.jpexs.decompiler.flash.abc.types.ScriptInfo;
+import com.jpexs.decompiler.flash.abc.types.traits.Trait;
+import com.jpexs.decompiler.flash.configuration.Configuration;
+import com.jpexs.decompiler.flash.configuration.ConfigurationCategory;
+import com.jpexs.decompiler.flash.configuration.ConfigurationItem;
+import com.jpexs.decompiler.flash.helpers.CodeFormatting;
+import com.jpexs.decompiler.flash.helpers.HighlightedText;
+import com.jpexs.decompiler.flash.helpers.StringBuilderTextWriter;
+import com.jpexs.decompiler.flash.helpers.hilight.HighlightData;
+import com.jpexs.decompiler.flash.helpers.hilight.HighlightSpecialType;
+import com.jpexs.decompiler.flash.helpers.hilight.HighlightType;
+import com.jpexs.decompiler.flash.helpers.hilight.Highlighting;
+import com.jpexs.decompiler.flash.tags.ABCContainerTag;
+import com.jpexs.decompiler.flash.tags.base.ASMSource;
+import com.jpexs.decompiler.graph.DottedChain;
+import com.jpexs.helpers.ByteArrayRange;
+import com.jpexs.helpers.Helper;
+import com.jpexs.helpers.NulStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Decompiled script cache stored on disk, so the scripts decompiled once are
+ * not decompiled again in the next session or in other SWF files containing
+ * the same code.
+ *
+ * The key is a SHA-256 hash of the decompiler version, the settings affecting
+ * the decompiled text and the code itself. AS3 code is represented by the
+ * traits of the script pack and the classes and method bodies they reference,
+ * with constant pool indices replaced by the values and method and class
+ * indices replaced by their order in the pack, so the key does not change when
+ * the other scripts of the ABC are modified. The decompiled text depends also
+ * on the names and types declared by the other classes (imports, name
+ * collisions), so a hash of the declarations of all the classes without the
+ * code is added. AS1/2 code is represented by the action bytes.
+ *
+ * Highlighted texts contain file offsets and method, class and trait indices.
+ * These are stored relative to the code, the key holds the positions to
+ * restore them.
+ *
+ * The texts are stored in an explicit binary format, the cache directory can
+ * be shared, so no Java serialization is used to read it. Texts containing
+ * decompilation error or timeout comments are not stored. When the directory
+ * exceeds the size limit, least recently used texts are removed.
+ *
+ * @author JPEXS
+ */
+public class PersistentScriptCache {
+
+    private static final Logger logger = Logger.getLogger(PersistentScriptCache.class.getName());
+
+    /**
+     * Increment when the stored data or the key format changes
+     */
+    private static final int FORMAT_VERSION = 3;
+
+    private static final int FILE_SIGNATURE = 0x46464443; // FFDC
+
+    /**
+     * Maximum number of highlights in one list, larger values mean a corrupted
+     * file
+     */
+    private static final int MAX_HIGHLIGHTS = 10000000;
+
+    private static final String[] SETTINGS_CATEGORIES = new String[]{"decompilation", "script", "format"};
+
+    /**
+     * Temporary files older than this are left by killed processes
+     */
+    private static final long TEMP_FILE_MAX_AGE = 60 * 60 * 1000;
+
+    private static final Map<SWF, String> declarationHashes = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final Object sizeLock = new Object();
+
+    private static File sizeDirectory;
+
+    /**
+     * Approximate size of the files in the cache directory, -1 = unknown
+     */
+    private static long size = -1;
+
+    /**
+     * Key of the cached text. Contains the positions the highlights of the
+     * text are relative to.
+     */
+    public static final class Key {
+
+        private final String hash;
+
+        private final long fileOffset;
+
+        private final long length;
+
+        private final List<Integer> methods;
+
+        private final List<Integer> classes;
+
+        private final List<Integer> scriptTraits;
+
+        private Key(String hash, long fileOffset, long length) {
+            this.hash = hash;
+            this.fileOffset = fileOffset;
+            this.length = length;
+            this.methods = null;
+            this.classes = null;
+            this.scriptTraits = null;
+        }
+
+        private Key(String hash, List<Integer> methods, List<Integer> classes, List<Integer> scriptTraits) {
+            this.hash = hash;
+            this.fileOffset = 0;
+            this.length = 0;
+            this.methods = methods;
+            this.classes = classes;
+            this.scriptTraits = scriptTraits;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        private boolean isAs3() {
+            return methods != null;
+        }
+    }
+
+    private static final class CacheFile {
+
+        private final File file;
+
+        private final long lastModified;
+
+        private final long length;
+
+        private CacheFile(File file) {
+            this.file = file;
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+        }
+    }
+
+    private PersistentScriptCache() {
+    }
+
+    public static boolean isEnabled() {
+        return getDirectory() != null;
+    }
+
+    private static File getDirectory() {
+        String dir = Configuration.persistentCacheDirectory.get();
+        if (dir == null || dir.isEmpty()) {
+            return null;
+        }
+
+        return new File(dir);
+    }
+
+    /**
+     * Gets the key of the script pack.
+     *
+     * @param pack Script pack
+     * @param highlighted Whether the cached text contains highlights
+     * @return Key or null when the pack cannot be cached
+     * @throws InterruptedException
+     */
+    public static Key getKey(ScriptPack pack, boolean highlighted) throws InterruptedException {
+        SWF swf = pack.getSwf();
+        if (swf == null) {
+            return null;
+        }
+
+        String declarationsHash = getDeclarationsHash(swf);
+        if (declarationsHash == null) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        appendHeader(sb, "as3", highlighted);
+        sb.append(declarationsHash).append('\n');
+        sb.append(pack.getClassPath().toRawString()).append('\n');
+        MessageDigest digest = getDigest();
+        digest.update(sb.toString().getBytes(StandardCharsets.UTF_8));
+        ScriptPackHasher hasher = new ScriptPackHasher(pack.abc, new DigestOutputStream(new NulStream(), digest));
+        try {
+            hasher.writePack(pack);
+        } catch (IOException | IndexOutOfBoundsException ex) {
+            // invalid indices in obfuscated files
+            logger.log(Level.FINE, "Cannot compute the hash of the script " + pack.getClassPath(), ex);
+            return null;
+        }
+
+        return new Key(Helper.byteArrayToHex(digest.digest()), hasher.getMethods(), hasher.getClasses(), new ArrayList<>(pack.traitIndices));
+    }
+
+    /**
+     * Forgets the hash of the class declarations of the SWF. Call it when the
+     * scripts of the SWF were modified.
+     *
+     * @param swf SWF
+     */
+    public static void invalidate(SWF swf) {
+        declarationHashes.remove(swf);
+    }
+
+    /**
+     * Gets the key of the AS1/2 code.
+     *
+     * @param src Source
+     * @param highlighted Whether the cached text contains highlights
+     * @return Key or null when the code cannot be cached
+     */
+    public static Key getKey(ASMSource src, boolean highlighted) {
+        SWF swf = src.getSwf();
+        if (swf == null) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        appendHeader(sb, "as2", highlighted);
+        ByteArrayRange actionBytes = src.getActionBytes();
+        sb.append(swf.version).append('\n');
+        sb.append(src.toString()).append('\n');
+        sb.append(src.getExportFileName()).append('\n');
+        StringBuilderTextWriter writer = new StringBuilderTextWriter(new CodeFormatting(), sb);
+        src.getActionSourcePrefix(writer);
+        writer.newLine();
+        src.getActionSourceSuffix(writer);
+        writer.newLine();
+        sb.append(Helper.byteArrayToHex(actionBytes.getRangeData()));
+        return new Key(hash(sb.toString()), actionBytes.getPos(), actionBytes.getLength());
+    }
+
+    private static void appendHeader(StringBuilder sb, String type, boolean highlighted) {
+        sb.append(FORMAT_VERSION).append('\n');
+        sb.append(ApplicationInfo.libraryVersion).append('\n');
+        // translated texts in the comments
+        sb.append(AppResources.getLocale()).append('\n');
+        sb.append(type).append(highlighted ? " highlighted" : "").append('\n');
+        appendSettings(sb);
+    }
+
+    private static void appendSettings(StringBuilder sb) {
+        Map<String, Field> fields = Configuration.getConfigurationFields();
+        List<String> names = new ArrayList<>(fields.keySet());
+        Collections.sort(names);
+        for (String name : names) {
+            Field field = fields.get(name);
+            ConfigurationCategory category = field.getAnnotation(ConfigurationCategory.class);
+            if (category == null || !isSettingsCategory(category.value())) {
+                continue;
+            }
+
+            // thread count does not affect the decompiled text
+            if (name.startsWith("parallelSpeedUp")) {
+                continue;
+            }
+
+            try {
+                ConfigurationItem<?> item = (ConfigurationItem<?>) field.get(null);
+                sb.append(name).append('=').append(item.get()).append('\n');
+            } catch (IllegalArgumentException | IllegalAccessException ex) {
+                // should not happen
+                logger.log(Level.SEVERE, null, ex);
+            }
+        }
+    }
+
+    private static boolean isSettingsCategory(String category) {
+        for (String c : SETTINGS_CATEGORIES) {
+            if (c.equals(category)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets the hash of the names, types and signatures declared by the classes
+     * and scripts of all the ABC tags. The declarations are sorted, so the
+     * order of the classes does not matter.
+     */
+    private static String getDeclarationsHash(SWF swf) throws InterruptedException {
+        String result = declarationHashes.get(swf);
+        if (result == null) {
+            List<String> declarations = new ArrayList<>();
+            try {
+                for (ABCContainerTag tag : swf.getAbcList()) {
+                    ABC abc = tag.getABC();
+                    for (int i = 0; i < abc.instance_info.size(); i++) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            throw new InterruptedException();
+                        }
+
+                        if (abc.instance_info.get(i).deleted) {
+                            continue;
+                        }
+
+                        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                        new ScriptPackHasher(abc, baos).writeClassDeclaration(i);
+                        declarations.add(Helper.byteArrayToHex(baos.toByteArray()));
+                    }
+
+                    for (ScriptInfo script : abc.script_info) {
+                        if (script.deleted) {
+                            continue;
+                        }
+
+                        for (Trait trait : script.traits.traits) {
+                            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                            new ScriptPackHasher(abc, baos).writeTraitDeclaration(trait);
+                            declarations.add(Helper.byteArrayToHex(baos.toByteArray()));
+                        }
+                    }
+                }
+            } catch (IOException | IndexOutOfBoundsException ex) {
+                logger.log(Level.FINE, "Cannot compute the hash of the class declarations", ex);
+                return null;
+            }
+
+            Collections.sort(declarations);
+            StringBuilder sb = new StringBuilder();
+            for (String declaration : declarations) {
+                sb.append(declaration).append('\n');
+            }
+
+            result = hash(sb.toString());
+            declarationHashes.put(swf, result);
+        }
+
+        return result;
+    }
+
+    private static MessageDigest getDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            // SHA-256 is available in every Java platform
+            throw new Error(ex);
+        }
+    }
+
+    private static String hash(String data) {
+        return Helper.byteArrayToHex(getDigest().digest(data.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static File getFile(File dir, String hash) {
+        return new File(new File(dir, hash.substring(0, 2)), hash + ".bin");
+    }
+
+    /**
+     * Gets the cached text.
+     *
+     * @param key Key, can be null
+     * @return Text or null when it is not cached
+     */
+    public static HighlightedText get(Key key) {
+        File dir = getDirectory();
+        if (dir == null || key == null) {
+            return null;
+        }
+
+        File file = getFile(dir, key.hash);
+        if (!file.exists()) {
+            return null;
+        }
+
+        HighlightedText text;
+        try (DataInputStream dis = new DataInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(file))))) {
+            text = readText(dis);
+        } catch (IOException ex) {
+            logger.log(Level.FINE, "Invalid cache file: " + file, ex);
+            file.delete();
+            return null;
+        }
+
+        // the least recently used files are removed first
+        file.setLastModified(System.currentTimeMillis());
+        return relocate(text, key, false);
+    }
+
+    /**
+     * Stores the text. Texts with decompilation error comments are ignored.
+     *
+     * @param key Key, can be null
+     * @param text Text
+     */
+    public static void put(Key key, HighlightedText text) {
+        File dir = getDirectory();
+        if (dir == null || key == null || text == null) {
+            return;
+        }
+
+        if (text.text.contains(AppResources.translate("decompilationError"))) {
+            return;
+        }
+
+        text = relocate(text, key, true);
+        if (text == null) {
+            // highlights pointing outside of the code
+            return;
+        }
+
+        File file = getFile(dir, key.hash);
+        File parent = file.getParentFile();
+        if (!parent.exists() && !parent.mkdirs() && !parent.exists()) {
+            logger.log(Level.WARNING, "Cannot create cache directory: {0}", parent);
+            return;
+        }
+
+        File tempFile = null;
+        try {
+            // write to temporary file first, so the concurrent readers never see partial data
+            tempFile = File.createTempFile(key.hash, ".tmp", parent);
+            try (DataOutputStream dos = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile))))) {
+                writeText(dos, text);
+            }
+
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            tempFile = null;
+            addSize(dir, file.length());
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Cannot write cache file: " + file, ex);
+        } finally {
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    private static void addSize(File dir, long delta) {
+        int limitMb = Configuration.persistentCacheSizeLimit.get();
+        if (limitMb <= 0) {
+            return;
+        }
+
+        long limit = limitMb * 1024L * 1024L;
+        synchronized (sizeLock) {
+            if (size == -1 || !dir.equals(sizeDirectory)) {
+                sizeDirectory = dir;
+                size = 0;
+                for (File file : listFiles(dir)) {
+                    size += file.length();
+                }
+            } else {
+                size += delta;
+            }
+
+            if (size > limit) {
+                size = removeLeastRecentlyUsed(dir, limit - limit / 10);
+            }
+        }
+    }
+
+    private static List<File> listFiles(File dir) {
+        List<File> result = new ArrayList<>();
+        File[] subDirs = dir.listFiles();
+        if (subDirs == null) {
+            return result;
+        }
+
+        for (File subDir : subDirs) {
+            File[] files = subDir.listFiles();
+            if (files != null) {
+                result.addAll(Arrays.asList(files));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Removes the least recently used files, so the size of the directory is
+     * at most the target size. The directory can be shared by more processes,
+     * so the size is computed from the files.
+     *
+     * @return New size of the directory
+     */
+    private static long removeLeastRecentlyUsed(File dir, long targetSize) {
+        long now = System.currentTimeMillis();
+        List<CacheFile> files = new ArrayList<>();
+        long total = 0;
+        for (File file : listFiles(dir)) {
+            CacheFile cacheFile = new CacheFile(file);
+            if (file.getName().endsWith(".tmp")) {
+                if (now - cacheFile.lastModified > TEMP_FILE_MAX_AGE) {
+                    file.delete();
+                }
+
+                continue;
+            }
+
+            files.add(cacheFile);
+            total += cacheFile.length;
+        }
+
+        files.sort((a, b) -> Long.compare(a.lastModified, b.lastModified));
+        for (CacheFile cacheFile : files) {
+            if (total <= targetSize) {
+                break;
+            }
+
+            if (cacheFile.file.delete()) {
+                total -= cacheFile.length;
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Converts the positions in the highlights between the absolute values
+     * and the values relative to the key.
+     *
+     * @param text Text
+     * @param key Key
+     * @param store True = to relative values, false = to absolute values
+     * @return Converted text or null when some position is outside of the
+     * code of the key
+     */
+    private static HighlightedText relocate(HighlightedText text, Key key, boolean store) {
+        List<Highlighting> classHighlights = text.getClassHighlights();
+        List<Highlighting> traitHighlights = relocateHighlights(text.getTraitHighlights(), classHighlights, key, store);
+        List<Highlighting> newClassHighlights = relocateHighlights(classHighlights, classHighlights, key, store);
+        List<Highlighting> methodHighlights = relocateHighlights(text.getMethodHighlights(), classHighlights, key, store);
+        List<Highlighting> instructionHighlights = relocateHighlights(text.getInstructionHighlights(), classHighlights, key, store);
+        List<Highlighting> specialHighlights = relocateHighlights(text.getSpecialHighlights(), classHighlights, key, store);
+        if (traitHighlights == null || newClassHighlights == null || methodHighlights == null
+                || instructionHighlights == null || specialHighlights == null) {
+            return null;
+        }
+
+        return new HighlightedText(text.text, traitHighlights, newClassHighlights, methodHighlights, instructionHighlights, specialHighlights);
+    }
+
+    private static List<Highlighting> relocateHighlights(List<Highlighting> highlights, List<Highlighting> classHighlights, Key key, boolean store) {
+        List<Highlighting> result = new ArrayList<>(highlights.size());
+        for (Highlighting h : highlights) {
+            HighlightData data = h.getProperties();
+            if (data != null) {
+                data = data.clone();
+                if (key.isAs3()) {
+                    Long index;
+                    if (h.type == HighlightType.METHOD && data.localName == null) {
+                        index = relocateIndex(data.index, key.methods, store);
+                    } else if (h.type == HighlightType.CLASS && data.localName == null) {
+                        index = relocateIndex(data.index, key.classes, store);
+                    } else if (h.type == HighlightType.TRAIT && data.index >= 0 && !isInClass(h, classHighlights)) {
+                        // class traits are numbered within the class
+                        index = relocateIndex(data.index, key.scriptTraits, store);
+                    } else {
+                        index = data.index;
+                    }
+
+                    if (index == null) {
+                        return null;
+                    }
+
+                    data.index = index;
+                } else {
+                    Long fileOffset = relocateOffset(data.fileOffset, key, store);
+                    Long firstLineOffset = relocateOffset(data.firstLineOffset, key, store);
+                    if (fileOffset == null || firstLineOffset == null) {
+                        return null;
+                    }
+
+                    data.fileOffset = fileOffset;
+                    data.firstLineOffset = firstLineOffset;
+                }
+            }
+
+            Highlighting nh = new Highlighting(h.startPos, data, h.type, null);
+            nh.len = h.len;
+            result.add(nh);
+        }
+
+        return result;
+    }
+
+    private static boolean isInClass(Highlighting h, List<Highlighting> classHighlights) {
+        for (Highlighting c : classHighlights) {
+            if (h.startPos >= c.startPos && h.startPos < c.startPos + c.len) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static Long relocateIndex(long index, List<Integer> indices, boolean store) {
+        if (store) {
+            int ordinal = index < 0 || index > Integer.MAX_VALUE ? -1 : indices.indexOf((int) index);
+            return ordinal == -1 ? null : (long) ordinal;
+        }
+
+        if (index < 0 || index >= indices.size()) {
+            return null;
+        }
+
+        return (long) indices.get((int) index);
+    }
+
+    private static Long relocateOffset(long offset, Key key, boolean store) {
+        if (offset == -1) {
+            return offset;
+        }
+
+        long relative = store ? offset - key.fileOffset : offset;
+        if (relative < 0 || relative > key.length) {
+            return null;
+        }
+
+        return store ? relative : offset + key.fileOffset;
+    }
+
+    private static void writeText(DataOutputStream dos, HighlightedText text) throws IOException {
+        dos.writeInt(FILE_SIGNATURE);
+        dos.writeInt(FORMAT_VERSION);
+        writeLongString(dos, text.text);
+        writeHighlights(dos, text.getTraitHighlights());
+        writeHighlights(dos, text.getClassHighlights());
+        writeHighlights(dos, text.getMethodHighlights());
+        writeHighlights(dos, text.getInstructionHighlights());
+        writeHighlights(dos, text.getSpecialHighlights());
+    }
+
+    private static HighlightedText readText(DataInputStream dis) throws IOException {
+        if (dis.readInt() != FILE_SIGNATURE || dis.readInt() != FORMAT_VERSION) {
+            throw new IOException("Unknown cache file format");
+        }
+
+        String text = readLongString(dis);
+        List<Highlighting> traitHighlights = readHighlights(dis, text.length());
+        List<Highlighting> classHighlights = readHighlights(dis, text.length());
+        List<Highlighting> methodHighlights = readHighlights(dis, text.length());
+        List<Highlighting> instructionHighlights = readHighlights(dis, text.length());
+        List<Highlighting> specialHighlights = readHighlights(dis, text.length());
+        return new HighlightedText(text, traitHighlights, classHighlights, methodHighlights, instructionHighlights, specialHighlights);
+    }
+
+    private static void writeHighlights(DataOutputStream dos, List<Highlighting> highlights) throws IOException {
+        dos.writeInt(highlights.size());
+        for (Highlighting h : highlights) {
+            dos.writeByte(h.type.ordinal());
+            dos.writeInt(h.startPos);
+            dos.writeInt(h.len);
+            HighlightData data = h.getProperties();
+            dos.writeBoolean(data != null);
+            if (data == null) {
+                continue;
+            }
+
+            dos.writeBoolean(data.declaration);
+            writeDottedChain(dos, data.declaredType);
+            writeNullableString(dos, data.localName);
+            dos.writeByte(data.subtype == null ? -1 : data.subtype.ordinal());
+            writeNullableString(dos, data.specialValue);
+            dos.writeLong(data.index);
+            dos.writeLong(data.offset);
+            dos.writeLong(data.fileOffset);
+            dos.writeLong(data.firstLineOffset);
+            dos.writeInt(data.regIndex);
+        }
+    }
+
+    private static List<Highlighting> readHighlights(DataInputStream dis, int textLength) throws IOException {
+        int count = dis.readInt();
+        if (count < 0 || count > MAX_HIGHLIGHTS) {
+            throw new IOException("Invalid highlight count");
+        }
+
+        HighlightType[] types = HighlightType.values();
+        HighlightSpecialType[] subtypes = HighlightSpecialType.values();
+        List<Highlighting> result = new ArrayList<>(Math.min(count, 1024));
+        for (int i = 0; i < count; i++) {
+            int type = dis.readByte();
+            int startPos = dis.readInt();
+            int len = dis.readInt();
+            if (type < 0 || type >= types.length || startPos < 0 || len < 0 || startPos > textLength) {
+                throw new IOException("Invalid highlight");
+            }
+
+            HighlightData data = null;
+            if (dis.readBoolean()) {
+                data = new HighlightData();
+                data.declaration = dis.readBoolean();
+                data.declaredType = readDottedChain(dis);
+                data.localName = readNullableString(dis);
+                int subtype = dis.readByte();
+                if (subtype < -1 || subtype >= subtypes.length) {
+                    throw new IOException("Invalid highlight subtype");
+                }
+
+                data.subtype = subtype == -1 ? null : subtypes[subtype];
+                data.specialValue = readNullableString(dis);
+                data.index = dis.readLong();
+                data.offset = dis.readLong();
+                data.fileOffset = dis.readLong();
+                data.firstLineOffset = dis.readLong();
+                data.regIndex = dis.readInt();
+            }
+
+            Highlighting h = new Highlighting(startPos, data, types[type], null);
+            h.len = len;
+            result.add(h);
+        }
+
+        return result;
+    }
+
+    private static void writeDottedChain(DataOutputStream dos, DottedChain chain) throws IOException {
+        if (chain == null) {
+            dos.writeInt(-2);
+        } else if (chain.isEmpty()) {
+            dos.writeInt(-1);
+        } else {
+            dos.writeInt(chain.size());
+            for (int i = 0; i < chain.size(); i++) {
+                dos.writeUTF(chain.get(i));
+            }
+
+            dos.writeUTF(chain.getNamespaceSuffix());
+        }
+    }
+
+    private static DottedChain readDottedChain(DataInputStream dis) throws IOException {
+        int size = dis.readInt();
+        if (size == -2) {
+            return null;
+        }
+
+        if (size == -1) {
+            return DottedChain.EMPTY;
+        }
+
+        if (size < 0 || size > 0xffff) {
+            throw new IOException("Invalid name");
+        }
+
+        String[] parts = new String[size];
+        for (int i = 0; i < size; i++) {
+            parts[i] = dis.readUTF();
+        }
+
+        return new DottedChain(parts, dis.readUTF());
+    }
+
+    private static void writeNullableString(DataOutputStream dos, String value) throws IOException {
+        dos.writeBoolean(value != null);
+        if (value != null) {
+            writeLongString(dos, value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream dis) throws IOException {
+        return dis.readBoolean() ? readLongString(dis) : null;
+    }
+
+    /**
+     * Writes the string, unlike writeUTF it is not limited to 64 KB.
+     */
+    private static void writeLongString(DataOutputStream dos, String value) throws IOException {
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        dos.writeInt(data.length);
+        dos.write(data);
+    }
+
+    private static String readLongString(DataInputStream dis) throws IOException {
+        int length = dis.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid string length");
+        }
+
+        // read in chunks, so a corrupted length does not allocate a huge array
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(Math.min(length, 65536));
+        byte[] buf = new byte[4096];
+        while (length > 0) {
+            int n = dis.read(buf, 0, Math.min(buf.length, length));
+            if (n < 0) {
+                throw new EOFException();
+            }
+
+            baos.write(buf, 0, n);
+            length -= n;
+        }
+
+        return new String(baos.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
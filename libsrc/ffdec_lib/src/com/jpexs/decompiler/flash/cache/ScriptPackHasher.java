@@ -0,0 +1,510 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash.cache;
+
+import com.jpexs.decompiler.flash.abc.ABC;
+import com.jpexs.decompiler.flash.abc.ScriptPack;
+import com.jpexs.decompiler.flash.abc.avm2.AVM2Code;
+import com.jpexs.decompiler.flash.abc.avm2.AVM2ConstantPool;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.AVM2Instruction;
+import com.jpexs.decompiler.flash.abc.types.ABCException;
+import com.jpexs.decompiler.flash.abc.types.ClassInfo;
+import com.jpexs.decompiler.flash.abc.types.Float4;
+import com.jpexs.decompiler.flash.abc.types.InstanceInfo;
+import com.jpexs.decompiler.flash.abc.types.MetadataInfo;
+import com.jpexs.decompiler.flash.abc.types.MethodBody;
+import com.jpexs.decompiler.flash.abc.types.MethodInfo;
+import com.jpexs.decompiler.flash.abc.types.Multiname;
+import com.jpexs.decompiler.flash.abc.types.Namespace;
+import com.jpexs.decompiler.flash.abc.types.NamespaceSet;
+import com.jpexs.decompiler.flash.abc.types.ScriptInfo;
+import com.jpexs.decompiler.flash.abc.types.ValueKind;
+import com.jpexs.decompiler.flash.abc.types.traits.Trait;
+import com.jpexs.decompiler.flash.abc.types.traits.TraitClass;
+import com.jpexs.decompiler.flash.abc.types.traits.TraitFunction;
+import com.jpexs.decompiler.flash.abc.types.traits.TraitMethodGetterSetter;
+import com.jpexs.decompiler.flash.abc.types.traits.TraitSlotConst;
+import com.jpexs.decompiler.flash.abc.types.traits.Traits;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the content of the script pack in a form independent of the position
+ * of the pack in the ABC. The constant pool indices are replaced by the
+ * values, the methods and classes by the order in which they are first
+ * referenced from the pack.
+ *
+ * @author JPEXS
+ */
+class ScriptPackHasher {
+
+    private final ABC abc;
+
+    private final AVM2ConstantPool constants;
+
+    private final DataOutputStream out;
+
+    private final List<Integer> methods = new ArrayList<>();
+
+    private final List<Integer> classes = new ArrayList<>();
+
+    private final Map<Integer, Integer> methodOrdinals = new HashMap<>();
+
+    private final Map<Integer, Integer> classOrdinals = new HashMap<>();
+
+    private final Map<Integer, Integer> privateNamespaceOrdinals = new HashMap<>();
+
+    public ScriptPackHasher(ABC abc, OutputStream os) {
+        this.abc = abc;
+        this.constants = abc.constants;
+        this.out = new DataOutputStream(os);
+    }
+
+    /**
+     * Gets the MethodInfo indices in the order of the method ordinals.
+     *
+     * @return Method indices
+     */
+    public List<Integer> getMethods() {
+        return methods;
+    }
+
+    /**
+     * Gets the class indices in the order of the class ordinals.
+     *
+     * @return Class indices
+     */
+    public List<Integer> getClasses() {
+        return classes;
+    }
+
+    /**
+     * Writes the traits of the pack, the script initializer and all the
+     * classes and methods referenced from them.
+     *
+     * @param pack Script pack
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public void writePack(ScriptPack pack) throws IOException, InterruptedException {
+        out.writeInt(abc.version.major);
+        out.writeInt(abc.version.minor);
+        ScriptInfo script = abc.script_info.get(pack.scriptIndex);
+        writeMethodReference(script.init_index);
+        out.writeInt(pack.traitIndices.size());
+        for (int traitIndex : pack.traitIndices) {
+            writeTrait(script.traits.traits.get(traitIndex));
+        }
+
+        int methodPos = 0;
+        int classPos = 0;
+        while (methodPos < methods.size() || classPos < classes.size()) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+
+            if (classPos < classes.size()) {
+                writeClass(classes.get(classPos++));
+            } else {
+                writeMethod(methods.get(methodPos++));
+            }
+        }
+    }
+
+    /**
+     * Writes the declaration of the class without the method bodies.
+     *
+     * @param classIndex Class index
+     * @throws IOException
+     */
+    public void writeClassDeclaration(int classIndex) throws IOException {
+        InstanceInfo instanceInfo = abc.instance_info.get(classIndex);
+        writeMultiname(instanceInfo.name_index);
+        writeMultiname(instanceInfo.super_index);
+        out.writeInt(instanceInfo.flags);
+        writeInterfaces(instanceInfo.interfaces);
+        writeMethodSignature(instanceInfo.iinit_index);
+        writeTraitDeclarations(instanceInfo.instance_traits);
+        writeTraitDeclarations(abc.class_info.get(classIndex).static_traits);
+    }
+
+    /**
+     * Writes the declaration of the trait without the method bodies.
+     *
+     * @param trait Trait
+     * @throws IOException
+     */
+    public void writeTraitDeclaration(Trait trait) throws IOException {
+        out.writeInt(trait.kindType);
+        out.writeInt(trait.kindFlags);
+        writeMultiname(trait.name_index);
+        if (trait instanceof TraitSlotConst) {
+            writeMultiname(((TraitSlotConst) trait).type_index);
+        } else if (trait instanceof TraitClass) {
+            writeMultiname(abc.instance_info.get(((TraitClass) trait).class_info).name_index);
+        } else if (trait instanceof TraitFunction) {
+            writeMethodSignature(((TraitFunction) trait).method_info);
+        } else if (trait instanceof TraitMethodGetterSetter) {
+            writeMethodSignature(((TraitMethodGetterSetter) trait).method_info);
+        }
+    }
+
+    private void writeTraitDeclarations(Traits traits) throws IOException {
+        out.writeInt(traits.traits.size());
+        for (Trait trait : traits.traits) {
+            writeTraitDeclaration(trait);
+        }
+    }
+
+    private void writeMethodSignature(int methodIndex) throws IOException {
+        MethodInfo methodInfo = abc.method_info.get(methodIndex);
+        out.writeInt(methodInfo.param_types.length);
+        for (int type : methodInfo.param_types) {
+            writeMultiname(type);
+        }
+
+        writeMultiname(methodInfo.ret_type);
+    }
+
+    private void writeInterfaces(int[] interfaces) throws IOException {
+        out.writeInt(interfaces.length);
+        for (int i : interfaces) {
+            writeMultiname(i);
+        }
+    }
+
+    private void writeClass(int classIndex) throws IOException {
+        InstanceInfo instanceInfo = abc.instance_info.get(classIndex);
+        writeMultiname(instanceInfo.name_index);
+        writeMultiname(instanceInfo.super_index);
+        out.writeInt(instanceInfo.flags);
+        if ((instanceInfo.flags & InstanceInfo.CLASS_PROTECTEDNS) != 0) {
+            writeNamespace(instanceInfo.protectedNS);
+        }
+
+        writeInterfaces(instanceInfo.interfaces);
+        writeMethodReference(instanceInfo.iinit_index);
+        writeTraits(instanceInfo.instance_traits);
+        ClassInfo classInfo = abc.class_info.get(classIndex);
+        writeMethodReference(classInfo.cinit_index);
+        writeTraits(classInfo.static_traits);
+    }
+
+    private void writeMethod(int methodIndex) throws IOException {
+        MethodInfo methodInfo = abc.method_info.get(methodIndex);
+        out.writeInt(methodInfo.param_types.length);
+        for (int type : methodInfo.param_types) {
+            writeMultiname(type);
+        }
+
+        writeMultiname(methodInfo.ret_type);
+        writeString(methodInfo.name_index);
+        out.writeInt(methodInfo.flags);
+        out.writeInt(methodInfo.optional.length);
+        for (ValueKind value : methodInfo.optional) {
+            writeValue(value.value_index, value.value_kind);
+        }
+
+        out.writeInt(methodInfo.paramNames.length);
+        for (int name : methodInfo.paramNames) {
+            writeString(name);
+        }
+
+        MethodBody body = abc.findBody(methodIndex);
+        if (body == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        out.writeInt(body.max_stack);
+        out.writeInt(body.max_regs);
+        out.writeInt(body.init_scope_depth);
+        out.writeInt(body.max_scope_depth);
+        out.writeInt(body.exceptions.length);
+        for (ABCException ex : body.exceptions) {
+            out.writeInt(ex.start);
+            out.writeInt(ex.end);
+            out.writeInt(ex.target);
+            writeMultiname(ex.type_index);
+            writeMultiname(ex.name_index);
+        }
+
+        writeTraits(body.traits);
+        AVM2Code code = body.getCode();
+        out.writeInt(code.code.size());
+        for (AVM2Instruction ins : code.code) {
+            int[] types = ins.definition.operands;
+            int[] operands = ins.operands == null ? new int[0] : ins.operands;
+            out.writeInt(ins.definition.instructionCode);
+            out.writeInt(operands.length);
+            for (int i = 0; i < operands.length; i++) {
+                // lookupswitch has more operands than the definition
+                writeOperand(i < types.length ? types[i] : -1, operands[i]);
+            }
+        }
+    }
+
+    private void writeOperand(int type, int value) throws IOException {
+        switch (type) {
+            case AVM2Code.DAT_MULTINAME_INDEX:
+                writeMultiname(value);
+                break;
+            case AVM2Code.DAT_STRING_INDEX:
+                writeString(value);
+                break;
+            case AVM2Code.DAT_INT_INDEX:
+                out.writeLong(constants.getInt(value));
+                break;
+            case AVM2Code.DAT_UINT_INDEX:
+                out.writeLong(constants.getUInt(value));
+                break;
+            case AVM2Code.DAT_DOUBLE_INDEX:
+                out.writeLong(Double.doubleToLongBits(constants.getDouble(value)));
+                break;
+            case AVM2Code.DAT_DECIMAL_INDEX:
+                writeString(String.valueOf(constants.getDecimal(value)));
+                break;
+            case AVM2Code.DAT_FLOAT_INDEX:
+                writeString(String.valueOf(constants.getFloat(value)));
+                break;
+            case AVM2Code.DAT_FLOAT4_INDEX:
+                Float4 float4 = constants.getFloat4(value);
+                writeString(float4 == null ? null : Arrays.toString(float4.values));
+                break;
+            case AVM2Code.DAT_NAMESPACE_INDEX:
+                writeNamespace(value);
+                break;
+            case AVM2Code.DAT_METHOD_INDEX:
+                writeMethodReference(value);
+                break;
+            case AVM2Code.DAT_CLASS_INDEX:
+                writeClassReference(value);
+                break;
+            default:
+                out.writeInt(value);
+        }
+    }
+
+    private void writeTraits(Traits traits) throws IOException {
+        out.writeInt(traits.traits.size());
+        for (Trait trait : traits.traits) {
+            writeTrait(trait);
+        }
+    }
+
+    private void writeTrait(Trait trait) throws IOException {
+        out.writeInt(trait.kindType);
+        out.writeInt(trait.kindFlags);
+        writeMultiname(trait.name_index);
+        out.writeInt(trait.metadata.length);
+        for (int m : trait.metadata) {
+            writeMetadata(m);
+        }
+
+        if (trait instanceof TraitSlotConst) {
+            TraitSlotConst tsc = (TraitSlotConst) trait;
+            out.writeInt(tsc.slot_id);
+            writeMultiname(tsc.type_index);
+            if (tsc.value_index == 0) {
+                out.writeInt(-1);
+            } else {
+                writeValue(tsc.value_index, tsc.value_kind);
+            }
+        } else if (trait instanceof TraitClass) {
+            TraitClass tc = (TraitClass) trait;
+            out.writeInt(tc.slot_id);
+            writeClassReference(tc.class_info);
+        } else if (trait instanceof TraitFunction) {
+            TraitFunction tf = (TraitFunction) trait;
+            out.writeInt(tf.slot_id);
+            writeMethodReference(tf.method_info);
+        } else if (trait instanceof TraitMethodGetterSetter) {
+            TraitMethodGetterSetter tmgs = (TraitMethodGetterSetter) trait;
+            out.writeInt(tmgs.disp_id);
+            writeMethodReference(tmgs.method_info);
+        }
+    }
+
+    private void writeMetadata(int index) throws IOException {
+        if (index < 0 || index >= abc.metadata_info.size()) {
+            out.writeInt(-1);
+            return;
+        }
+
+        MetadataInfo metadata = abc.metadata_info.get(index);
+        writeString(metadata.name_index);
+        out.writeInt(metadata.keys.length);
+        for (int i = 0; i < metadata.keys.length; i++) {
+            writeString(metadata.keys[i]);
+            writeString(metadata.values[i]);
+        }
+    }
+
+    private void writeValue(int valueIndex, int valueKind) throws IOException {
+        out.writeInt(valueKind);
+        switch (valueKind) {
+            case ValueKind.CONSTANT_Int:
+                out.writeLong(constants.getInt(valueIndex));
+                break;
+            case ValueKind.CONSTANT_UInt:
+                out.writeLong(constants.getUInt(valueIndex));
+                break;
+            case ValueKind.CONSTANT_Double:
+                out.writeLong(Double.doubleToLongBits(constants.getDouble(valueIndex)));
+                break;
+            case ValueKind.CONSTANT_Utf8:
+                writeString(valueIndex);
+                break;
+            case ValueKind.CONSTANT_Namespace:
+            case ValueKind.CONSTANT_PackageNamespace:
+            case ValueKind.CONSTANT_PackageInternalNs:
+            case ValueKind.CONSTANT_ProtectedNamespace:
+            case ValueKind.CONSTANT_ExplicitNamespace:
+            case ValueKind.CONSTANT_StaticProtectedNs:
+            case ValueKind.CONSTANT_PrivateNs:
+                writeNamespace(valueIndex);
+                break;
+            case ValueKind.CONSTANT_True:
+            case ValueKind.CONSTANT_False:
+            case ValueKind.CONSTANT_Null:
+            case ValueKind.CONSTANT_Undefined:
+                break;
+            default:
+                // decimal, float and float4 depend on the ABC version
+                writeString(new ValueKind(valueIndex, valueKind).toASMString(constants));
+        }
+    }
+
+    private void writeMethodReference(int methodIndex) throws IOException {
+        Integer ordinal = methodOrdinals.get(methodIndex);
+        if (ordinal == null) {
+            ordinal = methods.size();
+            methods.add(methodIndex);
+            methodOrdinals.put(methodIndex, ordinal);
+        }
+
+        out.writeInt(ordinal);
+    }
+
+    private void writeClassReference(int classIndex) throws IOException {
+        Integer ordinal = classOrdinals.get(classIndex);
+        if (ordinal == null) {
+            ordinal = classes.size();
+            classes.add(classIndex);
+            classOrdinals.put(classIndex, ordinal);
+        }
+
+        out.writeInt(ordinal);
+    }
+
+    private void writeMultiname(int index) throws IOException {
+        if (index == 0) {
+            out.writeInt(-1);
+            return;
+        }
+
+        Multiname multiname = constants.getMultiname(index);
+        if (multiname == null) {
+            out.writeInt(-2);
+            return;
+        }
+
+        out.writeInt(multiname.kind);
+        switch (multiname.kind) {
+            case Multiname.QNAME:
+            case Multiname.QNAMEA:
+                writeNamespace(multiname.namespace_index);
+                writeString(multiname.name_index);
+                break;
+            case Multiname.RTQNAME:
+            case Multiname.RTQNAMEA:
+                writeString(multiname.name_index);
+                break;
+            case Multiname.MULTINAME:
+            case Multiname.MULTINAMEA:
+                writeString(multiname.name_index);
+                writeNamespaceSet(multiname.namespace_set_index);
+                break;
+            case Multiname.MULTINAMEL:
+            case Multiname.MULTINAMELA:
+                writeNamespaceSet(multiname.namespace_set_index);
+                break;
+            case Multiname.TYPENAME:
+                writeMultiname(multiname.qname_index);
+                out.writeInt(multiname.params.length);
+                for (int param : multiname.params) {
+                    writeMultiname(param);
+                }
+                break;
+        }
+    }
+
+    private void writeNamespaceSet(int index) throws IOException {
+        NamespaceSet set = index == 0 ? null : constants.getNamespaceSet(index);
+        if (set == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        out.writeInt(set.namespaces.length);
+        for (int ns : set.namespaces) {
+            writeNamespace(ns);
+        }
+    }
+
+    private void writeNamespace(int index) throws IOException {
+        Namespace ns = index == 0 ? null : constants.getNamespace(index);
+        if (ns == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        out.writeInt(ns.kind);
+        writeString(ns.name_index);
+        if (ns.kind == Namespace.KIND_PRIVATE) {
+            // private namespaces with the same name differ only by the index
+            Integer ordinal = privateNamespaceOrdinals.get(index);
+            if (ordinal == null) {
+                ordinal = privateNamespaceOrdinals.size();
+                privateNamespaceOrdinals.put(index, ordinal);
+            }
+
+            out.writeInt(ordinal);
+        }
+    }
+
+    private void writeString(int index) throws IOException {
+        writeString(index == 0 ? null : constants.getString(index));
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(data.length);
+        out.write(data);
+    }
+}
@@ -206,6 +206,50 @@ public final class Configuration {
     @ConfigurationCategory("limit")
     public static final ConfigurationItem<Integer> decompilationTimeoutFile = null;
 
+    /**
+     * Maximum size of the rendered frame cache in megabytes
+     */
+    @ConfigurationDefaultInt(256)
+    @ConfigurationCategory("limit")
+    public static final ConfigurationItem<Integer> frameCacheSizeLimit = null;
+
+    /**
+     * Maximum size of the decoded sound cache in megabytes
+     */
+    @ConfigurationDefaultInt(128)
+    @ConfigurationCategory("limit")
+    public static final ConfigurationItem<Integer> soundCacheSizeLimit = null;
+
+    /**
+     * Maximum size of the rendered shape and text image cache in megabytes
+     */
+    @ConfigurationDefaultInt(64)
+    @ConfigurationCategory("limit")
+    public static final ConfigurationItem<Integer> shapeImageCacheSizeLimit = null;
+
+    /**
+     * Minimum uncompressed size of the SWF in megabytes for memory mapped
+     * loading, -1 = disabled
+     */
+    @ConfigurationDefaultInt(128)
+    @ConfigurationCategory("limit")
+    public static final ConfigurationItem<Integer> mappedLoadingThreshold = null;
+
+    /**
+     * Maximum size of the decompilation cache directory in megabytes, 0 =
+     * unlimited
+     */
+    @ConfigurationDefaultInt(512)
+    @ConfigurationCategory("limit")
+    public static final ConfigurationItem<Integer> persistentCacheSizeLimit = null;
+
+    /**
+     * Keep the decompiled texts in a trigram index for faster script search
+     */
+    @ConfigurationDefaultBoolean(false)
+    @ConfigurationCategory("script")
+    public static final ConfigurationItem<Boolean> scriptSearchIndex = null;
+
     /**
      * AS1/2 deobfuscator execution limit (max number of instructions processed)
      */
@@ -644,6 +688,11 @@ public final class Configuration {
     @ConfigurationFile
     public static final ConfigurationItem<String> graphVizDotLocation = null;
 
+    @ConfigurationDefaultString("")
+    @ConfigurationCategory("paths")
+    @ConfigurationDirectory
+    public static final ConfigurationItem<String> persistentCacheDirectory = null;
+
     private enum OSId {
         WINDOWS, OSX, UNIX
     }
@@ -16,6 +16,16 @@
 package com.jpexs.decompiler.flash.dumpview;
 
 import com.jpexs.decompiler.flash.SWF;
+import com.jpexs.decompiler.flash.SWFInputStream;
+import com.jpexs.decompiler.flash.tags.Tag;
+import com.jpexs.decompiler.flash.tags.TagStub;
+import com.jpexs.decompiler.flash.tags.TagTypeInfo;
+import com.jpexs.helpers.ByteArrayRange;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  *
@@ -25,11 +35,65 @@ public class DumpInfoSwfNode extends DumpInfo {
 
     private final SWF swf;
 
+    private boolean headerRead;
+
     public DumpInfoSwfNode(SWF swf, String name, String type, Object value, long startByte, long lengthBytes) {
         super(name, type, value, startByte, lengthBytes);
         this.swf = swf;
     }
 
+    /**
+     * Reads the header and the tag headers of the SWF. Tag bodies are read
+     * when the tag nodes are resolved.
+     */
+    @Override
+    public synchronized void resolveTag() {
+        if (headerRead) {
+            return;
+        }
+
+        headerRead = true;
+        ByteArrayRange data = swf.getOriginalUncompressedRange();
+        if (data == null) {
+            return;
+        }
+
+        try {
+            SWFInputStream sis = new SWFInputStream(swf, data);
+            sis.dumpInfo = this;
+            sis.skipBytesEx(3, "signature");
+            sis.readUI8("version");
+            sis.readUI32("fileSize");
+            sis.readRECT("displayRect");
+            sis.readFIXED8("frameRate");
+            sis.readUI16("frameCount");
+            sis.readTagList(swf, 0, false, false, false, false);
+        } catch (InterruptedException | IOException ex) {
+            Logger.getLogger(DumpInfoSwfNode.class.getName()).log(Level.SEVERE, null, ex);
+        }
+
+        // name the nodes by the loaded tags, the stubs are not resolved
+        Map<Long, Tag> tagsByPos = new HashMap<>();
+        for (Tag tag : swf.getTags()) {
+            ByteArrayRange range = tag.getOriginalRange();
+            if (range != null && range.hasSameBacking(data)) {
+                tagsByPos.put((long) range.getPos(), tag);
+            }
+        }
+
+        for (DumpInfo di : getChildInfos()) {
+            if (di.tagToResolve != null) {
+                Tag tag = tagsByPos.get(di.startByte);
+                if (tag != null && tag.getId() == di.tagToResolve.getId() && !(tag instanceof TagStub)) {
+                    di.name = tag.getName();
+                } else {
+                    TagTypeInfo tagInfo = Tag.getKnownClasses().get(di.tagToResolve.getId());
+                    di.name = tagInfo == null ? "Unknown" : tagInfo.getName();
+                }
+            }
+        }
+    }
+
     @Override
     public SWF getSwf() {
         return swf;
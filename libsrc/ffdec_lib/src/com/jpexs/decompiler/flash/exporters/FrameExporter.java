@@ -31,12 +31,11 @@ import com.jpexs.decompiler.flash.exporters.settings.FrameExportSettings;
 import com.jpexs.decompiler.flash.exporters.settings.SpriteExportSettings;
 import com.jpexs.decompiler.flash.exporters.shape.CanvasShapeExporter;
 import com.jpexs.decompiler.flash.helpers.BMPFile;
-import com.jpexs.decompiler.flash.helpers.ImageHelper;
 import com.jpexs.decompiler.flash.tags.DefineSpriteTag;
 import com.jpexs.decompiler.flash.tags.SetBackgroundColorTag;
 import com.jpexs.decompiler.flash.tags.Tag;
 import com.jpexs.decompiler.flash.tags.base.CharacterTag;
-import com.jpexs.decompiler.flash.tags.enums.ImageFormat;
+import com.jpexs.decompiler.flash.tags.base.ShapeTag;
 import com.jpexs.decompiler.flash.timeline.DepthState;
 import com.jpexs.decompiler.flash.timeline.Frame;
 import com.jpexs.decompiler.flash.timeline.Timeline;
@@ -63,6 +62,7 @@ import java.awt.image.BufferedImage;
 import java.awt.print.PageFormat;
 import java.awt.print.Paper;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -76,8 +76,10 @@ import java.util.Set;
 import java.util.Stack;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.imageio.ImageIO;
 import javax.imageio.stream.FileImageOutputStream;
 import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
 import net.kroo.elliot.GifSequenceWriter;
 import net.weiner.kevin.AnimatedGifEncoder;
 import org.monte.media.VideoFormatKeys;
@@ -377,44 +379,153 @@ public class FrameExporter {
             }
         }
 
+        if (settings.mode != FrameExportMode.GIF && settings.mode != FrameExportMode.BMP && settings.mode != FrameExportMode.PNG
+                && settings.mode != FrameExportMode.PDF && settings.mode != FrameExportMode.AVI) {
+            return ret;
+        }
+
         final Color fbackgroundColor = backgroundColor;
-        final Iterator<BufferedImage> frameImages = new Iterator<BufferedImage>() {
-            private int pos = 0;
+        final boolean parallel = Configuration.parallelSpeedUp.get() && fframes.size() > 1;
+        if (parallel) {
+            prepareTimeline(swf, tim, fframes);
+        }
 
-            @Override
-            public boolean hasNext() {
-                return fframes.size() > pos;
+        if (settings.mode == FrameExportMode.PNG || settings.mode == FrameExportMode.AVI) {
+            // the frames are encoded to PNG in the pipeline, too
+            FrameRenderPipeline<EncodedFrame> encodedFrames = createPipeline(tim, fframes, parallel, fbackgroundColor, settings.zoom, evl, FrameExporter::encodePng);
+            try {
+                writeEncodedFrames(handler, swf, settings, foutdir, fframes, encodedFrames, evl, ret);
+            } finally {
+                encodedFrames.cancel();
             }
 
+            return ret;
+        }
+
+        FrameRenderPipeline<BufferedImage> frameImages = createPipeline(tim, fframes, parallel, fbackgroundColor, settings.zoom, evl, image -> image);
+        try {
+            writeFrames(handler, swf, settings, foutdir, fframes, frameImages, evl, ret);
+        } finally {
+            frameImages.cancel();
+        }
+
+        return ret;
+    }
+
+    private static <T> FrameRenderPipeline<T> createPipeline(Timeline tim, List<Integer> fframes, boolean parallel, Color backgroundColor, double zoom, EventListener evl, FrameRenderPipeline.Encoder<T> encoder) {
+        return new FrameRenderPipeline<T>(fframes.size(), parallel, encoder) {
             @Override
-            public void remove() {
-                throw new UnsupportedOperationException();
+            protected BufferedImage render(int index) {
+                int fframe = fframes.get(index);
+                return SWF.frameToImageGet(tim, fframe, fframe, null, 0, tim.displayRect, new Matrix(), null, backgroundColor, zoom).getBufferedImage();
             }
 
             @Override
-            public BufferedImage next() {
-                if (!hasNext()) {
-                    return null;
+            protected void rendering(int index) {
+                if (evl != null) {
+                    Tag parentTag = tim.getParentTag();
+                    evl.handleExportingEvent("frame", index + 1, fframes.size(), parentTag == null ? "" : parentTag.getName());
                 }
+            }
 
-                Tag parentTag = tim.getParentTag();
-                String tagName = parentTag == null ? "" : parentTag.getName();
-
+            @Override
+            protected void rendered(int index) {
                 if (evl != null) {
-                    evl.handleExportingEvent("frame", pos + 1, fframes.size(), tagName);
+                    Tag parentTag = tim.getParentTag();
+                    evl.handleExportedEvent("frame", index + 1, fframes.size(), parentTag == null ? "" : parentTag.getName());
                 }
+            }
+        };
+    }
 
-                int fframe = fframes.get(pos++);
-                BufferedImage result = SWF.frameToImageGet(tim, fframe, fframe, null, 0, tim.displayRect, new Matrix(), null, fbackgroundColor, settings.zoom).getBufferedImage();
+    /**
+     * Frame encoded to PNG
+     */
+    private static class EncodedFrame {
 
-                if (evl != null) {
-                    evl.handleExportedEvent("frame", pos, fframes.size(), tagName);
+        final int width;
+
+        final int height;
+
+        final byte[] data;
+
+        EncodedFrame(int width, int height, byte[] data) {
+            this.width = width;
+            this.height = height;
+            this.data = data;
+        }
+    }
+
+    private static EncodedFrame encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = new MemoryCacheImageOutputStream(baos)) {
+            if (!ImageIO.write(image, "PNG", ios)) {
+                throw new IOException("PNG writer not found");
+            }
+        }
+
+        return new EncodedFrame(image.getWidth(), image.getHeight(), baos.toByteArray());
+    }
+
+    private void writeEncodedFrames(AbortRetryIgnoreHandler handler, SWF swf, FrameExportSettings settings, File foutdir, List<Integer> fframes, Iterator<EncodedFrame> frames, EventListener evl, List<File> ret) throws IOException, InterruptedException {
+        switch (settings.mode) {
+            case PNG:
+                for (int i = 0; frames.hasNext(); i++) {
+                    final int fi = i;
+                    // the frame is taken only once, so the retry writes the same frame again
+                    final EncodedFrame[] frame = new EncodedFrame[1];
+                    new RetryTask(() -> {
+                        if (frame[0] == null) {
+                            frame[0] = frames.next();
+                        }
+
+                        File file = new File(foutdir + File.separator + (fframes.get(fi) + 1) + ".png");
+                        try (OutputStream os = new FileOutputStream(file)) {
+                            os.write(frame[0].data);
+                        }
+
+                        ret.add(file);
+                    }, handler).run();
                 }
 
-                return result;
+                //ShapeExporterBase.clearCache();
+                break;
+            case AVI:
+                new RetryTask(() -> {
+                    File f = new File(foutdir + File.separator + "frames.avi");
+                    makeAVIEncoded(frames, swf.frameRate, f);
+                    ret.add(f);
+                }, handler).run();
+                break;
+        }
+    }
+
+    /**
+     * Initializes the timelines and parses the shapes used by the frames, so
+     * the frames can be rendered from more threads without modifying shared
+     * state.
+     *
+     * @param swf SWF
+     * @param timeline Timeline
+     * @param frames Frames
+     */
+    private static void prepareTimeline(SWF swf, Timeline timeline, List<Integer> frames) {
+        Set<Integer> needed = new HashSet<>();
+        for (int frame : frames) {
+            timeline.getNeededCharacters(frame, needed);
+        }
+
+        for (int characterId : needed) {
+            CharacterTag character = swf.getCharacter(characterId);
+            if (character instanceof Timelined) {
+                ((Timelined) character).getTimeline().getFrameCount();
+            } else if (character instanceof ShapeTag) {
+                ((ShapeTag) character).getShapes();
             }
-        };
+        }
+    }
 
+    private void writeFrames(AbortRetryIgnoreHandler handler, SWF swf, FrameExportSettings settings, File foutdir, List<Integer> fframes, Iterator<BufferedImage> frameImages, EventListener evl, List<File> ret) throws IOException, InterruptedException {
         switch (settings.mode) {
             case GIF:
                 new RetryTask(() -> {
@@ -433,18 +544,6 @@ public class FrameExporter {
                     }, handler).run();
                 }
                 break;
-            case PNG:
-                for (int i = 0; frameImages.hasNext(); i++) {
-                    final int fi = i;
-                    new RetryTask(() -> {
-                        File file = new File(foutdir + File.separator + (fframes.get(fi) + 1) + ".png");
-                        ImageHelper.write(frameImages.next(), ImageFormat.PNG, file);
-                        ret.add(file);
-                    }, handler).run();
-                }
-
-                //ShapeExporterBase.clearCache();
-                break;
             case PDF:
                 if (frameImages.hasNext()) {
                     new RetryTask(() -> {
@@ -469,16 +568,7 @@ public class FrameExporter {
                     }, handler).run();
                 }
                 break;
-            case AVI:
-                new RetryTask(() -> {
-                    File f = new File(foutdir + File.separator + "frames.avi");
-                    makeAVI(frameImages, swf.frameRate, f, evl);
-                    ret.add(f);
-                }, handler).run();
-                break;
         }
-
-        return ret;
     }
 
     private static String jsArrColor(RGB rgb) {
@@ -503,6 +593,25 @@ public class FrameExporter {
         }
     }
 
+    private static void makeAVIEncoded(Iterator<EncodedFrame> frames, float frameRate, File file) throws IOException {
+        if (!frames.hasNext()) {
+            return;
+        }
+
+        AVIWriter out = new AVIWriter(file);
+        EncodedFrame frame0 = frames.next();
+        out.addVideoTrack(VideoFormatKeys.ENCODING_AVI_PNG, 1, (int) frameRate, frame0.width, frame0.height, 0, 0);
+        try {
+            out.writeSample(0, frame0.data, 0, frame0.data.length, true);
+            while (frames.hasNext()) {
+                EncodedFrame frame = frames.next();
+                out.writeSample(0, frame.data, 0, frame.data.length, true);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
     public static void makeGIF(Iterator<BufferedImage> images, float frameRate, File file, EventListener evl) throws IOException {
         if (!images.hasNext()) {
             return;
@@ -596,7 +705,7 @@ public class FrameExporter {
                     DefineSpriteTag sp = (DefineSpriteTag) character;
                     Timeline tim = sp.getTimeline();
                     if (tim.getFrameCount() > 0) {
-                        f = layer.time % tim.getFrameCount();
+                        f = layer.getTime(frame) % tim.getFrameCount();
                         fstr = "(" + f + "+time)%" + tim.getFrameCount();
                     }
                 }
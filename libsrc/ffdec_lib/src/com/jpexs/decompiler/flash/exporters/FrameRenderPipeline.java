@@ -0,0 +1,180 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash.exporters;
+
+import com.jpexs.decompiler.flash.ParallelScheduler;
+import com.jpexs.decompiler.flash.configuration.Configuration;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Iterator of the rendered and encoded frames. In parallel mode the frames are
+ * rendered and encoded ahead on the worker threads of the parallel scheduler,
+ * and returned in the frame order, so the writers (GIF, AVI) can consume them
+ * sequentially. The number of the frames processed ahead is limited to bound
+ * the memory usage.
+ *
+ * @param <T> Type of the encoded frame
+ * @author JPEXS
+ */
+abstract class FrameRenderPipeline<T> implements Iterator<T> {
+
+    /**
+     * Encoder of the rendered frames. Called from the worker threads in
+     * parallel mode.
+     *
+     * @param <T> Type of the encoded frame
+     */
+    public interface Encoder<T> {
+
+        T encode(BufferedImage image) throws IOException;
+    }
+
+    private final int count;
+
+    private final int window;
+
+    private final Encoder<T> encoder;
+
+    private final ArrayDeque<Future<T>> pending = new ArrayDeque<>();
+
+    private int pos = 0;
+
+    private int submitted = 0;
+
+    /**
+     * Constructor
+     *
+     * @param count Number of the frames
+     * @param parallel Render the frames in parallel
+     * @param encoder Encoder of the rendered frames
+     */
+    public FrameRenderPipeline(int count, boolean parallel, Encoder<T> encoder) {
+        this.count = count;
+        this.window = parallel ? Configuration.getParallelThreadCount() * 2 : 0;
+        this.encoder = encoder;
+    }
+
+    /**
+     * Renders the frame. Called from the worker threads in parallel mode.
+     *
+     * @param index Index of the frame
+     * @return Frame image
+     */
+    protected abstract BufferedImage render(int index);
+
+    /**
+     * Called when the frame is requested
+     *
+     * @param index Index of the frame
+     */
+    protected void rendering(int index) {
+    }
+
+    /**
+     * Called when the rendered frame is returned
+     *
+     * @param index Index of the frame
+     */
+    protected void rendered(int index) {
+    }
+
+    @Override
+    public boolean hasNext() {
+        return pos < count;
+    }
+
+    private T process(int index) throws IOException {
+        return encoder.encode(render(index));
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        int index = pos++;
+        rendering(index);
+        T result;
+        if (window == 0) {
+            try {
+                result = process(index);
+            } catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        } else {
+            while (submitted < count && submitted - index < window) {
+                final int i = submitted++;
+                pending.add(ParallelScheduler.submit(new Callable<T>() {
+                    @Override
+                    public T call() throws Exception {
+                        return process(i);
+                    }
+                }));
+            }
+
+            result = get(pending.poll());
+        }
+
+        rendered(index);
+        return result;
+    }
+
+    private T get(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            cancel();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        } catch (ExecutionException ex) {
+            cancel();
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Cancels the frames processed ahead
+     */
+    public void cancel() {
+        for (Future<T> future : pending) {
+            future.cancel(true);
+        }
+
+        pending.clear();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -17,6 +17,7 @@ package com.jpexs.decompiler.flash.exporters.script;
 
 import com.jpexs.decompiler.flash.AbortRetryIgnoreHandler;
 import com.jpexs.decompiler.flash.EventListener;
+import com.jpexs.decompiler.flash.ParallelScheduler;
 import com.jpexs.decompiler.flash.SWF;
 import com.jpexs.decompiler.flash.abc.ScriptPack;
 import com.jpexs.decompiler.flash.abc.avm2.model.CallPropertyAVM2Item;
@@ -58,8 +59,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -400,11 +399,11 @@ public class AS3ScriptExporter {
 
         if (!parallel || tasks.size() < 2) {
             try {
-                CancellableWorker.call(new Callable<Void>() {
+                ParallelScheduler.call(new Callable<Void>() {
                     @Override
                     public Void call() throws Exception {
                         for (ExportPackTask task : tasks) {
-                            if (Thread.currentThread().isInterrupted()) {
+                            if (CancellableWorker.isInterrupted()) {
                                 throw new InterruptedException();
                             }
 
@@ -419,21 +418,12 @@ public class AS3ScriptExporter {
                 logger.log(Level.SEVERE, "Error during ABC export", ex);
             }
         } else {
-            ExecutorService executor = Executors.newFixedThreadPool(Configuration.getParallelThreadCount());
-            List<Future<File>> futureResults = new ArrayList<>();
-            for (ExportPackTask task : tasks) {
-                Future<File> future = executor.submit(task);
-                futureResults.add(future);
-            }
-
+            List<Future<File>> futureResults = ParallelScheduler.submitAll(tasks);
             try {
-                executor.shutdown();
-                if (!executor.awaitTermination(Configuration.exportTimeout.get(), TimeUnit.SECONDS)) {
+                if (!ParallelScheduler.awaitAll(futureResults, Configuration.exportTimeout.get(), TimeUnit.SECONDS)) {
                     logger.log(Level.SEVERE, Helper.formatTimeToText(Configuration.exportTimeout.get()) + " ActionScript export limit reached");
                 }
             } catch (InterruptedException ex) {
-            } finally {
-                executor.shutdownNow();
             }
 
             for (int f = 0; f < futureResults.size(); f++) {
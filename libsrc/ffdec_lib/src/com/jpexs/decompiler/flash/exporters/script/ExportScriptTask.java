@@ -22,10 +22,13 @@ import com.jpexs.decompiler.flash.RetryTask;
 import com.jpexs.decompiler.flash.RunnableIOExResult;
 import com.jpexs.decompiler.flash.action.Action;
 import com.jpexs.decompiler.flash.action.ActionList;
+import com.jpexs.decompiler.flash.cache.PersistentScriptCache;
 import com.jpexs.decompiler.flash.configuration.Configuration;
 import com.jpexs.decompiler.flash.exporters.modes.ScriptExportMode;
 import com.jpexs.decompiler.flash.exporters.settings.ScriptExportSettings;
 import com.jpexs.decompiler.flash.helpers.FileTextWriter;
+import com.jpexs.decompiler.flash.helpers.HighlightedText;
+import com.jpexs.decompiler.flash.helpers.StringBuilderTextWriter;
 import com.jpexs.decompiler.flash.tags.base.ASMSource;
 import com.jpexs.helpers.Helper;
 import com.jpexs.helpers.Path;
@@ -106,15 +109,28 @@ public class ExportScriptTask implements Callable<File> {
                         asm.getASMSource(exportMode, writer2, null);
                         asm.getActionSourceSuffix(writer2);
                     } else {
-                        ActionList as;
-                        try (Statistics s = new Statistics("ASMSource.getActions")) {
-                            as = asm.getActions();
-                        }
-
-                        Action.setActionsAddresses(as, 0);
-
-                        try (Statistics s = new Statistics("Action.actionsToSource")) {
-                            asm.getActionScriptSource(writer2, as);
+                        PersistentScriptCache.Key cacheKey = PersistentScriptCache.isEnabled() ? PersistentScriptCache.getKey(asm, false) : null;
+                        HighlightedText cached = PersistentScriptCache.get(cacheKey);
+                        if (cached != null) {
+                            writer2.appendNoHilight(cached.text);
+                        } else {
+                            ActionList as;
+                            try (Statistics s = new Statistics("ASMSource.getActions")) {
+                                as = asm.getActions();
+                            }
+
+                            Action.setActionsAddresses(as, 0);
+
+                            try (Statistics s = new Statistics("Action.actionsToSource")) {
+                                if (cacheKey == null) {
+                                    asm.getActionScriptSource(writer2, as);
+                                } else {
+                                    StringBuilder sb = new StringBuilder();
+                                    asm.getActionScriptSource(new StringBuilderTextWriter(Configuration.getCodeFormatting(), sb), as);
+                                    PersistentScriptCache.put(cacheKey, new HighlightedText(sb.toString()));
+                                    writer2.appendNoHilight(sb.toString());
+                                }
+                            }
                         }
                     }
                 }
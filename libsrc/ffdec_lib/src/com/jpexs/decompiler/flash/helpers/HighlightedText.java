@@ -70,6 +70,15 @@ public class HighlightedText implements Serializable {
         this.specialHighlights = writer.specialHilights;
     }
 
+    public HighlightedText(String text, List<Highlighting> traitHighlights, List<Highlighting> classHighlights, List<Highlighting> methodHighlights, List<Highlighting> instructionHighlights, List<Highlighting> specialHighlights) {
+        this.text = text;
+        this.traitHighlights = traitHighlights;
+        this.classHighlights = classHighlights;
+        this.methodHighlights = methodHighlights;
+        this.instructionHighlights = instructionHighlights;
+        this.specialHighlights = specialHighlights;
+    }
+
     private HighlightedText() {
         this("");
     }
@@ -26,6 +26,7 @@ import com.jpexs.decompiler.flash.helpers.HighlightedText;
 import com.jpexs.decompiler.flash.helpers.HighlightedTextWriter;
 import com.jpexs.decompiler.flash.tags.base.ASMSource;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
@@ -40,14 +41,55 @@ import java.util.regex.Pattern;
  */
 public class ActionScriptSearch {
 
+    /**
+     * Fills the search index of the SWF. The scripts which are not decompiled
+     * yet are submitted to the decompiler pool, the decompiled texts are added
+     * to the index when they are ready.
+     *
+     * @param swf SWF
+     * @throws InterruptedException
+     */
+    public void buildIndex(SWF swf) throws InterruptedException {
+        if (swf.isAS3()) {
+            for (ScriptPack pack : swf.getAS3Packs()) {
+                if (swf.as3SearchIndex.contains(pack)) {
+                    continue;
+                }
+
+                HighlightedText text = SWF.getFromCache(pack);
+                if (text != null) {
+                    swf.as3SearchIndex.put(pack, text.text);
+                } else {
+                    SWF.getCachedFuture(pack, null);
+                }
+            }
+        } else {
+            for (ASMSource asm : swf.getASMs(false).values()) {
+                if (swf.as2SearchIndex.contains(asm)) {
+                    continue;
+                }
+
+                HighlightedText text = SWF.getFromCache(asm);
+                if (text != null) {
+                    swf.as2SearchIndex.put(asm, text.text);
+                } else {
+                    SWF.getCachedFuture(asm, null, null);
+                }
+            }
+        }
+    }
+
     public List<ActionSearchResult> searchAs2(SWF swf, final String txt, boolean ignoreCase, boolean regexp, boolean pcode, ScriptSearchListener listener) {
         if (txt != null && !txt.isEmpty()) {
             Map<String, ASMSource> asms = swf.getASMs(false);
-            final List<ActionSearchResult> found = new ArrayList<>();
+            final List<ActionSearchResult> found = Collections.synchronizedList(new ArrayList<>());
             Pattern pat = regexp
                     ? Pattern.compile(txt, ignoreCase ? (Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE) : 0)
                     : Pattern.compile(Pattern.quote(txt), ignoreCase ? (Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE) : 0);
 
+            ScriptSearchIndex<ASMSource> index = Configuration.scriptSearchIndex.get() ? swf.as2SearchIndex : null;
+            ScriptSearchIndex.Query query = index == null || pcode ? null : index.query(txt, regexp);
+
             int pos = 0;
             List<Future<HighlightedText>> futures = new ArrayList<>();
             try {
@@ -67,6 +109,19 @@ public class ActionScriptSearch {
                             found.add(new ActionSearchResult(asm, pcode, item.getKey()));
                         }
                     } else {
+                        String indexedText = index == null ? null : index.getText(asm);
+                        if (indexedText != null) {
+                            if (listener != null) {
+                                listener.onSearch(pos, asms.size(), item.getKey());
+                            }
+
+                            if (index.mayMatch(query, asm) && pat.matcher(indexedText).find()) {
+                                found.add(new ActionSearchResult(asm, pcode, item.getKey()));
+                            }
+
+                            continue;
+                        }
+
                         int fpos = pos;
                         Future<HighlightedText> text = SWF.getCachedFuture(asm, null, new ScriptDecompiledListener<HighlightedText>() {
                             @Override
@@ -114,12 +169,15 @@ public class ActionScriptSearch {
                 swf.getFlexMainClass(ignoredClasses, ignoredNss);
             }
 
-            final List<ABCSearchResult> found = new ArrayList<>();
+            final List<ABCSearchResult> found = Collections.synchronizedList(new ArrayList<>());
             List<ScriptPack> allpacks = swf.getAS3Packs();
             final Pattern pat = regexp
                     ? Pattern.compile(txt, ignoreCase ? (Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE) : 0)
                     : Pattern.compile(Pattern.quote(txt), ignoreCase ? (Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE) : 0);
 
+            ScriptSearchIndex<ScriptPack> index = Configuration.scriptSearchIndex.get() ? swf.as3SearchIndex : null;
+            ScriptSearchIndex.Query query = index == null || pcode ? null : index.query(txt, regexp);
+
             int pos = 0;
             List<Future<HighlightedText>> futures = new ArrayList<>();
             try {
@@ -164,6 +222,19 @@ public class ActionScriptSearch {
                             }
                         }
                     } else {
+                        String indexedText = index == null ? null : index.getText(pack);
+                        if (indexedText != null) {
+                            if (listener != null) {
+                                listener.onSearch(pos, allpacks.size(), pack.getClassPath().toString());
+                            }
+
+                            if (index.mayMatch(query, pack) && pat.matcher(indexedText).find()) {
+                                found.add(new ABCSearchResult(pack));
+                            }
+
+                            continue;
+                        }
+
                         int fpos = pos;
                         Future<HighlightedText> text = SWF.getCachedFuture(pack, new ScriptDecompiledListener<HighlightedText>() {
                             @Override
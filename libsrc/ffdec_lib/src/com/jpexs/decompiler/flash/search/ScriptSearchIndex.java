@@ -0,0 +1,488 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trigram index of decompiled script texts.
+ *
+ * Every indexed text is split to overlapping case folded trigrams. A query
+ * gets the candidate scripts which contain all trigrams of the literal parts
+ * of the searched text or regular expression, only these have to be matched
+ * by the pattern. The texts are
+ * kept in the index, so the search does not need to decompile the scripts
+ * again after they were evicted from the decompiler cache.
+ *
+ * @author JPEXS
+ * @param <E> Script type (ScriptPack or ASMSource)
+ */
+public class ScriptSearchIndex<E> {
+
+    private final Map<E, Integer> ids = new HashMap<>();
+
+    private final List<E> scripts = new ArrayList<>();
+
+    private final List<String> texts = new ArrayList<>();
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    private int removedCount;
+
+    /**
+     * Incremented when the ids of the scripts change
+     */
+    private int generation;
+
+    /**
+     * Adds the decompiled text of the script, replaces the previous text.
+     *
+     * @param script Script
+     * @param text Decompiled text
+     */
+    public synchronized void put(E script, String text) {
+        remove(script);
+        int id = scripts.size();
+        scripts.add(script);
+        texts.add(text);
+        ids.put(script, id);
+        addPostings(id, text);
+    }
+
+    /**
+     * Removes the script from the index, it is indexed again on the next
+     * search.
+     *
+     * @param script Script
+     */
+    public synchronized void remove(E script) {
+        Integer id = ids.remove(script);
+        if (id == null) {
+            return;
+        }
+
+        scripts.set(id, null);
+        texts.set(id, null);
+        removedCount++;
+        if (removedCount > 64 && removedCount > ids.size()) {
+            compact();
+        }
+    }
+
+    public synchronized void clear() {
+        ids.clear();
+        scripts.clear();
+        texts.clear();
+        postings.clear();
+        removedCount = 0;
+        generation++;
+    }
+
+    public synchronized boolean contains(E script) {
+        return ids.containsKey(script);
+    }
+
+    public synchronized int size() {
+        return ids.size();
+    }
+
+    /**
+     * Gets the indexed text of the script.
+     *
+     * @param script Script
+     * @return Text or null when the script is not indexed
+     */
+    public synchronized String getText(E script) {
+        Integer id = ids.get(script);
+        return id == null ? null : texts.get(id);
+    }
+
+    /**
+     * Finds the indexed scripts which can match the query.
+     *
+     * @param txt Searched text or regular expression
+     * @param regexp Is txt a regular expression
+     * @return Query for mayMatch
+     */
+    public synchronized Query query(String txt, boolean regexp) {
+        Query query = new Query(scripts.size(), generation);
+        List<String> literals;
+        if (regexp) {
+            literals = getRequiredLiterals(txt);
+        } else {
+            literals = new ArrayList<>();
+            literals.add(txt);
+        }
+
+        if (literals == null) {
+            return query;
+        }
+
+        Set<Long> trigrams = new HashSet<>();
+        for (String literal : literals) {
+            addTrigrams(literal, trigrams);
+        }
+
+        if (trigrams.isEmpty()) {
+            return query;
+        }
+
+        query.candidates = new BitSet();
+        List<Postings> lists = new ArrayList<>();
+        for (long trigram : trigrams) {
+            Postings p = postings.get(trigram);
+            if (p == null) {
+                return query;
+            }
+
+            lists.add(p);
+        }
+
+        lists.sort((Postings o1, Postings o2) -> Integer.compare(o1.count, o2.count));
+        int[] result = Arrays.copyOf(lists.get(0).ids, lists.get(0).count);
+        int resultCount = result.length;
+        for (int i = 1; i < lists.size() && resultCount > 0; i++) {
+            resultCount = intersect(result, resultCount, lists.get(i));
+        }
+
+        for (int i = 0; i < resultCount; i++) {
+            query.candidates.set(result[i]);
+        }
+
+        return query;
+    }
+
+    /**
+     * Checks whether the script can match the query. Scripts indexed after
+     * the query was created always can match.
+     *
+     * @param query Query
+     * @param script Script
+     * @return False when the indexed text of the script surely does not match
+     */
+    public synchronized boolean mayMatch(Query query, E script) {
+        if (query.candidates == null || query.generation != generation) {
+            return true;
+        }
+
+        Integer id = ids.get(script);
+        if (id == null || id >= query.size) {
+            return true;
+        }
+
+        return query.candidates.get(id);
+    }
+
+    private static int intersect(int[] result, int resultCount, Postings p) {
+        int count = 0;
+        int j = 0;
+        for (int i = 0; i < resultCount; i++) {
+            int id = result[i];
+            while (j < p.count && p.ids[j] < id) {
+                j++;
+            }
+
+            if (j == p.count) {
+                break;
+            }
+
+            if (p.ids[j] == id) {
+                result[count++] = id;
+            }
+        }
+
+        return count;
+    }
+
+    private void addPostings(int id, String text) {
+        Set<Long> trigrams = new HashSet<>();
+        addTrigrams(text, trigrams);
+        for (long trigram : trigrams) {
+            Postings p = postings.get(trigram);
+            if (p == null) {
+                p = new Postings();
+                postings.put(trigram, p);
+            }
+
+            // ids are increasing, the lists stay sorted
+            p.add(id);
+        }
+    }
+
+    private void compact() {
+        List<E> oldScripts = new ArrayList<>(scripts);
+        List<String> oldTexts = new ArrayList<>(texts);
+        clear();
+        for (int i = 0; i < oldScripts.size(); i++) {
+            if (oldScripts.get(i) != null) {
+                put(oldScripts.get(i), oldTexts.get(i));
+            }
+        }
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static void addTrigrams(String text, Set<Long> trigrams) {
+        if (text.length() < 3) {
+            return;
+        }
+
+        long c1 = fold(text.charAt(0));
+        long c2 = fold(text.charAt(1));
+        for (int i = 2; i < text.length(); i++) {
+            long c3 = fold(text.charAt(i));
+            trigrams.add((c1 << 32) | (c2 << 16) | c3);
+            c1 = c2;
+            c2 = c3;
+        }
+    }
+
+    /**
+     * Gets the literal strings which must be contained in every text matched
+     * by the regular expression. Only the literals outside of groups are
+     * collected, the expressions with alternatives or inline flags are not
+     * analyzed.
+     *
+     * @param regexp Regular expression
+     * @return List of literals or null when the expression can not be
+     * analyzed
+     */
+    public static List<String> getRequiredLiterals(String regexp) {
+        List<String> ret = new ArrayList<>();
+        StringBuilder run = new StringBuilder();
+        int depth = 0;
+        int i = 0;
+        int length = regexp.length();
+        while (i < length) {
+            char c = regexp.charAt(i);
+            boolean literal = false;
+            switch (c) {
+                case '\\':
+                    if (i + 1 >= length) {
+                        return null;
+                    }
+
+                    char e = regexp.charAt(i + 1);
+                    i += 2;
+                    if (Character.isLetterOrDigit(e)) {
+                        if (e == 'Q') {
+                            return null;
+                        }
+
+                        i = skipEscapePayload(regexp, i, e);
+                        if (i < 0) {
+                            return null;
+                        }
+                    } else {
+                        literal = true;
+                        c = e;
+                    }
+                    break;
+                case '[':
+                    i = skipCharacterClass(regexp, i);
+                    if (i < 0) {
+                        return null;
+                    }
+                    break;
+                case '(':
+                    if (i + 2 < length && regexp.charAt(i + 1) == '?' && ":=!<>".indexOf(regexp.charAt(i + 2)) == -1) {
+                        // inline flags
+                        return null;
+                    }
+                    depth++;
+                    i++;
+                    break;
+                case ')':
+                    depth--;
+                    i++;
+                    break;
+                case '|':
+                    if (depth == 0) {
+                        return null;
+                    }
+                    i++;
+                    break;
+                case '.':
+                case '^':
+                case '$':
+                    i++;
+                    break;
+                default:
+                    literal = true;
+                    i++;
+                    break;
+            }
+
+            // quantifier of the previous atom
+            boolean optional = false;
+            boolean quantified = false;
+            if (i < length) {
+                char q = regexp.charAt(i);
+                if (q == '*' || q == '?' || q == '+') {
+                    quantified = true;
+                    optional = q != '+';
+                    i++;
+                } else if (q == '{') {
+                    int end = regexp.indexOf('}', i);
+                    if (end == -1) {
+                        return null;
+                    }
+
+                    quantified = true;
+                    optional = regexp.startsWith("{0", i) && (end == i + 2 || regexp.charAt(i + 2) == ',');
+                    i = end + 1;
+                }
+
+                if (quantified && i < length && (regexp.charAt(i) == '?' || regexp.charAt(i) == '+')) {
+                    i++;
+                }
+            }
+
+            if (literal && depth == 0 && !optional) {
+                run.append(c);
+            }
+
+            if (!literal || depth > 0 || quantified) {
+                if (run.length() > 0) {
+                    ret.add(run.toString());
+                    run.setLength(0);
+                }
+            }
+        }
+
+        if (run.length() > 0) {
+            ret.add(run.toString());
+        }
+
+        return ret;
+    }
+
+    private static int skipEscapePayload(String regexp, int i, char e) {
+        switch (e) {
+            case 'x':
+                if (i < regexp.length() && regexp.charAt(i) == '{') {
+                    int end = regexp.indexOf('}', i);
+                    return end == -1 ? -1 : end + 1;
+                }
+                return i + 2;
+            case 'u':
+                return i + 4;
+            case 'c':
+                return i + 1;
+            case '0':
+                for (int n = 0; n < 3 && i < regexp.length() && regexp.charAt(i) >= '0' && regexp.charAt(i) <= '7'; n++) {
+                    i++;
+                }
+                return i;
+            case 'p':
+            case 'P':
+            case 'N':
+                if (i < regexp.length() && regexp.charAt(i) == '{') {
+                    int end = regexp.indexOf('}', i);
+                    return end == -1 ? -1 : end + 1;
+                }
+                return i + 1;
+            case 'k':
+                int end = regexp.indexOf('>', i);
+                return end == -1 ? -1 : end + 1;
+            default:
+                if (e >= '1' && e <= '9') {
+                    while (i < regexp.length() && Character.isDigit(regexp.charAt(i))) {
+                        i++;
+                    }
+                }
+                return i;
+        }
+    }
+
+    private static int skipCharacterClass(String regexp, int i) {
+        int depth = 0;
+        i++;
+        if (i < regexp.length() && regexp.charAt(i) == '^') {
+            i++;
+        }
+
+        if (i < regexp.length() && regexp.charAt(i) == ']') {
+            i++;
+        }
+
+        while (i < regexp.length()) {
+            char c = regexp.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+
+            if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                if (depth == 0) {
+                    return i + 1;
+                }
+
+                depth--;
+            }
+
+            i++;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Result of the index lookup for a search
+     */
+    public static class Query {
+
+        private final int size;
+
+        private final int generation;
+
+        /**
+         * Ids of the candidate scripts, null when all scripts are candidates
+         */
+        private BitSet candidates;
+
+        private Query(int size, int generation) {
+            this.size = size;
+            this.generation = generation;
+        }
+    }
+
+    private static class Postings {
+
+        private int[] ids = new int[4];
+
+        private int count;
+
+        public void add(int id) {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+            }
+
+            ids[count++] = id;
+        }
+    }
+}
@@ -29,7 +29,6 @@ import com.jpexs.helpers.ByteArrayRange;
 import com.jpexs.helpers.SerializableImage;
 import java.awt.Dimension;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -125,7 +124,7 @@ public class DefineBitsJPEG2Tag extends ImageTag implements AloneTag {
     @Override
     public InputStream getOriginalImageData() {
         int errorLength = hasErrorHeader(imageData) ? 4 : 0;
-        return new ByteArrayInputStream(imageData.getArray(), imageData.getPos() + errorLength, imageData.getLength() - errorLength);
+        return imageData.getSubRange(errorLength, imageData.getLength() - errorLength).getInputStream();
     }
 
     @Override
@@ -31,7 +31,6 @@ import com.jpexs.helpers.SerializableImage;
 import java.awt.Dimension;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferInt;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -174,7 +173,7 @@ public class DefineBitsJPEG3Tag extends ImageTag implements AloneTag {
     public InputStream getOriginalImageData() {
         if (bitmapAlphaData.getLength() == 0) { // No alpha
             int errorLength = hasErrorHeader(imageData) ? 4 : 0;
-            return new ByteArrayInputStream(imageData.getArray(), imageData.getPos() + errorLength, imageData.getLength() - errorLength);
+            return imageData.getSubRange(errorLength, imageData.getLength() - errorLength).getInputStream();
         }
 
         return null;
@@ -184,7 +183,7 @@ public class DefineBitsJPEG3Tag extends ImageTag implements AloneTag {
     protected SerializableImage getImage() {
         try {
             int errorLength = hasErrorHeader(imageData) ? 4 : 0;
-            ByteArrayInputStream bis = new ByteArrayInputStream(imageData.getArray(), imageData.getPos() + errorLength, imageData.getLength() - errorLength);
+            InputStream bis = imageData.getSubRange(errorLength, imageData.getLength() - errorLength).getInputStream();
 
             BufferedImage image = ImageHelper.read(bis);
             if (image == null) {
@@ -227,7 +226,7 @@ public class DefineBitsJPEG3Tag extends ImageTag implements AloneTag {
 
         try {
             int errorLength = hasErrorHeader(imageData) ? 4 : 0;
-            ByteArrayInputStream bis = new ByteArrayInputStream(imageData.getArray(), imageData.getPos() + errorLength, imageData.getLength() - errorLength);
+            InputStream bis = imageData.getSubRange(errorLength, imageData.getLength() - errorLength).getInputStream();
             return ImageHelper.getDimesion(bis);
         } catch (IOException ex) {
             Logger.getLogger(DefineBitsJPEG3Tag.class.getName()).log(Level.SEVERE, "Failed to get image dimension", ex);
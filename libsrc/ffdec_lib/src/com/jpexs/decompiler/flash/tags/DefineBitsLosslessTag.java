@@ -205,7 +205,7 @@ public class DefineBitsLosslessTag extends ImageTag implements AloneTag {
 
     private void uncompressData() {
         try {
-            byte[] uncompressedData = SWFInputStream.uncompressByteArray(zlibBitmapData.getArray(), zlibBitmapData.getPos(), zlibBitmapData.getLength());
+            byte[] uncompressedData = SWFInputStream.uncompressByteArray(zlibBitmapData);
             SWFInputStream sis = new SWFInputStream(swf, uncompressedData);
             if (bitmapFormat == FORMAT_8BIT_COLORMAPPED) {
                 colorMapData = sis.readCOLORMAPDATA(bitmapColorTableSize, bitmapWidth, bitmapHeight, "colorMapData");
@@ -81,7 +81,7 @@ public class DefineShape4Tag extends ShapeTag {
         if (!lazy) {
             shapes = sis.readSHAPEWITHSTYLE(getShapeNum(), false, "shapes");
         } else {
-            shapeData = new ByteArrayRange(data.getArray(), (int) sis.getPos(), sis.available());
+            shapeData = data.getBacking().getSubRange((int) sis.getPos(), sis.available());
             sis.skipBytes(sis.available());
         }
     }
@@ -60,7 +60,7 @@ public class DefineShapeTag extends ShapeTag {
         if (!lazy) {
             shapes = sis.readSHAPEWITHSTYLE(getShapeNum(), false, "shapes");
         } else {
-            shapeData = new ByteArrayRange(data.getArray(), (int) sis.getPos(), sis.available());
+            shapeData = data.getBacking().getSubRange((int) sis.getPos(), sis.available());
             sis.skipBytes(sis.available());
         }
     }
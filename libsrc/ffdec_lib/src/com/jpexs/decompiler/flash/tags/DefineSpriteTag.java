@@ -321,6 +321,18 @@ public class DefineSpriteTag extends DrawableTag implements Timelined {
         subTags.add(index, tag);
     }
 
+    /**
+     * Replaces the sub tag with another representation of the same tag (a
+     * resolved tag or a stub). The sprite is not marked as modified.
+     *
+     * @param index Index of the sub tag
+     * @param tag New tag
+     */
+    public void swapTag(int index, Tag tag) {
+        subTags.set(index, tag);
+        resetTimeline();
+    }
+
     @Override
     public void createOriginalData() {
         super.createOriginalData();
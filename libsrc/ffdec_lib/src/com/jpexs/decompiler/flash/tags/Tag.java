@@ -192,6 +192,8 @@ public abstract class Tag implements NeedsCharacters, Exportable, Serializable {
 
     private volatile static List<Integer> requiredTagIds;
 
+    private volatile static Set<Integer> scriptTagIds;
+
     public static Integer[] getKnownTags() {
         if (knownTagIds == null) {
             synchronized (lockObject) {
@@ -362,6 +364,40 @@ public abstract class Tag implements NeedsCharacters, Exportable, Serializable {
         return requiredTagIds;
     }
 
+    /**
+     * Gets the ids of the tags needed to export the scripts. Can be used as
+     * the tag filter when opening a SWF.
+     *
+     * @return Tag ids
+     */
+    public static Set<Integer> getScriptTags() {
+        if (scriptTagIds == null) {
+            synchronized (lockObject) {
+                if (scriptTagIds == null) {
+                    Set<Integer> tagIds = new HashSet<>(Arrays.asList(
+                            DefineBinaryDataTag.ID,
+                            DefineButton2Tag.ID,
+                            DefineButtonTag.ID,
+                            DefineSpriteTag.ID,
+                            DoABC2Tag.ID,
+                            DoABCTag.ID,
+                            DoActionTag.ID,
+                            DoInitActionTag.ID,
+                            ExportAssetsTag.ID,
+                            FrameLabelTag.ID,
+                            ImportAssets2Tag.ID,
+                            ImportAssetsTag.ID,
+                            PlaceObject2Tag.ID,
+                            PlaceObject3Tag.ID,
+                            PlaceObject4Tag.ID,
+                            SymbolClassTag.ID));
+                    scriptTagIds = tagIds;
+                }
+            }
+        }
+        return scriptTagIds;
+    }
+
     public int getVersion() {
         if (swf == null) {
             return SWF.DEFAULT_VERSION;
@@ -419,7 +455,7 @@ public abstract class Tag implements NeedsCharacters, Exportable, Serializable {
             sos.write(newHeaderData);
             sos.write(newData);
         } else {
-            sos.write(originalRange.getArray(), originalRange.getPos(), originalRange.getLength());
+            sos.write(originalRange);
         }
     }
 
@@ -516,9 +552,7 @@ public abstract class Tag implements NeedsCharacters, Exportable, Serializable {
         int dataLength = getOriginalDataLength();
         int pos = (int) (originalRange.getPos() + originalRange.getLength() - dataLength);
 
-        byte[] data = new byte[dataLength];
-        System.arraycopy(originalRange.getArray(), pos, data, 0, dataLength);
-        return data;
+        return originalRange.getRangeData(pos - originalRange.getPos(), dataLength);
     }
 
     public final int getOriginalDataLength() {
@@ -530,7 +564,7 @@ public abstract class Tag implements NeedsCharacters, Exportable, Serializable {
     }
 
     private boolean isLongOriginal() {
-        int shortLength = originalRange.getArray()[(int) originalRange.getPos()] & 0x003F;
+        int shortLength = originalRange.get(0) & 0x003F;
         return shortLength == 0x3f;
     }
 
@@ -31,6 +31,12 @@ public class TagStub extends Tag {
 
     private final SWFInputStream dataStream;
 
+    /**
+     * The body was not parsed because of the tag filter of the SWF or it was
+     * released
+     */
+    private boolean deferred;
+
     /**
      * Constructor
      *
@@ -66,4 +72,12 @@ public class TagStub extends Tag {
     public SWFInputStream getDataStream() {
         return dataStream;
     }
+
+    public boolean isDeferred() {
+        return deferred;
+    }
+
+    public void setDeferred(boolean deferred) {
+        this.deferred = deferred;
+    }
 }
@@ -37,7 +37,7 @@ public class UnknownTag extends Tag {
 
     @Override
     public final void readData(SWFInputStream sis, ByteArrayRange data, int level, boolean parallel, boolean skipUnusualTags, boolean lazy) throws IOException {
-        unknownData = new ByteArrayRange(data.getArray(), (int) sis.getPos(), sis.available());
+        unknownData = data.getBacking().getSubRange((int) sis.getPos(), sis.available());
         sis.skipBytes(sis.available());
     }
 
@@ -281,9 +281,7 @@ public abstract class MorphShapeTag extends DrawableTag {
     public void toImage(int frame, int time, int ratio, RenderContext renderContext, SerializableImage image, boolean isClip, Matrix transformation, Matrix strokeTransformation, Matrix absoluteTransformation, ColorTransform colorTransform) {
         SHAPEWITHSTYLE shape = getShapeAtRatio(ratio);
         // morphShape using shapeNum=3, morphShape2 using shapeNum=4
-        // todo: Currently the generated image is not cached, because the cache
-        // key contains the hashCode of the finalRecord object, and it is always
-        // recreated
+        // the rendered images are cached by the timeline per ratio, see ShapeImageKey
         BitmapExporter.export(swf, shape, null, image, transformation, strokeTransformation, colorTransform);
     }
 
@@ -73,12 +73,14 @@ public abstract class ShapeTag extends DrawableTag implements LazyObject {
     public abstract int getShapeNum();
 
     public SHAPEWITHSTYLE getShapes() {
+        // the shapes can be parsed from more threads (parallel frame export), keep the range locally
+        ByteArrayRange shapeData = this.shapeData;
         if (shapes == null && shapeData != null) {
             try {
-                SWFInputStream sis = new SWFInputStream(swf, shapeData.getArray(), 0, shapeData.getPos() + shapeData.getLength());
+                SWFInputStream sis = new SWFInputStream(swf, shapeData.getBacking(), 0, shapeData.getPos() + shapeData.getLength());
                 sis.seek(shapeData.getPos());
                 shapes = sis.readSHAPEWITHSTYLE(getShapeNum(), false, "shapes");
-                shapeData = null; // not needed anymore, give it to GC
+                this.shapeData = null; // not needed anymore, give it to GC
             } catch (IOException ex) {
                 Logger.getLogger(ShapeTag.class.getName()).log(Level.SEVERE, null, ex);
             }
@@ -66,10 +66,17 @@ public class DepthState {
 
     public int clipDepth = -1;
 
+    /**
+     * Time in the first frame of the state
+     */
     public int time = 0;
 
     private final SWF swf;
 
+    /**
+     * First frame of the state. The state is shared by the following frames
+     * until it is changed.
+     */
     public Frame frame;
 
     public PlaceObjectTypeTag placeObjectTag;
@@ -111,13 +118,33 @@ public class DepthState {
         placeObjectTag = obj.placeObjectTag;
         minPlaceObjectNum = obj.minPlaceObjectNum;
         if (sameInstance) {
-            time++;
+            time = obj.getTime(frame.frame);
             instanceId = obj.instanceId;
         } else {
             instanceId = getNewInstanceId();
         }
     }
 
+    /**
+     * Gets the time of the instance in the frame.
+     *
+     * @param frame Frame index
+     * @return Time
+     */
+    public int getTime(int frame) {
+        return this.frame == null ? time : time + frame - this.frame.frame;
+    }
+
+    /**
+     * Checks whether the state is a keyframe of the layer in the frame.
+     *
+     * @param frame Frame index
+     * @return True when the state is a keyframe
+     */
+    public boolean isKey(int frame) {
+        return key && (this.frame == null || this.frame.frame == frame);
+    }
+
     public boolean cacheAsBitmap() {
         return (placeObjectTag != null && placeObjectTag.cacheAsBitmap())
                 || (filters != null && filters.size() > 0);
@@ -27,7 +27,6 @@ import com.jpexs.decompiler.flash.types.RGBA;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.TreeMap;
 
 /**
  *
@@ -37,7 +36,7 @@ public class Frame implements TreeItem, Exportable {
 
     public final int frame;
 
-    public TreeMap<Integer, DepthState> layers = new TreeMap<>();
+    public LayerMap layers = new LayerMap();
 
     public RGB backgroundColor = new RGBA(0, 0, 0, 0);
 
@@ -68,12 +67,10 @@ public class Frame implements TreeItem, Exportable {
 
     public Frame(Frame obj, int frame) {
         this.frame = frame;
-        layers = new TreeMap<>();
+        // the layer states are shared until they are changed
+        layers = new LayerMap(obj.layers);
         backgroundColor = obj.backgroundColor;
         timeline = obj.timeline;
-        for (int depth : obj.layers.keySet()) {
-            layers.put(depth, new DepthState(obj.layers.get(depth), this, true));
-        }
         //Do not copy sounds
     }
 
@@ -0,0 +1,271 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash.timeline;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Depth to layer state map of a frame, iterated in depth order.
+ *
+ * The map is a persistent AVL tree: copying the map is O(1) and the copies
+ * share the unchanged nodes, put and remove copy only the path to the changed
+ * node. So a timeline stores only the layer changes of each frame instead of
+ * the full display list.
+ *
+ * @author JPEXS
+ */
+public class LayerMap extends AbstractMap<Integer, DepthState> {
+
+    private Node root;
+
+    private int size;
+
+    private EntrySet entrySet;
+
+    public LayerMap() {
+    }
+
+    public LayerMap(LayerMap map) {
+        root = map.root;
+        size = map.size;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && find((Integer) key) != null;
+    }
+
+    @Override
+    public DepthState get(Object key) {
+        if (!(key instanceof Integer)) {
+            return null;
+        }
+
+        Node node = find((Integer) key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public DepthState put(Integer key, DepthState value) {
+        Node node = find(key);
+        if (node != null && node.value == value) {
+            return value;
+        }
+
+        root = put(root, key, value);
+        if (node == null) {
+            size++;
+            return null;
+        }
+
+        return node.value;
+    }
+
+    @Override
+    public DepthState remove(Object key) {
+        if (!(key instanceof Integer)) {
+            return null;
+        }
+
+        Node node = find((Integer) key);
+        if (node == null) {
+            return null;
+        }
+
+        root = remove(root, node.key);
+        size--;
+        return node.value;
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    @Override
+    public Set<Entry<Integer, DepthState>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+
+        return entrySet;
+    }
+
+    private Node find(int key) {
+        Node node = root;
+        while (node != null) {
+            if (key < node.key) {
+                node = node.left;
+            } else if (key > node.key) {
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+
+        return null;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static Node put(Node node, int key, DepthState value) {
+        if (node == null) {
+            return new Node(key, value, null, null);
+        }
+
+        if (key < node.key) {
+            return balance(node.key, node.value, put(node.left, key, value), node.right);
+        }
+
+        if (key > node.key) {
+            return balance(node.key, node.value, node.left, put(node.right, key, value));
+        }
+
+        return new Node(key, value, node.left, node.right);
+    }
+
+    private static Node remove(Node node, int key) {
+        if (key < node.key) {
+            return balance(node.key, node.value, remove(node.left, key), node.right);
+        }
+
+        if (key > node.key) {
+            return balance(node.key, node.value, node.left, remove(node.right, key));
+        }
+
+        if (node.left == null) {
+            return node.right;
+        }
+
+        if (node.right == null) {
+            return node.left;
+        }
+
+        Node min = node.right;
+        while (min.left != null) {
+            min = min.left;
+        }
+
+        return balance(min.key, min.value, node.left, remove(node.right, min.key));
+    }
+
+    private static Node balance(int key, DepthState value, Node left, Node right) {
+        int hl = height(left);
+        int hr = height(right);
+        if (hl > hr + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node(left.key, left.value, left.left, new Node(key, value, left.right, right));
+            }
+
+            Node lr = left.right;
+            return new Node(lr.key, lr.value, new Node(left.key, left.value, left.left, lr.left), new Node(key, value, lr.right, right));
+        }
+
+        if (hr > hl + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node(right.key, right.value, new Node(key, value, left, right.left), right.right);
+            }
+
+            Node rl = right.left;
+            return new Node(rl.key, rl.value, new Node(key, value, left, rl.left), new Node(right.key, right.value, rl.right, right.right));
+        }
+
+        return new Node(key, value, left, right);
+    }
+
+    private static class Node {
+
+        final int key;
+
+        final DepthState value;
+
+        final Node left;
+
+        final Node right;
+
+        final int height;
+
+        Node(int key, DepthState value, Node left, Node right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Entry<Integer, DepthState>> {
+
+        @Override
+        public Iterator<Entry<Integer, DepthState>> iterator() {
+            final Node start = root;
+            return new Iterator<Entry<Integer, DepthState>>() {
+
+                private final ArrayDeque<Node> stack = new ArrayDeque<>();
+
+                {
+                    pushLeft(start);
+                }
+
+                private void pushLeft(Node node) {
+                    while (node != null) {
+                        stack.push(node);
+                        node = node.left;
+                    }
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return !stack.isEmpty();
+                }
+
+                @Override
+                public Entry<Integer, DepthState> next() {
+                    if (stack.isEmpty()) {
+                        throw new NoSuchElementException();
+                    }
+
+                    Node node = stack.pop();
+                    pushLeft(node.right);
+                    return new SimpleImmutableEntry<>(node.key, node.value);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
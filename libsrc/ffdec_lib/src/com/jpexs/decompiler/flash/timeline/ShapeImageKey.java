@@ -0,0 +1,114 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash.timeline;
+
+import com.jpexs.decompiler.flash.exporters.commonshape.Matrix;
+import com.jpexs.decompiler.flash.tags.base.DrawableTag;
+import com.jpexs.decompiler.flash.tags.base.MorphShapeTag;
+import com.jpexs.decompiler.flash.tags.base.ShapeTag;
+import com.jpexs.decompiler.flash.tags.base.StaticTextTag;
+import com.jpexs.decompiler.flash.types.ColorTransform;
+import java.util.Arrays;
+
+/**
+ * Key of a rendered shape, morph shape or static text image.
+ *
+ * The translation of the object is not the part of the key, it is applied when
+ * the image is drawn to the frame. The transformation stored in the key is the
+ * transformation relative to the image, which depends only on the scale,
+ * rotation and skew of the object.
+ *
+ * @author JPEXS
+ */
+public class ShapeImageKey {
+
+    private final DrawableTag drawable;
+
+    private final int ratio;
+
+    private final int width;
+
+    private final int height;
+
+    private final double[] matrix;
+
+    private final int[] colorTransform;
+
+    private final int hash;
+
+    /**
+     * Checks whether the images of the drawable can be cached. The images of
+     * shapes, morph shapes and static texts depend only on the values of the
+     * key.
+     *
+     * @param drawable Drawable
+     * @return True when the images can be cached
+     */
+    public static boolean isCacheable(DrawableTag drawable) {
+        return drawable instanceof ShapeTag || drawable instanceof MorphShapeTag || drawable instanceof StaticTextTag;
+    }
+
+    public ShapeImageKey(DrawableTag drawable, int ratio, int width, int height, Matrix transformation, Matrix strokeTransformation, ColorTransform colorTransform) {
+        this.drawable = drawable;
+        this.ratio = drawable instanceof MorphShapeTag ? ratio : 0;
+        this.width = width;
+        this.height = height;
+        this.matrix = new double[]{
+            transformation.scaleX, transformation.scaleY,
+            transformation.rotateSkew0, transformation.rotateSkew1,
+            transformation.translateX, transformation.translateY,
+            strokeTransformation == null ? 1 : strokeTransformation.scaleX,
+            strokeTransformation == null ? 1 : strokeTransformation.scaleY
+        };
+        this.colorTransform = colorTransform == null ? null : new int[]{
+            colorTransform.getRedMulti(), colorTransform.getGreenMulti(),
+            colorTransform.getBlueMulti(), colorTransform.getAlphaMulti(),
+            colorTransform.getRedAdd(), colorTransform.getGreenAdd(),
+            colorTransform.getBlueAdd(), colorTransform.getAlphaAdd()
+        };
+
+        int h = System.identityHashCode(drawable);
+        h = 31 * h + this.ratio;
+        h = 31 * h + width;
+        h = 31 * h + height;
+        h = 31 * h + Arrays.hashCode(matrix);
+        h = 31 * h + Arrays.hashCode(this.colorTransform);
+        hash = h;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ShapeImageKey)) {
+            return false;
+        }
+        final ShapeImageKey other = (ShapeImageKey) obj;
+        return drawable == other.drawable
+                && hash == other.hash
+                && ratio == other.ratio
+                && width == other.width
+                && height == other.height
+                && Arrays.equals(matrix, other.matrix)
+                && Arrays.equals(colorTransform, other.colorTransform);
+    }
+}
@@ -16,6 +16,7 @@
 package com.jpexs.decompiler.flash.timeline;
 
 import com.jpexs.decompiler.flash.SWF;
+import com.jpexs.decompiler.flash.configuration.Configuration;
 import com.jpexs.decompiler.flash.exporters.FrameExporter;
 import com.jpexs.decompiler.flash.exporters.commonshape.ExportRectangle;
 import com.jpexs.decompiler.flash.exporters.commonshape.Matrix;
@@ -110,14 +111,18 @@ public class Timeline {
 
     public final List<Tag> otherTags = new ArrayList<>();
 
-    private boolean initialized = false;
+    private volatile boolean initialized = false;
 
     private Map<String, Integer> labelToFrame = new HashMap<>();
 
     private void ensureInitialized() {
         if (!initialized) {
-            initialize();
-            initialized = true;
+            synchronized (this) {
+                if (!initialized) {
+                    initialize();
+                    initialized = true;
+                }
+            }
         }
     }
 
@@ -297,6 +302,9 @@ public class Timeline {
                 DepthState fl = frame.layers.get(depth);
                 if (fl == null) {
                     frame.layers.put(depth, fl = new DepthState(swf, frame));
+                } else if (fl.frame != frame) {
+                    // the state is shared with the previous frames
+                    frame.layers.put(depth, fl = new DepthState(fl, frame, true));
                 }
                 frame.layersChanged = true;
                 fl.placeObjectTag = po;
@@ -412,13 +420,17 @@ public class Timeline {
 
                         List<TweenRange> ranges = TweenDetector.detectRanges(matrices);
                         for (TweenRange r : ranges) {
-                            for (int t = r.startPosition; t <= r.endPosition; t++) {
-                                DepthState layer = frames.get(startPos + t).layers.get(d);
+                            int rangeStart = startPos + r.startPosition;
+                            int rangeEnd = startPos + r.endPosition;
+                            splitLayer(rangeStart, d);
+                            splitLayer(rangeEnd + 1, d);
+                            for (int t = rangeStart; t <= rangeEnd; t++) {
+                                DepthState layer = frames.get(t).layers.get(d);
                                 layer.motionTween = true;
                                 layer.key = false;
                             }
 
-                            frames.get(startPos + r.startPosition).layers.get(d).key = true;
+                            frames.get(rangeStart).layers.get(d).key = true;
                         }
                     }
 
@@ -430,6 +442,31 @@ public class Timeline {
         }
     }
 
+    /**
+     * Makes the layer state of the depth start in the frame, so the state can
+     * be changed without changing the previous frames.
+     *
+     * @param frame Frame index
+     * @param depth Depth
+     */
+    private void splitLayer(int frame, int depth) {
+        if (frame >= frames.size()) {
+            return;
+        }
+
+        Frame f = frames.get(frame);
+        DepthState ds = f.layers.get(depth);
+        if (ds == null || ds.frame == f) {
+            return;
+        }
+
+        DepthState ds2 = new DepthState(ds, f, true);
+        ds2.motionTween = ds.motionTween;
+        for (int i = frame; i < frames.size() && frames.get(i).layers.get(depth) == ds; i++) {
+            frames.get(i).layers.put(depth, ds2);
+        }
+    }
+
     private void calculateMaxDepthFrames() {
         depthMaxFrame.clear();
         for (int d = 1; d <= maxDepth; d++) {
@@ -653,6 +690,9 @@ public class Timeline {
 
         rect.xMin -= unzoom;
         rect.yMin -= unzoom;
+
+        // the image of the object does not depend on its position only when it is not cropped by the frame
+        boolean cropped = rect.xMin < 0 || rect.yMin < 0;
         rect.xMin = Math.max(0, rect.xMin);
         rect.yMin = Math.max(0, rect.yMin);
         drawMatrix.translate(rect.xMin, rect.yMin);
@@ -662,6 +702,7 @@ public class Timeline {
             int newHeight = (int) (rect.getHeight() / unzoom);
             int deltaX = (int) (rect.xMin / unzoom);
             int deltaY = (int) (rect.yMin / unzoom);
+            cropped = cropped || image.getWidth() - deltaX < newWidth || image.getHeight() - deltaY < newHeight;
             newWidth = Math.min(image.getWidth() - deltaX, newWidth) + 1;
             newHeight = Math.min(image.getHeight() - deltaY, newHeight) + 1;
 
@@ -688,14 +729,27 @@ public class Timeline {
                 }
             }
 
-            img = new SerializableImage(newWidth, newHeight, SerializableImage.TYPE_INT_ARGB_PRE);
-            img.fillTransparent();
+            ShapeImageKey imageKey = null;
+            if (!cropped && ShapeImageKey.isCacheable(drawable) && !Configuration._debugMode.get()) {
+                imageKey = new ShapeImageKey(drawable, ratio, newWidth, newHeight, m, strokeTransform, clrTrans);
+                img = swf.getFromCache(imageKey);
+            }
 
-            if (!(drawable instanceof ImageTag)) {
-                // image tags are not rendered, they should be embedded in shape tags
-                drawable.toImage(dframe, time, ratio, renderContext, img, isClip || clipDepth > -1, m, strokeTransform, absMat, clrTrans);
-            } else {
-                // todo: show one time warning
+            // the cached image is shared, the filters and the color transform below create new images
+            if (img == null) {
+                img = new SerializableImage(newWidth, newHeight, SerializableImage.TYPE_INT_ARGB_PRE);
+                img.fillTransparent();
+
+                if (!(drawable instanceof ImageTag)) {
+                    // image tags are not rendered, they should be embedded in shape tags
+                    drawable.toImage(dframe, time, ratio, renderContext, img, isClip || clipDepth > -1, m, strokeTransform, absMat, clrTrans);
+                } else {
+                    // todo: show one time warning
+                }
+
+                if (imageKey != null) {
+                    swf.putToCache(imageKey, img);
+                }
             }
 
             if (filters != null) {
@@ -15,6 +15,8 @@
  * License along with this library. */
 package com.jpexs.decompiler.flash.types.filters;
 
+import com.jpexs.decompiler.flash.ParallelScheduler;
+import com.jpexs.decompiler.flash.configuration.Configuration;
 import com.jpexs.decompiler.flash.types.RGBA;
 import com.jpexs.helpers.SerializableImage;
 import java.awt.AlphaComposite;
@@ -27,9 +29,21 @@ import java.awt.RenderingHints;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import java.awt.image.BufferedImageOp;
+import java.awt.image.ColorModel;
 import java.awt.image.ConvolveOp;
 import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
 import java.awt.image.Kernel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.lang.ref.SoftReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  *
@@ -55,198 +69,293 @@ public class Filtering {
 
     private static final Rectangle RECTANGLE_512_1 = new Rectangle(512, 1);
 
-    private static void boxBlurHorizontal(int[] pixels, int[] mask, int[] newColors, int w, int h, int radius) {
-        int index = 0;
+    /**
+     * Minimal number of the pixels of the image to filter it in parallel
+     * bands
+     */
+    private static final int PARALLEL_MIN_PIXELS = 256 * 256;
 
-        for (int y = 0; y < h; y++) {
-            int hits = 0;
-            long r = 0;
-            long g = 0;
-            long b = 0;
-            long a = 0;
-            for (int x = -radius; x < w; x++) {
-                int oldPixel = x - radius - 1;
-                if (oldPixel >= 0) {
-
-                    int color = pixels[index + oldPixel];
-                    if ((mask == null) || (((mask[index + oldPixel] >> 24) & 0xff) > 0)) {
-                        if (color != 0) {
-                            a -= (color >> 24) & 0xff;
-                            r -= ((color >> 16) & 0xff);
-                            g -= ((color >> 8) & 0xff);
-                            b -= ((color) & 0xff);
-
-                        }
-                        hits--;
-                    }
+    /**
+     * Minimal number of the rows or columns of a parallel band
+     */
+    private static final int MIN_BAND_SIZE = 32;
+
+    private static final int MAX_POOLED_BUFFERS = 8;
+
+    /**
+     * Fixed point reciprocals of the box sizes. For x &lt;= 255 * n:
+     * x / n == (x * RECIPROCALS[n]) &gt;&gt;&gt; 32
+     */
+    private static final long[] RECIPROCALS = new long[1024];
+
+    private static final byte[] PREMULTIPLY_TABLE = new byte[256 * 256];
+
+    private static final byte[] UNPREMULTIPLY_TABLE = new byte[256 * 256];
+
+    private static final ArrayDeque<SoftReference<int[]>> BUFFER_POOL = new ArrayDeque<>();
+
+    static {
+        for (int n = 1; n < RECIPROCALS.length; n++) {
+            RECIPROCALS[n] = ((1L << 32) + n - 1) / n;
+        }
+
+        for (int a = 0; a < 256; a++) {
+            float f = (float) a * 0.003921569F;
+            float f2 = 255F / (float) a;
+            for (int c = 0; c < 256; c++) {
+                PREMULTIPLY_TABLE[(a << 8) | c] = (byte) (int) ((float) c * f);
+                int c2 = c;
+                if (a != 0 && a != 255) {
+                    c2 = Math.min((int) ((float) c * f2), 255);
                 }
 
-                int newPixel = x + radius;
-                if (newPixel < w) {
-                    int color = pixels[index + newPixel];
-                    if ((mask == null) || (((mask[index + newPixel] >> 24) & 0xff) > 0)) {
-                        if (color != 0) {
-                            a += (color >> 24) & 0xff;
-                            r += ((color >> 16) & 0xff);
-                            g += ((color >> 8) & 0xff);
-                            b += ((color) & 0xff);
-                        }
-                        hits++;
+                UNPREMULTIPLY_TABLE[(a << 8) | c] = (byte) c2;
+            }
+        }
+    }
+
+    private interface Band {
+
+        void run(int from, int to);
+    }
+
+    /**
+     * Runs the task on the ranges of the rows or columns. The bands are
+     * processed on the parallel scheduler, the first band on the calling
+     * thread.
+     */
+    private static void runBands(int count, boolean parallel, final Band band) {
+        int bands = 1;
+        if (parallel) {
+            bands = Math.min(Math.min(Configuration.getParallelThreadCount(), Runtime.getRuntime().availableProcessors()), count / MIN_BAND_SIZE);
+        }
+        if (bands <= 1) {
+            band.run(0, count);
+            return;
+        }
+
+        int size = (count + bands - 1) / bands;
+        List<Future<Object>> futures = new ArrayList<>(bands - 1);
+        for (int from = size; from < count; from += size) {
+            final int bandFrom = from;
+            final int bandTo = Math.min(count, from + size);
+            futures.add(ParallelScheduler.submit(() -> {
+                band.run(bandFrom, bandTo);
+                return null;
+            }));
+        }
+
+        band.run(0, size);
+
+        // the bands are short, wait for them even when interrupted, they share the buffers
+        boolean interrupted = false;
+        for (Future<Object> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
                     }
-                }
 
-                if (x >= 0) {
-                    if ((mask == null) || (((mask[index + x] >> 24) & 0xff) > 0)) {
-                        if (hits == 0) {
-                            newColors[x] = 0;
-                        } else {
-                            newColors[x] = RGBA.toInt((int) (r / hits) & 0xff, (int) (g / hits) & 0xff, (int) (b / hits) & 0xff, (int) (a / hits));
-                        }
-                    } else {
-                        newColors[x] = 0;
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
                     }
+
+                    throw new RuntimeException(cause);
                 }
             }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int[] takeBuffer(int size) {
+        synchronized (BUFFER_POOL) {
+            Iterator<SoftReference<int[]>> iterator = BUFFER_POOL.iterator();
+            while (iterator.hasNext()) {
+                int[] buffer = iterator.next().get();
+                if (buffer == null) {
+                    iterator.remove();
+                } else if (buffer.length >= size) {
+                    iterator.remove();
+                    return buffer;
+                }
+            }
+        }
+
+        return new int[size];
+    }
 
-            System.arraycopy(newColors, 0, pixels, index, w);
+    private static void releaseBuffer(int[] buffer) {
+        synchronized (BUFFER_POOL) {
+            if (BUFFER_POOL.size() >= MAX_POOLED_BUFFERS) {
+                BUFFER_POOL.removeFirst();
+            }
 
-            index += w;
+            BUFFER_POOL.addLast(new SoftReference<>(buffer));
         }
     }
 
-    private static void boxBlurVertical(int[] pixels, int[] mask, int[] newColors, int w, int h, int radius) {
-        int oldPixelOffset = -(radius + 1) * w;
-        int newPixelOffset = (radius) * w;
+    private static int divide(int sum, int count) {
+        if (count < RECIPROCALS.length) {
+            return (int) ((sum * RECIPROCALS[count]) >>> 32);
+        }
+
+        return sum / count;
+    }
 
-        for (int x = 0; x < w; x++) {
+    private static void boxBlurHorizontal(int[] src, int[] dst, int[] mask, int w, int from, int to, int radius) {
+        for (int y = from; y < to; y++) {
+            int index = y * w;
             int hits = 0;
-            long r = 0;
-            long g = 0;
-            long b = 0;
-            long a = 0;
-            int index = -radius * w + x;
-            for (int y = -radius; y < h; y++) {
-                int oldPixel = y - radius - 1;
-                if (oldPixel >= 0) {
-                    int color = pixels[index + oldPixelOffset];
-                    if ((mask == null) || (((mask[index + oldPixelOffset] >> 24) & 0xff) > 0)) {
-                        if (color != 0) {
-                            a -= (color >> 24) & 0xff;
-                            r -= ((color >> 16) & 0xff);
-                            g -= ((color >> 8) & 0xff);
-                            b -= ((color) & 0xff);
-
-                        }
-                        hits--;
-                    }
+            int r = 0;
+            int g = 0;
+            int b = 0;
+            int a = 0;
+            for (int x = -radius; x < w; x++) {
+                int oldPixel = index + x - radius - 1;
+                if (x - radius - 1 >= 0 && (mask == null || (mask[oldPixel] >>> 24) != 0)) {
+                    int color = src[oldPixel];
+                    a -= color >>> 24;
+                    r -= (color >> 16) & 0xff;
+                    g -= (color >> 8) & 0xff;
+                    b -= color & 0xff;
+                    hits--;
+                }
 
+                int newPixel = index + x + radius;
+                if (x + radius < w && (mask == null || (mask[newPixel] >>> 24) != 0)) {
+                    int color = src[newPixel];
+                    a += color >>> 24;
+                    r += (color >> 16) & 0xff;
+                    g += (color >> 8) & 0xff;
+                    b += color & 0xff;
+                    hits++;
                 }
 
-                int newPixel = y + radius;
-                if (newPixel < h) {
-                    if ((mask == null) || (((mask[index + newPixelOffset] >> 24) & 0xff) > 0)) {
-                        int color = pixels[index + newPixelOffset];
-                        if (color != 0) {
-                            a += (color >> 24) & 0xff;
-                            r += ((color >> 16) & 0xff);
-                            g += ((color >> 8) & 0xff);
-                            b += ((color) & 0xff);
-
-                        }
-                        hits++;
+                if (x >= 0) {
+                    if (hits == 0 || (mask != null && (mask[index + x] >>> 24) == 0)) {
+                        dst[index + x] = 0;
+                    } else {
+                        dst[index + x] = (divide(a, hits) << 24) | (divide(r, hits) << 16) | (divide(g, hits) << 8) | divide(b, hits);
                     }
                 }
+            }
+        }
+    }
 
-                if (y >= 0) {
-                    if ((mask == null) || (((mask[y * w + x] >> 24) & 0xff) > 0)) {
-                        if (hits == 0) {
-                            newColors[y] = 0;
-                        } else {
-                            newColors[y] = RGBA.toInt((int) (r / hits) & 0xff, (int) (g / hits) & 0xff, (int) (b / hits) & 0xff, (int) (a / hits) & 0xff);
-                        }
-                    } else {
-                        newColors[y] = 0;
+    /**
+     * Blurs the columns from - to. The rows are processed sequentially to
+     * access the pixels in the memory order.
+     */
+    private static void boxBlurVertical(int[] src, int[] dst, int[] mask, int w, int h, int from, int to, int radius) {
+        int count = to - from;
+        int[] hits = new int[count];
+        int[] rs = new int[count];
+        int[] gs = new int[count];
+        int[] bs = new int[count];
+        int[] as = new int[count];
+        for (int y = -radius; y < h; y++) {
+            int oldRow = y - radius - 1;
+            if (oldRow >= 0) {
+                int index = oldRow * w + from;
+                for (int i = 0; i < count; i++, index++) {
+                    if (mask == null || (mask[index] >>> 24) != 0) {
+                        int color = src[index];
+                        as[i] -= color >>> 24;
+                        rs[i] -= (color >> 16) & 0xff;
+                        gs[i] -= (color >> 8) & 0xff;
+                        bs[i] -= color & 0xff;
+                        hits[i]--;
                     }
                 }
+            }
 
-                index += w;
+            int newRow = y + radius;
+            if (newRow < h) {
+                int index = newRow * w + from;
+                for (int i = 0; i < count; i++, index++) {
+                    if (mask == null || (mask[index] >>> 24) != 0) {
+                        int color = src[index];
+                        as[i] += color >>> 24;
+                        rs[i] += (color >> 16) & 0xff;
+                        gs[i] += (color >> 8) & 0xff;
+                        bs[i] += color & 0xff;
+                        hits[i]++;
+                    }
+                }
             }
 
-            for (int y = 0; y < h; y++) {
-                pixels[y * w + x] = newColors[y];
+            if (y >= 0) {
+                int index = y * w + from;
+                for (int i = 0; i < count; i++, index++) {
+                    int n = hits[i];
+                    if (n == 0 || (mask != null && (mask[index] >>> 24) == 0)) {
+                        dst[index] = 0;
+                    } else {
+                        dst[index] = (divide(as[i], n) << 24) | (divide(rs[i], n) << 16) | (divide(gs[i], n) << 8) | divide(bs[i], n);
+                    }
+                }
             }
         }
     }
 
-    private static void premultiply(int[] p) {
-        int length = p.length;
-        int offset = 0;
-        length += offset;
-        for (int i = offset; i < length; i++) {
+    private static void premultiply(int[] p, int from, int to) {
+        for (int i = from; i < to; i++) {
             int rgb = p[i];
-            int a = rgb >> 24 & 0xff;
-            int r = rgb >> 16 & 0xff;
-            int g = rgb >> 8 & 0xff;
-            int b = rgb & 0xff;
-            float f = (float) a * 0.003921569F;
-            r = (int) ((float) r * f);
-            g = (int) ((float) g * f);
-            b = (int) ((float) b * f);
+            int a = rgb >>> 24;
+            int row = a << 8;
+            int r = PREMULTIPLY_TABLE[row | ((rgb >> 16) & 0xff)] & 0xff;
+            int g = PREMULTIPLY_TABLE[row | ((rgb >> 8) & 0xff)] & 0xff;
+            int b = PREMULTIPLY_TABLE[row | (rgb & 0xff)] & 0xff;
             p[i] = a << 24 | r << 16 | g << 8 | b;
         }
     }
 
-    private static void unpremultiply(int[] p) {
-        int length = p.length;
-        int offset = 0;
-        length += offset;
-        for (int i = offset; i < length; i++) {
+    private static void unpremultiply(int[] p, int from, int to) {
+        for (int i = from; i < to; i++) {
             int rgb = p[i];
-            int a = rgb >> 24 & 0xff;
-            int r = rgb >> 16 & 0xff;
-            int g = rgb >> 8 & 0xff;
-            int b = rgb & 0xff;
+            int a = rgb >>> 24;
             if (a == 0 || a == 255) {
                 continue;
             }
-            float f = 255F / (float) a;
-            r = (int) ((float) r * f);
-            g = (int) ((float) g * f);
-            b = (int) ((float) b * f);
-            if (r > 255) {
-                r = 255;
-            }
-            if (g > 255) {
-                g = 255;
-            }
-            if (b > 255) {
-                b = 255;
-            }
+
+            int row = a << 8;
+            int r = UNPREMULTIPLY_TABLE[row | ((rgb >> 16) & 0xff)] & 0xff;
+            int g = UNPREMULTIPLY_TABLE[row | ((rgb >> 8) & 0xff)] & 0xff;
+            int b = UNPREMULTIPLY_TABLE[row | (rgb & 0xff)] & 0xff;
             p[i] = a << 24 | r << 16 | g << 8 | b;
         }
     }
 
     public static SerializableImage blur(SerializableImage src, int hRadius, int vRadius, int iterations) {
-        int[] pixels = (int[]) getRGB(src.getBufferedImage()).clone();
+        int[] pixels = copyRGB(src.getBufferedImage());
         int width = src.getWidth();
         int height = src.getHeight();
         blur(pixels, width, height, hRadius, vRadius, iterations, null);
-        BufferedImage ret = new BufferedImage(width, height, src.getType());
-        setRGB(ret, width, height, pixels);
-        return new SerializableImage(ret);
+        return new SerializableImage(createImage(width, height, src.getType(), pixels));
     }
 
-    private static void blur(int[] src, int width, int height, int hRadius, int vRadius, int iterations, int[] mask) {
-        int[] inPixels = src;
-        premultiply(inPixels);
-
-        int[] tempRow = new int[width];
-        int[] tempColumn = new int[height];
+    private static void blur(final int[] pixels, final int width, final int height, int hRadius, int vRadius, int iterations, final int[] mask) {
+        boolean parallel = Configuration.parallelSpeedUp.get() && width * height >= PARALLEL_MIN_PIXELS;
+        final int[] temp = takeBuffer(width * height);
+        final int hr = hRadius / 2;
+        final int vr = vRadius / 2;
+        runBands(height, parallel, (from, to) -> premultiply(pixels, from * width, to * width));
         for (int i = 0; i < iterations; i++) {
-            boxBlurHorizontal(inPixels, mask, tempRow, width, height, hRadius / 2);
-            boxBlurVertical(inPixels, mask, tempColumn, width, height, vRadius / 2);
+            runBands(height, parallel, (from, to) -> boxBlurHorizontal(pixels, temp, mask, width, from, to, hr));
+            runBands(width, parallel, (from, to) -> boxBlurVertical(temp, pixels, mask, width, height, from, to, vr));
         }
-        unpremultiply(inPixels);
+
+        runBands(height, parallel, (from, to) -> unpremultiply(pixels, from * width, to * width));
+        releaseBuffer(temp);
     }
 
     public static SerializableImage bevel(SerializableImage src, int blurX, int blurY, float strength, int type, int highlightColor, int shadowColor, float angle, float distance, boolean knockout, int iterations) {
@@ -402,14 +511,14 @@ public class Filtering {
         int width = src.getWidth();
         int height = src.getHeight();
         int[] srcPixels = getRGB(src);
+        int[] shadowColors = new int[256];
+        for (int alpha = 0; alpha < 256; alpha++) {
+            shadowColors[inner ? 255 - alpha : alpha] = RGBA.toInt(color.getRed(), color.getGreen(), color.getBlue(), cut(color.getAlpha() * alpha / 255 * strength));
+        }
+
         int[] shadow = new int[srcPixels.length];
         for (int i = 0; i < srcPixels.length; i++) {
-            int alpha = (srcPixels[i] >> 24) & 0xff;
-            if (inner) {
-                alpha = 255 - alpha;
-            }
-
-            shadow[i] = RGBA.toInt(color.getRed(), color.getGreen(), color.getBlue(), cut(color.getAlpha() * alpha / 255 * strength));
+            shadow[i] = shadowColors[srcPixels[i] >>> 24];
         }
 
         Color colorFirst = Color.BLACK;
@@ -431,8 +540,7 @@ public class Filtering {
             shadow[i] = shadow[i] & 0xffffff + ((mask * ((shadow[i] >> 24) & 0xff) / 255) << 24);
         }
 
-        BufferedImage retCanvas = new BufferedImage(width, height, src.getType());
-        setRGB(retCanvas, width, height, shadow);
+        BufferedImage retCanvas = createImage(width, height, src.getType(), shadow);
 
         if (!knockout) {
             Graphics2D g = retCanvas.createGraphics();
@@ -469,9 +577,14 @@ public class Filtering {
             revPixels[i] = (srcPixels[i] & 0xffffff) + ((255 - ((srcPixels[i] >> 24) & 0xff)) << 24);
         }
 
+        int[] shadowColors = new int[256];
+        for (int alpha = 0; alpha < 256; alpha++) {
+            shadowColors[alpha] = cut(strength * alpha) << 24;
+        }
+
         int[] shadow = new int[srcPixels.length];
         for (int i = 0; i < srcPixels.length; i++) {
-            shadow[i] = 0 + ((cut(strength * ((srcPixels[i] >> 24) & 0xff))) << 24);
+            shadow[i] = shadowColors[srcPixels[i] >>> 24];
         }
 
         Color colorAlpha = ALPHA;
@@ -501,8 +614,7 @@ public class Filtering {
             shadow[i] = gradientPixels[a];
         }
 
-        BufferedImage retCanvas = new BufferedImage(width, height, src.getType());
-        setRGB(retCanvas, width, height, shadow);
+        BufferedImage retCanvas = createImage(width, height, src.getType(), shadow);
 
         if (!knockout) {
             Graphics2D retImg = retCanvas.createGraphics();
@@ -522,6 +634,32 @@ public class Filtering {
         return image.getRGB(0, 0, width, image.getHeight(), null, 0, width);
     }
 
+    private static int[] copyRGB(BufferedImage image) {
+        int type = image.getType();
+        if (type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_INT_RGB) {
+            return getRGB(image).clone();
+        }
+
+        // getRGB returns a new array
+        return getRGB(image);
+    }
+
+    /**
+     * Creates image of the pixels. ARGB images use the pixel array as the
+     * image data.
+     */
+    private static BufferedImage createImage(int width, int height, int type, int[] pixels) {
+        if (type == BufferedImage.TYPE_INT_ARGB) {
+            DirectColorModel colorModel = (DirectColorModel) ColorModel.getRGBdefault();
+            WritableRaster raster = Raster.createPackedRaster(new DataBufferInt(pixels, width * height), width, height, width, colorModel.getMasks(), null);
+            return new BufferedImage(colorModel, raster, false, null);
+        }
+
+        BufferedImage image = new BufferedImage(width, height, type);
+        setRGB(image, width, height, pixels);
+        return image;
+    }
+
     public static void setRGB(BufferedImage image, int width, int height, int[] pixels) {
         int type = image.getType();
         if (type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_INT_RGB) {
@@ -532,6 +670,11 @@ public class Filtering {
     }
 
     private static int[] moveRGB(int width, int height, int[] rgb, double deltaX, double deltaY, Color fill) {
+        int fillAlpha = fill.getAlpha();
+        if (deltaX == Math.rint(deltaX) && deltaY == Math.rint(deltaY) && (fillAlpha == 0 || fillAlpha == 255)) {
+            return shiftRGB(width, height, rgb, (int) deltaX, (int) deltaY, fillAlpha == 0 ? 0 : fill.getRGB());
+        }
+
         BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
         setRGB(img, width, height, rgb);
         BufferedImage retImg = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
@@ -548,6 +691,33 @@ public class Filtering {
         return getRGB(retImg);
     }
 
+    /**
+     * Moves the pixels by whole pixel offset, the result is the same as
+     * drawing the image with the translation. The rgb array is returned when
+     * the offset is zero.
+     */
+    private static int[] shiftRGB(int width, int height, int[] rgb, int deltaX, int deltaY, int fill) {
+        if (deltaX == 0 && deltaY == 0) {
+            return rgb;
+        }
+
+        int[] result = new int[rgb.length];
+        if (fill != 0) {
+            Arrays.fill(result, fill);
+        }
+
+        int xFrom = Math.max(0, deltaX);
+        int xTo = Math.min(width, width + deltaX);
+        int yTo = Math.min(height, height + deltaY);
+        if (xFrom < xTo) {
+            for (int y = Math.max(0, deltaY); y < yTo; y++) {
+                System.arraycopy(rgb, (y - deltaY) * width + xFrom - deltaX, result, y * width + xFrom, xTo - xFrom);
+            }
+        }
+
+        return result;
+    }
+
     public static SerializableImage convolution(SerializableImage src, float[] matrix, int w, int h) {
         BufferedImage dst = new BufferedImage(src.getWidth(), src.getHeight(), src.getType());
         BufferedImageOp op = new ConvolveOp(new Kernel(w, h, matrix), ConvolveOp.EDGE_ZERO_FILL, new RenderingHints(null));
@@ -562,7 +732,7 @@ public class Filtering {
          changeColors.filter(sourceRaster, displayRaster);
          return new SerializableImage(src.getColorModel(), displayRaster, true, null);*/
         BufferedImage dst = new BufferedImage(src.getWidth(), src.getHeight(), src.getType());
-        int[] pixels = getRGB(src.getBufferedImage()).clone();
+        int[] pixels = copyRGB(src.getBufferedImage());
         for (int i = 0; i < pixels.length; i++) {
             int rgb = pixels[i];
             int a = (rgb >> 24) & 0xff;
@@ -612,7 +782,7 @@ public class Filtering {
             int redAddTerm, int greenAddTerm, int blueAddTerm, int alphaAddTerm,
             int redMultTerm, int greenMultTerm, int blueMultTerm, int alphaMultTerm) {
         BufferedImage dst = new BufferedImage(src.getWidth(), src.getHeight(), src.getType());
-        int[] pixels = getRGB(src.getBufferedImage()).clone();
+        int[] pixels = copyRGB(src.getBufferedImage());
         for (int i = 0; i < pixels.length; i++) {
             int rgb = pixels[i];
             int a = (rgb >> 24) & 0xff;
@@ -53,6 +53,7 @@ import com.jpexs.decompiler.graph.model.TernarOpItem;
 import com.jpexs.decompiler.graph.model.TrueItem;
 import com.jpexs.decompiler.graph.model.UniversalLoopItem;
 import com.jpexs.decompiler.graph.model.WhileItem;
+import com.jpexs.helpers.CancellableWorker;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -405,12 +406,13 @@ public class Graph {
         return getCommonPart(localData, part.nextParts, loops);
     }
 
-    //TODO: Make this faster!
     public GraphPart getCommonPart(BaseLocalData localData, List<GraphPart> parts, List<Loop> loops) throws InterruptedException {
         if (parts.isEmpty()) {
             return null;
         }
 
+        GraphPartReachability reachability = new GraphPartReachability(localData, this, code, loops);
+
         List<GraphPart> loopContinues = new ArrayList<>();//getLoopsContinues(loops);
         for (Loop l : loops) {
             if (l.phase == 1) {
@@ -427,7 +429,7 @@ public class Graph {
                 if (q == p) {
                     continue;
                 }
-                if (!q.leadsTo(localData, this, code, p, loops)) {
+                if (!reachability.leadsTo(q, p)) {
                     common = false;
                     break;
                 }
@@ -443,6 +445,7 @@ public class Graph {
             r1.add(p);
             reachable.add(r1);
         }
+        Map<GraphPart, Integer> reachableCounts = getReachableCounts(reachable);
         Set<GraphPart> first = reachable.get(0);
         for (GraphPart p : first) {
             /*if (ignored.contains(p)) {
@@ -452,20 +455,32 @@ public class Graph {
             if (p == null) {
                 continue;
             }
-            boolean common = true;
-            for (Set<GraphPart> r : reachable) {
-                if (!r.contains(p)) {
-                    common = false;
-                    break;
-                }
-            }
-            if (common) {
+            Integer count = reachableCounts.get(p);
+            if (count != null && count == reachable.size()) {
                 return p;
             }
         }
         return null;
     }
 
+    /**
+     * Counts the sets containing the parts, so the parts common to the sets
+     * can be found without checking every set for every part.
+     *
+     * @param reachable Sets of the parts
+     * @return Number of the sets containing the part
+     */
+    private static Map<GraphPart, Integer> getReachableCounts(List<Set<GraphPart>> reachable) {
+        Map<GraphPart, Integer> counts = new HashMap<>();
+        for (Set<GraphPart> r : reachable) {
+            for (GraphPart p : r) {
+                counts.merge(p, 1, Integer::sum);
+            }
+        }
+
+        return counts;
+    }
+
     public GraphPart getMostCommonPart(BaseLocalData localData, List<GraphPart> parts, List<Loop> loops) throws InterruptedException {
         if (parts.isEmpty()) {
             return null;
@@ -482,6 +497,8 @@ public class Graph {
             }
         }
 
+        GraphPartReachability reachability = new GraphPartReachability(localData, this, code, loops);
+
         for (GraphPart p : parts) {
             if (loopContinues.contains(p)) {
                 break;
@@ -491,7 +508,7 @@ public class Graph {
                 if (q == p) {
                     continue;
                 }
-                if (!q.leadsTo(localData, this, code, p, loops)) {
+                if (!reachability.leadsTo(q, p)) {
                     common = false;
                     break;
                 }
@@ -507,7 +524,7 @@ public class Graph {
                 if (j == i) {
                     continue;
                 }
-                if (parts.get(i).leadsTo(localData, this, code, parts.get(j), loops)) {
+                if (reachability.leadsTo(parts.get(i), parts.get(j))) {
                     parts.remove(i);
                     i--;
                     continue loopi;
@@ -524,6 +541,7 @@ public class Graph {
             reachable.add(r2);
         }
         ///List<GraphPart> first = reachable.get(0);
+        Map<GraphPart, Integer> reachableCounts = getReachableCounts(reachable);
         int commonLevel;
         Map<GraphPart, Integer> levelMap = new HashMap<>();
         for (Set<GraphPart> first : reachable) {
@@ -538,15 +556,8 @@ public class Graph {
                 }
                 visited.add(p);
                 boolean common = true;
-                commonLevel = 1;
-                for (Set<GraphPart> r : reachable) {
-                    if (r == first) {
-                        continue;
-                    }
-                    if (r.contains(p)) {
-                        commonLevel++;
-                    }
-                }
+                // the part itself is in the first set
+                commonLevel = reachableCounts.get(p);
                 if (commonLevel <= maxclevel) {
                     continue;
                 }
@@ -770,7 +781,7 @@ public class Graph {
         //For detection based on debug line information
         boolean[] toDelete = new boolean[list.size()];
         for (int i = 0; i < list.size(); i++) {
-            if (Thread.currentThread().isInterrupted()) {
+            if (CancellableWorker.isInterrupted()) {
                 throw new InterruptedException();
             }
 
@@ -1147,6 +1158,9 @@ public class Graph {
     }
 
     private void markLevels(String path, BaseLocalData localData, GraphPart part, Set<GraphPart> allParts, List<Loop> loops, List<GraphPart> stopPart, int level, Set<GraphPart> visited, int recursionLevel) throws InterruptedException {
+        if (CancellableWorker.isInterrupted()) {
+            throw new InterruptedException();
+        }
         if (stopPart == null) {
             stopPart = new ArrayList<>();
         }
@@ -1316,6 +1330,9 @@ public class Graph {
     }
 
     private void getLoops(BaseLocalData localData, GraphPart part, List<Loop> loops, List<GraphPart> stopPart, boolean first, int level, List<GraphPart> visited) throws InterruptedException {
+        if (CancellableWorker.isInterrupted()) {
+            throw new InterruptedException();
+        }
 
         if (part == null) {
             return;
@@ -1457,6 +1474,7 @@ public class Graph {
         if (isLoop && currentLoop != null) {
             GraphPart found;
             Map<GraphPart, Integer> removed = new HashMap<>();
+            GraphPartReachability reachability = new GraphPartReachability(localData, this, code, loops);
             do {
                 found = null;
                 for (int i = 0; i < currentLoop.breakCandidates.size(); i++) {
@@ -1472,7 +1490,7 @@ public class Graph {
                         if (cand == cand2) {
                             continue;
                         }
-                        if (cand.leadsTo(localData, this, code, cand2, loops)) {
+                        if (reachability.leadsTo(cand, cand2)) {
                             int lev1 = Integer.MAX_VALUE;
                             int lev2 = Integer.MAX_VALUE;
                             for (int i = 0; i < currentLoop.breakCandidates.size(); i++) {
@@ -1592,7 +1610,7 @@ public class Graph {
     }
 
     protected List<GraphTargetItem> printGraph(Map<GraphPart, List<GraphTargetItem>> partCodes, Map<GraphPart, Integer> partCodePos, Set<GraphPart> visited, BaseLocalData localData, TranslateStack stack, Set<GraphPart> allParts, GraphPart parent, GraphPart part, List<GraphPart> stopPart, List<Loop> loops, List<GraphTargetItem> ret, int staticOperation, String path, int recursionLevel) throws InterruptedException {
-        if (Thread.currentThread().isInterrupted()) {
+        if (CancellableWorker.isInterrupted()) {
             throw new InterruptedException();
         }
         if (stopPart == null) {
@@ -2331,7 +2349,7 @@ public class Graph {
     }
 
     private GraphPart makeGraph(GraphPart parent, GraphPath path, GraphSource code, int startip, int lastIp, List<GraphPart> allBlocks, HashMap<Integer, List<Integer>> refs, boolean[] visited2) throws InterruptedException {
-        if (Thread.currentThread().isInterrupted()) {
+        if (CancellableWorker.isInterrupted()) {
             throw new InterruptedException();
         }
 
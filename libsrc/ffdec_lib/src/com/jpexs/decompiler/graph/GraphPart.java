@@ -16,6 +16,7 @@
 package com.jpexs.decompiler.graph;
 
 import com.jpexs.decompiler.flash.BaseLocalData;
+import com.jpexs.helpers.CancellableWorker;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -124,7 +125,7 @@ public class GraphPart implements Serializable {
     }
 
     private boolean leadsTo(BaseLocalData localData, Graph gr, GraphSource code, GraphPart part, HashSet<GraphPart> visited, List<Loop> loops) throws InterruptedException {
-        if (Thread.currentThread().isInterrupted()) {
+        if (CancellableWorker.isInterrupted()) {
             throw new InterruptedException();
         }
 
@@ -0,0 +1,140 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.graph;
+
+import com.jpexs.decompiler.flash.BaseLocalData;
+import com.jpexs.helpers.CancellableWorker;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers the GraphPart.leadsTo queries for one state of the loops. The parts
+ * reachable from a part are collected to a bit set on the first query, the
+ * other queries from the same part are answered without traversing the graph
+ * again.
+ *
+ * The answers are the same as the answers of GraphPart.leadsTo as long as the
+ * graph and the loops do not change, so the instance should be used only
+ * inside one computation, like finding the common part of branches.
+ *
+ * @author JPEXS
+ */
+public class GraphPartReachability {
+
+    private final BaseLocalData localData;
+
+    private final Graph graph;
+
+    private final GraphSource code;
+
+    private final List<Loop> loops;
+
+    /**
+     * Bit indices of the reachable parts, parts are compared by identity
+     */
+    private final Map<GraphPart, Integer> partIndices = new IdentityHashMap<>();
+
+    /**
+     * Bit indices of the visited parts, parts are compared by equals like in
+     * GraphPart.leadsTo
+     */
+    private final Map<GraphPart, Integer> visitIndices = new HashMap<>();
+
+    private final Map<GraphPart, BitSet> reachableParts = new IdentityHashMap<>();
+
+    public GraphPartReachability(BaseLocalData localData, Graph graph, GraphSource code, List<Loop> loops) {
+        this.localData = localData;
+        this.graph = graph;
+        this.code = code;
+        this.loops = loops;
+    }
+
+    /**
+     * Checks whether the part can be reached from the other part.
+     *
+     * @param from Start part
+     * @param to Target part
+     * @return True when the target part is reachable
+     * @throws InterruptedException
+     */
+    public boolean leadsTo(GraphPart from, GraphPart to) throws InterruptedException {
+        BitSet reachable = reachableParts.get(from);
+        if (reachable == null) {
+            reachable = new BitSet();
+            visit(from, new BitSet(), reachable);
+            reachableParts.put(from, reachable);
+        }
+
+        Integer index = partIndices.get(to);
+        return index != null && reachable.get(index);
+    }
+
+    private void visit(GraphPart part, BitSet visited, BitSet reachable) throws InterruptedException {
+        if (CancellableWorker.isInterrupted()) {
+            throw new InterruptedException();
+        }
+
+        GraphPart tpart = graph.checkPart(null, localData, part, null);
+        if (tpart == null) {
+            return;
+        }
+        if (tpart != part) {
+            visit(tpart, visited, reachable);
+            return;
+        }
+
+        for (Loop l : loops) {
+            if (l.phase == 1) {
+                if (l.loopContinue == part || l.loopPreContinue == part) {
+                    return;
+                }
+            }
+        }
+
+        int visitIndex = getIndex(visitIndices, part);
+        if (visited.get(visitIndex)) {
+            return;
+        }
+
+        visited.set(visitIndex);
+        if (part.end < code.size() && code.get(part.end).isBranch() && (code.get(part.end).ignoredLoops())) {
+            return;
+        }
+
+        for (GraphPart p : part.nextParts) {
+            reachable.set(getIndex(partIndices, p));
+            visit(p, visited, reachable);
+        }
+
+        for (GraphPart p : part.throwParts) {
+            reachable.set(getIndex(partIndices, p));
+            visit(p, visited, reachable);
+        }
+    }
+
+    private static int getIndex(Map<GraphPart, Integer> indices, GraphPart part) {
+        Integer index = indices.get(part);
+        if (index == null) {
+            index = indices.size();
+            indices.put(part, index);
+        }
+
+        return index;
+    }
+}
@@ -16,8 +16,14 @@
 package com.jpexs.helpers;
 
 import com.jpexs.decompiler.flash.SWFInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /**
+ * Range of a byte array or of a read only buffer (memory mapped SWF data)
  *
  * @author JPEXS
  */
@@ -27,18 +33,37 @@ public class ByteArrayRange {
 
     private final byte[] array;
 
+    private final ByteBuffer buffer;
+
     private final int pos;
 
     private final int length;
 
     public ByteArrayRange(byte[] array) {
         this.array = array;
+        this.buffer = null;
         this.pos = 0;
         this.length = array.length;
     }
 
     public ByteArrayRange(byte[] array, int pos, int length) {
         this.array = array;
+        this.buffer = null;
+        this.pos = pos;
+        this.length = length;
+    }
+
+    /**
+     * Creates a range of a buffer. The buffer is accessed only by absolute
+     * indices, so it can be shared by more ranges and threads.
+     *
+     * @param buffer Buffer
+     * @param pos Position in the buffer
+     * @param length Length
+     */
+    public ByteArrayRange(ByteBuffer buffer, int pos, int length) {
+        this.array = null;
+        this.buffer = buffer;
         this.pos = pos;
         this.length = length;
     }
@@ -49,14 +74,43 @@ public class ByteArrayRange {
             array[i] = (byte) Integer.parseInt(hexString.substring(i * 2, i * 2 + 2), 16);
         }
         this.array = array;
+        this.buffer = null;
         this.pos = 0;
         this.length = array.length;
     }
 
+    /**
+     * Checks whether the range is backed by an array
+     *
+     * @return False when the range is backed by a buffer
+     */
+    public boolean hasArray() {
+        return array != null;
+    }
+
+    /**
+     * Gets the backing array. Check hasArray first, ranges of a memory mapped
+     * SWF have no array.
+     *
+     * @return Array
+     */
     public byte[] getArray() {
+        if (array == null) {
+            throw new UnsupportedOperationException("The range is backed by a buffer");
+        }
+
         return array;
     }
 
+    /**
+     * Gets the backing buffer
+     *
+     * @return Buffer or null when the range is backed by an array
+     */
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
     public int getPos() {
         return pos;
     }
@@ -65,23 +119,97 @@ public class ByteArrayRange {
         return length;
     }
 
+    /**
+     * Gets the range of the whole backing array or buffer, positions in it are
+     * the same as the positions of this range.
+     *
+     * @return Range starting at 0
+     */
+    public ByteArrayRange getBacking() {
+        if (array != null) {
+            return new ByteArrayRange(array);
+        }
+
+        return new ByteArrayRange(buffer, 0, buffer.limit());
+    }
+
+    /**
+     * Checks whether the ranges share the same array or buffer
+     *
+     * @param range Other range
+     * @return True when the positions of the ranges are comparable
+     */
+    public boolean hasSameBacking(ByteArrayRange range) {
+        return array == range.array && buffer == range.buffer;
+    }
+
     public byte get(int index) {
-        return array[pos + index];
+        if (array != null) {
+            return array[pos + index];
+        }
+
+        return buffer.get(pos + index);
     }
 
     public byte[] getRangeData() {
-        byte[] data = new byte[length];
-        System.arraycopy(array, pos, data, 0, length);
-        return data;
+        return getRangeData(0, length);
     }
 
     public byte[] getRangeData(int pos, int length) {
         byte[] data = new byte[length];
-        System.arraycopy(array, this.pos + pos, data, 0, length);
+        if (array != null) {
+            System.arraycopy(array, this.pos + pos, data, 0, length);
+        } else {
+            ByteBuffer b = buffer.duplicate();
+            b.position(this.pos + pos);
+            b.get(data);
+        }
+
         return data;
     }
 
     public ByteArrayRange getSubRange(int pos, int length) {
-        return new ByteArrayRange(array, this.pos + pos, length);
+        if (array != null) {
+            return new ByteArrayRange(array, this.pos + pos, length);
+        }
+
+        return new ByteArrayRange(buffer, this.pos + pos, length);
+    }
+
+    /**
+     * Gets a stream reading the bytes of the range
+     *
+     * @return Input stream
+     */
+    public InputStream getInputStream() {
+        if (array != null) {
+            return new ByteArrayInputStream(array, pos, length);
+        }
+
+        return new MemoryInputStream(buffer, pos, length);
+    }
+
+    /**
+     * Writes the bytes of the range to the stream
+     *
+     * @param os Output stream
+     * @throws IOException
+     */
+    public void writeTo(OutputStream os) throws IOException {
+        if (array != null) {
+            os.write(array, pos, length);
+            return;
+        }
+
+        ByteBuffer b = buffer.duplicate();
+        b.position(pos);
+        byte[] buf = new byte[Math.min(length, 64 * 1024)];
+        int remaining = length;
+        while (remaining > 0) {
+            int count = Math.min(remaining, buf.length);
+            b.get(buf, 0, count);
+            os.write(buf, 0, count);
+            remaining -= count;
+        }
     }
 }
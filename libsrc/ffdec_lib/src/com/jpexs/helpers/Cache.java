@@ -20,12 +20,34 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
+ * Cache of values stored in memory or in a temporary file.
+ *
+ * Unbounded memory caches are backed by a concurrent map (lock-free reads),
+ * weak caches are split to lock striped segments. File caches and bounded
+ * caches use one lock.
+ *
+ * Caches created with a weigher can be bounded by the total weight of their
+ * entries. Bounded caches use segmented LRU eviction: new entries are placed
+ * to the probation segment and moved to the protected segment on the next
+ * hit. Entries are evicted from the probation segment first, so one pass over
+ * many new entries (for example export of all frames) does not evict the
+ * frequently used ones.
  *
  * @author JPEXS
  * @param <K>
@@ -33,9 +55,31 @@ import java.util.WeakHashMap;
  */
 public class Cache<K, V> implements Freed {
 
-    private Map<K, V> cache;
+    /**
+     * Part of the maximum weight reserved for the protected segment
+     */
+    private static final double PROTECTED_RATIO = 0.8;
+
+    /**
+     * Number of lock stripes of the weak caches, must be a power of 2
+     */
+    private static final int STRIPE_COUNT = 16;
+
+    private volatile List<Stripe> stripes;
+
+    private final CacheWeigher<? super K, ? super V> weigher;
+
+    private volatile long maxWeight;
+
+    private final ConcurrentHashMap<K, LoadingTask> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
 
-    private static final List<WeakReference<Cache>> instances = new ArrayList<>();
+    private static final List<WeakReference<Cache<?, ?>>> instances = new ArrayList<>();
 
     public static final int STORAGE_FILES = 1;
 
@@ -52,12 +96,9 @@ public class Cache<K, V> implements Freed {
 
             @Override
             public void run() {
-                for (WeakReference<Cache> cw : instances) {
-                    Cache c = cw.get();
-                    if (c != null) {
-                        c.clear();
-                        c.free();
-                    }
+                for (Cache<?, ?> c : getInstances()) {
+                    c.clear();
+                    c.free();
                 }
             }
 
@@ -65,20 +106,57 @@ public class Cache<K, V> implements Freed {
     }
 
     public static <K, V> Cache<K, V> getInstance(boolean weak, boolean memoryOnly, String name) {
-        Cache<K, V> instance = new Cache<>(weak, memoryOnly, name);
-        instances.add(new WeakReference<>(instance));
+        return getInstance(weak, memoryOnly, name, null);
+    }
+
+    /**
+     * Creates a cache which can be bounded by the total weight of the
+     * entries, see setMaxWeight. Weak caches cannot be bounded.
+     *
+     * @param <K> Key type
+     * @param <V> Value type
+     * @param weak Use weak keys
+     * @param memoryOnly Do not store the values to file
+     * @param name Name of the cache
+     * @param weigher Weigher or null for unbounded cache
+     * @return Cache
+     */
+    public static <K, V> Cache<K, V> getInstance(boolean weak, boolean memoryOnly, String name, CacheWeigher<? super K, ? super V> weigher) {
+        if (weak && weigher != null) {
+            throw new IllegalArgumentException("Weak cache cannot be bounded");
+        }
+
+        Cache<K, V> instance = new Cache<>(weak, memoryOnly, name, weigher);
+        synchronized (instances) {
+            instances.add(new WeakReference<>(instance));
+        }
+
         return instance;
     }
 
+    private static List<Cache<?, ?>> getInstances() {
+        List<Cache<?, ?>> result = new ArrayList<>();
+        synchronized (instances) {
+            Iterator<WeakReference<Cache<?, ?>>> it = instances.iterator();
+            while (it.hasNext()) {
+                Cache<?, ?> c = it.next().get();
+                if (c == null) {
+                    it.remove();
+                } else {
+                    result.add(c);
+                }
+            }
+        }
+
+        return result;
+    }
+
     private static int storageType = STORAGE_FILES;
 
     public static void clearAll() {
-        for (WeakReference<Cache> cw : instances) {
-            Cache c = cw.get();
-            if (c != null) {
-                c.clear();
-                c.initCache();
-            }
+        for (Cache<?, ?> c : getInstances()) {
+            c.clear();
+            c.initCache();
         }
     }
 
@@ -108,54 +186,222 @@ public class Cache<K, V> implements Freed {
         if (memoryOnly) {
             thisStorageType = STORAGE_MEMORY;
         }
-        Map<K, V> newCache = null;
+        List<Stripe> newStripes = null;
         if (thisStorageType == STORAGE_FILES) {
             try {
-                newCache = new FileHashMap<>(File.createTempFile("ffdec_cache_" + name + "_", ".tmp"));
+                newStripes = Collections.singletonList(new Stripe(new FileHashMap<>(File.createTempFile("ffdec_cache_" + name + "_", ".tmp"))));
             } catch (IOException ex) {
                 thisStorageType = STORAGE_MEMORY;
             }
         }
         if (thisStorageType == STORAGE_MEMORY) {
             if (weak) {
-                newCache = new WeakHashMap<>();
+                newStripes = new ArrayList<>(STRIPE_COUNT);
+                for (int i = 0; i < STRIPE_COUNT; i++) {
+                    newStripes.add(new Stripe(new WeakHashMap<>()));
+                }
+            } else if (weigher != null) {
+                newStripes = Collections.singletonList(new Stripe(new HashMap<>()));
             } else {
-                newCache = new HashMap<>();
+                newStripes = Collections.singletonList(new Stripe(new ConcurrentHashMap<>()));
             }
         }
-        if (this.cache instanceof Freed) {
-            ((Freed) this.cache).free();
+        List<Stripe> oldStripes = this.stripes;
+        this.stripes = newStripes;
+        if (oldStripes != null) {
+            for (Stripe stripe : oldStripes) {
+                stripe.free();
+            }
         }
-        this.cache = newCache;
     }
 
-    private Cache(boolean weak, boolean memoryOnly, String name) {
+    private Cache(boolean weak, boolean memoryOnly, String name, CacheWeigher<? super K, ? super V> weigher) {
         this.weak = weak;
         this.name = name;
         this.memoryOnly = memoryOnly;
+        this.weigher = weigher;
         initCache();
     }
 
-    public synchronized boolean contains(K key) {
-        return cache.containsKey(key);
+    private Stripe getStripe(K key) {
+        List<Stripe> s = stripes;
+        if (s.size() == 1) {
+            return s.get(0);
+        }
+
+        int h = key == null ? 0 : key.hashCode();
+        h ^= h >>> 16;
+        return s.get(h & (s.size() - 1));
+    }
+
+    /**
+     * Sets the maximum total weight of the entries. Evicts the entries over
+     * the new limit. Has effect only for caches created with a weigher.
+     *
+     * @param maxWeight Maximum weight, 0 = unlimited
+     */
+    public void setMaxWeight(long maxWeight) {
+        if (this.maxWeight == maxWeight) {
+            return;
+        }
+
+        this.maxWeight = maxWeight;
+        if (weigher != null) {
+            Stripe stripe = stripes.get(0);
+            synchronized (stripe) {
+                stripe.evict(null);
+            }
+        }
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public long getWeight() {
+        long result = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                result += stripe.weight;
+            }
+        }
+
+        return result;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
     }
 
-    public synchronized void clear() {
-        cache.clear();
+    public long getMissCount() {
+        return missCount.sum();
     }
 
-    public synchronized void remove(K key) {
-        if (cache.containsKey(key)) {
-            cache.remove(key);
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public boolean contains(K key) {
+        return getStripe(key).containsKey(key);
+    }
+
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
         }
     }
 
-    public synchronized V get(K key) {
-        return cache.get(key);
+    public void remove(K key) {
+        getStripe(key).remove(key);
+    }
+
+    public V get(K key) {
+        V value = getStripe(key).get(key);
+        if (value == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+
+        return value;
     }
 
-    public synchronized void put(K key, V value) {
-        cache.put(key, value);
+    public void put(K key, V value) {
+        getStripe(key).put(key, value);
+    }
+
+    /**
+     * Gets the cached value or loads and stores it when it is not cached. When
+     * more threads ask for the same missing key at once, only one of them
+     * loads the value and the others wait for the result. The waiting worker
+     * threads of a fork join pool are compensated by the pool. When the
+     * loading thread asks for the same key again, for example from a task it
+     * executes while waiting for its subtasks, the value is loaded once more
+     * instead of waiting for itself.
+     *
+     * @param key Key
+     * @param loader Loader of the value. Null result is returned but not
+     * stored.
+     * @return Value
+     * @throws InterruptedException
+     */
+    public V computeIfAbsent(K key, CacheLoader<? super K, ? extends V> loader) throws InterruptedException {
+        while (true) {
+            V value = get(key);
+            if (value != null) {
+                return value;
+            }
+
+            LoadingTask task = new LoadingTask(() -> {
+                // other thread could store the value before this task was registered
+                V result = getStripe(key).get(key);
+                if (result == null) {
+                    result = loader.load(key);
+                    if (result != null) {
+                        put(key, result);
+                    }
+                }
+
+                return result;
+            });
+
+            LoadingTask existing = loading.putIfAbsent(key, task);
+            boolean owner = existing == null;
+            if (owner) {
+                existing = task;
+                try {
+                    task.run();
+                } finally {
+                    loading.remove(key, task);
+                }
+            } else if (existing.thread == Thread.currentThread()) {
+                // the loading of this key is already in progress on the current thread
+                return loader.load(key);
+            }
+
+            try {
+                final LoadingTask waitFor = existing;
+                ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                    @Override
+                    public boolean block() throws InterruptedException {
+                        try {
+                            waitFor.get();
+                        } catch (ExecutionException | CancellationException ex) {
+                            // thrown by the get call below
+                        }
+                        return true;
+                    }
+
+                    @Override
+                    public boolean isReleasable() {
+                        return waitFor.isDone();
+                    }
+                });
+                return existing.get();
+            } catch (CancellationException ex) {
+                // loading thread was cancelled, try again
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof InterruptedException) {
+                    if (owner) {
+                        throw (InterruptedException) cause;
+                    }
+
+                    // loading thread was interrupted, try again
+                    continue;
+                }
+
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+
+                throw new RuntimeException(cause);
+            }
+        }
     }
 
     @Override
@@ -165,8 +411,229 @@ public class Cache<K, V> implements Freed {
 
     @Override
     public void free() {
-        if (cache instanceof Freed) {
-            ((Freed) cache).free();
+        for (Stripe stripe : stripes) {
+            stripe.free();
+        }
+    }
+
+    /**
+     * Loading of one key, remembers the loading thread
+     */
+    private class LoadingTask extends FutureTask<V> {
+
+        private final Thread thread = Thread.currentThread();
+
+        public LoadingTask(Callable<V> callable) {
+            super(callable);
+        }
+    }
+
+    /**
+     * Part of the cache guarded by its own monitor. Stripes backed by a
+     * concurrent map are accessed without locking.
+     */
+    private class Stripe {
+
+        private final Map<K, V> map;
+
+        private final boolean concurrent;
+
+        /**
+         * Weights of the probation entries, in LRU order
+         */
+        private final LinkedHashMap<K, Long> probationEntries = new LinkedHashMap<>(16, 0.75f, true);
+
+        /**
+         * Weights of the protected entries, in LRU order
+         */
+        private final LinkedHashMap<K, Long> protectedEntries = new LinkedHashMap<>(16, 0.75f, true);
+
+        private long weight;
+
+        private long protectedWeight;
+
+        public Stripe(Map<K, V> map) {
+            this.map = map;
+            this.concurrent = map instanceof ConcurrentHashMap;
+        }
+
+        public boolean containsKey(K key) {
+            if (concurrent) {
+                return key != null && map.containsKey(key);
+            }
+
+            synchronized (this) {
+                return map.containsKey(key);
+            }
+        }
+
+        public V get(K key) {
+            if (concurrent) {
+                return key == null ? null : map.get(key);
+            }
+
+            synchronized (this) {
+                V value = map.get(key);
+                if (value != null && weigher != null) {
+                    touch(key);
+                }
+
+                return value;
+            }
+        }
+
+        public void put(K key, V value) {
+            if (concurrent) {
+                if (key == null) {
+                    return;
+                }
+
+                if (value == null) {
+                    map.remove(key);
+                } else {
+                    map.put(key, value);
+                }
+
+                return;
+            }
+
+            synchronized (this) {
+                if (weigher == null) {
+                    map.put(key, value);
+                    return;
+                }
+
+                removeWeight(key);
+                long w = weigher.weigh(key, value);
+                long max = maxWeight;
+                if (max > 0 && w > max) {
+                    map.remove(key);
+                    evictionCount.increment();
+                    return;
+                }
+
+                map.put(key, value);
+                probationEntries.put(key, w);
+                weight += w;
+                evict(key);
+            }
+        }
+
+        public void remove(K key) {
+            if (concurrent) {
+                if (key != null) {
+                    map.remove(key);
+                }
+
+                return;
+            }
+
+            synchronized (this) {
+                map.remove(key);
+                removeWeight(key);
+            }
+        }
+
+        public void clear() {
+            if (concurrent) {
+                map.clear();
+                return;
+            }
+
+            synchronized (this) {
+                map.clear();
+                probationEntries.clear();
+                protectedEntries.clear();
+                weight = 0;
+                protectedWeight = 0;
+            }
+        }
+
+        public void free() {
+            if (map instanceof Freed) {
+                synchronized (this) {
+                    ((Freed) map).free();
+                }
+            }
+        }
+
+        /**
+         * Moves the entry to the end of the LRU order, probation entries are
+         * moved to the protected segment.
+         *
+         * @param key Key
+         */
+        private void touch(K key) {
+            Long w = probationEntries.remove(key);
+            if (w == null) {
+                protectedEntries.get(key);
+                return;
+            }
+
+            protectedEntries.put(key, w);
+            protectedWeight += w;
+            long max = maxWeight;
+            long maxProtectedWeight = (long) (max * PROTECTED_RATIO);
+            while (max > 0 && protectedWeight > maxProtectedWeight && protectedEntries.size() > 1) {
+                Iterator<Map.Entry<K, Long>> it = protectedEntries.entrySet().iterator();
+                Map.Entry<K, Long> eldest = it.next();
+                it.remove();
+                protectedWeight -= eldest.getValue();
+                probationEntries.put(eldest.getKey(), eldest.getValue());
+            }
+        }
+
+        private void removeWeight(K key) {
+            if (weigher == null) {
+                return;
+            }
+
+            Long w = probationEntries.remove(key);
+            if (w == null) {
+                w = protectedEntries.remove(key);
+                if (w != null) {
+                    protectedWeight -= w;
+                }
+            }
+
+            if (w != null) {
+                weight -= w;
+            }
+        }
+
+        /**
+         * Evicts the entries until the total weight is under the limit.
+         *
+         * @param newKey Key of the just added entry which should be evicted
+         * last
+         */
+        private void evict(K newKey) {
+            long max = maxWeight;
+            if (weigher == null || max <= 0) {
+                return;
+            }
+
+            while (weight > max) {
+                Map.Entry<K, Long> victim = null;
+                Iterator<Map.Entry<K, Long>> it = probationEntries.entrySet().iterator();
+                if (it.hasNext()) {
+                    victim = it.next();
+                    if (victim.getKey() == newKey && !protectedEntries.isEmpty()) {
+                        victim = null;
+                    }
+                }
+
+                if (victim == null) {
+                    it = protectedEntries.entrySet().iterator();
+                    victim = it.next();
+                    protectedWeight -= victim.getValue();
+                }
+
+                it.remove();
+                weight -= victim.getValue();
+                map.remove(victim.getKey());
+                evictionCount.increment();
+            }
         }
     }
 }
@@ -22,8 +22,13 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
@@ -40,6 +45,38 @@ public abstract class CancellableWorker<T> implements RunnableFuture<T> {
 
     private static List<CancellableWorker> workers = Collections.synchronizedList(new ArrayList<CancellableWorker>());
 
+    private static final ThreadLocal<DeadlineState> DEADLINE = new ThreadLocal<DeadlineState>() {
+        @Override
+        protected DeadlineState initialValue() {
+            return new DeadlineState();
+        }
+    };
+
+    /**
+     * The clock is read only on every 32nd deadline check
+     */
+    private static final int DEADLINE_CHECK_MASK = 0x1F;
+
+    /**
+     * Time after the deadline when the thread is interrupted, if it did not
+     * stop at a deadline check until then
+     */
+    private static final long HARD_DEADLINE_GRACE_MILLIS = 1000;
+
+    private static final ScheduledThreadPoolExecutor WATCHDOG = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "ffdec-deadline-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    static {
+        // most of the deadlines are cancelled long before they elapse
+        WATCHDOG.setRemoveOnCancelPolicy(true);
+    }
+
     private final FutureTask<T> future;
 
     public CancellableWorker() {
@@ -127,12 +164,149 @@ public abstract class CancellableWorker<T> implements RunnableFuture<T> {
         };
         try {
             worker.execute();
+            if (Thread.currentThread() instanceof ForkJoinWorkerThread) {
+                // let the fork join pool compensate the blocked worker thread
+                final long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+                ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                    @Override
+                    public boolean block() throws InterruptedException {
+                        try {
+                            worker.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        } catch (ExecutionException | TimeoutException ex) {
+                            // thrown by the get call below
+                        }
+                        return true;
+                    }
+
+                    @Override
+                    public boolean isReleasable() {
+                        return worker.isDone();
+                    }
+                });
+                return worker.get(0, TimeUnit.NANOSECONDS);
+            }
+
             return worker.get(timeout, timeUnit);
         } finally {
             worker.cancel(true);
         }
     }
 
+    /**
+     * Calls the callable on the current thread with a cooperative deadline.
+     * The callable is stopped at the next isInterrupted check after the
+     * deadline elapses. Nested deadlines never extend the outer one.
+     *
+     * Code which does not check isInterrupted is stopped by interrupting the
+     * current thread when the deadline elapsed more than a second ago, the same
+     * way as a cancelled worker. The tasks forked by the callable are not
+     * interrupted, they only stop at their own checks.
+     *
+     * @param <T> Result type
+     * @param c Callable
+     * @param timeout Timeout
+     * @param timeUnit Time unit
+     * @return Result of the callable
+     * @throws InterruptedException
+     * @throws ExecutionException
+     * @throws TimeoutException
+     */
+    public static <T> T callWithDeadline(Callable<T> c, long timeout, TimeUnit timeUnit) throws InterruptedException, ExecutionException, TimeoutException {
+        DeadlineState state = DEADLINE.get();
+        Deadline outer = state.deadline;
+        long now = System.nanoTime();
+        long end = now + timeUnit.toNanos(timeout);
+        Deadline deadline = new Deadline(outer != null && outer.end - end < 0 ? outer.end : end);
+        state.deadline = deadline;
+        Watchdog watchdog = new Watchdog(Thread.currentThread(), deadline);
+        ScheduledFuture<?> hardDeadline = WATCHDOG.schedule(watchdog, deadline.end - now + TimeUnit.MILLISECONDS.toNanos(HARD_DEADLINE_GRACE_MILLIS), TimeUnit.NANOSECONDS);
+        try {
+            return c.call();
+        } catch (InterruptedException ex) {
+            if (watchdog.finish()) {
+                // interrupted by the watchdog, not by the caller
+                Thread.interrupted();
+            } else if (!deadline.expired || Thread.currentThread().isInterrupted()) {
+                throw ex;
+            }
+
+            if (deadline.end != end) {
+                // the outer deadline elapsed first
+                outer.expired = true;
+                throw ex;
+            }
+
+            throw new TimeoutException();
+        } catch (Exception ex) {
+            if (watchdog.finish()) {
+                Thread.interrupted();
+                throw new TimeoutException();
+            }
+
+            throw new ExecutionException(ex);
+        } finally {
+            hardDeadline.cancel(false);
+            if (watchdog.finish()) {
+                // do not leak the interrupt of the watchdog to the caller
+                Thread.interrupted();
+            }
+
+            state.deadline = outer;
+        }
+    }
+
+    /**
+     * Checks whether the current thread is interrupted or its cooperative
+     * deadline elapsed.
+     *
+     * @return True when the current work should stop
+     */
+    public static boolean isInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+
+        DeadlineState state = DEADLINE.get();
+        Deadline deadline = state.deadline;
+        if (deadline == null) {
+            return false;
+        }
+
+        if (deadline.expired) {
+            return true;
+        }
+
+        if ((++state.checks & DEADLINE_CHECK_MASK) != 0) {
+            return false;
+        }
+
+        if (System.nanoTime() - deadline.end >= 0) {
+            deadline.expired = true;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets the cooperative deadline of the current thread.
+     *
+     * @return Deadline or null
+     */
+    public static Deadline getDeadline() {
+        return DEADLINE.get().deadline;
+    }
+
+    /**
+     * Sets the cooperative deadline of the current thread. Used to pass the
+     * deadline to the tasks forked by the current work.
+     *
+     * @param deadline Deadline or null
+     */
+    public static void setDeadline(Deadline deadline) {
+        DEADLINE.get().deadline = deadline;
+    }
+
     public static void cancelBackgroundThreads() {
         List<CancellableWorker> oldWorkers = workers;
         workers = Collections.synchronizedList(new ArrayList<CancellableWorker>());
@@ -144,4 +318,69 @@ public abstract class CancellableWorker<T> implements RunnableFuture<T> {
             }
         }
     }
+
+    /**
+     * Cooperative deadline shared by the current work and its forked tasks
+     */
+    public static final class Deadline {
+
+        private final long end;
+
+        private volatile boolean expired;
+
+        private Deadline(long end) {
+            this.end = end;
+        }
+    }
+
+    /**
+     * Deadline of a thread. The check counter is confined to the thread, the
+     * deadline itself can be shared with the tasks running on other threads.
+     */
+    private static final class DeadlineState {
+
+        private Deadline deadline;
+
+        private int checks;
+    }
+
+    /**
+     * Interrupts the thread which did not stop at the deadline
+     */
+    private static final class Watchdog implements Runnable {
+
+        private final Thread thread;
+
+        private final Deadline deadline;
+
+        private boolean fired;
+
+        private boolean finished;
+
+        private Watchdog(Thread thread, Deadline deadline) {
+            this.thread = thread;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public synchronized void run() {
+            if (!finished) {
+                deadline.expired = true;
+                fired = true;
+                thread.interrupt();
+            }
+        }
+
+        /**
+         * Stops the watchdog.
+         *
+         * @return True when the watchdog interrupted the thread and this is the
+         * first call
+         */
+        private synchronized boolean finish() {
+            boolean result = fired && !finished;
+            finished = true;
+            return result;
+        }
+    }
 }
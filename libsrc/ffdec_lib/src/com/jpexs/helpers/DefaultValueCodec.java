@@ -0,0 +1,130 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.helpers;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Value codec with fast paths for byte arrays, strings and 32 bit images.
+ * Other values are stored using Java serialization.
+ *
+ * Images are stored as raw pixels, which is much faster than the PNG
+ * compression used by the serialization of SerializableImage.
+ *
+ * @author JPEXS
+ * @param <V> Value type
+ */
+public class DefaultValueCodec<V> implements ValueCodec<V> {
+
+    private static final byte TYPE_SERIALIZED = 0;
+
+    private static final byte TYPE_BYTES = 1;
+
+    private static final byte TYPE_STRING = 2;
+
+    private static final byte TYPE_INT_IMAGE = 3;
+
+    @Override
+    public byte[] encode(V value) throws IOException {
+        if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            byte[] result = new byte[bytes.length + 1];
+            result[0] = TYPE_BYTES;
+            System.arraycopy(bytes, 0, result, 1, bytes.length);
+            return result;
+        }
+
+        if (value instanceof String) {
+            byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+            byte[] result = new byte[bytes.length + 1];
+            result[0] = TYPE_STRING;
+            System.arraycopy(bytes, 0, result, 1, bytes.length);
+            return result;
+        }
+
+        if (value instanceof SerializableImage && isIntImage(((SerializableImage) value).getBufferedImage())) {
+            BufferedImage image = ((SerializableImage) value).getBufferedImage();
+            int width = image.getWidth();
+            int height = image.getHeight();
+            int[] pixels = (int[]) image.getRaster().getDataElements(0, 0, width, height, null);
+            ByteBuffer bb = ByteBuffer.allocate(13 + pixels.length * 4);
+            bb.put(TYPE_INT_IMAGE);
+            bb.putInt(width);
+            bb.putInt(height);
+            bb.putInt(image.getType());
+            bb.asIntBuffer().put(pixels);
+            return bb.array();
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(TYPE_SERIALIZED);
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(value);
+        }
+
+        return baos.toByteArray();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V decode(byte[] data) throws IOException {
+        switch (data[0]) {
+            case TYPE_BYTES:
+                return (V) Arrays.copyOfRange(data, 1, data.length);
+            case TYPE_STRING:
+                return (V) new String(data, 1, data.length - 1, StandardCharsets.UTF_8);
+            case TYPE_INT_IMAGE:
+                ByteBuffer bb = ByteBuffer.wrap(data);
+                bb.get();
+                int width = bb.getInt();
+                int height = bb.getInt();
+                int type = bb.getInt();
+                int[] pixels = new int[width * height];
+                bb.asIntBuffer().get(pixels);
+                SerializableImage image = new SerializableImage(width, height, type);
+                image.getRaster().setDataElements(0, 0, width, height, pixels);
+                return (V) image;
+            case TYPE_SERIALIZED:
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(data, 1, data.length - 1))) {
+                    return (V) ois.readObject();
+                } catch (ClassNotFoundException ex) {
+                    throw new IOException(ex);
+                }
+            default:
+                throw new IOException("Unknown value type: " + data[0]);
+        }
+    }
+
+    private static boolean isIntImage(BufferedImage image) {
+        int type = image.getType();
+        if (type != BufferedImage.TYPE_INT_ARGB && type != BufferedImage.TYPE_INT_ARGB_PRE && type != BufferedImage.TYPE_INT_RGB) {
+            return false;
+        }
+
+        WritableRaster raster = image.getRaster();
+        return raster.getDataBuffer() instanceof DataBufferInt;
+    }
+}
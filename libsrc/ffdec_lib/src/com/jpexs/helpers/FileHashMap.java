@@ -16,24 +16,29 @@
 package com.jpexs.helpers;
 
 import com.jpexs.decompiler.flash.helpers.Freed;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.AbstractMap;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
+ * Map storing the values in a file.
+ *
+ * Values are appended to the end of the file. The index maps the keys to
+ * slots, offsets and lengths of the slots are stored in primitive arrays.
+ * When the removed and overwritten values take more than half of the file,
+ * the live values are moved to the beginning of the file in small steps
+ * during the following writes, so the file does not grow without bound and
+ * no single write is blocked by the whole compaction.
  *
  * @author JPEXS
  * @param <K>
@@ -43,60 +48,78 @@ public class FileHashMap<K, V> extends AbstractMap<K, V> implements Freed {
 
     private static final Logger logger = Logger.getLogger(FileHashMap.class.getName());
 
-    private final Map<K, Integer> lengths = new HashMap<>();
+    /**
+     * Compaction starts when the unused bytes take more than this part of the
+     * file
+     */
+    private static final double COMPACTION_THRESHOLD = 0.5;
+
+    /**
+     * Compaction does not start for smaller files
+     */
+    private static final long COMPACTION_MIN_FILE_SIZE = 1024 * 1024;
+
+    /**
+     * Maximum number of bytes moved in one compaction step
+     */
+    private static final int COMPACTION_STEP_SIZE = 4 * 1024 * 1024;
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAX_SLOT_INDEX = 0xffffff;
+
+    private static final long MAX_COMPACTION_FILE_SIZE = 1L << 40;
+
+    private final Map<K, Integer> slots = new HashMap<>();
 
-    private final Map<K, Long> offsets = new HashMap<>();
+    private long[] offsets = new long[16];
+
+    /**
+     * Lengths of the values, -1 for free slots
+     */
+    private int[] lengths = new int[16];
+
+    private int[] freeSlots = new int[16];
+
+    private int freeSlotCount = 0;
+
+    private int slotCount = 0;
 
     private long fileLen = 0;
 
-    private final RandomAccessFile file;
+    private long liveBytes = 0;
 
-    private final File fileName;
+    private boolean compacting = false;
 
-    private final Set<Gap> gaps = new TreeSet<>();
+    /**
+     * Everything before this offset is already compacted
+     */
+    private long compactedEnd;
 
-    private int maxGapLen = 0;
+    /**
+     * Entries appended before this offset are already in the compaction queue
+     */
+    private long compactionScanEnd;
 
-    private boolean deleted = false;
+    private int[] compactionQueueSlots;
 
-    private static class Gap implements Comparable<Gap> {
+    private long[] compactionQueueOffsets;
 
-        public long offset;
+    private int compactionQueuePos;
 
-        public int length;
+    private int compactionQueueSize;
 
-        public Gap(long offset, int length) {
-            this.offset = offset;
-            this.length = length;
-        }
+    private ByteBuffer copyBuffer;
 
-        @Override
-        public int compareTo(Gap o) {
-            return o.length - length;
-        }
+    private final RandomAccessFile file;
 
-        @Override
-        public int hashCode() {
-            int hash = 7;
-            hash = 97 * hash + (int) (this.offset ^ (this.offset >>> 32));
-            return hash;
-        }
+    private final FileChannel channel;
 
-        @Override
-        public boolean equals(Object obj) {
-            if (obj == null) {
-                return false;
-            }
-            if (getClass() != obj.getClass()) {
-                return false;
-            }
-            final Gap other = (Gap) obj;
-            if (this.offset != other.offset) {
-                return false;
-            }
-            return true;
-        }
-    }
+    private final File fileName;
+
+    private final ValueCodec<V> codec;
+
+    private boolean deleted = false;
 
     public static class FileEntry<K, V> implements Map.Entry<K, V> {
 
@@ -126,51 +149,48 @@ public class FileHashMap<K, V> extends AbstractMap<K, V> implements Freed {
     }
 
     public FileHashMap(File file) throws IOException {
+        this(file, new DefaultValueCodec<>());
+    }
+
+    public FileHashMap(File file, ValueCodec<V> codec) throws IOException {
         this.file = new RandomAccessFile(file, "rw");
         this.file.setLength(0);
+        this.channel = this.file.getChannel();
         this.fileName = file;
+        this.codec = codec;
         file.deleteOnExit();
     }
 
     @Override
-    public boolean containsKey(Object key) {
+    public synchronized boolean containsKey(Object key) {
         if (deleted) {
             throw new NullPointerException();
         }
-        return offsets.containsKey(key);
+        return slots.containsKey(key);
     }
 
     @Override
-    public Set<K> keySet() {
+    public synchronized Set<K> keySet() {
         if (deleted) {
             throw new NullPointerException();
         }
-        return offsets.keySet();
+        return new HashSet<>(slots.keySet());
     }
 
     @Override
-    public V get(Object key) {
+    public synchronized V get(Object key) {
         if (deleted) {
             throw new NullPointerException();
         }
+        Integer slot = slots.get(key);
+        if (slot == null) {
+            return null;
+        }
+
         try {
-            if (!offsets.containsKey(key)) {
-                return null;
-            }
-            long ofs = offsets.get(key);
-            int len = lengths.get(key);
-            file.seek(ofs);
-            byte[] data = new byte[len];
-            file.readFully(data);
-            ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(data));
-            try {
-                @SuppressWarnings("unchecked")
-                V ret = (V) ois.readObject();
-                return ret;
-            } catch (ClassNotFoundException ex) {
-                logger.log(Level.SEVERE, null, ex);
-                return null;
-            }
+            byte[] data = new byte[lengths[slot]];
+            read(offsets[slot], ByteBuffer.wrap(data));
+            return codec.decode(data);
         } catch (IOException ex) {
             logger.log(Level.SEVERE, null, ex);
             return null;
@@ -182,121 +202,258 @@ public class FileHashMap<K, V> extends AbstractMap<K, V> implements Freed {
         if (deleted) {
             throw new NullPointerException();
         }
-        ObjectOutputStream oos = null;
         try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            oos = new ObjectOutputStream(baos);
-            oos.writeObject(value);
-            oos.flush();
-            byte[] data = baos.toByteArray();
-            if (offsets.containsKey(key)) {
-                long origOffset = offsets.get(key);
-                int origLen = lengths.get(key);
-                if (data.length <= origLen) {
-                    file.seek(origOffset);
-                    file.write(data);
-                    lengths.put(key, data.length);
-                    if (data.length < origLen) {
-                        Gap g = new Gap(origOffset + data.length, origLen - data.length);
-                        if (g.length > maxGapLen) {
-                            maxGapLen = g.length;
-                        }
-                        gaps.add(g);
-                    }
-
-                    return value;
-                }
-            }
-            if (data.length <= maxGapLen) {
-
-                for (Iterator<Gap> i = gaps.iterator(); i.hasNext();) {
-                    Gap g = i.next();
-                    if (g.length >= data.length) {
-                        file.seek(g.offset);
-                        file.write(data);
-                        offsets.put(key, g.offset);
-                        lengths.put(key, g.length);
-                        if (g.length > data.length) {
-                            g.offset = g.offset + data.length;
-                            g.length = g.length - data.length;
-                        } else {
-                            i.remove();
-                        }
-                    }
-                }
+            byte[] data = codec.encode(value);
+            write(fileLen, ByteBuffer.wrap(data));
+            Integer slot = slots.get(key);
+            if (slot == null) {
+                slot = allocateSlot();
+                slots.put(key, slot);
             } else {
-                file.seek(fileLen);
-                file.write(data);
-                offsets.put(key, fileLen);
-                lengths.put(key, data.length);
-                fileLen += data.length;
+                liveBytes -= lengths[slot];
             }
+
+            offsets[slot] = fileLen;
+            lengths[slot] = data.length;
+            fileLen += data.length;
+            liveBytes += data.length;
         } catch (IOException ex) {
             logger.log(Level.SEVERE, null, ex);
-        } finally {
-            try {
-                oos.close();
-            } catch (IOException ex) {
-                // ignore
-            }
+            // do not return the previous value
+            removeSlot(key);
+            return value;
+        }
+
+        try {
+            compactStep();
+        } catch (IOException ex) {
+            logger.log(Level.SEVERE, "Cache file compaction failed", ex);
+            compacting = false;
         }
         return value;
     }
 
     @Override
-    public V remove(Object objKey) {
+    public synchronized V remove(Object objKey) {
         if (deleted) {
             throw new NullPointerException();
         }
-        @SuppressWarnings("unchecked")
-        K key = (K) objKey;
-        if (!containsKey(key)) {
+        if (!slots.containsKey(objKey)) {
             return null;
         }
-        V val = get((K) key);
-        Gap g = new Gap(offsets.get(key), lengths.get(key));
-        offsets.remove(key);
-        lengths.remove(key);
-        if (g.offset + g.length == fileLen) {
-            fileLen -= g.length;
-        } else {
-            if (g.length > maxGapLen) {
-                maxGapLen = g.length;
+        V val = get(objKey);
+        removeSlot(objKey);
+        return val;
+    }
+
+    private void removeSlot(Object key) {
+        Integer slot = slots.remove(key);
+        if (slot == null) {
+            return;
+        }
+
+        int len = lengths[slot];
+        if (len < 0) {
+            return;
+        }
+
+        liveBytes -= len;
+        if (!compacting && offsets[slot] + len == fileLen) {
+            fileLen -= len;
+        }
+
+        lengths[slot] = -1;
+        if (freeSlotCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeSlotCount++] = slot;
+    }
+
+    private int allocateSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+
+        if (slotCount == offsets.length) {
+            offsets = Arrays.copyOf(offsets, slotCount * 2);
+            lengths = Arrays.copyOf(lengths, slotCount * 2);
+        }
+
+        return slotCount++;
+    }
+
+    private void read(long position, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            int count = channel.read(buffer, position);
+            if (count < 0) {
+                throw new IOException("Unexpected end of cache file");
             }
-            gaps.add(g);
+
+            position += count;
+        }
+    }
+
+    private void write(long position, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Moves a part of the live values to the beginning of the file. Starts the
+     * compaction when the file contains too many unused bytes.
+     *
+     * @throws IOException
+     */
+    private void compactStep() throws IOException {
+        if (!compacting) {
+            long unusedBytes = fileLen - liveBytes;
+            if (fileLen < COMPACTION_MIN_FILE_SIZE || unusedBytes <= fileLen * COMPACTION_THRESHOLD) {
+                return;
+            }
+
+            // see fillCompactionQueue
+            if (slotCount > MAX_SLOT_INDEX || fileLen > MAX_COMPACTION_FILE_SIZE) {
+                return;
+            }
+
+            compacting = true;
+            compactedEnd = 0;
+            compactionScanEnd = 0;
+            compactionQueueSize = 0;
+            compactionQueuePos = 0;
+        }
+
+        long moved = 0;
+        while (moved < COMPACTION_STEP_SIZE) {
+            if (compactionQueuePos == compactionQueueSize && !fillCompactionQueue()) {
+                // all live values are before compactedEnd
+                compacting = false;
+                compactionQueueSlots = null;
+                compactionQueueOffsets = null;
+                copyBuffer = null;
+                fileLen = compactedEnd;
+                channel.truncate(fileLen);
+                return;
+            }
+
+            int slot = compactionQueueSlots[compactionQueuePos];
+            long offset = compactionQueueOffsets[compactionQueuePos];
+            compactionQueuePos++;
+
+            // removed or overwritten after it was queued
+            if (lengths[slot] < 0 || offsets[slot] != offset) {
+                continue;
+            }
+
+            int len = lengths[slot];
+            if (offset != compactedEnd) {
+                move(offset, compactedEnd, len);
+                offsets[slot] = compactedEnd;
+                moved += len;
+            }
+
+            compactedEnd += len;
+        }
+    }
+
+    /**
+     * Queues the live values written after the previous scan, sorted by
+     * offset.
+     *
+     * @return False when there are no such values
+     */
+    private boolean fillCompactionQueue() {
+        long scanStart = compactionScanEnd;
+        compactionScanEnd = fileLen;
+        int count = 0;
+        long[] keys = new long[slotCount];
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (lengths[slot] >= 0 && offsets[slot] >= scanStart) {
+                // offsets fit to 40 bits, slot indices to 24 bits, checked when the compaction starts
+                keys[count++] = (offsets[slot] << 24) | slot;
+            }
+        }
+
+        if (count == 0) {
+            return false;
+        }
+
+        Arrays.sort(keys, 0, count);
+        compactionQueueSlots = new int[count];
+        compactionQueueOffsets = new long[count];
+        for (int i = 0; i < count; i++) {
+            compactionQueueSlots[i] = (int) (keys[i] & 0xffffff);
+            compactionQueueOffsets[i] = keys[i] >>> 24;
+        }
+
+        compactionQueuePos = 0;
+        compactionQueueSize = count;
+        return true;
+    }
+
+    /**
+     * Moves the bytes to lower offset. The ranges can overlap.
+     */
+    private void move(long from, long to, int len) throws IOException {
+        if (copyBuffer == null) {
+            copyBuffer = ByteBuffer.allocateDirect(COPY_BUFFER_SIZE);
+        }
+
+        long pos = 0;
+        while (pos < len) {
+            copyBuffer.clear();
+            copyBuffer.limit((int) Math.min(COPY_BUFFER_SIZE, len - pos));
+            read(from + pos, copyBuffer);
+            copyBuffer.flip();
+            write(to + pos, copyBuffer);
+            pos += copyBuffer.limit();
         }
-        return val;
     }
 
     @Override
-    public Set<Entry<K, V>> entrySet() {
+    public synchronized Set<Entry<K, V>> entrySet() {
         if (deleted) {
             throw new NullPointerException();
         }
         Set<Entry<K, V>> ret = new HashSet<>();
-        for (K key : keySet()) {
+        for (K key : slots.keySet()) {
             ret.add(new FileEntry<>(this, key));
         }
         return ret;
     }
 
     @Override
-    public void clear() {
+    public synchronized void clear() {
         if (deleted) {
             throw new NullPointerException();
         }
-        offsets.clear();
-        lengths.clear();
+        slots.clear();
+        slotCount = 0;
+        freeSlotCount = 0;
         fileLen = 0;
-        maxGapLen = 0;
+        liveBytes = 0;
+        compacting = false;
+        compactionQueueSlots = null;
+        compactionQueueOffsets = null;
+        copyBuffer = null;
         try {
-            file.setLength(0);
+            channel.truncate(0);
         } catch (IOException ex) {
             logger.log(Level.SEVERE, null, ex);
         }
     }
 
-    public void delete() {
+    /**
+     * Gets the size of the file including the unused bytes.
+     *
+     * @return File size
+     */
+    public synchronized long getFileSize() {
+        return fileLen;
+    }
+
+    public synchronized void delete() {
         if (deleted) {
             throw new NullPointerException();
         }
@@ -316,19 +473,19 @@ public class FileHashMap<K, V> extends AbstractMap<K, V> implements Freed {
     }
 
     @Override
-    public void free() {
+    public synchronized void free() {
         if (!deleted) {
             delete();
         }
     }
 
     @Override
-    public boolean isEmpty() {
-        return offsets.isEmpty();
+    public synchronized boolean isEmpty() {
+        return slots.isEmpty();
     }
 
     @Override
-    public int size() {
-        return offsets.size();
+    public synchronized int size() {
+        return slots.size();
     }
 }
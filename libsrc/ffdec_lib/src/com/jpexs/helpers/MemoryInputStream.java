@@ -17,6 +17,7 @@ package com.jpexs.helpers;
 
 import com.jpexs.helpers.streams.SeekableInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  *
@@ -26,6 +27,8 @@ public class MemoryInputStream extends SeekableInputStream {
 
     private final byte[] buffer;
 
+    private final ByteBuffer mapped;
+
     private long pos;
 
     private int startPos;
@@ -42,6 +45,7 @@ public class MemoryInputStream extends SeekableInputStream {
 
     public MemoryInputStream(byte[] buffer, int startPos, int maxLength) throws IOException {
         this.buffer = buffer;
+        this.mapped = null;
         this.startPos = startPos;
         if (startPos > buffer.length) {
             throw new IOException("Invalid startPos");
@@ -52,10 +56,64 @@ public class MemoryInputStream extends SeekableInputStream {
         }
     }
 
+    /**
+     * Creates a stream reading a buffer, for example a memory mapped file. The
+     * buffer is not modified, the stream reads its own duplicate.
+     *
+     * @param buffer Buffer
+     * @param startPos Position of the first byte of the stream in the buffer
+     * @param maxLength Maximum length of the stream
+     */
+    public MemoryInputStream(ByteBuffer buffer, int startPos, int maxLength) {
+        this.buffer = null;
+        this.mapped = buffer.duplicate();
+        this.startPos = startPos;
+        if (startPos > buffer.limit()) {
+            throw new IllegalArgumentException("Invalid startPos");
+        }
+        this.maxLength = maxLength;
+        if (startPos + maxLength >= buffer.limit()) {
+            this.maxLength = buffer.limit() - startPos;
+        }
+    }
+
+    /**
+     * Gets the whole underlying array
+     *
+     * @return Array or null when the stream reads a buffer
+     */
     public byte[] getAllRead() {
         return buffer;
     }
 
+    /**
+     * Creates a new stream on the same data with the same start position
+     *
+     * @param maxLength Maximum length of the new stream
+     * @return Stream at position 0
+     * @throws IOException
+     */
+    public MemoryInputStream createLimitedStream(int maxLength) throws IOException {
+        if (buffer != null) {
+            return new MemoryInputStream(buffer, startPos, maxLength);
+        }
+
+        return new MemoryInputStream(mapped, startPos, maxLength);
+    }
+
+    private int byteAt(int p) {
+        return buffer != null ? buffer[p] : mapped.get(p);
+    }
+
+    private void copyTo(int p, byte[] bytes, int off, int len) {
+        if (buffer != null) {
+            System.arraycopy(buffer, p, bytes, off, len);
+        } else {
+            mapped.position(p);
+            mapped.get(bytes, off, len);
+        }
+    }
+
     public long getPos() {
         return pos;
     }
@@ -76,7 +134,7 @@ public class MemoryInputStream extends SeekableInputStream {
     @Override
     public int read() throws IOException {
         if (pos < maxLength) {
-            int ret = buffer[(int) pos + startPos] & 0xff;
+            int ret = byteAt((int) pos + startPos) & 0xff;
             pos++;
             return ret;
         }
@@ -88,7 +146,23 @@ public class MemoryInputStream extends SeekableInputStream {
     public int read(byte[] bytes) throws IOException {
         if (pos < maxLength) {
             int toRead = Math.min(available(), bytes.length);
-            System.arraycopy(buffer, (int) pos + startPos, bytes, 0, toRead);
+            copyTo((int) pos + startPos, bytes, 0, toRead);
+            pos += toRead;
+            return toRead;
+        }
+
+        return -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        if (pos < maxLength) {
+            int toRead = Math.min(available(), len);
+            copyTo((int) pos + startPos, bytes, off, toRead);
             pos += toRead;
             return toRead;
         }
@@ -100,4 +174,100 @@ public class MemoryInputStream extends SeekableInputStream {
     public int available() throws IOException {
         return maxLength - (int) pos;
     }
+
+    /**
+     * Reads little endian unsigned 16 bit value.
+     *
+     * @return Value or -1 when there are not enough bytes available. The
+     * position is not changed in this case.
+     */
+    public int readUI16LE() {
+        if (pos + 2 > maxLength) {
+            return -1;
+        }
+
+        int p = (int) pos + startPos;
+        pos += 2;
+        return (byteAt(p) & 0xff) | ((byteAt(p + 1) & 0xff) << 8);
+    }
+
+    /**
+     * Reads little endian unsigned 24 bit value.
+     *
+     * @return Value or -1 when there are not enough bytes available. The
+     * position is not changed in this case.
+     */
+    public int readUI24LE() {
+        if (pos + 3 > maxLength) {
+            return -1;
+        }
+
+        int p = (int) pos + startPos;
+        pos += 3;
+        return (byteAt(p) & 0xff) | ((byteAt(p + 1) & 0xff) << 8) | ((byteAt(p + 2) & 0xff) << 16);
+    }
+
+    /**
+     * Reads little endian unsigned 32 bit value.
+     *
+     * @return Value or -1 when there are not enough bytes available. The
+     * position is not changed in this case.
+     */
+    public long readUI32LE() {
+        if (pos + 4 > maxLength) {
+            return -1;
+        }
+
+        int p = (int) pos + startPos;
+        pos += 4;
+        return ((byteAt(p) & 0xff) | ((byteAt(p + 1) & 0xff) << 8) | ((byteAt(p + 2) & 0xff) << 16) | ((byteAt(p + 3) & 0xff) << 24)) & 0xffffffffL;
+    }
+
+    /**
+     * Reads variable length unsigned value with 7 bits in each byte and the
+     * highest bit set when another byte follows. At most 5 bytes are read, the
+     * highest bit of the fifth byte is ignored.
+     *
+     * @return Value (up to 35 bits) or -1 when the value exceeds the available
+     * bytes. The position is not changed in this case.
+     */
+    public long readVarU32() {
+        int p = (int) pos + startPos;
+        int end = startPos + maxLength;
+        long ret = 0;
+        int shift = 0;
+        for (int i = 0; i < 5; i++) {
+            if (p >= end) {
+                return -1;
+            }
+
+            int b = byteAt(p++);
+            ret |= ((long) (b & 0x7f)) << shift;
+            shift += 7;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+
+        pos = p - startPos;
+        return ret;
+    }
+
+    /**
+     * Finds the first occurence of the byte value from the current position.
+     *
+     * @param value Byte value
+     * @return Offset from the current position or -1 when not found
+     */
+    public int indexOf(byte value) {
+        int start = (int) pos + startPos;
+        int end = startPos + maxLength;
+        for (int p = start; p < end; p++) {
+            if (byteAt(p) == value) {
+                return p - start;
+            }
+        }
+
+        return -1;
+    }
 }
@@ -0,0 +1,197 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.helpers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds all occurrences of several byte patterns in one pass (Aho-Corasick
+ * automaton).
+ *
+ * The automaton is a dense state transition table, so the scan does one
+ * array lookup per input byte regardless of the number of patterns. The
+ * state is returned from scan, so the input can be processed in chunks and
+ * the matches crossing the chunk boundaries are found too.
+ *
+ * @author JPEXS
+ */
+public class MultiPatternMatcher {
+
+    public static final int INITIAL_STATE = 0;
+
+    private final byte[][] patterns;
+
+    /**
+     * Transitions, index = state * 256 + byte
+     */
+    private final int[] transitions;
+
+    /**
+     * Indices of the patterns ending in the state (including the suffix
+     * matches), null when no pattern ends in the state
+     */
+    private final int[][] outputs;
+
+    private final int maxPatternLength;
+
+    /**
+     * Listener of the matches.
+     */
+    public interface MatchListener {
+
+        /**
+         * Called for each match.
+         *
+         * @param position Position of the first byte of the match
+         * @param patternIndex Index of the pattern
+         */
+        public void match(long position, int patternIndex);
+    }
+
+    public MultiPatternMatcher(byte[]... patterns) {
+        this.patterns = patterns;
+
+        // build trie
+        List<int[]> trie = new ArrayList<>();
+        List<List<Integer>> trieOutputs = new ArrayList<>();
+        trie.add(newNode());
+        trieOutputs.add(new ArrayList<>());
+        int maxLen = 0;
+        for (int p = 0; p < patterns.length; p++) {
+            byte[] pattern = patterns[p];
+            if (pattern.length == 0) {
+                throw new IllegalArgumentException("Empty pattern");
+            }
+
+            maxLen = Math.max(maxLen, pattern.length);
+            int state = INITIAL_STATE;
+            for (byte b : pattern) {
+                int next = trie.get(state)[b & 0xff];
+                if (next == -1) {
+                    next = trie.size();
+                    trie.add(newNode());
+                    trieOutputs.add(new ArrayList<>());
+                    trie.get(state)[b & 0xff] = next;
+                }
+
+                state = next;
+            }
+
+            trieOutputs.get(state).add(p);
+        }
+
+        maxPatternLength = maxLen;
+        int stateCount = trie.size();
+        transitions = new int[stateCount * 256];
+        outputs = new int[stateCount][];
+
+        // breadth first: failure links and complete transition table
+        int[] fail = new int[stateCount];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int b = 0; b < 256; b++) {
+            int next = trie.get(INITIAL_STATE)[b];
+            if (next == -1) {
+                transitions[b] = INITIAL_STATE;
+            } else {
+                transitions[b] = next;
+                fail[next] = INITIAL_STATE;
+                queue.add(next);
+            }
+        }
+
+        setOutputs(INITIAL_STATE, trieOutputs.get(INITIAL_STATE));
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            List<Integer> out = trieOutputs.get(state);
+            if (outputs[fail[state]] != null) {
+                for (int p : outputs[fail[state]]) {
+                    out.add(p);
+                }
+            }
+
+            setOutputs(state, out);
+            for (int b = 0; b < 256; b++) {
+                int next = trie.get(state)[b];
+                if (next == -1) {
+                    transitions[state * 256 + b] = transitions[fail[state] * 256 + b];
+                } else {
+                    transitions[state * 256 + b] = next;
+                    fail[next] = transitions[fail[state] * 256 + b];
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    private static int[] newNode() {
+        int[] node = new int[256];
+        Arrays.fill(node, -1);
+        return node;
+    }
+
+    private void setOutputs(int state, List<Integer> out) {
+        if (out.isEmpty()) {
+            return;
+        }
+
+        int[] result = new int[out.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = out.get(i);
+        }
+
+        outputs[state] = result;
+    }
+
+    public int getPatternCount() {
+        return patterns.length;
+    }
+
+    public int getMaxPatternLength() {
+        return maxPatternLength;
+    }
+
+    /**
+     * Scans the data.
+     *
+     * @param data Data
+     * @param offset Start offset in the data
+     * @param length Number of bytes to scan
+     * @param state State returned by the previous scan or INITIAL_STATE
+     * @param position Position of the data[offset] byte in the whole input
+     * @param listener Match listener
+     * @return State for the next chunk
+     */
+    public int scan(byte[] data, int offset, int length, int state, long position, MatchListener listener) {
+        final int[] transitions = this.transitions;
+        final int[][] outputs = this.outputs;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            state = transitions[(state << 8) | (data[i] & 0xff)];
+            int[] out = outputs[state];
+            if (out != null) {
+                long endPos = position + (i - offset) + 1;
+                for (int p : out) {
+                    listener.match(endPos - patterns[p].length, p);
+                }
+            }
+        }
+
+        return state;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.helpers;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * Byte array output stream with the buffer sized for the expected amount of
+ * data. The expected size usually comes from a file header, so it is not
+ * trusted: at most maxPreallocation bytes are allocated up front and the buffer
+ * grows towards the expected size as the data is written. When exactly the
+ * expected amount of data was written, the internal buffer is returned without
+ * copying.
+ *
+ * @author JPEXS
+ */
+public class PreallocatedByteArrayOutputStream extends ByteArrayOutputStream {
+
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private final long expectedSize;
+
+    /**
+     * Constructs the stream.
+     *
+     * @param expectedSize Expected size of the data
+     * @param maxPreallocation Maximum size of the buffer allocated before any
+     * data is written
+     */
+    public PreallocatedByteArrayOutputStream(long expectedSize, int maxPreallocation) {
+        super(0);
+        if (expectedSize < 0 || expectedSize > MAX_ARRAY_SIZE) {
+            expectedSize = -1;
+        }
+
+        this.expectedSize = expectedSize;
+        int size = expectedSize == -1 ? maxPreallocation : (int) Math.min(expectedSize, maxPreallocation);
+        buf = new byte[Math.max(size, 32)];
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity <= buf.length) {
+            return;
+        }
+
+        if (minCapacity < 0 || minCapacity > MAX_ARRAY_SIZE) {
+            throw new OutOfMemoryError();
+        }
+
+        long newCapacity = Math.min((long) buf.length * 2, MAX_ARRAY_SIZE);
+
+        // do not overshoot the expected size, so the buffer can be returned without copying
+        if (minCapacity <= expectedSize && newCapacity > expectedSize) {
+            newCapacity = expectedSize;
+        }
+
+        buf = Arrays.copyOf(buf, (int) Math.max(newCapacity, minCapacity));
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        ensureCapacity(count + 1);
+        buf[count] = (byte) b;
+        count++;
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        if ((off < 0) || (off > b.length) || (len < 0)
+                || ((off + len) - b.length > 0)) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, buf, count, len);
+        count += len;
+    }
+
+    /**
+     * Gets the written data. Does not copy the data when the buffer is full.
+     *
+     * @return Written data
+     */
+    public synchronized byte[] getData() {
+        if (count == buf.length) {
+            return buf;
+        }
+
+        return toByteArray();
+    }
+}
@@ -17,8 +17,8 @@ package com.jpexs.helpers;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -28,6 +28,11 @@ import java.util.logging.Logger;
  */
 public class StreamSearch implements Searchable {
 
+    /**
+     * Size of the part scanned between progress reports
+     */
+    private static final int PROGRESS_CHUNK_SIZE = 16 * 1024 * 1024;
+
     private final MemoryInputStream is;
 
     public StreamSearch(InputStream is) throws IOException {
@@ -41,60 +46,40 @@ public class StreamSearch implements Searchable {
 
     @Override
     public Map<Long, InputStream> search(ProgressListener progListener, byte[]... data) {
-        Map<Long, InputStream> ret = new HashMap<>();
-        int maxFindLen = 0;
-        for (int i = 0; i < data.length; i++) {
-            if (data[i].length > maxFindLen) {
-                maxFindLen = data[i].length;
-            }
-        }
-        try {
-            is.seek(0);
-
-            byte[] buf = new byte[4096];
-            byte[] last = null;
-            int cnt = 0;
-            long pos = 0;
-            while ((cnt = is.read(buf)) > 0) {
-
-                for (int i = -maxFindLen + 1; i < cnt; i++) {
-
-                    loopdata:
-                    for (byte[] onedata : data) {
-                        boolean match = true;
-                        for (int d = 0; d < onedata.length; d++) {
-                            byte b;
-                            if (i + d < 0) {
-                                if (last != null) {
-                                    b = last[last.length + i + d];
-                                } else {
-                                    continue;
-                                }
-                            } else if (i + d >= buf.length) {
-                                continue;
-                            } else {
-                                b = buf[i + d];
-                            }
+        return search(is.getAllRead(), new MultiPatternMatcher(data), progListener);
+    }
 
-                            if (b != onedata[d]) {
-                                match = false;
-                                break;
-                            }
-                        }
-                        if (match) {
-                            // todo: support > 2GB files
-                            InputStream fis = new MemoryInputStream(is.getAllRead(), (int) pos + i);
-                            ret.put(pos + i, fis);
-                            continue loopdata;
-                        }
-                    }
+    /**
+     * Finds all matches of the patterns in the data.
+     *
+     * @param buf Data
+     * @param matcher Matcher
+     * @param progListener Progress listener, can be null
+     * @return Map Position=>Input stream, sorted by position
+     */
+    static Map<Long, InputStream> search(final byte[] buf, MultiPatternMatcher matcher, ProgressListener progListener) {
+        final Map<Long, InputStream> ret = new TreeMap<>();
+        MultiPatternMatcher.MatchListener listener = new MultiPatternMatcher.MatchListener() {
+            @Override
+            public void match(long position, int patternIndex) {
+                try {
+                    // todo: support > 2GB files
+                    ret.put(position, new MemoryInputStream(buf, (int) position));
+                } catch (IOException ex) {
+                    Logger.getLogger(StreamSearch.class.getName()).log(Level.SEVERE, null, ex);
                 }
-                pos = pos + cnt;
             }
+        };
 
-        } catch (IOException ex) {
-            Logger.getLogger(StreamSearch.class.getName()).log(Level.SEVERE, null, ex);
+        int state = MultiPatternMatcher.INITIAL_STATE;
+        for (int pos = 0; pos < buf.length; pos += PROGRESS_CHUNK_SIZE) {
+            int len = Math.min(PROGRESS_CHUNK_SIZE, buf.length - pos);
+            state = matcher.scan(buf, pos, len, state, pos, listener);
+            if (progListener != null) {
+                progListener.progress((int) ((pos + (long) len) * 100 / buf.length));
+            }
         }
+
         return ret;
     }
 }
@@ -17,10 +17,7 @@ package com.jpexs.helpers;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 /**
  *
@@ -28,6 +25,13 @@ import java.util.logging.Logger;
  */
 public class SwfHeaderStreamSearch implements Searchable {
 
+    private static final MultiPatternMatcher SWF_HEADER_MATCHER = new MultiPatternMatcher(
+            "FWS".getBytes(), // Uncompressed Flash
+            "CWS".getBytes(), // ZLib compressed Flash
+            "ZWS".getBytes(), // LZMA compressed Flash
+            "GFX".getBytes(), // Uncompressed ScaleForm GFx
+            "CFX".getBytes()); // Compressed ScaleForm GFx
+
     private final MemoryInputStream is;
 
     public SwfHeaderStreamSearch(InputStream is) throws IOException {
@@ -42,36 +46,6 @@ public class SwfHeaderStreamSearch implements Searchable {
     @Override
     public Map<Long, InputStream> search(ProgressListener progListener, byte[]... data) {
         // Ignore data parameter, find only FWS, CWS, ZWS, GFX and CFX
-
-        Map<Long, InputStream> ret = new HashMap<>();
-        byte[] buf = is.getAllRead();
-        byte byte2 = buf[0], byte3 = buf[1];
-        boolean match = false;
-        for (int i = 2; i < buf.length - 2; i++) {
-            byte b = byte2;
-            byte2 = byte3;
-            byte3 = buf[i];
-            if (byte2 == 'W' && byte3 == 'S') {
-                if (b == 'F' || b == 'C' || b == 'Z') {
-                    match = true;
-                }
-            } else if (byte2 == 'F' && byte3 == 'X') {
-                if (b == 'G' || b == 'C') {
-                    match = true;
-                }
-            }
-            if (match) {
-                // todo: support > 2GB files
-                InputStream fis;
-                try {
-                    fis = new MemoryInputStream(buf, i - 2);
-                    ret.put((long) i - 2, fis);
-                    match = false;
-                } catch (IOException ex) {
-                    Logger.getLogger(SwfHeaderStreamSearch.class.getName()).log(Level.SEVERE, null, ex);
-                }
-            }
-        }
-        return ret;
+        return StreamSearch.search(is.getAllRead(), SWF_HEADER_MATCHER, progListener);
     }
 }
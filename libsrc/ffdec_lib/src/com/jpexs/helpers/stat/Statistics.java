@@ -33,22 +33,7 @@ public class Statistics implements AutoCloseable {
     private final Stopwatch sw;
 
     private static synchronized void addTime(String name, long duration) {
-        StatisticData s = map.get(name);
-        if (s == null) {
-            s = new StatisticData();
-            map.put(name, s);
-        }
-
-        s.value += duration;
-        if (duration > s.max) {
-            s.max = duration;
-        }
-
-        if (duration < s.min) {
-            s.min = duration;
-        }
-
-        s.count++;
+        addToMap(map, name, duration);
     }
 
     public static synchronized void addToMap(Map<String, StatisticData> targetMap) {
@@ -73,6 +58,25 @@ public class Statistics implements AutoCloseable {
         }
     }
 
+    public static synchronized void addToMap(Map<String, StatisticData> targetMap, String name, long duration) {
+        StatisticData d = targetMap.get(name);
+        if (d == null) {
+            d = new StatisticData();
+            targetMap.put(name, d);
+        }
+
+        d.value += duration;
+        if (duration > d.max) {
+            d.max = duration;
+        }
+
+        if (duration < d.min) {
+            d.min = duration;
+        }
+
+        d.count++;
+    }
+
     public static synchronized void print() {
         print(map);
     }
@@ -97,6 +97,34 @@ public class ABCStreamTest {
         }
     }
 
+    @Test
+    public void testU16AndS24() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ABCOutputStream aos = new ABCOutputStream(baos)) {
+            aos.writeU16(0xFFFE);
+            aos.writeS24(-3);
+            aos.writeS24(0x7FFFFF);
+        }
+        try (MemoryInputStream mis = new MemoryInputStream(baos.toByteArray());
+                ABCInputStream ais = new ABCInputStream(mis)) {
+            assertEquals(ais.readU16("test"), 0xFFFE);
+            assertEquals(ais.readS24("test"), -3);
+            assertEquals(ais.readS24("test"), 0x7FFFFF);
+            assertEquals(mis.available(), 0);
+        }
+    }
+
+    @Test
+    public void testTruncatedU30() throws IOException {
+        try (MemoryInputStream mis = new MemoryInputStream(new byte[]{(byte) 0x81, (byte) 0x82});
+                ABCInputStream ais = new ABCInputStream(mis)) {
+            ais.readU30("test");
+            fail();
+        } catch (EndOfStreamException ex) {
+            // expected
+        }
+    }
+
     @Test
     public void testS32() {
         for (long number : getTestNumbers(-(1L << 31), (1 << 31) - 1)) {
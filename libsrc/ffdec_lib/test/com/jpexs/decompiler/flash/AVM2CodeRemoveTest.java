@@ -0,0 +1,74 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash;
+
+import com.jpexs.decompiler.flash.abc.ABC;
+import com.jpexs.decompiler.flash.abc.avm2.AVM2Code;
+import com.jpexs.decompiler.flash.abc.types.ABCException;
+import com.jpexs.decompiler.flash.abc.types.MethodBody;
+import com.jpexs.decompiler.flash.tags.ABCContainerTag;
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author JPEXS
+ */
+public class AVM2CodeRemoveTest {
+
+    private static void markIgnored(MethodBody body, int step) {
+        AVM2Code code = body.getCode();
+        for (int i = 1; i < code.code.size(); i += step) {
+            code.code.get(i).setIgnored(true, 0);
+        }
+    }
+
+    @Test
+    public void testRemoveIgnoredSameAsRemoveInstruction() throws IOException, InterruptedException {
+        SWF swf = new SWF(new BufferedInputStream(new FileInputStream("testdata/as3/as3.swf")), false);
+        for (ABCContainerTag tag : swf.getAbcList()) {
+            ABC abc = tag.getABC();
+            for (MethodBody body : abc.bodies) {
+                for (int step = 2; step <= 5; step++) {
+                    MethodBody expected = body.clone();
+                    markIgnored(expected, step);
+                    AVM2Code expectedCode = expected.getCode();
+                    for (int i = 0; i < expectedCode.code.size(); i++) {
+                        if (expectedCode.code.get(i).isIgnored()) {
+                            expectedCode.removeInstruction(i, expected);
+                            i--;
+                        }
+                    }
+
+                    MethodBody actual = body.clone();
+                    markIgnored(actual, step);
+                    actual.getCode().removeIgnored(actual);
+
+                    assertEquals(actual.getCode().getBytes(), expectedCode.getBytes(), "Method " + body.method_info + " step " + step);
+                    assertEquals(actual.exceptions.length, expected.exceptions.length);
+                    for (int e = 0; e < expected.exceptions.length; e++) {
+                        ABCException ee = expected.exceptions[e];
+                        ABCException ae = actual.exceptions[e];
+                        assertEquals(new int[]{ae.start, ae.end, ae.target}, new int[]{ee.start, ee.end, ee.target});
+                    }
+                }
+            }
+        }
+    }
+}
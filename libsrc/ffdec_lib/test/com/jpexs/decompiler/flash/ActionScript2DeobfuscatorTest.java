@@ -216,6 +216,26 @@ public class ActionScript2DeobfuscatorTest extends ActionScript2TestBase {
         }
     }
 
+    @Test
+    public void testKeepChangingVariablesInLoop() throws Exception {
+        String res = recompile("var q = 1;"
+                + "while(q < 10 && 1 < 4){"
+                + "q++;"
+                + "trace(q);"
+                + "}"
+                + "if(q == 1){"
+                + "trace(\"OK1\");"
+                + "}else{"
+                + "trace(\"OK2\");"
+                + "}");
+        if (!res.contains("q < 10")) {
+            fail("loop condition removed: " + res);
+        }
+        if (!res.contains("\"OK1\"") || !res.contains("\"OK2\"")) {
+            fail("if after loop removed: " + res);
+        }
+    }
+
     @Test
     public void testRemoveJumpsToTheNextAction() {
         String actionsString = "ConstantPool \"a\" \"b\" \"c\"\n"
@@ -17,12 +17,15 @@ package com.jpexs.decompiler.flash;
 
 import com.jpexs.decompiler.flash.abc.ABC;
 import com.jpexs.decompiler.flash.abc.avm2.AVM2Code;
-import com.jpexs.decompiler.flash.abc.avm2.deobfuscation.AVM2DeobfuscatorJumps;
+import com.jpexs.decompiler.flash.abc.avm2.deobfuscation.AVM2DeobfuscatorDataFlow;
 import com.jpexs.decompiler.flash.abc.avm2.parser.AVM2ParseException;
 import com.jpexs.decompiler.flash.abc.avm2.parser.pcode.ASM3Parser;
+import com.jpexs.decompiler.flash.abc.avm2.parser.pcode.MissingSymbolHandler;
 import com.jpexs.decompiler.flash.abc.avm2.parser.script.ActionScript3Parser;
 import com.jpexs.decompiler.flash.abc.types.ABCException;
 import com.jpexs.decompiler.flash.abc.types.ConvertData;
+import com.jpexs.decompiler.flash.abc.types.Decimal;
+import com.jpexs.decompiler.flash.abc.types.Float4;
 import com.jpexs.decompiler.flash.abc.types.MethodBody;
 import com.jpexs.decompiler.flash.abc.types.MethodInfo;
 import com.jpexs.decompiler.flash.abc.types.traits.Traits;
@@ -62,7 +65,14 @@ public class ActionScript3DeobfuscatorTest extends ActionScriptTestBase {
     }
 
     private String recompilePCode(String str) throws IOException, AVM2ParseException, InterruptedException {
-        str = "code\r\n"
+        return recompilePCode("", str);
+    }
+
+    private String recompilePCode(String exceptions, String str) throws IOException, AVM2ParseException, InterruptedException {
+        //one parameter, so getlocal_1 is not known
+        str = "param null\r\n"
+                + exceptions
+                + "code\r\n"
                 + "getlocal_0\r\n"
                 + "pushscope\r\n"
                 + str
@@ -83,14 +93,56 @@ public class ActionScript3DeobfuscatorTest extends ActionScriptTestBase {
                 return 0;
             }
         });
+        MethodInfo mi = new MethodInfo();
+        abc.method_info.add(mi);
         MethodBody b = new MethodBody(abc, new Traits(), new byte[0], new ABCException[0]);
-        AVM2Code code = ASM3Parser.parse(abc, new StringReader(str), null, b, new MethodInfo());
+        b.method_info = 0;
+        b.max_regs = 10;
+        AVM2Code code = ASM3Parser.parse(abc, new StringReader(str), null, new MissingSymbolHandler() {
+            @Override
+            public boolean missingString(String value) {
+                return true;
+            }
+
+            @Override
+            public boolean missingInt(long value) {
+                return true;
+            }
+
+            @Override
+            public boolean missingUInt(long value) {
+                return true;
+            }
+
+            @Override
+            public boolean missingDouble(double value) {
+                return true;
+            }
+
+            @Override
+            public boolean missingDecimal(Decimal value) {
+                return true;
+            }
+
+            @Override
+            public boolean missingFloat(float value) {
+                return true;
+            }
+
+            @Override
+            public boolean missingFloat4(Float4 value) {
+                return true;
+            }
+        }, b, mi);
         b.setCode(code);
-        new AVM2DeobfuscatorJumps().avm2CodeRemoveTraps("test", 0, true, 0, abc, null, 0, b);
+        abc.addMethodBody(b);
+        new AVM2DeobfuscatorDataFlow().avm2CodeRemoveTraps("test", 0, true, 0, abc, null, 0, b);
         HighlightedTextWriter writer = new HighlightedTextWriter(new CodeFormatting(), false);
-        code.toASMSource(abc.constants, new MethodInfo(), new MethodBody(abc, new Traits(), new byte[0], new ABCException[0]), ScriptExportMode.PCODE, writer);
+        b.getCode().toASMSource(abc.constants, mi, b, ScriptExportMode.PCODE, writer);
         String ret = writer.toString();
-        return ret.substring(ret.lastIndexOf("\r\ncode\r\n") + 8, ret.lastIndexOf("end ; code"));
+        int start = ret.indexOf("\r\ntry ");
+        start = start > -1 ? start + 2 : ret.lastIndexOf("\r\ncode\r\n") + 8;
+        return ret.substring(start, ret.lastIndexOf("end ; code"));
     }
 
     private String recompile(String str) throws AVM2ParseException, IOException, CompilationException, InterruptedException {
@@ -227,7 +279,7 @@ public class ActionScript3DeobfuscatorTest extends ActionScriptTestBase {
 
     @Test
     public void testJumps() throws Exception {
-        String res = recompilePCode("pushbyte 3\r\n"
+        String res = recompilePCode("getlocal_1\r\n"
                 + "pushbyte 4\r\n"
                 + "ifeq a\r\n" //should change to ifeq c
                 + "jump b\r\n" //should not change
@@ -236,12 +288,219 @@ public class ActionScript3DeobfuscatorTest extends ActionScriptTestBase {
                 + "b:pushbyte 3\r\n");
         Assert.assertEquals(res, "getlocal_0\r\n"
                 + "pushscope\r\n"
-                + "pushbyte 3\r\n"
+                + "getlocal_1\r\n"
+                + "pushbyte 4\r\n"
+                + "ifeq ofs000d\r\n"
+                + "jump ofs000f\r\n"
+                + "ofs000d:pushbyte 4\r\n"
+                + "ofs000f:pushbyte 3\r\n"
+                + "returnvoid\r\n");
+    }
+
+    @Test
+    public void testConstantIf() throws Exception {
+        String res = recompilePCode("pushbyte 3\r\n"
                 + "pushbyte 4\r\n"
-                + "ifeq ofs000e\r\n"
-                + "jump ofs0010\r\n"
-                + "ofs000e:pushbyte 4\r\n"
-                + "ofs0010:pushbyte 3\r\n"
+                + "ifeq a\r\n"
+                + "findpropstrict QName(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"OK\"\r\n"
+                + "callpropvoid QName(PackageNamespace(\"\"),\"trace\") 1\r\n"
+                + "jump b\r\n"
+                + "a:findpropstrict QName(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"FAIL\"\r\n"
+                + "callpropvoid QName(PackageNamespace(\"\"),\"trace\") 1\r\n"
+                + "b:");
+        Assert.assertEquals(res, "getlocal_0\r\n"
+                + "pushscope\r\n"
+                + "findpropstrict Qname(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"OK\"\r\n"
+                + "callpropvoid Qname(PackageNamespace(\"\"),\"trace\") 1\r\n"
+                + "returnvoid\r\n");
+    }
+
+    @Test
+    public void testDeadStoreRegister3() throws Exception {
+        String res = recompilePCode("pushtrue\r\n"
+                + "setlocal_3\r\n"
+                + "getlocal_3\r\n"
+                + "iffalse a\r\n"
+                + "findpropstrict QName(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"OK\"\r\n"
+                + "callpropvoid QName(PackageNamespace(\"\"),\"trace\") 1\r\n"
+                + "a:findpropstrict QName(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"END\"\r\n"
+                + "callpropvoid QName(PackageNamespace(\"\"),\"trace\") 1\r\n");
+        Assert.assertEquals(res, "getlocal_0\r\n"
+                + "pushscope\r\n"
+                + "findpropstrict Qname(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"OK\"\r\n"
+                + "callpropvoid Qname(PackageNamespace(\"\"),\"trace\") 1\r\n"
+                + "findpropstrict Qname(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"END\"\r\n"
+                + "callpropvoid Qname(PackageNamespace(\"\"),\"trace\") 1\r\n"
+                + "returnvoid\r\n");
+    }
+
+    @Test
+    public void testDeadStoreRegister5() throws Exception {
+        String res = recompilePCode("pushtrue\r\n"
+                + "setlocal 5\r\n"
+                + "getlocal 5\r\n"
+                + "iffalse a\r\n"
+                + "findpropstrict QName(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"OK\"\r\n"
+                + "callpropvoid QName(PackageNamespace(\"\"),\"trace\") 1\r\n"
+                + "a:findpropstrict QName(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"END\"\r\n"
+                + "callpropvoid QName(PackageNamespace(\"\"),\"trace\") 1\r\n");
+        Assert.assertEquals(res, "getlocal_0\r\n"
+                + "pushscope\r\n"
+                + "findpropstrict Qname(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"OK\"\r\n"
+                + "callpropvoid Qname(PackageNamespace(\"\"),\"trace\") 1\r\n"
+                + "findpropstrict Qname(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"END\"\r\n"
+                + "callpropvoid Qname(PackageNamespace(\"\"),\"trace\") 1\r\n"
+                + "returnvoid\r\n");
+    }
+
+    @Test
+    public void testLoopOverRegister() throws Exception {
+        String res = recompilePCode("pushbyte 0\r\n"
+                + "setlocal_2\r\n"
+                + "a:getlocal_2\r\n"
+                + "pushbyte 10\r\n"
+                + "ifge b\r\n"
+                + "getlocal_2\r\n"
+                + "increment_i\r\n"
+                + "setlocal_2\r\n"
+                + "jump a\r\n"
+                + "b:getlocal_2\r\n"
+                + "pushbyte 10\r\n"
+                + "ifne c\r\n"
+                + "findpropstrict QName(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"OK\"\r\n"
+                + "callpropvoid QName(PackageNamespace(\"\"),\"trace\") 1\r\n"
+                + "c:");
+        Assert.assertEquals(res, "getlocal_0\r\n"
+                + "pushscope\r\n"
+                + "pushbyte 0\r\n"
+                + "setlocal_2\r\n"
+                + "ofs0005:getlocal_2\r\n"
+                + "pushbyte 10\r\n"
+                + "ifge ofs0013\r\n"
+                + "getlocal_2\r\n"
+                + "increment_i\r\n"
+                + "setlocal_2\r\n"
+                + "jump ofs0005\r\n"
+                + "ofs0013:getlocal_2\r\n"
+                + "pushbyte 10\r\n"
+                + "ifne ofs0021\r\n"
+                + "findpropstrict Qname(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"OK\"\r\n"
+                + "callpropvoid Qname(PackageNamespace(\"\"),\"trace\") 1\r\n"
+                + "ofs0021:returnvoid\r\n");
+    }
+
+    @Test
+    public void testTryCatch() throws Exception {
+        String res = recompilePCode("try from a to b target c type null name null\r\n",
+                "a:findpropstrict QName(PackageNamespace(\"\"),\"f\")\r\n"
+                + "callpropvoid QName(PackageNamespace(\"\"),\"f\") 0\r\n"
+                + "b:jump d\r\n"
+                + "c:getlocal_0\r\n"
+                + "pushscope\r\n"
+                + "newcatch 0\r\n"
+                + "pop\r\n"
+                + "popscope\r\n"
+                + "findpropstrict QName(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"CAUGHT\"\r\n"
+                + "callpropvoid QName(PackageNamespace(\"\"),\"trace\") 1\r\n"
+                + "d:");
+        Assert.assertEquals(res, "try from ofs0002 to ofs0007 target ofs000b type null name null\r\n"
+                + "\r\n"
+                + "code\r\n"
+                + "getlocal_0\r\n"
+                + "pushscope\r\n"
+                + "ofs0002:findpropstrict Qname(PackageNamespace(\"\"),\"f\")\r\n"
+                + "callpropvoid Qname(PackageNamespace(\"\"),\"f\") 0\r\n"
+                + "ofs0007:jump ofs0018\r\n"
+                + "ofs000b:getlocal_0\r\n"
+                + "pushscope\r\n"
+                + "newcatch 0\r\n"
+                + "pop\r\n"
+                + "popscope\r\n"
+                + "findpropstrict Qname(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"CAUGHT\"\r\n"
+                + "callpropvoid Qname(PackageNamespace(\"\"),\"trace\") 1\r\n"
+                + "ofs0018:returnvoid\r\n");
+    }
+
+    @Test
+    public void testLookupSwitch() throws Exception {
+        String res = recompilePCode("pushbyte 7\r\n"
+                + "setlocal_2\r\n"
+                + "getlocal_1\r\n"
+                + "lookupswitch c 1 a b\r\n"
+                + "a:getlocal_2\r\n"
+                + "pushbyte 7\r\n"
+                + "ifne c\r\n"
+                + "findpropstrict QName(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"A\"\r\n"
+                + "callpropvoid QName(PackageNamespace(\"\"),\"trace\") 1\r\n"
+                + "jump c\r\n"
+                + "b:getlocal_2\r\n"
+                + "pushbyte 7\r\n"
+                + "ifne c\r\n"
+                + "findpropstrict QName(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"B\"\r\n"
+                + "callpropvoid QName(PackageNamespace(\"\"),\"trace\") 1\r\n"
+                + "c:");
+        Assert.assertEquals(res, "getlocal_0\r\n"
+                + "pushscope\r\n"
+                + "getlocal_1\r\n"
+                + "lookupswitch ofs0020 1 ofs000e ofs0019\r\n"
+                + "ofs000e:findpropstrict Qname(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"A\"\r\n"
+                + "callpropvoid Qname(PackageNamespace(\"\"),\"trace\") 1\r\n"
+                + "jump ofs0020\r\n"
+                + "ofs0019:findpropstrict Qname(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"B\"\r\n"
+                + "callpropvoid Qname(PackageNamespace(\"\"),\"trace\") 1\r\n"
+                + "ofs0020:returnvoid\r\n");
+    }
+
+    @Test
+    public void testZeroJumpPureOperand() throws Exception {
+        String res = recompilePCode("getlocal_1\r\n"
+                + "iftrue a\r\n"
+                + "a:findpropstrict QName(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"END\"\r\n"
+                + "callpropvoid QName(PackageNamespace(\"\"),\"trace\") 1\r\n");
+        Assert.assertEquals(res, "getlocal_0\r\n"
+                + "pushscope\r\n"
+                + "findpropstrict Qname(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"END\"\r\n"
+                + "callpropvoid Qname(PackageNamespace(\"\"),\"trace\") 1\r\n"
+                + "returnvoid\r\n");
+    }
+
+    @Test
+    public void testZeroJumpCallOperand() throws Exception {
+        String res = recompilePCode("findpropstrict QName(PackageNamespace(\"\"),\"f\")\r\n"
+                + "callproperty QName(PackageNamespace(\"\"),\"f\") 0\r\n"
+                + "iftrue a\r\n"
+                + "a:findpropstrict QName(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"END\"\r\n"
+                + "callpropvoid QName(PackageNamespace(\"\"),\"trace\") 1\r\n");
+        Assert.assertEquals(res, "getlocal_0\r\n"
+                + "pushscope\r\n"
+                + "findpropstrict Qname(PackageNamespace(\"\"),\"f\")\r\n"
+                + "callproperty Qname(PackageNamespace(\"\"),\"f\") 0\r\n"
+                + "ffdec_deobfuscatepop\r\n"
+                + "findpropstrict Qname(PackageNamespace(\"\"),\"trace\")\r\n"
+                + "pushstring \"END\"\r\n"
+                + "callpropvoid Qname(PackageNamespace(\"\"),\"trace\") 1\r\n"
                 + "returnvoid\r\n");
     }
 
@@ -0,0 +1,105 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash;
+
+import com.jpexs.helpers.Cache;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author JPEXS
+ */
+public class CacheTest {
+
+    @Test
+    public void testWeightBoundedCache() {
+        Cache<String, byte[]> cache = Cache.getInstance(false, true, "test", (String key, byte[] value) -> value.length);
+        cache.setMaxWeight(100);
+        cache.put("A", new byte[40]);
+        cache.put("B", new byte[40]);
+        assertEquals(cache.getWeight(), 80);
+
+        // A becomes protected
+        assertEquals(cache.get("A").length, 40);
+        cache.put("C", new byte[40]);
+        assertFalse(cache.contains("B"));
+        assertTrue(cache.contains("A"));
+        assertTrue(cache.contains("C"));
+        assertEquals(cache.getWeight(), 80);
+        assertEquals(cache.getEvictionCount(), 1);
+
+        // too large entry is not stored
+        cache.put("D", new byte[101]);
+        assertFalse(cache.contains("D"));
+        assertEquals(cache.getEvictionCount(), 2);
+
+        assertNull(cache.get("B"));
+        assertEquals(cache.getHitCount(), 1);
+        assertEquals(cache.getMissCount(), 1);
+
+        cache.remove("A");
+        assertEquals(cache.getWeight(), 40);
+
+        cache.setMaxWeight(10);
+        assertFalse(cache.contains("C"));
+        assertEquals(cache.getWeight(), 0);
+
+        cache.clear();
+        assertEquals(cache.getWeight(), 0);
+    }
+
+    @Test
+    public void testComputeIfAbsentLoadsOnce() throws Exception {
+        Cache<String, String> cache = Cache.getInstance(false, true, "test");
+        AtomicInteger loadCount = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> cache.computeIfAbsent("A", (String key) -> {
+                    loadCount.incrementAndGet();
+                    started.countDown();
+                    release.await();
+                    return "value of " + key;
+                })));
+            }
+
+            started.await();
+            release.countDown();
+            for (Future<String> future : futures) {
+                assertEquals(future.get(), "value of A");
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(loadCount.get(), 1);
+        assertEquals(cache.get("A"), "value of A");
+    }
+}
@@ -16,7 +16,10 @@
 package com.jpexs.decompiler.flash;
 
 import com.jpexs.helpers.FileHashMap;
+import com.jpexs.helpers.SerializableImage;
+import java.awt.image.BufferedImage;
 import java.io.File;
+import java.util.Arrays;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNull;
@@ -60,4 +63,50 @@ public class FileHashMapTest {
         }
 
     }
+
+    @Test
+    public void testCompaction() throws Exception {
+        File tfile = new File("fmtest2.bin");
+        FileHashMap<Integer, byte[]> map = new FileHashMap<>(tfile);
+        try {
+            int valueSize = 100 * 1024;
+            for (int round = 0; round < 20; round++) {
+                for (int key = 0; key < 10; key++) {
+                    byte[] value = new byte[valueSize];
+                    Arrays.fill(value, (byte) (round * 10 + key));
+                    map.put(key, value);
+                }
+            }
+
+            // 10 live values, the overwritten ones must be reclaimed
+            assertTrue(map.getFileSize() <= 10L * valueSize * 3);
+            for (int key = 0; key < 10; key++) {
+                byte[] value = map.get(key);
+                assertEquals(value.length, valueSize);
+                assertEquals(value[0], (byte) (190 + key));
+                assertEquals(value[valueSize - 1], (byte) (190 + key));
+            }
+        } finally {
+            map.delete();
+        }
+    }
+
+    @Test
+    public void testImageValues() throws Exception {
+        File tfile = new File("fmtest3.bin");
+        FileHashMap<String, SerializableImage> map = new FileHashMap<>(tfile);
+        try {
+            SerializableImage image = new SerializableImage(3, 2, BufferedImage.TYPE_INT_ARGB_PRE);
+            image.setRGB(1, 1, 0xff123456);
+            map.put("A", image);
+            SerializableImage image2 = map.get("A");
+            assertEquals(image2.getWidth(), 3);
+            assertEquals(image2.getHeight(), 2);
+            assertEquals(image2.getType(), BufferedImage.TYPE_INT_ARGB_PRE);
+            assertEquals(image2.getRGB(1, 1), 0xff123456);
+            assertEquals(image2.getRGB(0, 0), 0);
+        } finally {
+            map.delete();
+        }
+    }
 }
@@ -0,0 +1,137 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash;
+
+import com.jpexs.decompiler.flash.types.filters.Filtering;
+import com.jpexs.helpers.SerializableImage;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author JPEXS
+ */
+public class FilteringTest {
+
+    private static final Color[] GRADIENT_COLORS = new Color[]{new Color(0xff0000, false), new Color(0x8000ff00, true), new Color(0xff0000ff, true)};
+
+    private static final float[] GRADIENT_RATIOS = new float[]{0f, 0.5f, 1f};
+
+    // checksums of the images produced by the filters, see getChecksums
+    private static final long[][] EXPECTED = new long[][]{
+        {2619820597L, 1362022229L, 2430720343L, 620322957L, 3696818523L, 1529163252L, 508686588L, 2222338875L, 2622807451L, 297349800L, 1840478889L, 3097107307L, 2726661364L, 1573223507L},
+        {2453988907L, 1694168173L, 2189390849L, 593324073L, 886563288L, 2196171261L, 1956278964L, 3790456528L, 3614243171L, 2281390633L, 1304382563L, 3920477560L, 1623078181L, 1501460389L},
+        {348345617L, 2265673867L, 416402092L, 1195371553L, 1260208636L, 1032416304L, 3162933123L, 2573824760L, 349778330L, 292971152L, 422842759L, 3649614322L, 2858277033L, 4179162775L},
+        {3303477912L, 669894067L, 3817843023L, 3654920782L, 1672895882L, 2887765113L, 3413672760L, 714262589L, 1654953711L, 2963866646L, 2701937336L, 237921393L, 2219028680L, 3498918329L}
+    };
+
+    /**
+     * Creates an image with overlapping translucent blobs. The pixels are
+     * computed, so the image does not depend on the Java2D implementation.
+     */
+    private static SerializableImage createImage(int width, int height, int type, int seed) {
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int color = 0;
+                for (int i = 0; i < 5; i++) {
+                    int cx = (seed * 31 + i * 57) % width;
+                    int cy = (seed * 17 + i * 43) % height;
+                    int r = 8 + (seed + i * 13) % (Math.min(width, height) / 2);
+                    int dx = x - cx;
+                    int dy = y - cy;
+                    int d2 = dx * dx + dy * dy;
+                    if (d2 < r * r) {
+                        int alpha = 255 - 200 * d2 / (r * r);
+                        color = (alpha << 24) | (((i * 73 + seed) & 0xff) << 16) | (((i * 151) & 0xff) << 8) | ((x * 255 / width) & 0xff);
+                    }
+                }
+
+                pixels[y * width + x] = color;
+            }
+        }
+
+        BufferedImage image = new BufferedImage(width, height, type);
+        image.setRGB(0, 0, width, height, pixels, 0, width);
+        return new SerializableImage(image);
+    }
+
+    private static long checksum(SerializableImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getBufferedImage().getRGB(0, 0, width, height, null, 0, width);
+        CRC32 crc = new CRC32();
+        for (int pixel : pixels) {
+            crc.update(pixel >>> 24);
+            crc.update(pixel >>> 16);
+            crc.update(pixel >>> 8);
+            crc.update(pixel);
+        }
+
+        return crc.getValue();
+    }
+
+    private static long[] getChecksums(SerializableImage src) {
+        Color color = new Color(0xc0ff8020, true);
+        List<SerializableImage> images = new ArrayList<>();
+        images.add(Filtering.blur(src, 0, 0, 1));
+        images.add(Filtering.blur(src, 5, 5, 1));
+        images.add(Filtering.blur(src, 16, 4, 2));
+        images.add(Filtering.blur(src, 3, 21, 3));
+        images.add(Filtering.glow(src, 8, 8, 1.5f, color, false, false, 1));
+        images.add(Filtering.glow(src, 8, 8, 1.5f, color, true, true, 2));
+        images.add(Filtering.dropShadow(src, 6, 6, 45, 4, color, false, 1, 1f, false));
+        images.add(Filtering.dropShadow(src, 6, 6, 0, 5, color, false, 1, 1f, true));
+        images.add(Filtering.dropShadow(src, 6, 6, 180, 3, color, true, 1, 2f, true));
+        images.add(Filtering.gradientGlow(src, 8, 8, 45, 0, GRADIENT_COLORS, GRADIENT_RATIOS, Filtering.INNER, 1, 1f, true));
+        images.add(Filtering.gradientGlow(src, 8, 8, 45, 0, GRADIENT_COLORS, GRADIENT_RATIOS, Filtering.OUTER, 1, 1f, false));
+        images.add(Filtering.gradientGlow(src, 8, 8, 45, 4, GRADIENT_COLORS, GRADIENT_RATIOS, Filtering.FULL, 2, 1f, true));
+        images.add(Filtering.bevel(src, 6, 6, 1f, Filtering.INNER, 0xffffffff, 0xff000000, 45, 4, false, 1));
+        images.add(Filtering.bevel(src, 6, 6, 1f, Filtering.FULL, 0xffffffff, 0xff000000, 45, 4, true, 1));
+
+        long[] result = new long[images.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = checksum(images.get(i));
+        }
+
+        return result;
+    }
+
+    private static List<SerializableImage> getSources() {
+        List<SerializableImage> result = new ArrayList<>();
+        result.add(createImage(97, 61, BufferedImage.TYPE_INT_ARGB, 1));
+        result.add(createImage(97, 61, BufferedImage.TYPE_INT_ARGB_PRE, 2));
+        result.add(createImage(420, 300, BufferedImage.TYPE_INT_ARGB, 3));
+        result.add(createImage(420, 300, BufferedImage.TYPE_INT_ARGB_PRE, 4));
+        return result;
+    }
+
+    @Test
+    public void testFilterResults() {
+        List<SerializableImage> sources = getSources();
+        for (int i = 0; i < sources.size(); i++) {
+            long[] checksums = getChecksums(sources.get(i));
+            for (int j = 0; j < checksums.length; j++) {
+                assertEquals(checksums[j], EXPECTED[i][j], "source " + i + ", filter " + j);
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash;
+
+import com.jpexs.decompiler.flash.timeline.DepthState;
+import com.jpexs.decompiler.flash.timeline.LayerMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author JPEXS
+ */
+public class LayerMapTest {
+
+    private static DepthState state() {
+        return new DepthState(null, null);
+    }
+
+    private static void assertMap(LayerMap map, TreeMap<Integer, DepthState> expected) {
+        assertEquals(map.size(), expected.size());
+        assertEquals(map.isEmpty(), expected.isEmpty());
+        List<Integer> keys = new ArrayList<>();
+        for (Map.Entry<Integer, DepthState> entry : map.entrySet()) {
+            keys.add(entry.getKey());
+            assertSame(entry.getValue(), expected.get(entry.getKey()));
+        }
+
+        assertEquals(keys, new ArrayList<>(expected.keySet()));
+        for (Integer key : expected.keySet()) {
+            assertTrue(map.containsKey(key));
+            assertSame(map.get(key), expected.get(key));
+        }
+    }
+
+    @Test
+    public void testPut() {
+        LayerMap map = new LayerMap();
+        DepthState a = state();
+        DepthState b = state();
+        assertNull(map.put(5, a));
+        assertSame(map.get(5), a);
+        assertSame(map.put(5, b), a);
+        assertSame(map.get(5), b);
+        assertEquals(map.size(), 1);
+        assertNull(map.get(4));
+        assertNull(map.get("5"));
+        assertFalse(map.containsKey(6));
+    }
+
+    @Test
+    public void testRemove() {
+        LayerMap map = new LayerMap();
+        DepthState a = state();
+        map.put(1, a);
+        map.put(2, state());
+        assertNull(map.remove(3));
+        assertNull(map.remove("1"));
+        assertSame(map.remove(1), a);
+        assertNull(map.get(1));
+        assertEquals(map.size(), 1);
+        map.remove(2);
+        assertTrue(map.isEmpty());
+        assertFalse(map.entrySet().iterator().hasNext());
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(1);
+        LayerMap map = new LayerMap();
+        TreeMap<Integer, DepthState> expected = new TreeMap<>();
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(200) - 100;
+            if (random.nextInt(3) == 0) {
+                assertSame(map.remove(key), expected.remove(key));
+            } else {
+                DepthState value = state();
+                assertSame(map.put(key, value), expected.put(key, value));
+            }
+
+            if (i % 100 == 0) {
+                assertMap(map, expected);
+            }
+        }
+
+        assertMap(map, expected);
+    }
+
+    @Test
+    public void testIterationOrder() {
+        LayerMap map = new LayerMap();
+        TreeMap<Integer, DepthState> expected = new TreeMap<>();
+
+        // ascending, descending and interleaved inserts exercise all the rotations
+        for (int i = 0; i < 100; i++) {
+            expected.put(i, state());
+            expected.put(1000 - i, state());
+            expected.put(500 + (i % 2 == 0 ? i : -i), state());
+        }
+
+        for (Map.Entry<Integer, DepthState> entry : expected.entrySet()) {
+            map.put(entry.getKey(), entry.getValue());
+        }
+
+        assertMap(map, expected);
+    }
+
+    @Test
+    public void testCopiesDoNotShareChanges() {
+        Random random = new Random(2);
+        List<LayerMap> frames = new ArrayList<>();
+        List<TreeMap<Integer, DepthState>> expectedFrames = new ArrayList<>();
+        LayerMap map = new LayerMap();
+        TreeMap<Integer, DepthState> expected = new TreeMap<>();
+        for (int frame = 0; frame < 200; frame++) {
+            // next frame starts as a copy of the previous one, like in the timeline
+            map = new LayerMap(map);
+            expected = new TreeMap<>(expected);
+            for (int i = 0; i < 5; i++) {
+                int key = random.nextInt(50);
+                if (random.nextBoolean()) {
+                    map.remove(key);
+                    expected.remove(key);
+                } else {
+                    DepthState value = state();
+                    map.put(key, value);
+                    expected.put(key, value);
+                }
+            }
+
+            frames.add(map);
+            expectedFrames.add(expected);
+        }
+
+        for (int frame = 0; frame < frames.size(); frame++) {
+            assertMap(frames.get(frame), expectedFrames.get(frame));
+        }
+    }
+
+    @Test
+    public void testChangingFrameKeepsPreviousFrame() {
+        LayerMap frame1 = new LayerMap();
+        DepthState a = state();
+        DepthState b = state();
+        frame1.put(1, a);
+        frame1.put(2, b);
+
+        LayerMap frame2 = new LayerMap(frame1);
+        DepthState c = state();
+        frame2.put(2, c);
+        frame2.put(3, state());
+        frame2.remove(1);
+        frame2.clear();
+        frame2.put(4, c);
+
+        assertEquals(frame1.size(), 2);
+        assertSame(frame1.get(1), a);
+        assertSame(frame1.get(2), b);
+        assertNull(frame1.get(3));
+        assertNull(frame1.get(4));
+        assertEquals(frame2.size(), 1);
+        assertSame(frame2.get(4), c);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash;
+
+import com.jpexs.decompiler.flash.configuration.Configuration;
+import com.jpexs.decompiler.flash.tags.DefineSpriteTag;
+import com.jpexs.decompiler.flash.tags.Tag;
+import com.jpexs.decompiler.flash.tags.base.ASMSource;
+import com.jpexs.decompiler.flash.tags.base.ShapeTag;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author JPEXS
+ */
+public class MappedLoadingTest {
+
+    private int threshold;
+
+    @BeforeClass
+    public void init() {
+        threshold = Configuration.mappedLoadingThreshold.get();
+    }
+
+    @AfterClass
+    public void restore() {
+        Configuration.mappedLoadingThreshold.set(threshold);
+    }
+
+    private static SWF open(String file, boolean mapped, boolean withPath) throws Exception {
+        Configuration.mappedLoadingThreshold.set(mapped ? 0 : -1);
+        try (FileInputStream fis = new FileInputStream(file)) {
+            return new SWF(new BufferedInputStream(fis), withPath ? file : null, null, null, false, false, true);
+        }
+    }
+
+    private static List<Tag> getAllTags(SWF swf) {
+        List<Tag> ret = new ArrayList<>();
+        for (Tag tag : swf.getTags()) {
+            ret.add(tag);
+            if (tag instanceof DefineSpriteTag) {
+                for (Tag subTag : ((DefineSpriteTag) tag).getTags()) {
+                    ret.add(subTag);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private static byte[] save(SWF swf) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        swf.saveTo(baos);
+        return baos.toByteArray();
+    }
+
+    private static void compare(SWF heapSwf, SWF mappedSwf) throws Exception {
+        assertTrue(heapSwf.getUncompressedRange().hasArray());
+        assertFalse(mappedSwf.getUncompressedRange().hasArray());
+        assertNull(mappedSwf.uncompressedData);
+
+        List<Tag> heapTags = getAllTags(heapSwf);
+        List<Tag> mappedTags = getAllTags(mappedSwf);
+        assertEquals(mappedTags.size(), heapTags.size());
+        for (int i = 0; i < heapTags.size(); i++) {
+            Tag heapTag = heapTags.get(i);
+            Tag mappedTag = mappedTags.get(i);
+            assertEquals(mappedTag.getClass(), heapTag.getClass());
+            assertFalse(mappedTag.getOriginalRange().hasArray());
+            assertTrue(Arrays.equals(mappedTag.getOriginalData(), heapTag.getOriginalData()));
+            assertTrue(Arrays.equals(mappedTag.getData(), heapTag.getData()));
+            if (heapTag instanceof ShapeTag) {
+                assertEquals(((ShapeTag) mappedTag).getShapes().shapeRecords.size(), ((ShapeTag) heapTag).getShapes().shapeRecords.size());
+            }
+
+            if (heapTag instanceof ASMSource) {
+                assertEquals(((ASMSource) mappedTag).getActions().toString(), ((ASMSource) heapTag).getActions().toString());
+            }
+        }
+
+        assertTrue(Arrays.equals(save(mappedSwf), save(heapSwf)));
+    }
+
+    @Test
+    public void testCompressed() throws Exception {
+        for (String file : new String[]{"testdata/as2/as2.swf", "testdata/as3/as3.swf"}) {
+            compare(open(file, false, true), open(file, true, true));
+        }
+    }
+
+    @Test
+    public void testUncompressed() throws Exception {
+        File file = File.createTempFile("ffdec_mapped_test_", ".swf");
+        try {
+            try (FileInputStream fis = new FileInputStream("testdata/as2/as2.swf");
+                    FileOutputStream fos = new FileOutputStream(file)) {
+                assertTrue(SWF.decompress(fis, fos));
+            }
+
+            String path = file.getAbsolutePath();
+            SWF heapSwf = open(path, false, true);
+            compare(heapSwf, open(path, true, true));
+            compare(heapSwf, open(path, true, false));
+        } finally {
+            file.delete();
+        }
+    }
+}
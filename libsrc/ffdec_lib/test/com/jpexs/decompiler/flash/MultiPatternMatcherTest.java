@@ -0,0 +1,68 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash;
+
+import com.jpexs.helpers.MultiPatternMatcher;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author JPEXS
+ */
+public class MultiPatternMatcherTest {
+
+    private static List<String> scan(MultiPatternMatcher matcher, String text, int chunkSize) {
+        List<String> result = new ArrayList<>();
+        byte[] data = text.getBytes(StandardCharsets.US_ASCII);
+        int state = MultiPatternMatcher.INITIAL_STATE;
+        for (int pos = 0; pos < data.length; pos += chunkSize) {
+            int len = Math.min(chunkSize, data.length - pos);
+            state = matcher.scan(data, pos, len, state, pos, (long position, int patternIndex) -> {
+                result.add(position + ":" + patternIndex);
+            });
+        }
+
+        return result;
+    }
+
+    @Test
+    public void testMatches() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(
+                "FWS".getBytes(StandardCharsets.US_ASCII),
+                "CWS".getBytes(StandardCharsets.US_ASCII),
+                "WS".getBytes(StandardCharsets.US_ASCII),
+                "FWFWS".getBytes(StandardCharsets.US_ASCII));
+
+        String text = "xFWFWSxxCWSFWS";
+        List<String> expected = new ArrayList<>();
+        expected.add("1:3");
+        expected.add("3:0");
+        expected.add("4:2");
+        expected.add("8:1");
+        expected.add("9:2");
+        expected.add("11:0");
+        expected.add("12:2");
+
+        // matches crossing the chunks must be found too
+        for (int chunkSize = 1; chunkSize <= text.length(); chunkSize++) {
+            assertEquals(scan(matcher, text, chunkSize), expected, "chunk size " + chunkSize);
+        }
+    }
+}
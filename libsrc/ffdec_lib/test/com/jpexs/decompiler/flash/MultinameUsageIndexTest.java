@@ -0,0 +1,75 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash;
+
+import com.jpexs.decompiler.flash.abc.ABC;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.AVM2Instruction;
+import com.jpexs.decompiler.flash.abc.avm2.instructions.AVM2Instructions;
+import com.jpexs.decompiler.flash.abc.types.MethodBody;
+import com.jpexs.decompiler.flash.abc.usages.MultinameUsage;
+import com.jpexs.decompiler.flash.tags.ABCContainerTag;
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.List;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author JPEXS
+ */
+public class MultinameUsageIndexTest {
+
+    private ABC loadAbc() throws IOException, InterruptedException {
+        SWF swf = new SWF(new BufferedInputStream(new FileInputStream("testdata/as3/as3.swf")), false);
+        List<ABCContainerTag> abcList = swf.getAbcList();
+        assertFalse(abcList.isEmpty());
+        return abcList.get(0).getABC();
+    }
+
+    @Test
+    public void testIndexMatchesScan() throws IOException, InterruptedException {
+        ABC abc = loadAbc();
+        for (int m = 0; m < abc.constants.getMultinameCount(); m++) {
+            //toString of some usages fails, do not let assertEquals format them
+            assertTrue(abc.findMultinameUsage(m).equals(abc.scanMultinameUsage(m)), "Usages of multiname " + m);
+        }
+    }
+
+    @Test
+    public void testIndexUpdatedAfterCodeChange() throws IOException, InterruptedException {
+        ABC abc = loadAbc();
+        int unused = -1;
+        for (int m = 1; m < abc.constants.getMultinameCount(); m++) {
+            if (abc.findMultinameUsage(m).isEmpty()) {
+                unused = m;
+                break;
+            }
+        }
+        assertTrue(unused > 0, "No unused multiname");
+
+        MethodBody body = abc.findBody(abc.instance_info.get(0).iinit_index);
+        body.insertInstruction(0, new AVM2Instruction(0, AVM2Instructions.Pop, null));
+        body.insertInstruction(0, new AVM2Instruction(0, AVM2Instructions.GetLex, new int[]{unused}));
+
+        List<MultinameUsage> usages = abc.findMultinameUsage(unused);
+        assertEquals(usages.size(), 1);
+        assertTrue(usages.equals(abc.scanMultinameUsage(unused)));
+    }
+}
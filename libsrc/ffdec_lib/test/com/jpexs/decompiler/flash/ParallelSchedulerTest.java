@@ -0,0 +1,99 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash;
+
+import com.jpexs.helpers.CancellableWorker;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author JPEXS
+ */
+public class ParallelSchedulerTest {
+
+    private static Void spin() throws InterruptedException {
+        while (!CancellableWorker.isInterrupted()) {
+            Thread.yield();
+        }
+
+        throw new InterruptedException();
+    }
+
+    @Test
+    public void testResult() throws Exception {
+        assertEquals((int) ParallelScheduler.call(() -> 42, 10, TimeUnit.SECONDS), 42);
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        long start = System.nanoTime();
+        try {
+            ParallelScheduler.call(ParallelSchedulerTest::spin, 200, TimeUnit.MILLISECONDS);
+            fail("TimeoutException expected");
+        } catch (TimeoutException ex) {
+            // expected
+        }
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+    }
+
+    @Test
+    public void testCallFromWorkerRunsInline() throws Exception {
+        Future<Boolean> future = ParallelScheduler.submit(() -> {
+            Thread worker = Thread.currentThread();
+            Thread called = ParallelScheduler.call(() -> Thread.currentThread(), 10, TimeUnit.SECONDS);
+            return worker == called;
+        });
+
+        assertTrue(future.get());
+    }
+
+    @Test
+    public void testDeadlineAppliesToForkedTasks() throws Exception {
+        Callable<Throwable> forking = () -> {
+            Future<Void> nested = ParallelScheduler.submit(ParallelSchedulerTest::spin);
+            try {
+                nested.get();
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                while (cause != null && !(cause instanceof InterruptedException)) {
+                    cause = cause.getCause();
+                }
+
+                return cause;
+            }
+
+            return null;
+        };
+
+        Throwable nestedResult = ParallelScheduler.call(forking, 200, TimeUnit.MILLISECONDS);
+        assertTrue(nestedResult instanceof InterruptedException, "forked task was not stopped by the deadline");
+    }
+
+    @Test
+    public void testPoolIsShared() {
+        assertSame(ParallelScheduler.getPool(), ParallelScheduler.getPool());
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash;
+
+import com.jpexs.decompiler.flash.abc.ABC;
+import com.jpexs.decompiler.flash.abc.ScriptPack;
+import com.jpexs.decompiler.flash.abc.types.ConvertData;
+import com.jpexs.decompiler.flash.abc.types.MethodBody;
+import com.jpexs.decompiler.flash.abc.types.traits.Trait;
+import com.jpexs.decompiler.flash.abc.types.traits.TraitClass;
+import com.jpexs.decompiler.flash.action.ActionList;
+import com.jpexs.decompiler.flash.cache.PersistentScriptCache;
+import com.jpexs.decompiler.flash.configuration.Configuration;
+import com.jpexs.decompiler.flash.exporters.modes.ScriptExportMode;
+import com.jpexs.decompiler.flash.helpers.HighlightedText;
+import com.jpexs.decompiler.flash.helpers.HighlightedTextWriter;
+import com.jpexs.decompiler.flash.helpers.hilight.HighlightData;
+import com.jpexs.decompiler.flash.helpers.hilight.Highlighting;
+import com.jpexs.decompiler.flash.tags.Tag;
+import com.jpexs.decompiler.flash.tags.base.ASMSource;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author JPEXS
+ */
+public class PersistentScriptCacheTest {
+
+    private String directory;
+
+    private int sizeLimit;
+
+    private File tempDir;
+
+    @BeforeClass
+    public void init() throws Exception {
+        directory = Configuration.persistentCacheDirectory.get();
+        sizeLimit = Configuration.persistentCacheSizeLimit.get();
+        tempDir = Files.createTempDirectory("ffdec_cache").toFile();
+        Configuration.persistentCacheDirectory.set(new File(tempDir, "scripts").getAbsolutePath());
+    }
+
+    @AfterClass
+    public void restore() {
+        Configuration.persistentCacheDirectory.set(directory);
+        Configuration.persistentCacheSizeLimit.set(sizeLimit);
+        delete(tempDir);
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                delete(f);
+            }
+        }
+
+        file.delete();
+    }
+
+    private static SWF open(String file) throws Exception {
+        try (FileInputStream fis = new FileInputStream(file)) {
+            return new SWF(new BufferedInputStream(fis), file, null, null, false, false, true);
+        }
+    }
+
+    private static MethodBody getConstructorBody(ScriptPack pack) {
+        ABC abc = pack.abc;
+        for (int t : pack.traitIndices) {
+            Trait trait = abc.script_info.get(pack.scriptIndex).traits.traits.get(t);
+            if (trait instanceof TraitClass) {
+                MethodBody body = abc.findBody(abc.instance_info.get(((TraitClass) trait).class_info).iinit_index);
+                if (body != null) {
+                    return body;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private static HighlightedText decompile(ScriptPack pack) throws Exception {
+        HighlightedTextWriter writer = new HighlightedTextWriter(Configuration.getCodeFormatting(), true);
+        pack.toSource(writer, pack.abc.script_info.get(pack.scriptIndex).traits.traits, new ConvertData(), ScriptExportMode.AS, false);
+        return new HighlightedText(writer);
+    }
+
+    private static void assertHighlightsEqual(List<Highlighting> actual, List<Highlighting> expected) {
+        assertEquals(actual.size(), expected.size());
+        for (int i = 0; i < actual.size(); i++) {
+            Highlighting a = actual.get(i);
+            Highlighting e = expected.get(i);
+            assertEquals(a.startPos, e.startPos);
+            assertEquals(a.len, e.len);
+            HighlightData ad = a.getProperties();
+            HighlightData ed = e.getProperties();
+            assertEquals(ad.index, ed.index);
+            assertEquals(ad.offset, ed.offset);
+            assertEquals(ad.fileOffset, ed.fileOffset);
+            assertEquals(ad.firstLineOffset, ed.firstLineOffset);
+        }
+    }
+
+    private static void assertTextEquals(HighlightedText actual, HighlightedText expected) {
+        assertEquals(actual.text, expected.text);
+        assertHighlightsEqual(actual.getTraitHighlights(), expected.getTraitHighlights());
+        assertHighlightsEqual(actual.getClassHighlights(), expected.getClassHighlights());
+        assertHighlightsEqual(actual.getMethodHighlights(), expected.getMethodHighlights());
+        assertHighlightsEqual(actual.getInstructionHighlights(), expected.getInstructionHighlights());
+        assertHighlightsEqual(actual.getSpecialHighlights(), expected.getSpecialHighlights());
+    }
+
+    private static List<ASMSource> getAsmSources(SWF swf) {
+        List<ASMSource> ret = new ArrayList<>();
+        for (Tag tag : swf.getTags()) {
+            if (tag instanceof ASMSource) {
+                ret.add((ASMSource) tag);
+            }
+        }
+
+        return ret;
+    }
+
+    @Test
+    public void testAs3KeyDoesNotDependOnOtherClasses() throws Exception {
+        SWF swf = open("testdata/as3/as3.swf");
+        List<ScriptPack> packs = new ArrayList<>();
+        for (ScriptPack pack : swf.getAS3Packs()) {
+            if (getConstructorBody(pack) != null) {
+                packs.add(pack);
+            }
+        }
+
+        assertTrue(packs.size() >= 2);
+        ScriptPack modified = packs.get(0);
+        ScriptPack other = packs.get(1);
+        PersistentScriptCache.Key modifiedKey = PersistentScriptCache.getKey(modified, true);
+        PersistentScriptCache.Key otherKey = PersistentScriptCache.getKey(other, true);
+        assertNotNull(modifiedKey);
+        assertNotNull(otherKey);
+        assertEquals(PersistentScriptCache.getKey(modified, true).getHash(), modifiedKey.getHash());
+
+        getConstructorBody(modified).max_stack++;
+        PersistentScriptCache.invalidate(swf);
+        assertNotEquals(PersistentScriptCache.getKey(modified, true).getHash(), modifiedKey.getHash());
+        assertEquals(PersistentScriptCache.getKey(other, true).getHash(), otherKey.getHash());
+    }
+
+    @Test
+    public void testAs3HighlightsRestored() throws Exception {
+        SWF swf = open("testdata/as3/as3.swf");
+        for (ScriptPack pack : swf.getAS3Packs()) {
+            HighlightedText text = decompile(pack);
+            PersistentScriptCache.Key key = PersistentScriptCache.getKey(pack, true);
+            PersistentScriptCache.put(key, text);
+            HighlightedText cached = PersistentScriptCache.get(PersistentScriptCache.getKey(pack, true));
+            assertNotNull(cached, pack.getClassPath().toString());
+            assertTextEquals(cached, text);
+        }
+    }
+
+    @Test
+    public void testAs2HighlightsRestored() throws Exception {
+        SWF swf = open("testdata/as2/as2.swf");
+        for (ASMSource src : getAsmSources(swf)) {
+            ActionList actions = src.getActions();
+            HighlightedTextWriter writer = new HighlightedTextWriter(Configuration.getCodeFormatting(), true);
+            writer.startFunction("!script");
+            src.getActionScriptSource(writer, actions);
+            writer.endFunction();
+            HighlightedText text = new HighlightedText(writer);
+            PersistentScriptCache.put(PersistentScriptCache.getKey(src, true), text);
+            HighlightedText cached = PersistentScriptCache.get(PersistentScriptCache.getKey(src, true));
+            assertNotNull(cached, src.toString());
+            assertTextEquals(cached, text);
+        }
+    }
+
+    @Test
+    public void testLeastRecentlyUsedRemoved() throws Exception {
+        File dir = new File(tempDir, "limited");
+        Configuration.persistentCacheDirectory.set(dir.getAbsolutePath());
+        Configuration.persistentCacheSizeLimit.set(1);
+        try {
+            Map<String, PersistentScriptCache.Key> keys = new LinkedHashMap<>();
+            for (ASMSource src : getAsmSources(open("testdata/as2/as2.swf"))) {
+                PersistentScriptCache.Key key = PersistentScriptCache.getKey(src, false);
+                keys.put(key.getHash(), key);
+            }
+
+            assertTrue(keys.size() >= 4);
+            List<PersistentScriptCache.Key> keyList = new ArrayList<>(keys.values());
+            Random random = new Random(1);
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < 4; i++) {
+                // about 290 KB after compression, 3 files fit the limit, 4 do not
+                StringBuilder sb = new StringBuilder();
+                for (int j = 0; j < 380000; j++) {
+                    sb.append((char) ('0' + random.nextInt(64)));
+                }
+
+                if (i == 3) {
+                    assertNotNull(PersistentScriptCache.get(keyList.get(0)));
+                }
+
+                PersistentScriptCache.put(keyList.get(i), new HighlightedText(sb.toString()));
+                if (i < 3) {
+                    File file = getFile(dir, keyList.get(i));
+                    assertTrue(file.exists());
+                    file.setLastModified(now - (3 - i) * 10000);
+                }
+            }
+
+            assertTrue(getFile(dir, keyList.get(0)).exists());
+            assertFalse(getFile(dir, keyList.get(1)).exists());
+            assertTrue(getFile(dir, keyList.get(2)).exists());
+            assertTrue(getFile(dir, keyList.get(3)).exists());
+        } finally {
+            Configuration.persistentCacheDirectory.set(new File(tempDir, "scripts").getAbsolutePath());
+            Configuration.persistentCacheSizeLimit.set(sizeLimit);
+        }
+    }
+
+    private static File getFile(File dir, PersistentScriptCache.Key key) {
+        String hash = key.getHash();
+        return new File(new File(dir, hash.substring(0, 2)), hash + ".bin");
+    }
+}
@@ -16,11 +16,18 @@
 package com.jpexs.decompiler.flash;
 
 //import com.jpexs.decompiler.flash.gui.Main;
+import com.jpexs.decompiler.flash.dumpview.DumpInfo;
+import com.jpexs.decompiler.flash.dumpview.DumpInfoSwfNode;
 import com.jpexs.decompiler.flash.types.RECT;
+import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.List;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
@@ -179,6 +186,65 @@ public class SWFStreamTest {
         }
     }
 
+    @Test
+    public void testIntegers() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (SWFOutputStream sos = new SWFOutputStream(baos, SWF.DEFAULT_VERSION)) {
+            sos.writeUI16(0xABCD);
+            sos.writeSI16(-2);
+            sos.writeUI32(0x7FFFFFFEL);
+            sos.writeSI32(-100000);
+            sos.writeEncodedU32(0x0FFFFFFF);
+            sos.writeString("abc");
+            sos.writeString("");
+            sos.writeUI16(0x1234);
+        }
+        byte[] data = baos.toByteArray();
+        try (SWFInputStream sis = new SWFInputStream(null, data)) {
+            assertEquals(sis.readUI16("test"), 0xABCD);
+            assertEquals(sis.readSI16("test"), -2);
+            assertEquals(sis.readUI32("test"), 0x7FFFFFFEL);
+            assertEquals(sis.readSI32("test"), -100000);
+            assertEquals(sis.readEncodedU32("test"), 0x0FFFFFFF);
+            assertEquals(sis.readString("test"), "abc");
+            assertEquals(sis.readString("test"), "");
+            assertEquals(sis.readUI16("test"), 0x1234);
+            assertEquals(sis.getPos(), data.length);
+        }
+    }
+
+    @Test
+    public void testTruncated() throws IOException {
+        byte[] data = new byte[]{(byte) 0x34, (byte) 0x12, (byte) 0x80, (byte) 0x80, (byte) 0x81};
+        try (SWFInputStream sis = new SWFInputStream(null, data)) {
+            assertEquals(sis.readUI16("test"), 0x1234);
+            try {
+                sis.readUI32("test");
+                fail();
+            } catch (EndOfStreamException ex) {
+                assertEquals(sis.getPos(), data.length);
+            }
+        }
+        try (SWFInputStream sis = new SWFInputStream(null, data)) {
+            sis.readUI16("test");
+            try {
+                sis.readEncodedU32("test");
+                fail();
+            } catch (EndOfStreamException ex) {
+                assertEquals(sis.getPos(), data.length);
+            }
+        }
+        try (SWFInputStream sis = new SWFInputStream(null, data)) {
+            sis.readUI16("test");
+            try {
+                sis.readString("test");
+                fail();
+            } catch (EndOfStreamException ex) {
+                assertEquals(sis.getPos(), data.length);
+            }
+        }
+    }
+
     @Test
     public void testRECT() throws IOException {
         RECT rect;
@@ -195,4 +261,28 @@ public class SWFStreamTest {
             assertEquals(readRECT.Ymax, 0x3FFFFFFF);
         }
     }
+
+    @Test
+    public void testDumpInfoReadOnDemand() throws IOException, InterruptedException {
+        SWF swf = new SWF(new BufferedInputStream(new FileInputStream("testdata/as2/as2.swf")), false);
+        DumpInfoSwfNode swfNode = swf.getDumpInfo();
+        assertEquals(swfNode.getChildCount(), 0);
+
+        swfNode.resolveTag();
+        List<DumpInfo> childInfos = swfNode.getChildInfos();
+        assertEquals(childInfos.get(0).name, "signature");
+        assertEquals(childInfos.get(1).previewValue, swf.version);
+        assertEquals(childInfos.get(2).previewValue, swf.fileSize);
+        int tagCount = 0;
+        for (DumpInfo di : childInfos) {
+            if (di.tagToResolve != null) {
+                tagCount++;
+                assertEquals(di.getChildInfos().get(0).name, "tagIDTagLength");
+                assertNull(di.resolvedTag);
+            }
+        }
+
+        // the End tag is not in the tag list
+        assertEquals(tagCount, swf.getTags().size() + 1);
+    }
 }
@@ -0,0 +1,102 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash;
+
+import com.jpexs.decompiler.flash.search.ScriptSearchIndex;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author JPEXS
+ */
+public class ScriptSearchIndexTest {
+
+    @Test
+    public void testRequiredLiterals() {
+        assertEquals(ScriptSearchIndex.getRequiredLiterals("getURL"), Arrays.asList("getURL"));
+        assertEquals(ScriptSearchIndex.getRequiredLiterals("new\\s+Loader\\(\\)"), Arrays.asList("new", "Loader()"));
+        assertEquals(ScriptSearchIndex.getRequiredLiterals("colou?r"), Arrays.asList("colo", "r"));
+        assertEquals(ScriptSearchIndex.getRequiredLiterals("ab+cd"), Arrays.asList("ab", "cd"));
+        assertEquals(ScriptSearchIndex.getRequiredLiterals("abc(def)*ghi"), Arrays.asList("abc", "ghi"));
+        assertEquals(ScriptSearchIndex.getRequiredLiterals("[a-z]+Event\\x41"), Arrays.asList("Event"));
+        assertEquals(ScriptSearchIndex.getRequiredLiterals("x{0,2}yzw"), Arrays.asList("yzw"));
+        assertNull(ScriptSearchIndex.getRequiredLiterals("load|save"));
+        assertNull(ScriptSearchIndex.getRequiredLiterals("(?x) a b c"));
+        assertNull(ScriptSearchIndex.getRequiredLiterals("\\Qa.b\\E"));
+    }
+
+    @Test
+    public void testQuery() {
+        ScriptSearchIndex<String> index = new ScriptSearchIndex<>();
+        index.put("a", "var loader:Loader = new Loader();");
+        index.put("b", "trace(\"Hello World\");");
+        index.put("c", "navigateToURL(new URLRequest(url));");
+
+        ScriptSearchIndex.Query query = index.query("new loader", false);
+        assertTrue(index.mayMatch(query, "a"));
+        assertFalse(index.mayMatch(query, "b"));
+        assertFalse(index.mayMatch(query, "c"));
+
+        query = index.query("new\\s+URL", true);
+        assertFalse(index.mayMatch(query, "a"));
+        assertFalse(index.mayMatch(query, "b"));
+        assertTrue(index.mayMatch(query, "c"));
+
+        query = index.query("trace|Loader", true);
+        assertTrue(index.mayMatch(query, "a"));
+        assertTrue(index.mayMatch(query, "b"));
+
+        //scripts indexed after the query are not filtered
+        query = index.query("Sprite", false);
+        index.put("d", "class Main extends Sprite");
+        assertFalse(index.mayMatch(query, "a"));
+        assertTrue(index.mayMatch(query, "d"));
+
+        index.remove("a");
+        assertFalse(index.contains("a"));
+        assertEquals(index.getText("b"), "trace(\"Hello World\");");
+    }
+
+    @Test
+    public void testCandidatesContainMatches() {
+        String[] texts = {"ab+c", "Stra\u00DFe", "MAX_VALUE", "x = 1;\r\ny = 2;", "function get value():int"};
+        String[] queries = {"b+c", "STRA\u00DFE", "max_value", "1;\\s+y", "get\\s+\\w+\\(", "value"};
+        ScriptSearchIndex<Integer> index = new ScriptSearchIndex<>();
+        for (int i = 0; i < texts.length; i++) {
+            index.put(i, texts[i]);
+        }
+
+        for (String q : queries) {
+            for (boolean regexp : new boolean[]{false, true}) {
+                Pattern pat = regexp
+                        ? Pattern.compile(q, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE)
+                        : Pattern.compile(Pattern.quote(q), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+                ScriptSearchIndex.Query query = index.query(q, regexp);
+                for (int i = 0; i < texts.length; i++) {
+                    if (pat.matcher(texts[i]).find()) {
+                        assertTrue(index.mayMatch(query, i), q + " in " + texts[i]);
+                    }
+                }
+            }
+        }
+    }
+}
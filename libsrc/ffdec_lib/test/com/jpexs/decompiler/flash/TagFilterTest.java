@@ -0,0 +1,109 @@
+/*
+ *  Copyright (C) 2010-2018 JPEXS, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. */
+package com.jpexs.decompiler.flash;
+
+import com.jpexs.decompiler.flash.tags.DefineShapeTag;
+import com.jpexs.decompiler.flash.tags.DefineSpriteTag;
+import com.jpexs.decompiler.flash.tags.ShowFrameTag;
+import com.jpexs.decompiler.flash.tags.Tag;
+import com.jpexs.decompiler.flash.tags.TagStub;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author JPEXS
+ */
+public class TagFilterTest {
+
+    private static final String FILE = "testdata/as2/as2.swf";
+
+    private static List<Tag> getAllTags(SWF swf) {
+        List<Tag> ret = new ArrayList<>();
+        for (Tag tag : swf.getTags()) {
+            ret.add(tag);
+            if (tag instanceof DefineSpriteTag) {
+                for (Tag subTag : ((DefineSpriteTag) tag).getTags()) {
+                    ret.add(subTag);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private static int getDeferredCount(SWF swf, int tagId) {
+        int count = 0;
+        for (Tag tag : getAllTags(swf)) {
+            if ((tagId == -1 || tag.getId() == tagId) && tag instanceof TagStub && ((TagStub) tag).isDeferred()) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private static byte[] save(SWF swf) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        swf.saveTo(baos);
+        return baos.toByteArray();
+    }
+
+    @Test
+    public void testTagFilter() throws Exception {
+        SWF fullSwf = new SWF(new BufferedInputStream(new FileInputStream(FILE)), false);
+        SWF swf = new SWF(new BufferedInputStream(new FileInputStream(FILE)), null, null, null, false, false, true, null, Tag.getScriptTags());
+
+        int shapeCount = getDeferredCount(swf, DefineShapeTag.ID);
+        assertTrue(shapeCount > 0);
+        assertEquals(getDeferredCount(swf, DefineSpriteTag.ID), 0);
+        assertTrue(swf.getCharacters().size() < fullSwf.getCharacters().size());
+        assertTrue(Arrays.equals(save(swf), save(fullSwf)));
+
+        assertEquals(swf.resolveTags(new HashSet<>(Arrays.asList(DefineShapeTag.ID))), shapeCount);
+        assertEquals(getDeferredCount(swf, DefineShapeTag.ID), 0);
+
+        assertTrue(swf.resolveTags(null) > 0);
+        assertEquals(getDeferredCount(swf, -1), 0);
+        assertEquals(swf.getCharacters().size(), fullSwf.getCharacters().size());
+
+        assertEquals(swf.releaseTags(new HashSet<>(Arrays.asList(DefineShapeTag.ID))), shapeCount);
+        assertEquals(getDeferredCount(swf, DefineShapeTag.ID), shapeCount);
+        assertTrue(Arrays.equals(save(swf), save(fullSwf)));
+    }
+
+    @Test
+    public void testReleaseTagsExcept() throws Exception {
+        SWF fullSwf = new SWF(new BufferedInputStream(new FileInputStream(FILE)), false);
+        SWF swf = new SWF(new BufferedInputStream(new FileInputStream(FILE)), false);
+        int frameCount = swf.getTimeline().getFrameCount();
+
+        assertTrue(swf.releaseTagsExcept(Tag.getScriptTags()) > 0);
+        assertTrue(getDeferredCount(swf, DefineShapeTag.ID) > 0);
+        assertEquals(getDeferredCount(swf, DefineSpriteTag.ID), 0);
+        assertEquals(getDeferredCount(swf, ShowFrameTag.ID), 0);
+        assertEquals(swf.getTimeline().getFrameCount(), frameCount);
+        assertTrue(Arrays.equals(save(swf), save(fullSwf)));
+    }
+}
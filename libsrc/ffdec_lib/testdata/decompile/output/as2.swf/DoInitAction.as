@@ -0,0 +1,2 @@
+var k = 5;
+trace(k);
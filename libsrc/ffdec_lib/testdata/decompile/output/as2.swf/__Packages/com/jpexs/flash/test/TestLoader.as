@@ -0,0 +1,13 @@
+class com.jpexs.flash.test.TestLoader
+{
+   function TestLoader()
+   {
+   }
+   function includeTests()
+   {
+      new com.jpexs.flash.test.testcases.TestSetterGetter();
+      new com.jpexs.flash.test.testcases.TestCallSetterGetter();
+      new com.jpexs.flash.test.testcases.TestVarsMethods();
+      new com.jpexs.flash.test.testcases.TestMaintainOrder();
+   }
+}
@@ -0,0 +1,22 @@
+class com.jpexs.flash.test.testcases.TestCallSetterGetter
+{
+   function TestCallSetterGetter()
+   {
+   }
+   function testSetterCall()
+   {
+      this.myobj.__set__myvar(5);
+   }
+   function testGetterCall()
+   {
+      return this.myobj.__get__myvar();
+   }
+   function testStatGetterCall()
+   {
+      return com.jpexs.flash.test.testcases.TestSetterGetter.__get__mystatvar();
+   }
+   function testStatSetterCall(val)
+   {
+      com.jpexs.flash.test.testcases.TestSetterGetter.__set__mystatvar(6);
+   }
+}
@@ -0,0 +1,42 @@
+class com.jpexs.flash.test.testcases.TestMaintainOrder
+{
+   var a = 1;
+   static var b = 2;
+   var c = 3;
+   static var d = 4;
+   static var e = 5;
+   var f = 6;
+   var g = 7;
+   var _x1 = "after method m";
+   function TestMaintainOrder()
+   {
+   }
+   function h()
+   {
+      trace("8");
+   }
+   function i()
+   {
+      trace("9");
+   }
+   static function j()
+   {
+      trace("10");
+   }
+   static function k()
+   {
+      trace("11");
+   }
+   function l()
+   {
+      trace("12");
+   }
+   static function m()
+   {
+      trace("13");
+   }
+   function _x2()
+   {
+      trace("after _x1");
+   }
+}
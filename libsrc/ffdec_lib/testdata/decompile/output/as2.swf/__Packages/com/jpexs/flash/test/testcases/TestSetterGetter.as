@@ -0,0 +1,35 @@
+class com.jpexs.flash.test.testcases.TestSetterGetter
+{
+   var priv_myreadonly = 1;
+   var priv_mywriteonly = 2;
+   function TestSetterGetter()
+   {
+   }
+   function __get__myvar()
+   {
+      return this.priv_myvar;
+   }
+   function __set__myvar(val)
+   {
+      this.priv_myvar = val;
+      return this.__get__myvar();
+   }
+   static function __get__mystatvar()
+   {
+      return com.jpexs.flash.test.testcases.TestSetterGetter.priv_mystatvar;
+   }
+   static function __set__mystatvar(val)
+   {
+      com.jpexs.flash.test.testcases.TestSetterGetter.priv_mystatvar = val;
+      return com.jpexs.flash.test.testcases.TestSetterGetter.__get__mystatvar();
+   }
+   function __get__myreadonly()
+   {
+      return this.priv_myreadonly;
+   }
+   function __set__mywriteonly(val)
+   {
+      this.priv_mywriteonly = val;
+      return this.__get__mywriteonly();
+   }
+}
@@ -0,0 +1 @@
+stop();
@@ -0,0 +1,3 @@
+trace("unicodeTest");
+var k = "היפופוטמי, או א";
+trace(k);
@@ -0,0 +1,10 @@
+trace("ifWithElseTest");
+var i = 5;
+if(i == 258)
+{
+   trace("onTrue");
+}
+else
+{
+   trace("onFalse" + i);
+}
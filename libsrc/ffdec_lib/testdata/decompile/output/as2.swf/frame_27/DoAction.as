@@ -0,0 +1,7 @@
+trace("whileTest");
+var i = 0;
+while(i < 10)
+{
+   trace("hello:" + i);
+   i++;
+}
@@ -0,0 +1,10 @@
+trace("strictEqualsTest");
+var i = 5;
+if(i === 5)
+{
+   trace("equals strict");
+}
+if(i !== 5)
+{
+   trace("not equals strict");
+}
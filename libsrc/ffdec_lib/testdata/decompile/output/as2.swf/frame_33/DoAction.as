@@ -0,0 +1,6 @@
+function hello(what, second)
+{
+   trace("hello " + what + "! " + second);
+}
+trace("functionTest");
+hello("friend",7);
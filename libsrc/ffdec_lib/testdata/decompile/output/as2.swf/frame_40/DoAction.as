@@ -0,0 +1,22 @@
+function testForIn()
+{
+   var _loc1_ = [];
+   for(var _loc2_ in _loc1_)
+   {
+      if(_loc2_ > 3)
+      {
+         if(_loc2_ == 5)
+         {
+            return 7;
+         }
+         return 8;
+      }
+   }
+}
+trace("forInTest");
+trace(testForIn());
+var arr = [];
+for(var a in arr)
+{
+   trace(a);
+}
@@ -0,0 +1,34 @@
+trace("tryTest");
+var k = 5;
+try
+{
+   k = Infinity;
+}
+catch(e)
+{
+   trace("bug " + e);
+}
+finally
+{
+   trace("huu");
+}
+trace("next");
+try
+{
+   k = 6;
+}
+catch(e)
+{
+   trace("bug2 " + e);
+}
+trace("next2");
+var k = 5;
+try
+{
+   k = Infinity;
+}
+finally
+{
+   trace("final");
+}
+trace("end");
@@ -0,0 +1,18 @@
+trace("chainedAssignments2Test");
+var a = 5;
+var b = 6;
+var c = 7;
+var d = c = b = a = 4;
+if((d = c = b = a = 7) > 2)
+{
+   trace(d);
+}
+trace(d + 1);
+var i = 0;
+while(i < 5)
+{
+   if(i == 7)
+   {
+   }
+   i++;
+}
@@ -0,0 +1,22 @@
+function tst()
+{
+   var _loc2_ = [];
+   _loc2_[0] = [];
+   for(var _loc3_ in _loc2_)
+   {
+      for(var _loc1_ in _loc3_)
+      {
+         if(_loc1_ == 5)
+         {
+            return 5;
+         }
+      }
+      if(_loc3_ == 8)
+      {
+         return 3;
+      }
+   }
+   return 8;
+}
+trace("forInInTest");
+tst();
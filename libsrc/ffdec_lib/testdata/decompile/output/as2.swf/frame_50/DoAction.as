@@ -0,0 +1,5 @@
+trace("ifFrameLoadedTest");
+ifFrameLoaded(9)
+{
+   trace("loaded");
+}
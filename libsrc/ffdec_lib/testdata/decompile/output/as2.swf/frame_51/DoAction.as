@@ -0,0 +1,16 @@
+function tst()
+{
+   var _loc1_ = 5;
+   c = _loc1_ = 8;
+   trace("hi");
+   trace(_loc1_);
+   if((e = d = f = c = 9) > 5)
+   {
+      trace("dd");
+   }
+}
+trace("function3Test");
+var c = 7;
+var d = 7;
+var e = 8;
+tst();
@@ -0,0 +1,19 @@
+function tst()
+{
+   var _loc1_ = 5;
+   while(_loc1_ < 10)
+   {
+      if(_loc1_ == 5)
+      {
+         if(_loc1_ == 6)
+         {
+            return true;
+         }
+         _loc1_ = _loc1_ + 1;
+         continue;
+      }
+      return false;
+   }
+}
+trace("function4Test");
+tst();
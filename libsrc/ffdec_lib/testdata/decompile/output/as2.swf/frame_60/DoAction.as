@@ -0,0 +1,17 @@
+trace("numbersTest");
+var x = null;
+trace("null:" + x);
+x = true;
+trace("true:" + x);
+x = false;
+trace("false:" + x);
+x = 1;
+trace("1:" + x);
+x = 2147483647;
+trace("0x7fffffff:" + x);
+x = 2147483648;
+trace("0x80000000:" + x);
+x = -2147483648;
+trace("-0x80000000:" + x);
+x = -2147483649;
+trace("-0x80000001:" + x);
@@ -0,0 +1,16 @@
+trace("switchDefaultTest2");
+var k = 5;
+switch(k)
+{
+   case 5:
+      trace("5");
+      break;
+   default:
+      trace("default");
+   case 6:
+      trace("default, 6");
+      break;
+   case 7:
+      trace("7");
+}
+trace("afterSwitch");
@@ -0,0 +1,3 @@
+trace("loadClassesTest");
+var tst = new com.jpexs.flash.test.TestLoader();
+tst.includeTests();
@@ -0,0 +1,105 @@
+function testFunc1()
+{
+   for(var _loc1_ in obj)
+   {
+      trace(_loc1_);
+   }
+}
+function testFunc2()
+{
+   for(var _loc1_ in obj)
+   {
+      if(_loc1_ == "b")
+      {
+         trace("found");
+         break;
+      }
+   }
+}
+function testFunc3()
+{
+   for(var _loc1_ in obj)
+   {
+      if(_loc1_ == "b")
+      {
+         trace("hi");
+         break;
+      }
+   }
+   trace("after");
+}
+function testFunc4()
+{
+   for(var _loc1_ in obj)
+   {
+      if(_loc1_ == "b")
+      {
+         trace("hi");
+      }
+      else if(_loc1_ == "c")
+      {
+         trace("hello");
+      }
+      else
+      {
+         trace("hohoho");
+         continue;
+      }
+      break;
+   }
+   trace("after");
+}
+function testFunc5()
+{
+   var _loc1_ = {key1:1,key2:2,key3:3};
+   for(var _loc3_ in obj)
+   {
+      if(_loc3_ == "a")
+      {
+         trace("loop1_break");
+         break;
+      }
+      if(_loc3_ == "b")
+      {
+         trace("hello");
+         for(var _loc2_ in _loc1_)
+         {
+            if(_loc2_ == "key1")
+            {
+               trace("loop2_break");
+               break;
+            }
+            trace("loop2_inside");
+         }
+         trace("after_loop2");
+      }
+      trace("loop1_inside");
+   }
+   trace("after_loop1");
+}
+function testFunc6()
+{
+   var _loc1_ = {key1:1,key2:2,key3:3};
+   for(var _loc3_ in obj)
+   {
+      if(_loc3_ == "a")
+      {
+         trace("loop1_break");
+         break;
+      }
+      trace("hello");
+      for(var _loc2_ in _loc1_)
+      {
+         if(_loc2_ == "key1")
+         {
+            trace("loop2_break");
+            break;
+         }
+         trace("loop2_inside");
+      }
+      trace("after_loop2");
+   }
+   trace("after_loop1");
+}
+trace("forInBreakTest");
+var obj = {a:5,b:6,c:7};
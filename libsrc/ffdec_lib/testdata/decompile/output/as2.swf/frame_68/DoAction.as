@@ -0,0 +1,57 @@
+trace("tryTypeTest");
+var a = 5;
+try
+{
+   a = a / 0;
+}
+catch(e)
+{
+   trace("err:" + e);
+}
+try
+{
+   a = a / 0;
+}
+catch(e)
+{
+   if(a == 0)
+   {
+      throw e;
+   }
+   else
+   {
+      trace("err:" + e);
+   }
+}
+try
+{
+   a = a / 0;
+}
+catch(e:MyError)
+{
+   trace("err:" + e);
+}
+try
+{
+   a = a / 0;
+}
+catch(e1:MyError)
+{
+   trace("err:" + e1);
+}
+catch(e2)
+{
+   trace("err:" + e2);
+}
+try
+{
+   a = a / 0;
+}
+catch(e:MyError)
+{
+   trace("err:" + e);
+}
+catch(e2:Error)
+{
+   trace("err:" + e2);
+}
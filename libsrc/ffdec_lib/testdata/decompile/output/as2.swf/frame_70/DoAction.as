@@ -0,0 +1,20 @@
+trace("forWithContinue2Test");
+var s = "A";
+var i = 0;
+for(; i < 10; i++)
+{
+   if(s == "B")
+   {
+      if(s == "C")
+      {
+         continue;
+      }
+   }
+   trace("D");
+   var j = 0;
+   while(j < 29)
+   {
+      trace("E");
+      j++;
+   }
+}
@@ -0,0 +1,97 @@
+function createEnemies(enemyAmount, enemyBehavior, enemyLibraryClip)
+{
+   var _loc3_ = 0;
+   while(_loc3_ < enemyAmount)
+   {
+      var _loc2_ = _root.attachMovie(enemyLibraryClip,"enemy" + _root.getNextHighestDepth(),_root.getNextHighestDepth());
+      _loc2_._x = random(Stage.width);
+      _loc2_._y = random(Stage.height);
+      _loc2_._rotation = random(360);
+      if(enemyBehavior == "typeA")
+      {
+         _loc2_.speed = 1;
+         _loc2_.turnRate = 0.05;
+         _loc2_.agroRange = 200;
+         _loc2_.mode = "follow";
+      }
+      else if(enemyBehavior == "typeB")
+      {
+         _loc2_.speed = 4;
+         _loc2_.turnRate = 0.5;
+         _loc2_.agroRange = 200;
+         _loc2_.mode = "follow";
+      }
+      else if(enemyBehavior == "typeC")
+      {
+         _loc2_.speed = 1;
+         _loc2_.turnRate = 0.2;
+         _loc2_.agroRange = 100;
+         _loc2_.mode = "run";
+      }
+      _loc2_.distanceX = 0;
+      _loc2_.distanceY = 0;
+      _loc2_.distanceTotal = 0;
+      _loc2_.moveDistanceX = 0;
+      _loc2_.moveDistanceY = 0;
+      _loc2_.moveX = 0;
+      _loc2_.moveY = 0;
+      _loc2_.totalmove = 0;
+      enemiesArray.push(_loc2_);
+      _loc3_ = _loc3_ + 1;
+   }
+}
+function updateEnemies()
+{
+   var _loc1_ = 0;
+   while(_loc1_ < enemiesArray.length)
+   {
+      var _loc2_ = enemiesArray[_loc1_];
+      updatePosition(_loc2_,player_mc);
+      _loc1_ = _loc1_ + 1;
+   }
+}
+function updatePosition(follower, target)
+{
+   follower.distanceX = target._x - follower._x;
+   follower.distanceY = target._y - follower._y;
+   follower.distanceTotal = Math.sqrt(follower.distanceX * follower.distanceX + follower.distanceY * follower.distanceY);
+   if(follower.distanceTotal <= follower.agroRange)
+   {
+      follower.moveDistanceX = follower.turnRate * follower.distanceX / follower.distanceTotal;
+      follower.moveDistanceY = follower.turnRate * follower.distanceY / follower.distanceTotal;
+      follower.moveX = follower.moveX + follower.moveDistanceX;
+      follower.moveY = follower.moveY + follower.moveDistanceY;
+      follower.totalmove = Math.sqrt(follower.moveX * follower.moveX + follower.moveY * follower.moveY);
+      follower.moveX = follower.speed * follower.moveX / follower.totalmove;
+      follower.moveY = follower.speed * follower.moveY / follower.totalmove;
+      if(follower.mode == "follow")
+      {
+         follower._x = follower._x + follower.moveX;
+         follower._y = follower._y + follower.moveY;
+         follower._rotation = Math.atan2(follower.moveY,follower.moveX) * radians;
+      }
+      else if(follower.mode == "run")
+      {
+         follower._x = follower._x - follower.moveX;
+         follower._y = follower._y - follower.moveY;
+         follower._rotation = Math.atan2(follower.moveY,follower.moveX) * radians + 180;
+      }
+   }
+}
+var enemiesArray = new Array();
+var radians = 57.29577951308232;
+createEnemies(5,"typeA","e1");
+createEnemies(5,"typeB","e2");
+createEnemies(5,"typeC","e3");
+_root.onEnterFrame = function()
+{
+   updateEnemies();
+};
+player_mc.onPress = function()
+{
+   startDrag(this,0);
+};
+player_mc.onRelease = function()
+{
+   stopDrag();
+};
@@ -0,0 +1,97 @@
+package
+{
+   import com.freeactionscript.CollisionTest;
+   import flash.display.DisplayObjectContainer;
+   import flash.display.MovieClip;
+   import flash.display.Sprite;
+   import flash.events.Event;
+   import flash.events.MouseEvent;
+   import flash.geom.ColorTransform;
+   
+   public class Main extends Sprite
+   {
+       
+      
+      public var plusShape:MovieClip;
+      
+      public var polystarShape:MovieClip;
+      
+      public var circleShape:MovieClip;
+      
+      private var _collisionTest:CollisionTest;
+      
+      public function Main()
+      {
+         super();
+         stage.addEventListener(Event.ENTER_FRAME,enterFrameHandler);
+         _collisionTest = new CollisionTest();
+         circleShape.addEventListener(MouseEvent.MOUSE_DOWN,onShapeDownHandler);
+         circleShape.addEventListener(MouseEvent.MOUSE_UP,onShapeUpHandler);
+         circleShape.buttonMode = true;
+         polystarShape.addEventListener(MouseEvent.MOUSE_DOWN,onShapeDownHandler);
+         polystarShape.addEventListener(MouseEvent.MOUSE_UP,onShapeUpHandler);
+         polystarShape.buttonMode = true;
+      }
+      
+      private function checkForCollisions() : void
+      {
+         resetTint(circleShape);
+         resetTint(polystarShape);
+         resetTint(plusShape);
+         if(_collisionTest.complex(plusShape,circleShape))
+         {
+            applyGreenTint(plusShape);
+            applyGreenTint(circleShape);
+         }
+         if(_collisionTest.complex(plusShape,polystarShape))
+         {
+            applyGreenTint(plusShape);
+            applyGreenTint(polystarShape);
+         }
+         if(_collisionTest.complex(circleShape,polystarShape))
+         {
+            applyGreenTint(circleShape);
+            applyGreenTint(polystarShape);
+         }
+         if(_collisionTest.complex(circleShape,plusShape))
+         {
+            applyGreenTint(circleShape);
+            applyGreenTint(plusShape);
+         }
+      }
+      
+      private function resetTint(param1:DisplayObjectContainer) : void
+      {
+         var _loc2_:ColorTransform = param1.transform.colorTransform;
+         _loc2_.redOffset = 0;
+         _loc2_.blueOffset = 0;
+         _loc2_.greenOffset = 0;
+         param1.transform.colorTransform = _loc2_;
+      }
+      
+      private function applyGreenTint(param1:DisplayObjectContainer) : void
+      {
+         var _loc2_:ColorTransform = param1.transform.colorTransform;
+         _loc2_.redOffset = 0;
+         _loc2_.blueOffset = 0;
+         _loc2_.greenOffset = 255;
+         param1.transform.colorTransform = _loc2_;
+      }
+      
+      private function enterFrameHandler(param1:Event) : void
+      {
+         checkForCollisions();
+         plusShape.rotation = plusShape.rotation + 1;
+      }
+      
+      private function onShapeUpHandler(param1:MouseEvent) : void
+      {
+         MovieClip(param1.target).stopDrag();
+      }
+      
+      private function onShapeDownHandler(param1:MouseEvent) : void
+      {
+         MovieClip(param1.target).startDrag();
+      }
+   }
+}
@@ -0,0 +1,7 @@
+on(press){
+   trace("A");
+   ../myTxt:text = "hello";
+   /myTxt:_X = /myTxt:_X + 100;
+   ../panel1/but:_X = ../panel1/but:_X + 20;
+   trace("B");
+}
@@ -0,0 +1,200 @@
+package com.freeactionscript
+{
+   import flash.display.MovieClip;
+   import flash.events.Event;
+   import flash.utils.getDefinitionByName;
+   
+   public class StarField extends MovieClip
+   {
+       
+      
+      private var acceleration:Number = 0.25;
+      
+      private var containerWidth:int;
+      
+      private var speed:Number = 2;
+      
+      private var containerHeight:int;
+      
+      private var alphaAcceleration:Number = 0.02;
+      
+      private var starsArray:Array;
+      
+      private var starsCurrent:int;
+      
+      private var startY:Number;
+      
+      private var pathToContainer:MovieClip;
+      
+      private var starsTotal:int;
+      
+      private var isStarted:Boolean = false;
+      
+      private var scaleAcceleration:Number = 0.02;
+      
+      private var starArrayLength:int;
+      
+      private var startX:Number;
+      
+      private var containerY:int;
+      
+      private var containerX:int;
+      
+      public function StarField()
+      {
+         starsArray = [];
+         super();
+      }
+      
+      public function enable() : void
+      {
+         if(!isStarted)
+         {
+            trace("Starting effect...");
+            isStarted = true;
+            pathToContainer.addEventListener(Event.ENTER_FRAME,gameLoop);
+         }
+         else
+         {
+            trace("Effect already running.");
+         }
+      }
+      
+      private function onMoveMouse() : void
+      {
+         startX = mouseX;
+         startY = mouseY;
+      }
+      
+      private function setDefaultProperties(param1:MovieClip) : void
+      {
+         param1.alpha = 0;
+         param1.scaleX = 0.5;
+         param1.scaleY = 0.5;
+         var _loc2_:Number = Math.round(Math.random() * 360);
+         param1.angle = _loc2_;
+         param1.vx = Math.cos(_loc2_) * speed;
+         param1.vy = Math.sin(_loc2_) * speed;
+         param1.speed = speed;
+      }
+      
+      private function setRandomStartPosition(param1:MovieClip) : void
+      {
+         param1.x = Math.random() * (containerWidth - param1.width) + containerX;
+         param1.y = Math.random() * (containerHeight - param1.height) + containerY;
+      }
+      
+      public function createField(param1:MovieClip, param2:int, param3:int, param4:int, param5:int, param6:int) : void
+      {
+         trace("createField");
+         pathToContainer = param1;
+         containerX = param2;
+         containerY = param3;
+         containerWidth = param4;
+         containerHeight = param5;
+         startX = containerWidth / 2 + containerX;
+         startY = containerHeight / 2 + containerY;
+         starsTotal = param6;
+         pathToContainer.addEventListener(Event.ENTER_FRAME,addStars);
+         enable();
+      }
+      
+      private function updateStars() : void
+      {
+         var _loc1_:MovieClip = null;
+         var _loc2_:int = 0;
+         starArrayLength = starsArray.length;
+         _loc2_ = 0;
+         while(_loc2_ < starArrayLength)
+         {
+            _loc1_ = starsArray[_loc2_];
+            addSpeed(_loc1_);
+            _loc1_.x = _loc1_.x + _loc1_.vx;
+            _loc1_.y = _loc1_.y + _loc1_.vy;
+            if(_loc1_.alpha < 1)
+            {
+               _loc1_.alpha = _loc1_.alpha + alphaAcceleration;
+            }
+            if(_loc1_.scaleX < 1)
+            {
+               _loc1_.scaleX = _loc1_.scaleX + scaleAcceleration;
+            }
+            if(_loc1_.scaleY < 1)
+            {
+               _loc1_.scaleY = _loc1_.scaleY + scaleAcceleration;
+            }
+            if(_loc1_.x >= containerWidth - _loc1_.width + containerX)
+            {
+               _loc1_.x = startX;
+               _loc1_.y = startY;
+               setDefaultProperties(_loc1_);
+            }
+            else if(_loc1_.x <= containerX)
+            {
+               _loc1_.x = startX;
+               _loc1_.y = startY;
+               setDefaultProperties(_loc1_);
+            }
+            if(_loc1_.y >= containerHeight - _loc1_.height + containerY)
+            {
+               _loc1_.x = startX;
+               _loc1_.y = startY;
+               setDefaultProperties(_loc1_);
+            }
+            else if(_loc1_.y <= containerY)
+            {
+               _loc1_.x = startX;
+               _loc1_.y = startY;
+               setDefaultProperties(_loc1_);
+            }
+            _loc2_++;
+         }
+      }
+      
+      public function addStars(param1:Event) : void
+      {
+         var _loc2_:Class = getDefinitionByName("StarSmall") as Class;
+         var _loc3_:MovieClip = new _loc2_();
+         setDefaultProperties(_loc3_);
+         _loc3_.alpha = 0;
+         _loc3_.scaleX = 0.5;
+         _loc3_.scaleY = 0.5;
+         _loc3_.x = startX;
+         _loc3_.y = startY;
+         starsArray.push(_loc3_);
+         pathToContainer.addChild(_loc3_);
+         starsCurrent++;
+         if(starsCurrent == starsTotal)
+         {
+            pathToContainer.removeEventListener(Event.ENTER_FRAME,addStars);
+            trace("\t Finished adding " + starsTotal + " new stars.");
+         }
+      }
+      
+      private function addSpeed(param1:MovieClip) : void
+      {
+         param1.speed = param1.speed + acceleration;
+         param1.vx = Math.cos(param1.angle) * param1.speed;
+         param1.vy = Math.sin(param1.angle) * param1.speed;
+      }
+      
+      public function disable() : void
+      {
+         if(isStarted)
+         {
+            trace("Stopping effect...");
+            isStarted = false;
+            pathToContainer.removeEventListener(Event.ENTER_FRAME,gameLoop);
+         }
+         else
+         {
+            trace("Effect is not running.");
+         }
+      }
+      
+      private function gameLoop(param1:Event) : void
+      {
+         updateStars();
+      }
+   }
+}
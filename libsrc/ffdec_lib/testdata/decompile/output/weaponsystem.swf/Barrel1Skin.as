@@ -0,0 +1,14 @@
+package
+{
+   import flash.display.MovieClip;
+   
+   public dynamic class Barrel1Skin extends MovieClip
+   {
+       
+      
+      public function Barrel1Skin()
+      {
+         super();
+      }
+   }
+}
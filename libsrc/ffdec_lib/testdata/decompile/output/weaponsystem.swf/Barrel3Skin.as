@@ -0,0 +1,14 @@
+package
+{
+   import flash.display.MovieClip;
+   
+   public dynamic class Barrel3Skin extends MovieClip
+   {
+       
+      
+      public function Barrel3Skin()
+      {
+         super();
+      }
+   }
+}
@@ -0,0 +1,14 @@
+package
+{
+   import flash.display.MovieClip;
+   
+   public dynamic class Barrel4Skin extends MovieClip
+   {
+       
+      
+      public function Barrel4Skin()
+      {
+         super();
+      }
+   }
+}
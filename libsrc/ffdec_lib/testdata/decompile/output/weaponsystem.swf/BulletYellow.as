@@ -0,0 +1,14 @@
+package
+{
+   import flash.display.MovieClip;
+   
+   public dynamic class BulletYellow extends MovieClip
+   {
+       
+      
+      public function BulletYellow()
+      {
+         super();
+      }
+   }
+}
@@ -0,0 +1,66 @@
+package
+{
+   import com.freeactionscript.weaponsystem.WeaponManager;
+   import com.freeactionscript.weaponsystem.weapons.LaserDual;
+   import com.freeactionscript.weaponsystem.weapons.LaserSingle;
+   import com.freeactionscript.weaponsystem.weapons.ProjectileQuad;
+   import com.freeactionscript.weaponsystem.weapons.ProjectileSingle;
+   import flash.display.MovieClip;
+   import flash.events.Event;
+   import flash.events.MouseEvent;
+   import flash.text.TextField;
+   
+   public class Main extends MovieClip
+   {
+       
+      
+      public var wall02:MovieClip;
+      
+      public var wall03:MovieClip;
+      
+      public var wall04:MovieClip;
+      
+      public var bulletsTxt:TextField;
+      
+      public var wall01:MovieClip;
+      
+      private var _weaponManager:WeaponManager;
+      
+      public function Main()
+      {
+         super();
+         stage.addEventListener(Event.ENTER_FRAME,enterFrameHandler);
+         stage.addEventListener(MouseEvent.MOUSE_DOWN,onMouseDownHandler);
+         stage.addEventListener(MouseEvent.MOUSE_UP,onMouseUpHandler);
+         _weaponManager = new WeaponManager(this);
+         var _loc1_:ProjectileSingle = new ProjectileSingle("gun 1",_weaponManager,100,275,90);
+         var _loc2_:ProjectileQuad = new ProjectileQuad("gun 2",_weaponManager,225,275,90);
+         var _loc3_:LaserSingle = new LaserSingle("gun 3",_weaponManager,350,275,90);
+         var _loc4_:LaserDual = new LaserDual("gun 4",_weaponManager,400,275,90);
+         _weaponManager.addWeapon(_loc1_);
+         _weaponManager.addWeapon(_loc2_);
+         _weaponManager.addWeapon(_loc3_);
+         _weaponManager.addWeapon(_loc4_);
+         _weaponManager.addSolidObject(wall01);
+         _weaponManager.addSolidObject(wall02);
+         _weaponManager.addSolidObject(wall03);
+         _weaponManager.addSolidObject(wall04);
+      }
+      
+      private function enterFrameHandler(param1:Event) : void
+      {
+         _weaponManager.update();
+         bulletsTxt.text = String(_weaponManager.getBulletsArray().length);
+      }
+      
+      private function onMouseDownHandler(param1:MouseEvent) : void
+      {
+         _weaponManager.fireWeapons();
+      }
+      
+      private function onMouseUpHandler(param1:MouseEvent) : void
+      {
+         _weaponManager.stopWeapons();
+      }
+   }
+}
@@ -0,0 +1,14 @@
+package
+{
+   import flash.display.MovieClip;
+   
+   public dynamic class WeaponDualSkin extends MovieClip
+   {
+       
+      
+      public function WeaponDualSkin()
+      {
+         super();
+      }
+   }
+}
@@ -0,0 +1,14 @@
+package
+{
+   import flash.display.MovieClip;
+   
+   public dynamic class WeaponQuadSkin extends MovieClip
+   {
+       
+      
+      public function WeaponQuadSkin()
+      {
+         super();
+      }
+   }
+}
@@ -0,0 +1,237 @@
+package com.freeactionscript.weaponsystem
+{
+   import com.freeactionscript.weaponsystem.components.AbstractWeapon;
+   import com.freeactionscript.weaponsystem.components.Bullet;
+   import flash.display.DisplayObjectContainer;
+   
+   public class WeaponManager
+   {
+       
+      
+      private var _container:DisplayObjectContainer;
+      
+      private var _weapons:Array;
+      
+      private var _bullets:Array;
+      
+      private var _solidObjects:Array;
+      
+      private var _tempWeapon:AbstractWeapon;
+      
+      private var _tempBullet:Bullet;
+      
+      private var _tempSolidObject:DisplayObjectContainer;
+      
+      public function WeaponManager(param1:DisplayObjectContainer)
+      {
+         _weapons = [];
+         _bullets = [];
+         _solidObjects = [];
+         super();
+         _container = param1;
+      }
+      
+      public function addWeapon(param1:AbstractWeapon) : void
+      {
+         container.addChild(param1);
+         param1.createDisplay();
+         _weapons[_weapons.length] = param1;
+      }
+      
+      public function removeWeapon(param1:AbstractWeapon) : void
+      {
+         param1.destroy();
+         _weapons.splice(_weapons.indexOf(param1),1);
+         container.removeChild(param1);
+      }
+      
+      public function fireWeapons() : void
+      {
+         var _loc1_:uint = 0;
+         var _loc2_:int = _weapons.length;
+         _loc1_ = 0;
+         while(_loc1_ < _loc2_)
+         {
+            tempWeapon = _weapons[_loc1_];
+            tempWeapon.isFiring = true;
+            _loc1_++;
+         }
+      }
+      
+      public function stopWeapons() : void
+      {
+         var _loc1_:uint = 0;
+         var _loc2_:int = _weapons.length;
+         _loc1_ = 0;
+         while(_loc1_ < _loc2_)
+         {
+            tempWeapon = _weapons[_loc1_];
+            tempWeapon.isFiring = false;
+            _loc1_++;
+         }
+      }
+      
+      public function addBullet(param1:DisplayObjectContainer) : void
+      {
+         container.addChild(param1);
+         _bullets[_bullets.length] = param1;
+      }
+      
+      public function removeBullet(param1:DisplayObjectContainer) : void
+      {
+         Bullet(tempBullet).destroy();
+         _bullets.splice(_bullets.indexOf(param1),1);
+         container.removeChild(param1);
+      }
+      
+      public function addSolidObject(param1:DisplayObjectContainer) : void
+      {
+         _solidObjects[_solidObjects.length] = param1;
+      }
+      
+      public function removeSolidObject(param1:DisplayObjectContainer) : void
+      {
+         _solidObjects.splice(_solidObjects.indexOf(param1),1);
+         container.removeChild(param1);
+      }
+      
+      public function checkCollisionPoint(param1:Number, param2:Number) : Boolean
+      {
+         var _loc3_:uint = 0;
+         if(_solidObjects.length == 0)
+         {
+            return false;
+         }
+         var _loc4_:int = _solidObjects.length;
+         _loc3_ = 0;
+         while(_loc3_ < _loc4_)
+         {
+            tempSolidObject = _solidObjects[_loc3_];
+            if(tempSolidObject.hitTestPoint(param1,param2,true))
+            {
+               return true;
+            }
+            _loc3_++;
+         }
+         return false;
+      }
+      
+      public function checkCollisionBox(param1:DisplayObjectContainer) : Boolean
+      {
+         var _loc2_:uint = 0;
+         if(_solidObjects.length == 0)
+         {
+            return false;
+         }
+         var _loc3_:int = _solidObjects.length;
+         _loc2_ = 0;
+         while(_loc2_ < _loc3_)
+         {
+            tempSolidObject = _solidObjects[_loc2_];
+            if(tempSolidObject.hitTestObject(param1))
+            {
+               return true;
+            }
+            _loc2_++;
+         }
+         return false;
+      }
+      
+      public function update() : void
+      {
+         updateWeapons();
+         updateBullets();
+      }
+      
+      private function updateWeapons() : void
+      {
+         var _loc1_:uint = 0;
+         var _loc2_:int = _weapons.length;
+         _loc1_ = 0;
+         while(_loc1_ < _loc2_)
+         {
+            tempWeapon = _weapons[_loc1_];
+            tempWeapon.update();
+            _loc1_++;
+         }
+      }
+      
+      private function updateBullets() : void
+      {
+         var _loc1_:uint = 0;
+         _loc1_ = 0;
+         while(_loc1_ < _bullets.length)
+         {
+            tempBullet = _bullets[_loc1_];
+            tempBullet.update();
+            if(tempBullet.expired)
+            {
+               removeBullet(tempBullet);
+            }
+            if(checkCollisionBox(tempBullet))
+            {
+               if(checkCollisionPoint(tempBullet.x,tempBullet.y))
+               {
+                  removeBullet(tempBullet);
+               }
+            }
+            _loc1_++;
+         }
+      }
+      
+      public function get container() : DisplayObjectContainer
+      {
+         return _container;
+      }
+      
+      public function set container(param1:DisplayObjectContainer) : void
+      {
+         _container = param1;
+      }
+      
+      public function get tempWeapon() : AbstractWeapon
+      {
+         return _tempWeapon;
+      }
+      
+      public function set tempWeapon(param1:AbstractWeapon) : void
+      {
+         _tempWeapon = param1;
+      }
+      
+      public function get tempBullet() : Bullet
+      {
+         return _tempBullet;
+      }
+      
+      public function set tempBullet(param1:Bullet) : void
+      {
+         _tempBullet = param1;
+      }
+      
+      public function get tempSolidObject() : DisplayObjectContainer
+      {
+         return _tempSolidObject;
+      }
+      
+      public function set tempSolidObject(param1:DisplayObjectContainer) : void
+      {
+         _tempSolidObject = param1;
+      }
+      
+      public function getBulletsArray() : Array
+      {
+         return _bullets;
+      }
+      
+      public function getSolidObjectsArray() : Array
+      {
+         return _solidObjects;
+      }
+      
+      public function getWeaponsArray() : Array
+      {
+         return _weapons;
+      }
+   }
+}
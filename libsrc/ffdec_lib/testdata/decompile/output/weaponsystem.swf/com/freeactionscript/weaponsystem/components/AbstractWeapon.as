@@ -0,0 +1,498 @@
+package com.freeactionscript.weaponsystem.components
+{
+   import com.freeactionscript.utils.MathTools;
+   import com.freeactionscript.weaponsystem.WeaponManager;
+   import flash.display.DisplayObjectContainer;
+   import flash.display.MovieClip;
+   import flash.display.Sprite;
+   import flash.events.TimerEvent;
+   import flash.utils.Timer;
+   import flash.utils.getDefinitionByName;
+   
+   public class AbstractWeapon extends Sprite
+   {
+       
+      
+      private var _id:String;
+      
+      private var _linkedBarrels:Boolean = true;
+      
+      private var _rotateSpeedMax:Number;
+      
+      private var _reloadTime:Number;
+      
+      private var _type:String;
+      
+      private var _bulletSpread:Number;
+      
+      private var _bulletSpeed:Number;
+      
+      private var _bulletLifeTime:Number;
+      
+      private var _maxDistance:Number;
+      
+      private var _laserColor:int;
+      
+      private var _laserWidth:Number;
+      
+      private var _laserAlpha:Number;
+      
+      private var _tempSkin:Class;
+      
+      private var _skinGun:String;
+      
+      private var _skinBarrel:String;
+      
+      private var _skinBullet:String;
+      
+      private var _isFiring:Boolean = false;
+      
+      private var _endX:Number;
+      
+      private var _endY:Number;
+      
+      private var _startX:Number;
+      
+      private var _startY:Number;
+      
+      private var _reloadTimer:Timer;
+      
+      private var _manager:WeaponManager;
+      
+      private var _dx:Number;
+      
+      private var _dy:Number;
+      
+      private var _pcos:Number;
+      
+      private var _psin:Number;
+      
+      private var _rotateTo:Number;
+      
+      private var _trueRotation:Number;
+      
+      private var _barrelDistance:Number;
+      
+      private var _barrelRadians:Number;
+      
+      private var _weaponRadians:Number;
+      
+      private var _totalRadians:Number;
+      
+      private var _tempBarrel:Barrel;
+      
+      private var _tempBullet:Bullet;
+      
+      private var _weaponBarrels:Array;
+      
+      public function AbstractWeapon(param1:String, param2:WeaponManager, param3:Number, param4:Number, param5:Number)
+      {
+         _weaponBarrels = [];
+         super();
+         this.id = param1;
+         this.manager = param2;
+         this.x = param3;
+         this.y = param4;
+         this.rotation = param5;
+      }
+      
+      public function createBarrel(param1:AbstractWeapon, param2:DisplayObjectContainer, param3:Number, param4:Number, param5:Number) : void
+      {
+         tempBarrel = new Barrel(param1,param2,param3,param4,param5);
+         _barrelDistance = MathTools.getDistance(tempBarrel.relativeX,tempBarrel.relativeY);
+         _barrelRadians = Math.atan2(tempBarrel.relativeY,tempBarrel.relativeX);
+         _weaponRadians = this.rotation * 0.01745;
+         _totalRadians = _weaponRadians + _barrelRadians;
+         _startX = this.x + _barrelDistance * Math.cos(_totalRadians);
+         _startY = this.y + _barrelDistance * Math.sin(_totalRadians);
+         tempBarrel.x = _startX;
+         tempBarrel.y = _startY;
+         weaponBarrels[weaponBarrels.length] = tempBarrel;
+      }
+      
+      public function createDisplay() : void
+      {
+         var _loc1_:uint = 0;
+         var _loc2_:int = _weaponBarrels.length;
+         _loc1_ = 0;
+         while(_loc1_ < _loc2_)
+         {
+            tempBarrel = _weaponBarrels[_loc1_];
+            manager.container.addChild(tempBarrel);
+            _loc1_++;
+         }
+      }
+      
+      public function destroyDisplay() : void
+      {
+         var _loc1_:uint = 0;
+         var _loc2_:int = _weaponBarrels.length;
+         _loc1_ = 0;
+         while(_loc1_ < _loc2_)
+         {
+            tempBarrel = _weaponBarrels[_loc1_];
+            manager.container.removeChild(tempBarrel);
+            _loc1_++;
+         }
+      }
+      
+      public function update() : void
+      {
+         updateRotation();
+         updateBarrels();
+         fireBarrels();
+      }
+      
+      public function destroy() : void
+      {
+         var _loc1_:uint = 0;
+         destroyDisplay();
+         var _loc2_:int = _weaponBarrels.length;
+         _loc1_ = 0;
+         while(_loc1_ < _loc2_)
+         {
+            tempBarrel = _weaponBarrels[_loc1_];
+            tempBarrel.destroy();
+            _loc1_++;
+         }
+         _weaponBarrels = [];
+         reloadTimer.stop();
+         reloadTimer.removeEventListener(TimerEvent.TIMER,reloadTimerHandler);
+         reloadTimer = null;
+      }
+      
+      private function fireBarrels() : void
+      {
+         var _loc1_:uint = 0;
+         var _loc2_:int = _weaponBarrels.length;
+         _loc1_ = 0;
+         while(_loc1_ < _loc2_)
+         {
+            tempBarrel = _weaponBarrels[_loc1_];
+            if(!tempBarrel.reloadTimer.running)
+            {
+               if(isFiring == true)
+               {
+                  createBullet(tempBarrel);
+               }
+            }
+            _loc1_++;
+         }
+      }
+      
+      private function createBullet(param1:Barrel) : void
+      {
+         tempBarrel = param1;
+         tempBarrel.reloadTimer = new Timer(_reloadTime);
+         tempBarrel.reloadTimer.addEventListener(TimerEvent.TIMER,reloadTimerHandler);
+         tempBarrel.reloadTimer.start();
+         _pcos = Math.cos(tempBarrel.rotation * 0.01745);
+         _psin = Math.sin(tempBarrel.rotation * 0.01745);
+         _startX = tempBarrel.x - tempBarrel.length * _pcos;
+         _startY = tempBarrel.y - tempBarrel.length * _psin;
+         _endX = _startX - maxDistance * _pcos + (Math.random() * _bulletSpread - _bulletSpread * 0.5);
+         _endY = _startY - maxDistance * _psin + (Math.random() * _bulletSpread - _bulletSpread * 0.5);
+         if(type == WeaponTypes.LASER)
+         {
+            tempBullet = new Bullet(new MovieClip());
+         }
+         else if(type == WeaponTypes.PROJECTILE)
+         {
+            tempBullet = new Bullet(attachSkin(skinBullet));
+         }
+         tempBullet.bulletLifeTimer = new Timer(bulletLifeTime);
+         tempBullet.bulletLifeTimer.start();
+         tempBullet.bulletLifeTimer.addEventListener(TimerEvent.TIMER,reloadTimerHandler);
+         tempBullet.parentBarrel = tempBarrel;
+         if(type == WeaponTypes.LASER)
+         {
+            tempBullet.vx = 0;
+            tempBullet.vy = 0;
+            tempBullet.type = WeaponTypes.LASER;
+         }
+         else if(type == WeaponTypes.PROJECTILE)
+         {
+            tempBullet.vx = (_endX - _startX) / maxDistance * _bulletSpeed;
+            tempBullet.vy = (_endY - _startY) / maxDistance * _bulletSpeed;
+            tempBullet.type = WeaponTypes.PROJECTILE;
+         }
+         tempBullet.x = _startX;
+         tempBullet.y = _startY;
+         tempBullet.startX = _startX;
+         tempBullet.startY = _startY;
+         tempBullet.endX = _endX;
+         tempBullet.endY = _endY;
+         tempBullet.maxDistance = _maxDistance + tempBarrel.length;
+         tempBullet.laserColor = laserColor;
+         tempBullet.laserWidth = laserWidth;
+         tempBullet.laserAlpha = laserAlpha;
+         manager.addBullet(tempBullet);
+         tempBullet.cacheAsBitmap = true;
+         manager.container.addChild(tempBullet);
+      }
+      
+      private function updateRotation() : void
+      {
+         _dx = this.x - this.parent.mouseX;
+         _dy = this.y - this.parent.mouseY;
+         _rotateTo = MathTools.getDegrees(MathTools.getRadians(_dx,_dy));
+         if(_rotateTo > this.rotation + 180)
+         {
+            _rotateTo = _rotateTo - 360;
+         }
+         if(_rotateTo < this.rotation - 180)
+         {
+            _rotateTo = _rotateTo + 360;
+         }
+         _trueRotation = (_rotateTo - this.rotation) / _rotateSpeedMax;
+         this.rotation = this.rotation + _trueRotation;
+      }
+      
+      private function updateBarrels() : void
+      {
+         var _loc1_:uint = 0;
+         var _loc2_:int = _weaponBarrels.length;
+         _loc1_ = 0;
+         while(_loc1_ < _loc2_)
+         {
+            tempBarrel = _weaponBarrels[_loc1_];
+            tempBarrel.update();
+            _loc1_++;
+         }
+      }
+      
+      protected function attachSkin(param1:String) : DisplayObjectContainer
+      {
+         var _loc2_:Object = null;
+         var _loc3_:Class = null;
+         _loc3_ = getDefinitionByName(param1) as Class;
+         _loc2_ = new _loc3_();
+         return _loc2_ as DisplayObjectContainer;
+      }
+      
+      private function reloadTimerHandler(param1:TimerEvent) : void
+      {
+         param1.target.stop();
+      }
+      
+      public function get isFiring() : Boolean
+      {
+         return _isFiring;
+      }
+      
+      public function set isFiring(param1:Boolean) : void
+      {
+         _isFiring = param1;
+      }
+      
+      public function get rotateSpeedMax() : Number
+      {
+         return _rotateSpeedMax;
+      }
+      
+      public function set rotateSpeedMax(param1:Number) : void
+      {
+         _rotateSpeedMax = param1;
+      }
+      
+      public function get bulletSpeed() : Number
+      {
+         return _bulletSpeed;
+      }
+      
+      public function set bulletSpeed(param1:Number) : void
+      {
+         _bulletSpeed = param1;
+      }
+      
+      public function get maxDistance() : Number
+      {
+         return _maxDistance;
+      }
+      
+      public function set maxDistance(param1:Number) : void
+      {
+         _maxDistance = param1;
+      }
+      
+      public function get reloadTime() : Number
+      {
+         return _reloadTime;
+      }
+      
+      public function set reloadTime(param1:Number) : void
+      {
+         _reloadTime = param1;
+      }
+      
+      public function get bulletSpread() : Number
+      {
+         return _bulletSpread;
+      }
+      
+      public function set bulletSpread(param1:Number) : void
+      {
+         _bulletSpread = param1;
+      }
+      
+      public function get reloadTimer() : Timer
+      {
+         return _reloadTimer;
+      }
+      
+      public function set reloadTimer(param1:Timer) : void
+      {
+         _reloadTimer = param1;
+      }
+      
+      public function get weaponBarrels() : Array
+      {
+         return _weaponBarrels;
+      }
+      
+      public function set weaponBarrels(param1:Array) : void
+      {
+         _weaponBarrels = param1;
+      }
+      
+      public function get skinBullet() : String
+      {
+         return _skinBullet;
+      }
+      
+      public function set skinBullet(param1:String) : void
+      {
+         _skinBullet = param1;
+      }
+      
+      public function get skinGun() : String
+      {
+         return _skinGun;
+      }
+      
+      public function set skinGun(param1:String) : void
+      {
+         _skinGun = param1;
+      }
+      
+      public function get skinBarrel() : String
+      {
+         return _skinBarrel;
+      }
+      
+      public function set skinBarrel(param1:String) : void
+      {
+         _skinBarrel = param1;
+      }
+      
+      public function get tempSkin() : Class
+      {
+         return _tempSkin;
+      }
+      
+      public function set tempSkin(param1:Class) : void
+      {
+         _tempSkin = param1;
+      }
+      
+      public function get manager() : WeaponManager
+      {
+         return _manager;
+      }
+      
+      public function set manager(param1:WeaponManager) : void
+      {
+         _manager = param1;
+      }
+      
+      public function get id() : String
+      {
+         return _id;
+      }
+      
+      public function set id(param1:String) : void
+      {
+         _id = param1;
+      }
+      
+      public function get linkedBarrels() : Boolean
+      {
+         return _linkedBarrels;
+      }
+      
+      public function set linkedBarrels(param1:Boolean) : void
+      {
+         _linkedBarrels = param1;
+      }
+      
+      public function get type() : String
+      {
+         return _type;
+      }
+      
+      public function set type(param1:String) : void
+      {
+         _type = param1;
+      }
+      
+      public function get bulletLifeTime() : Number
+      {
+         return _bulletLifeTime;
+      }
+      
+      public function set bulletLifeTime(param1:Number) : void
+      {
+         _bulletLifeTime = param1;
+      }
+      
+      public function get laserColor() : int
+      {
+         return _laserColor;
+      }
+      
+      public function set laserColor(param1:int) : void
+      {
+         _laserColor = param1;
+      }
+      
+      public function get laserWidth() : Number
+      {
+         return _laserWidth;
+      }
+      
+      public function set laserWidth(param1:Number) : void
+      {
+         _laserWidth = param1;
+      }
+      
+      public function get laserAlpha() : Number
+      {
+         return _laserAlpha;
+      }
+      
+      public function set laserAlpha(param1:Number) : void
+      {
+         _laserAlpha = param1;
+      }
+      
+      public function get tempBarrel() : Barrel
+      {
+         return _tempBarrel;
+      }
+      
+      public function set tempBarrel(param1:Barrel) : void
+      {
+         _tempBarrel = param1;
+      }
+      
+      public function get tempBullet() : Bullet
+      {
+         return _tempBullet;
+      }
+      
+      public function set tempBullet(param1:Bullet) : void
+      {
+         _tempBullet = param1;
+      }
+   }
+}
@@ -0,0 +1,16 @@
+package com.freeactionscript.weaponsystem.components
+{
+   public class WeaponTypes
+   {
+      
+      public static const LASER:String = "laser";
+      
+      public static const PROJECTILE:String = "projectile";
+       
+      
+      public function WeaponTypes()
+      {
+         super();
+      }
+   }
+}
@@ -0,0 +1,32 @@
+package com.freeactionscript.weaponsystem.weapons
+{
+   import com.freeactionscript.weaponsystem.WeaponManager;
+   import com.freeactionscript.weaponsystem.components.AbstractWeapon;
+   import com.freeactionscript.weaponsystem.components.WeaponTypes;
+   
+   public class LaserDual extends AbstractWeapon
+   {
+       
+      
+      public function LaserDual(param1:String, param2:WeaponManager, param3:Number, param4:Number, param5:Number)
+      {
+         super(param1,param2,param3,param4,param5);
+         skinGun = "WeaponDualSkin";
+         skinBarrel = "Barrel4Skin";
+         skinBullet = "";
+         addChild(super.attachSkin(skinGun));
+         super.createBarrel(this,super.attachSkin(skinBarrel),0,-5,8);
+         super.createBarrel(this,super.attachSkin(skinBarrel),0,5,8);
+         type = WeaponTypes.LASER;
+         rotateSpeedMax = 20;
+         reloadTime = 500;
+         bulletSpread = 5;
+         bulletLifeTime = 2500;
+         bulletSpeed = 10;
+         maxDistance = 200;
+         laserColor = 16711680;
+         laserWidth = 1;
+         laserAlpha = 1;
+      }
+   }
+}
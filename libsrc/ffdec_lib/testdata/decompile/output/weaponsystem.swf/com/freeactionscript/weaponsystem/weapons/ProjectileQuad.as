@@ -0,0 +1,34 @@
+package com.freeactionscript.weaponsystem.weapons
+{
+   import com.freeactionscript.weaponsystem.WeaponManager;
+   import com.freeactionscript.weaponsystem.components.AbstractWeapon;
+   import com.freeactionscript.weaponsystem.components.WeaponTypes;
+   
+   public class ProjectileQuad extends AbstractWeapon
+   {
+       
+      
+      public function ProjectileQuad(param1:String, param2:WeaponManager, param3:Number, param4:Number, param5:Number)
+      {
+         super(param1,param2,param3,param4,param5);
+         skinGun = "WeaponQuadSkin";
+         skinBarrel = "Barrel2Skin";
+         skinBullet = "BulletYellow";
+         addChild(super.attachSkin(skinGun));
+         super.createBarrel(this,super.attachSkin(skinBarrel),0,-20,5);
+         super.createBarrel(this,super.attachSkin(skinBarrel),-5,-10,5);
+         super.createBarrel(this,super.attachSkin(skinBarrel),-5,10,5);
+         super.createBarrel(this,super.attachSkin(skinBarrel),0,20,5);
+         type = WeaponTypes.PROJECTILE;
+         rotateSpeedMax = 20;
+         reloadTime = 250;
+         bulletSpread = 10;
+         bulletLifeTime = 3000;
+         bulletSpeed = 4;
+         maxDistance = 200;
+         laserColor = 0;
+         laserWidth = 0;
+         laserAlpha = 0;
+      }
+   }
+}
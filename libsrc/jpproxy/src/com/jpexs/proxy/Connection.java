@@ -5,8 +5,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketException;
+import java.nio.channels.SocketChannel;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.util.logging.Level;
@@ -96,6 +98,17 @@ class Connection {
     Connection() {
     }
 
+    /**
+     * Open a socket backed by a channel, so the connection can be relayed by
+     * the Reactor.
+     *
+     * @param host remote hostname
+     * @param port remote port
+     */
+    static Socket openChannelSocket(String host, int port) throws IOException {
+        return SocketChannel.open(new InetSocketAddress(InetAddress.getByName(host), port)).socket();
+    }
+
     /**
      * Return the input stream.
      */
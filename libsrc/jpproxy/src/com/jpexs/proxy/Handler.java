@@ -6,6 +6,7 @@ import java.util.logging.Logger;
 import java.util.zip.*;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
+import java.nio.channels.SocketChannel;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
@@ -63,6 +64,17 @@ class Handler implements Runnable {
         }
     }
 
+    /**
+     * Check whether the client already sent data of the next request.
+     */
+    boolean hasBufferedRequest() {
+        try {
+            return client.getInputStream().available() > 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
     /**
      * Flush all data to the client.
      */
@@ -84,19 +96,34 @@ class Handler implements Runnable {
                 + socket.getInetAddress().getHostAddress()
                 + ")");
 
-        try {
-            client = new Client(socket);
-            client.setTimeout(ProxyConfig.readTimeout);
-        } catch (IOException e) {
+        /* resumed by the reactor when the next request arrives */
+        if (client == null) {
+            try {
+                client = new Client(socket);
+                client.setTimeout(ProxyConfig.readTimeout);
+            } catch (IOException e) {
 
-            return;
+                return;
+            }
         }
 
         try {
             boolean secure = false;
             int securePort = 443;
             String secureServer = "";
+            boolean first = true;
             do {
+                /* Do not hold the thread while the keep-alive connection is idle. */
+                if (!first && !secure && !hasBufferedRequest()) {
+                    request = null;
+                    reply = null;
+                    if (Server.park(this)) {
+                        return;
+                    }
+                    break;
+                }
+                first = false;
+
                 request = null;
                 reply = null;
                 idle = System.currentTimeMillis();
@@ -256,23 +283,8 @@ class Handler implements Runnable {
             }
 
             if (http instanceof HttpsThrough) {
-                HttpsThrough https = (HttpsThrough) http;
-                int timeout = ProxyConfig.readTimeout;
-
-                client.write(reply);
-
-                try {
-                    client.setTimeout(timeout);
-                    https.setTimeout(timeout);
-
-                    Copy cp = new Copy(client.getInputStream(), https.getOutputStream());
-                    ReusableThread thread = Server.getThread();
-                    thread.setRunnable(cp);
-                    flushCopy(https.getInputStream(), client.getOutputStream(), -1, true);
-                    client.close();
-                } catch (InterruptedIOException iioe) {
-                    // ignore socket timeout exceptions
-                }
+                relay((HttpsThrough) http);
+                return false;
             } else if (reply.hasContent()) {
                 try {
                     processContent(uncompress);
@@ -304,6 +316,40 @@ class Handler implements Runnable {
         return keepAlive;
     }
 
+    /**
+     * Pass the tunnel to the reactor, the connections are closed by it.
+     */
+    void relay(HttpsThrough https) throws IOException {
+        SocketChannel clientChannel = client.getSocket().getChannel();
+        if (clientChannel == null) {
+            throw new IOException("Cannot tunnel a secure connection");
+        }
+
+        client.write(reply);
+        client.getOutputStream().flush();
+
+        /* the client may have sent some data after the request */
+        InputStream in = client.getInputStream();
+        byte[] pending = new byte[in.available()];
+        int pos = 0;
+        while (pos < pending.length) {
+            int n = in.read(pending, pos, pending.length - pos);
+            if (n < 0) {
+                break;
+            }
+            pos += n;
+        }
+        if (pos < pending.length) {
+            byte[] read = new byte[pos];
+            System.arraycopy(pending, 0, read, 0, pos);
+            pending = read;
+        }
+
+        Server.tunnel(new Tunnel(clientChannel, https.getSocket().getChannel(), pending));
+        client = null;
+        http = null;
+    }
+
     HttpRelay createHttpsRelay(String secureHost, int securePort) throws IOException {
         HttpRelay http;
 
@@ -543,7 +589,6 @@ class Handler implements Runnable {
         int n;
         byte[] buffer = new byte[8192];
         long start = System.currentTimeMillis();
-        long now = 0, then = start;
 
         bytesPerSecond = 0;
 
@@ -565,13 +610,7 @@ class Handler implements Runnable {
 
             }
 
-            now = System.currentTimeMillis();
-            bytesPerSecond = currentLength / ((now - start) / 1000.0);
-
-            // flush after 1 second
-            if (now - then > 1000) {
-                out.flush();
-            }
+            bytesPerSecond = currentLength / ((System.currentTimeMillis() - start) / 1000.0);
 
             if (length != -1) {
                 length -= n;
@@ -580,56 +619,12 @@ class Handler implements Runnable {
                 }
             }
 
-            then = now;
-        }
-
-        out.flush();
-
-    }
-
-    /**
-     * Copy in to out.
-     *
-     * @param in InputStream
-     * @param out OutputStream
-     * @param monitored Update the Monitor
-     */
-    void flushCopy(InputStream in, OutputStream out, int length, boolean monitored)
-            throws IOException {
-        if (length == 0) {
-            return;
-        }
-
-        int n;
-        byte[] buffer = new byte[8192];
-        long start = System.currentTimeMillis();
-        bytesPerSecond = 0;
-
-        if (monitored) {
-            currentLength = 0;
-        }
-
-        for (;;) {
-            n = (length > 0) ? Math.min(length, buffer.length) : buffer.length;
-            n = in.read(buffer, 0, n);
-            if (n < 0) {
-                break;
-            }
-
-            out.write(buffer, 0, n);
-            out.flush();
-            if (monitored) {
-                currentLength += n;
-
-            }
-            bytesPerSecond = currentLength / ((System.currentTimeMillis() - start) / 1000.0);
-            if (length != -1) {
-                length -= n;
-                if (length == 0) {
-                    break;
-                }
+            // flush when the next read would block, so bursts are written at once
+            if (in.available() == 0) {
+                out.flush();
             }
         }
+
         out.flush();
 
     }
@@ -7,7 +7,7 @@ class HttpsThrough extends HttpConnection {
     boolean proxy = false;
 
     HttpsThrough(String host, int port) throws IOException {
-        super(host, port);
+        super(Connection.openChannelSocket(host, port));
     }
 
     HttpsThrough(String host, int port, boolean isProxy) throws IOException {
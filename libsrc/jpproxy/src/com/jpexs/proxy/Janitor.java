@@ -18,8 +18,9 @@ class Janitor implements Runnable {
             try {
                 Thread.sleep(30 * 1000); /* 30 seconds */
 
-            } catch (Exception e) {
-
+            } catch (InterruptedException e) {
+                /* server stopped */
+                return;
             }
 
             for (Enumeration e = cleanable.elements();
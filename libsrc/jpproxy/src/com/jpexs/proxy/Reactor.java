@@ -0,0 +1,251 @@
+package com.jpexs.proxy;
+
+import java.io.IOException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Selector thread of the proxy. It accepts the connections and holds the idle
+ * client connections and the tunnels, so they do not occupy any thread. A
+ * client connection is passed to a worker thread only when its next request
+ * arrives.
+ */
+class Reactor implements Runnable {
+
+    static final int SWEEP_INTERVAL = 1000;
+
+    private final Selector selector;
+    private final Executor executor;
+
+    /* Registrations requested by the other threads */
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+
+    /* Handlers with a request ready to read */
+    private final List<Handler> readyHandlers = new ArrayList<Handler>();
+
+    private Thread thread = null;
+    private volatile boolean stopping = false;
+
+    /**
+     * Create a Reactor.
+     *
+     * @param server listening channel
+     * @param acceptor server creating the handlers
+     * @param executor executor of the handlers
+     */
+    Reactor(ServerSocketChannel server, Server acceptor, Executor executor) throws IOException {
+        this.executor = executor;
+        selector = Selector.open();
+        try {
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT, acceptor);
+        } catch (IOException e) {
+            selector.close();
+            throw e;
+        }
+    }
+
+    void start() {
+        thread = new Thread(this, ProxyConfig.appName + " Server");
+        thread.start();
+    }
+
+    /**
+     * Stop the thread and close all the connections it holds.
+     */
+    void stop() {
+        stopping = true;
+        selector.wakeup();
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Wait for the next request of the handler's client.
+     */
+    void park(final Handler handler) {
+        invoke(new Runnable() {
+            public void run() {
+                register(handler);
+            }
+        });
+    }
+
+    /**
+     * Relay the tunnel.
+     */
+    void tunnel(final Tunnel tunnel) {
+        invoke(new Runnable() {
+            public void run() {
+                try {
+                    tunnel.register(selector);
+                } catch (IOException e) {
+                    tunnel.close();
+                }
+            }
+        });
+    }
+
+    private void invoke(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    public void run() {
+        long lastSweep = System.currentTimeMillis();
+        try {
+            while (!stopping) {
+                selector.select(SWEEP_INTERVAL);
+                runTasks();
+                processSelectedKeys();
+                while (!readyHandlers.isEmpty()) {
+                    /* deregister the cancelled keys, so the channels can block again */
+                    selector.selectNow();
+                    dispatchReadyHandlers();
+                    processSelectedKeys();
+                }
+
+                long now = System.currentTimeMillis();
+                if (now - lastSweep >= SWEEP_INTERVAL) {
+                    sweep(now);
+                    lastSweep = now;
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            runTasks();
+            for (SelectionKey key : selector.keys()) {
+                close(key.channel());
+            }
+            for (Handler handler : readyHandlers) {
+                close(handler.socket.getChannel());
+            }
+            readyHandlers.clear();
+            try {
+                selector.close();
+            } catch (IOException e) {
+            }
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void processSelectedKeys() {
+        Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+        while (it.hasNext()) {
+            SelectionKey key = it.next();
+            it.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+
+            Object attachment = key.attachment();
+            if (attachment instanceof Server) {
+                accept((ServerSocketChannel) key.channel(), (Server) attachment);
+            } else if (attachment instanceof Handler) {
+                key.cancel();
+                readyHandlers.add((Handler) attachment);
+            } else if (attachment instanceof Tunnel) {
+                ((Tunnel) attachment).ready();
+            }
+        }
+    }
+
+    private void accept(ServerSocketChannel server, Server acceptor) {
+        for (;;) {
+            SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (IOException e) {
+                return;
+            }
+
+            if (channel == null) {
+                return;
+            }
+
+            Handler handler = acceptor.accepted(channel);
+            if (handler != null) {
+                register(handler);
+            }
+        }
+    }
+
+    private void register(Handler handler) {
+        SocketChannel channel = handler.socket.getChannel();
+        try {
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_READ, handler);
+            handler.idle = System.currentTimeMillis();
+        } catch (IOException e) {
+            close(channel);
+        }
+    }
+
+    private void dispatchReadyHandlers() {
+        for (Handler handler : readyHandlers) {
+            SocketChannel channel = handler.socket.getChannel();
+            try {
+                channel.configureBlocking(true);
+                executor.execute(handler);
+            } catch (IOException e) {
+                close(channel);
+            } catch (RejectedExecutionException e) {
+                close(channel);
+            }
+        }
+        readyHandlers.clear();
+    }
+
+    /**
+     * Close the connections idle for longer than the read timeout.
+     */
+    private void sweep(long now) {
+        int timeout = ProxyConfig.readTimeout;
+        if (timeout <= 0) {
+            return;
+        }
+
+        for (SelectionKey key : selector.keys()) {
+            Object attachment = key.attachment();
+            if (attachment instanceof Handler) {
+                if (now - ((Handler) attachment).idle > timeout) {
+                    close(key.channel());
+                }
+            } else if (attachment instanceof Tunnel) {
+                Tunnel tunnel = (Tunnel) attachment;
+                if (now - tunnel.lastActivity > timeout) {
+                    tunnel.close();
+                }
+            }
+        }
+    }
+
+    private static void close(SelectableChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+        }
+    }
+}
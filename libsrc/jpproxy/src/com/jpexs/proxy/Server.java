@@ -1,15 +1,19 @@
 package com.jpexs.proxy;
 
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.Socket;
-import java.net.ServerSocket;
 import java.io.IOException;
 import java.io.DataOutputStream;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
-public class Server implements Runnable {
+public class Server {
 
-    ServerSocket server = null;
+    ServerSocketChannel server = null;
     boolean running = false;
 
     private List<String> catchedContentTypes;
@@ -17,16 +21,12 @@ public class Server implements Runnable {
     private ReplacedListener replacedListener;
     private List<Replacement> replacements;
 
-    static ThreadPool pool;
+    static ExecutorService executor;
 
-    static Server myServer;
-    static boolean serverRunning = false;
-
-    static boolean stopping = false;
+    static Reactor reactor;
 
-    public static ReusableThread getThread() {
-        return pool.get();
-    }
+    static Server myServer;
+    static volatile boolean serverRunning = false;
 
     /**
      * Starts proxy server
@@ -38,33 +38,63 @@ public class Server implements Runnable {
      */
     public static boolean startServer(int port, List<Replacement> replacements, List<String> catchedContentTypes, CatchedListener catchedListener, ReplacedListener replacedListener) {
         stopServer();
-        stopping = false;
         try {
             myServer = new Server(port, replacements, catchedContentTypes, catchedListener, replacedListener);
         } catch (IOException ex) {
             return false;
         }
-        pool = new ThreadPool(ProxyConfig.appName + " Threads");
+        /* Handlers run only while a request is processed, idle connections wait in the reactor */
+        executor = Executors.newCachedThreadPool();
+        try {
+            reactor = new Reactor(myServer.server, myServer, executor);
+        } catch (IOException ex) {
+            try {
+                myServer.server.close();
+            } catch (IOException ex2) {
+
+            }
+            executor.shutdown();
+            return false;
+        }
         /* Startup the Janitor */
-        Janitor j = new Janitor();
-        j.add(pool);
-        getThread().setRunnable(j);
+        executor.execute(new Janitor());
+        myServer.running = true;
         serverRunning = true;
-        getThread().setRunnable(myServer);
+        reactor.start();
         return true;
     }
 
     public static void stopServer() {
         if (serverRunning) {
-            stopping = true;
             serverRunning = false;
-            try {
-                myServer.server.close();
-            } catch (IOException ex) {
+            reactor.stop();
+            executor.shutdownNow();
+        }
+    }
 
-            }
-            pool.clean();
+    /**
+     * Wait for the next request of the handler's client without occupying a
+     * thread.
+     *
+     * @return False when the server is stopped
+     */
+    static boolean park(Handler handler) {
+        if (!serverRunning) {
+            return false;
+        }
+        reactor.park(handler);
+        return true;
+    }
+
+    /**
+     * Relay the tunnel without occupying a thread.
+     */
+    static void tunnel(Tunnel tunnel) {
+        if (!serverRunning) {
+            tunnel.close();
+            return;
         }
+        reactor.tunnel(tunnel);
     }
 
     Server(int port, List<Replacement> replacements, List<String> catchedContentTypes, CatchedListener catchedListener, ReplacedListener replacedListener) throws IOException {
@@ -74,15 +104,17 @@ public class Server implements Runnable {
         this.catchedListener = catchedListener;
         this.replacedListener = replacedListener;
 
+        server = ServerSocketChannel.open();
         try {
             String bindaddr = ProxyConfig.bindAddress;
             if (bindaddr != null && bindaddr.length() > 0) {
-                server = new ServerSocket(port, 512,
-                        InetAddress.getByName(bindaddr));
+                server.socket().bind(new InetSocketAddress(
+                        InetAddress.getByName(bindaddr), port), 512);
             } else {
-                server = new ServerSocket(port, 512);
+                server.socket().bind(new InetSocketAddress(port), 512);
             }
         } catch (IOException e) {
+            server.close();
             throw e;
         }
 
@@ -97,33 +129,19 @@ public class Server implements Runnable {
         running = true;
     }
 
-    public void run() {
-        Thread.currentThread().setName(ProxyConfig.appName + " Server");
-        running = true;
-        for (;;) {
-            Socket socket;
-
-            try {
-                socket = server.accept();
-            } catch (IOException e) {
-                if (stopping) {
-                    break;
-                }
-                continue;
-            }
-
-            if (stopping) {
-                break;
-            }
-
-            if (running) {
-                Handler h = new Handler(socket, replacements, catchedContentTypes, catchedListener, replacedListener);
-                ReusableThread rt = getThread();
-                rt.setRunnable(h);
-            } else {
-                error(socket, 503, ProxyConfig.appName + " proxy service is suspended.");
-            }
+    /**
+     * Called by the reactor for each accepted connection.
+     *
+     * @return Handler waiting for the first request or null
+     */
+    synchronized Handler accepted(SocketChannel channel) {
+        Socket socket = channel.socket();
+        if (running) {
+            return new Handler(socket, replacements, catchedContentTypes, catchedListener, replacedListener);
         }
+
+        error(socket, 503, ProxyConfig.appName + " proxy service is suspended.");
+        return null;
     }
 
     void error(Socket socket, int code, String message) {
@@ -0,0 +1,165 @@
+package com.jpexs.proxy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Non-blocking relay of a CONNECT tunnel. Both directions are pumped by the
+ * Reactor thread, the data are written directly to the channels so nothing has
+ * to be flushed.
+ */
+class Tunnel {
+
+    static final int BUFFER_SIZE = 16384;
+
+    static final int MAX_TRANSFERS = 16;
+
+    private final SocketChannel client;
+    private final SocketChannel server;
+
+    /* client -> server */
+    private final Direction upstream;
+
+    /* server -> client */
+    private final Direction downstream;
+
+    private SelectionKey clientKey = null;
+    private SelectionKey serverKey = null;
+    private boolean closed = false;
+
+    long lastActivity = 0;
+
+    /**
+     * Create a Tunnel.
+     *
+     * @param client client channel
+     * @param server server channel
+     * @param pending data already read from the client
+     */
+    Tunnel(SocketChannel client, SocketChannel server, byte[] pending) {
+        this.client = client;
+        this.server = server;
+        upstream = new Direction(client, server, Math.max(BUFFER_SIZE, pending.length));
+        upstream.buffer.put(pending);
+        downstream = new Direction(server, client, BUFFER_SIZE);
+    }
+
+    /**
+     * Register both channels with the selector.
+     */
+    void register(Selector selector) throws IOException {
+        client.configureBlocking(false);
+        server.configureBlocking(false);
+        clientKey = client.register(selector, 0, this);
+        serverKey = server.register(selector, 0, this);
+        lastActivity = System.currentTimeMillis();
+        ready();
+    }
+
+    /**
+     * Copy the data which can be copied without blocking.
+     */
+    void ready() {
+        try {
+            boolean active = upstream.transfer();
+            active |= downstream.transfer();
+            if (active) {
+                lastActivity = System.currentTimeMillis();
+            }
+
+            if (upstream.done && downstream.done) {
+                close();
+                return;
+            }
+
+            clientKey.interestOps(upstream.readOps() | downstream.writeOps());
+            serverKey.interestOps(downstream.readOps() | upstream.writeOps());
+        } catch (IOException e) {
+            close();
+        } catch (CancelledKeyException e) {
+            close();
+        }
+    }
+
+    /**
+     * Close both connections.
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            client.close();
+        } catch (IOException e) {
+        }
+        try {
+            server.close();
+        } catch (IOException e) {
+        }
+    }
+
+    private static class Direction {
+
+        final SocketChannel from;
+        final SocketChannel to;
+        final ByteBuffer buffer;
+        boolean eof = false;
+        boolean done = false;
+
+        Direction(SocketChannel from, SocketChannel to, int size) {
+            this.from = from;
+            this.to = to;
+            buffer = ByteBuffer.allocate(size);
+        }
+
+        boolean transfer() throws IOException {
+            boolean active = false;
+            /* copy until one of the channels would block, limited to keep the other tunnels responsive */
+            for (int i = 0; i < MAX_TRANSFERS; i++) {
+                boolean progress = false;
+                if (!eof && buffer.hasRemaining()) {
+                    int n = from.read(buffer);
+                    if (n < 0) {
+                        eof = true;
+                    } else if (n > 0) {
+                        progress = true;
+                    }
+                }
+
+                if (buffer.position() > 0) {
+                    buffer.flip();
+                    if (to.write(buffer) > 0) {
+                        progress = true;
+                    }
+                    buffer.compact();
+                }
+
+                if (!progress) {
+                    break;
+                }
+                active = true;
+            }
+
+            /* pass the end of stream to the other side */
+            if (eof && !done && buffer.position() == 0) {
+                to.socket().shutdownOutput();
+                done = true;
+            }
+
+            return active;
+        }
+
+        int readOps() {
+            return !eof && buffer.hasRemaining() ? SelectionKey.OP_READ : 0;
+        }
+
+        int writeOps() {
+            return buffer.position() > 0 ? SelectionKey.OP_WRITE : 0;
+        }
+    }
+}
@@ -203,6 +203,12 @@ import java.util.Set;
 import java.util.Stack;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -223,6 +229,16 @@ public class CommandLineArgumentParser {
 
     private static String stdErr = null;
 
+    private static int batchThreadCount = 1;
+
+    private static long batchMemoryLimit = 0;
+
+    /**
+     * Estimated ratio of the memory used during export to the uncompressed SWF
+     * size
+     */
+    private static final int BATCH_MEMORY_FACTOR = 8;
+
     private static final String METADATA_FORMAT_JSLIKE = "jslike";
 
     private static final String METADATA_FORMAT_RAW = "raw";
@@ -499,6 +515,18 @@ public class CommandLineArgumentParser {
             out.println("  ...export timeout for a single AS3 class in seconds");
         }
 
+        if (filter == null || filter.equals("batchthreads")) {
+            out.println(" " + (cnt++) + ") -batchThreads <N>");
+            out.println("  ...number of SWF files exported at once when exporting a folder (default 1)");
+            out.println("    -exportTimeout is then applied to each SWF file separately");
+            out.println("    Works only without -stdout and -stderr parameters");
+        }
+
+        if (filter == null || filter.equals("batchmemory")) {
+            out.println(" " + (cnt++) + ") -batchMemory <N>");
+            out.println("  ...memory limit in MB for SWF files exported at once (default is half of the maximum heap size)");
+        }
+
         if (filter == null || filter.equals("stat")) {
             out.println(" " + (cnt++) + ") -stat");
             out.println("  ...show export performance statistics");
@@ -818,6 +846,12 @@ public class CommandLineArgumentParser {
                 case "-exportfiletimeout":
                     parseExportFileTimeout(args);
                     break;
+                case "-batchthreads":
+                    parseBatchThreads(args);
+                    break;
+                case "-batchmemory":
+                    parseBatchMemory(args);
+                    break;
                 case "-stat":
                     parseStat(args);
                     break;
@@ -1835,6 +1869,35 @@ public class CommandLineArgumentParser {
         }
     }
 
+    private static void parseBatchThreads(Stack<String> args) {
+        if (args.isEmpty()) {
+            System.err.println("thread count parameter expected");
+            badArguments("batchthreads");
+        }
+        try {
+            int threadCount = Integer.parseInt(args.pop());
+            if (threadCount < 1) {
+                System.err.println("Bad thread count value");
+            } else {
+                batchThreadCount = threadCount;
+            }
+        } catch (NumberFormatException nex) {
+            System.err.println("Bad thread count value");
+        }
+    }
+
+    private static void parseBatchMemory(Stack<String> args) {
+        if (args.isEmpty()) {
+            System.err.println("memory limit parameter expected");
+            badArguments("batchmemory");
+        }
+        try {
+            batchMemoryLimit = Long.parseLong(args.pop());
+        } catch (NumberFormatException nex) {
+            System.err.println("Bad memory limit value");
+        }
+    }
+
     private static void parseStat(Stack<String> args) {
         showStat = true;
         Configuration.showStat = showStat;
@@ -1941,7 +2004,8 @@ public class CommandLineArgumentParser {
                 for (File file : files) {
                     SWFSourceInfo sourceInfo = new SWFSourceInfo(null, file.getAbsolutePath(), file.getName());
                     try {
-                        SWF swf = new SWF(new FileInputStream(file), sourceInfo.getFile(), sourceInfo.getFileTitle(), Configuration.parallelSpeedUp.get());
+                        // only the tag ids are needed, the tag bodies are not parsed
+                        SWF swf = new SWF(new FileInputStream(file), sourceInfo.getFile(), sourceInfo.getFileTitle(), null, Configuration.parallelSpeedUp.get(), false, true, null, new HashSet<>());
                         swf.swfList = new SWFList();
                         swf.swfList.sourceInfo = sourceInfo;
                         boolean found = false;
@@ -2138,246 +2202,358 @@ public class CommandLineArgumentParser {
                 inFiles = new File[]{inFileOrFolder};
             }
 
-            for (File inFile : inFiles) {
-                String inFileName = Path.getFileNameWithoutExtension(inFile);
-                if (stdOut != null) {
-                    String outFilePath = stdOut.replace("{swfFile}", inFileName);
-                    Path.createDirectorySafe(new File(outFilePath).getParentFile());
-                    System.setOut(new PrintStream(new FileOutputStream(outFilePath, true)));
+            // Check all the specified export formats
+            for (String exportFormat : exportFormats) {
+                if (Arrays.asList(removedExportFormats).contains(exportFormat)) {
+                    System.err.println("Error: Export format : " + exportFormat + " was REMOVED. Run application with --help parameter to see available formats.");
+                    System.exit(1);
+                } else if (!Arrays.asList(validExportItems).contains(exportFormat)) {
+                    System.err.println("Invalid export item:" + exportFormat);
+                    badArguments("export");
                 }
+            }
 
-                if (stdErr != null) {
-                    String errFilePath = stdErr.replace("{swfFile}", inFileName);
-                    Path.createDirectorySafe(new File(errFilePath).getParentFile());
-                    System.setErr(new PrintStream(new FileOutputStream(errFilePath, true)));
-                    Main.initLogging(Configuration._debugMode.get());
-                }
+            // Here the exportFormats array should contain only validitems
+            commandLineMode = true;
 
-                long startTimeSwf = 0;
-                if (!singleFile) {
-                    startTimeSwf = System.currentTimeMillis();
-                    System.out.println("Start exporting " + inFile.getName());
+            // stdout and stderr redirection is global, so it works only with sequential export
+            boolean batch = !singleFile && batchThreadCount > 1 && inFiles.length > 1 && stdOut == null && stdErr == null;
+            if (batch) {
+                exportOK = exportBatch(inFiles, outDirBase, exportFormats, formats, selection, selectionIds, as3classes, handler, traceLevel, zoom, stat) && exportOK;
+            } else {
+                for (int i = 0; i < inFiles.length; i++) {
+                    exportOK = exportSwf(inFiles[i], i + 1, inFiles.length, singleFile, false, outDirBase, exportFormats, formats, selection, selectionIds, as3classes, handler, traceLevel, zoom, stat) && exportOK;
                 }
+            }
+        } catch (OutOfMemoryError | Exception ex) {
+            System.err.print("FAIL: Exporting Failed on Exception - ");
+            logger.log(Level.SEVERE, null, ex);
+            System.exit(1);
+        }
 
-                SWFSourceInfo sourceInfo = new SWFSourceInfo(null, inFile.getAbsolutePath(), inFile.getName());
-                SWF swf;
-                try {
-                    swf = new SWF(new FileInputStream(inFile), sourceInfo.getFile(), sourceInfo.getFileTitle(), Configuration.parallelSpeedUp.get());
-                } catch (FileNotFoundException | SwfOpenException ex) {
-                    // FileNotFoundException when anti virus software blocks to open the file
-                    logger.log(Level.SEVERE, "Failed to open swf: " + inFile.getName(), ex);
-                    continue;
-                }
+        if (showStat) {
+            Statistics.print(stat);
+        }
 
-                swf.swfList = new SWFList();
-                swf.swfList.sourceInfo = sourceInfo;
-                String outDir = outDirBase.getAbsolutePath();
-                if (!singleFile) {
-                    outDir = Path.combine(outDir, inFile.getName());
-                }
+        long stopTime = System.currentTimeMillis();
+        long time = stopTime - startTime;
+        System.out.println("Export finished. Total export time: " + Helper.formatTimeSec(time));
+        System.out.println(exportOK ? "OK" : "FAIL");
+        System.exit(exportOK ? 0 : 1);
+    }
 
-                List<Tag> extags = new ArrayList<>();
-                for (Tag t : swf.getTags()) {
-                    if (t instanceof CharacterIdTag) {
-                        CharacterIdTag c = (CharacterIdTag) t;
-                        if (selectionIds.contains(c.getCharacterId())) {
-                            extags.add(t);
-                        }
-                    } else if (selectionIds.contains(0)) {
-                        extags.add(t);
-                    }
-                }
+    private static boolean exportSwf(File inFile, int fileIndex, int fileCount, boolean singleFile, boolean batch, File outDirBase, List<String> exportFormats, Map<String, String> formats, Selection selection, Selection selectionIds, List<String> as3classes, AbortRetryIgnoreHandler handler, Level traceLevel, double zoom, Map<String, StatisticData> stat) throws Exception {
+        final String logPrefix = batch ? "[" + inFile.getName() + "] " : "";
+        String inFileName = Path.getFileNameWithoutExtension(inFile);
+        if (stdOut != null) {
+            String outFilePath = stdOut.replace("{swfFile}", inFileName);
+            Path.createDirectorySafe(new File(outFilePath).getParentFile());
+            System.setOut(new PrintStream(new FileOutputStream(outFilePath, true)));
+        }
 
-                final Level level = traceLevel;
-                swf.addEventListener(new EventListener() {
-                    @Override
-                    public void handleExportingEvent(String type, int index, int count, Object data) {
-                        if (level.intValue() <= Level.FINE.intValue()) {
-                            String text = "Exporting ";
-                            if (type != null && type.length() > 0) {
-                                text += type + " ";
-                            }
-                            System.out.println(text + index + "/" + count + " " + data);
-                        }
-                    }
+        if (stdErr != null) {
+            String errFilePath = stdErr.replace("{swfFile}", inFileName);
+            Path.createDirectorySafe(new File(errFilePath).getParentFile());
+            System.setErr(new PrintStream(new FileOutputStream(errFilePath, true)));
+            Main.initLogging(Configuration._debugMode.get());
+        }
 
-                    @Override
-                    public void handleExportedEvent(String type, int index, int count, Object data) {
-                        String text = "Exported ";
-                        if (type != null && type.length() > 0) {
-                            text += type + " ";
-                        }
-                        System.out.println(text + index + "/" + count + " " + data);
-                    }
+        boolean exportOK = true;
+        long startTimeSwf = 0;
+        if (!singleFile) {
+            startTimeSwf = System.nanoTime();
+            System.out.println("Start exporting " + inFile.getName() + " (" + fileIndex + "/" + fileCount + ")");
+        }
 
-                    @Override
-                    public void handleEvent(String event, Object data) {
-                    }
-                });
+        // when only the scripts are exported, the bodies of the other tags are not parsed
+        Set<Integer> tagIdFilter = Tag.getScriptTags();
+        for (String exportFormat : exportFormats) {
+            if (!exportFormat.equals("script") && !exportFormat.equals("script_as2") && !exportFormat.equals("script_as3")) {
+                tagIdFilter = null;
+                break;
+            }
+        }
 
-                // First check all the specified export formats
-                for (String exportFormat : exportFormats) {
-                    if (Arrays.asList(removedExportFormats).contains(exportFormat)) {
-                        System.err.println("Error: Export format : " + exportFormat + " was REMOVED. Run application with --help parameter to see available formats.");
-                        System.exit(1);
-                    } else if (!Arrays.asList(validExportItems).contains(exportFormat)) {
-                        System.err.println("Invalid export item:" + exportFormat);
-                        badArguments("export");
-                    }
-                }
+        SWFSourceInfo sourceInfo = new SWFSourceInfo(null, inFile.getAbsolutePath(), inFile.getName());
+        SWF swf;
+        try (InputStream is = new BufferedInputStream(new FileInputStream(inFile))) {
+            swf = new SWF(is, sourceInfo.getFile(), sourceInfo.getFileTitle(), null, Configuration.parallelSpeedUp.get(), false, true, null, tagIdFilter);
+        } catch (FileNotFoundException | SwfOpenException ex) {
+            // FileNotFoundException when anti virus software blocks to open the file
+            logger.log(Level.SEVERE, "Failed to open swf: " + inFile.getName(), ex);
+            return true;
+        }
 
-                // Here the exportFormats array should contain only validitems
-                commandLineMode = true;
-                boolean exportAll = exportFormats.contains("all");
-                boolean multipleExportTypes = exportAll || exportFormats.size() > 1;
-                EventListener evl = swf.getExportEventListener();
+        swf.swfList = new SWFList();
+        swf.swfList.sourceInfo = sourceInfo;
+        String outDir = outDirBase.getAbsolutePath();
+        if (!singleFile) {
+            outDir = Path.combine(outDir, inFile.getName());
+        }
 
-                if (exportAll || exportFormats.contains("image")) {
-                    System.out.println("Exporting images...");
-                    new ImageExporter().exportImages(handler, outDir + (multipleExportTypes ? File.separator + ImageExportSettings.EXPORT_FOLDER_NAME : ""), new ReadOnlyTagList(extags), new ImageExportSettings(enumFromStr(formats.get("image"), ImageExportMode.class)), evl);
+        List<Tag> extags = new ArrayList<>();
+        for (Tag t : swf.getTags()) {
+            if (t instanceof CharacterIdTag) {
+                CharacterIdTag c = (CharacterIdTag) t;
+                if (selectionIds.contains(c.getCharacterId())) {
+                    extags.add(t);
                 }
+            } else if (selectionIds.contains(0)) {
+                extags.add(t);
+            }
+        }
 
-                if (exportAll || exportFormats.contains("shape")) {
-                    System.out.println("Exporting shapes...");
-                    new ShapeExporter().exportShapes(handler, outDir + (multipleExportTypes ? File.separator + ShapeExportSettings.EXPORT_FOLDER_NAME : ""), new ReadOnlyTagList(extags), new ShapeExportSettings(enumFromStr(formats.get("shape"), ShapeExportMode.class), zoom), evl);
+        final Level level = traceLevel;
+        swf.addEventListener(new EventListener() {
+            @Override
+            public void handleExportingEvent(String type, int index, int count, Object data) {
+                if (level.intValue() <= Level.FINE.intValue()) {
+                    String text = "Exporting ";
+                    if (type != null && type.length() > 0) {
+                        text += type + " ";
+                    }
+                    System.out.println(logPrefix + text + index + "/" + count + " " + data);
                 }
+            }
 
-                if (exportAll || exportFormats.contains("morphshape")) {
-                    System.out.println("Exporting morphshapes...");
-                    new MorphShapeExporter().exportMorphShapes(handler, outDir + (multipleExportTypes ? File.separator + MorphShapeExportSettings.EXPORT_FOLDER_NAME : ""), new ReadOnlyTagList(extags), new MorphShapeExportSettings(enumFromStr(formats.get("morphshape"), MorphShapeExportMode.class), zoom), evl);
+            @Override
+            public void handleExportedEvent(String type, int index, int count, Object data) {
+                String text = "Exported ";
+                if (type != null && type.length() > 0) {
+                    text += type + " ";
                 }
+                System.out.println(logPrefix + text + index + "/" + count + " " + data);
+            }
 
-                if (exportAll || exportFormats.contains("movie")) {
-                    System.out.println("Exporting movies...");
-                    new MovieExporter().exportMovies(handler, outDir + (multipleExportTypes ? File.separator + MovieExportSettings.EXPORT_FOLDER_NAME : ""), new ReadOnlyTagList(extags), new MovieExportSettings(enumFromStr(formats.get("movie"), MovieExportMode.class)), evl);
-                }
+            @Override
+            public void handleEvent(String event, Object data) {
+            }
+        });
 
-                if (exportAll || exportFormats.contains("font")) {
-                    System.out.println("Exporting fonts...");
-                    new FontExporter().exportFonts(handler, outDir + (multipleExportTypes ? File.separator + FontExportSettings.EXPORT_FOLDER_NAME : ""), new ReadOnlyTagList(extags), new FontExportSettings(enumFromStr(formats.get("font"), FontExportMode.class)), evl);
-                }
+        boolean exportAll = exportFormats.contains("all");
+        boolean multipleExportTypes = exportAll || exportFormats.size() > 1;
+        EventListener evl = swf.getExportEventListener();
 
-                if (exportAll || exportFormats.contains("sound")) {
-                    System.out.println("Exporting sounds...");
-                    new SoundExporter().exportSounds(handler, outDir + (multipleExportTypes ? File.separator + SoundExportSettings.EXPORT_FOLDER_NAME : ""), new ReadOnlyTagList(extags), new SoundExportSettings(enumFromStr(formats.get("sound"), SoundExportMode.class)), evl);
-                }
+        if (exportAll || exportFormats.contains("image")) {
+            System.out.println(logPrefix + "Exporting images...");
+            new ImageExporter().exportImages(handler, outDir + (multipleExportTypes ? File.separator + ImageExportSettings.EXPORT_FOLDER_NAME : ""), new ReadOnlyTagList(extags), new ImageExportSettings(enumFromStr(formats.get("image"), ImageExportMode.class)), evl);
+        }
 
-                if (exportAll || exportFormats.contains("binarydata")) {
-                    System.out.println("Exporting binaryData...");
-                    new BinaryDataExporter().exportBinaryData(handler, outDir + (multipleExportTypes ? File.separator + BinaryDataExportSettings.EXPORT_FOLDER_NAME : ""), new ReadOnlyTagList(extags), new BinaryDataExportSettings(enumFromStr(formats.get("binarydata"), BinaryDataExportMode.class)), evl);
-                }
+        if (exportAll || exportFormats.contains("shape")) {
+            System.out.println(logPrefix + "Exporting shapes...");
+            new ShapeExporter().exportShapes(handler, outDir + (multipleExportTypes ? File.separator + ShapeExportSettings.EXPORT_FOLDER_NAME : ""), new ReadOnlyTagList(extags), new ShapeExportSettings(enumFromStr(formats.get("shape"), ShapeExportMode.class), zoom), evl);
+        }
 
-                if (exportAll || exportFormats.contains("text")) {
-                    System.out.println("Exporting texts...");
-                    Boolean singleTextFile = parseBooleanConfigValue(formats.get("singletext"));
-                    if (singleTextFile == null) {
-                        singleTextFile = Configuration.textExportSingleFile.get();
-                    }
-                    new TextExporter().exportTexts(handler, outDir + (multipleExportTypes ? File.separator + TextExportSettings.EXPORT_FOLDER_NAME : ""), new ReadOnlyTagList(extags), new TextExportSettings(enumFromStr(formats.get("text"), TextExportMode.class), singleTextFile, zoom), evl);
-                }
+        if (exportAll || exportFormats.contains("morphshape")) {
+            System.out.println(logPrefix + "Exporting morphshapes...");
+            new MorphShapeExporter().exportMorphShapes(handler, outDir + (multipleExportTypes ? File.separator + MorphShapeExportSettings.EXPORT_FOLDER_NAME : ""), new ReadOnlyTagList(extags), new MorphShapeExportSettings(enumFromStr(formats.get("morphshape"), MorphShapeExportMode.class), zoom), evl);
+        }
 
-                FrameExporter frameExporter = new FrameExporter();
+        if (exportAll || exportFormats.contains("movie")) {
+            System.out.println(logPrefix + "Exporting movies...");
+            new MovieExporter().exportMovies(handler, outDir + (multipleExportTypes ? File.separator + MovieExportSettings.EXPORT_FOLDER_NAME : ""), new ReadOnlyTagList(extags), new MovieExportSettings(enumFromStr(formats.get("movie"), MovieExportMode.class)), evl);
+        }
 
-                if (exportAll || exportFormats.contains("frame")) {
-                    System.out.println("Exporting frames...");
-                    List<Integer> frames = new ArrayList<>();
-                    for (int i = 0; i < swf.frameCount; i++) {
-                        if (selection.contains(i + 1)) {
-                            frames.add(i);
-                        }
-                    }
-                    FrameExportSettings fes = new FrameExportSettings(enumFromStr(formats.get("frame"), FrameExportMode.class), zoom);
-                    frameExporter.exportFrames(handler, outDir + (multipleExportTypes ? File.separator + FrameExportSettings.EXPORT_FOLDER_NAME : ""), swf, 0, frames, fes, evl);
-                }
+        if (exportAll || exportFormats.contains("font")) {
+            System.out.println(logPrefix + "Exporting fonts...");
+            new FontExporter().exportFonts(handler, outDir + (multipleExportTypes ? File.separator + FontExportSettings.EXPORT_FOLDER_NAME : ""), new ReadOnlyTagList(extags), new FontExportSettings(enumFromStr(formats.get("font"), FontExportMode.class)), evl);
+        }
 
-                if (exportAll || exportFormats.contains("sprite")) {
-                    System.out.println("Exporting sprite...");
-                    SpriteExportSettings ses = new SpriteExportSettings(enumFromStr(formats.get("sprite"), SpriteExportMode.class), zoom);
-                    for (CharacterTag c : swf.getCharacters().values()) {
-                        if (c instanceof DefineSpriteTag) {
-                            frameExporter.exportSpriteFrames(handler, outDir + (multipleExportTypes ? File.separator + SpriteExportSettings.EXPORT_FOLDER_NAME : ""), swf, c.getCharacterId(), null, ses, evl);
-                        }
-                    }
-                }
+        if (exportAll || exportFormats.contains("sound")) {
+            System.out.println(logPrefix + "Exporting sounds...");
+            new SoundExporter().exportSounds(handler, outDir + (multipleExportTypes ? File.separator + SoundExportSettings.EXPORT_FOLDER_NAME : ""), new ReadOnlyTagList(extags), new SoundExportSettings(enumFromStr(formats.get("sound"), SoundExportMode.class)), evl);
+        }
 
-                if (exportAll || exportFormats.contains("button")) {
-                    System.out.println("Exporting buttons...");
-                    ButtonExportSettings bes = new ButtonExportSettings(enumFromStr(formats.get("button"), ButtonExportMode.class), zoom);
-                    for (CharacterTag c : swf.getCharacters().values()) {
-                        if (c instanceof ButtonTag) {
-                            frameExporter.exportButtonFrames(handler, outDir + (multipleExportTypes ? File.separator + ButtonExportSettings.EXPORT_FOLDER_NAME : ""), swf, c.getCharacterId(), null, bes, evl);
-                        }
-                    }
+        if (exportAll || exportFormats.contains("binarydata")) {
+            System.out.println(logPrefix + "Exporting binaryData...");
+            new BinaryDataExporter().exportBinaryData(handler, outDir + (multipleExportTypes ? File.separator + BinaryDataExportSettings.EXPORT_FOLDER_NAME : ""), new ReadOnlyTagList(extags), new BinaryDataExportSettings(enumFromStr(formats.get("binarydata"), BinaryDataExportMode.class)), evl);
+        }
+
+        if (exportAll || exportFormats.contains("text")) {
+            System.out.println(logPrefix + "Exporting texts...");
+            Boolean singleTextFile = parseBooleanConfigValue(formats.get("singletext"));
+            if (singleTextFile == null) {
+                singleTextFile = Configuration.textExportSingleFile.get();
+            }
+            new TextExporter().exportTexts(handler, outDir + (multipleExportTypes ? File.separator + TextExportSettings.EXPORT_FOLDER_NAME : ""), new ReadOnlyTagList(extags), new TextExportSettings(enumFromStr(formats.get("text"), TextExportMode.class), singleTextFile, zoom), evl);
+        }
+
+        FrameExporter frameExporter = new FrameExporter();
+
+        if (exportAll || exportFormats.contains("frame")) {
+            System.out.println(logPrefix + "Exporting frames...");
+            List<Integer> frames = new ArrayList<>();
+            for (int i = 0; i < swf.frameCount; i++) {
+                if (selection.contains(i + 1)) {
+                    frames.add(i);
                 }
+            }
+            FrameExportSettings fes = new FrameExportSettings(enumFromStr(formats.get("frame"), FrameExportMode.class), zoom);
+            frameExporter.exportFrames(handler, outDir + (multipleExportTypes ? File.separator + FrameExportSettings.EXPORT_FOLDER_NAME : ""), swf, 0, frames, fes, evl);
+        }
 
-                boolean parallel = Configuration.parallelSpeedUp.get();
-                Boolean singleScriptFile = parseBooleanConfigValue(formats.get("singlescript"));
-                if (singleScriptFile == null) {
-                    singleScriptFile = Configuration.scriptExportSingleFile.get();
+        if (exportAll || exportFormats.contains("sprite")) {
+            System.out.println(logPrefix + "Exporting sprite...");
+            SpriteExportSettings ses = new SpriteExportSettings(enumFromStr(formats.get("sprite"), SpriteExportMode.class), zoom);
+            for (CharacterTag c : swf.getCharacters().values()) {
+                if (c instanceof DefineSpriteTag) {
+                    frameExporter.exportSpriteFrames(handler, outDir + (multipleExportTypes ? File.separator + SpriteExportSettings.EXPORT_FOLDER_NAME : ""), swf, c.getCharacterId(), null, ses, evl);
                 }
+            }
+        }
 
-                if (parallel && singleScriptFile) {
-                    logger.log(Level.WARNING, AppStrings.translate("export.script.singleFilePallelModeWarning"));
-                    singleScriptFile = false;
+        if (exportAll || exportFormats.contains("button")) {
+            System.out.println(logPrefix + "Exporting buttons...");
+            ButtonExportSettings bes = new ButtonExportSettings(enumFromStr(formats.get("button"), ButtonExportMode.class), zoom);
+            for (CharacterTag c : swf.getCharacters().values()) {
+                if (c instanceof ButtonTag) {
+                    frameExporter.exportButtonFrames(handler, outDir + (multipleExportTypes ? File.separator + ButtonExportSettings.EXPORT_FOLDER_NAME : ""), swf, c.getCharacterId(), null, bes, evl);
                 }
+            }
+        }
 
-                ScriptExportSettings scriptExportSettings = new ScriptExportSettings(enumFromStr(formats.get("script"), ScriptExportMode.class), singleScriptFile);
-                boolean exportAllScript = exportAll || exportFormats.contains("script");
-                boolean exportAs2Script = exportAllScript || exportFormats.contains("script_as2");
-                boolean exportAs3Script = exportAllScript || exportFormats.contains("script_as3");
-                if (exportAs2Script || exportAs3Script) {
-                    System.out.println("Exporting scripts...");
-
-                    String scriptsFolder = Path.combine(outDir, ScriptExportSettings.EXPORT_FOLDER_NAME);
-                    Path.createDirectorySafe(new File(scriptsFolder));
-                    String singleFileName = Path.combine(scriptsFolder, swf.getShortFileName() + scriptExportSettings.getFileExtension());
-                    try (FileTextWriter writer = scriptExportSettings.singleFile ? new FileTextWriter(Configuration.getCodeFormatting(), new FileOutputStream(singleFileName)) : null) {
-                        scriptExportSettings.singleFileWriter = writer;
-                        List<ScriptPack> as3packs = as3classes.isEmpty() ? null : swf.getScriptPacksByClassNames(as3classes);
-                        exportOK = swf.exportActionScript(handler, scriptsFolder, as3classes.isEmpty() ? null : as3packs, scriptExportSettings, parallel, evl, exportAs2Script, exportAs3Script) != null && exportOK;
-                    }
+        boolean parallel = Configuration.parallelSpeedUp.get();
+        Boolean singleScriptFile = parseBooleanConfigValue(formats.get("singlescript"));
+        if (singleScriptFile == null) {
+            singleScriptFile = Configuration.scriptExportSingleFile.get();
+        }
 
-                    if (showStat) {
-                        Statistics.print();
-                        Statistics.addToMap(stat);
-                        Statistics.clear();
-                    }
-                }
+        if (parallel && singleScriptFile) {
+            logger.log(Level.WARNING, AppStrings.translate("export.script.singleFilePallelModeWarning"));
+            singleScriptFile = false;
+        }
 
-                if (exportFormats.contains("fla")) {
-                    System.out.println("Exporting FLA...");
-                    exportFla(true, outDir, inFile, swf, multipleExportTypes, formats, handler);
-                }
+        ScriptExportSettings scriptExportSettings = new ScriptExportSettings(enumFromStr(formats.get("script"), ScriptExportMode.class), singleScriptFile);
+        boolean exportAllScript = exportAll || exportFormats.contains("script");
+        boolean exportAs2Script = exportAllScript || exportFormats.contains("script_as2");
+        boolean exportAs3Script = exportAllScript || exportFormats.contains("script_as3");
+        if (exportAs2Script || exportAs3Script) {
+            if (tagIdFilter == null && !exportFormats.contains("fla") && !exportFormats.contains("xfl")) {
+                // the other tags are not needed by the script export, let their parsed bodies be collected
+                swf.releaseTagsExcept(Tag.getScriptTags());
+            }
 
-                if (exportFormats.contains("xfl")) {
-                    System.out.println("Exporting XFL...");
-                    exportFla(false, outDir, inFile, swf, multipleExportTypes, formats, handler);
-                }
+            System.out.println(logPrefix + "Exporting scripts...");
 
-                if (!singleFile) {
-                    long stopTimeSwf = System.currentTimeMillis();
-                    long time = stopTimeSwf - startTimeSwf;
-                    System.out.println("Export finished: " + inFile.getName() + " Export time: " + Helper.formatTimeSec(time));
-                }
+            String scriptsFolder = Path.combine(outDir, ScriptExportSettings.EXPORT_FOLDER_NAME);
+            Path.createDirectorySafe(new File(scriptsFolder));
+            String singleFileName = Path.combine(scriptsFolder, swf.getShortFileName() + scriptExportSettings.getFileExtension());
+            try (FileTextWriter writer = scriptExportSettings.singleFile ? new FileTextWriter(Configuration.getCodeFormatting(), new FileOutputStream(singleFileName)) : null) {
+                scriptExportSettings.singleFileWriter = writer;
+                List<ScriptPack> as3packs = as3classes.isEmpty() ? null : swf.getScriptPacksByClassNames(as3classes);
+                exportOK = swf.exportActionScript(handler, scriptsFolder, as3classes.isEmpty() ? null : as3packs, scriptExportSettings, parallel, evl, exportAs2Script, exportAs3Script) != null && exportOK;
+            }
 
-                swf.clearAllCache();
-                CancellableWorker.cancelBackgroundThreads();
+            if (showStat && !batch) {
+                Statistics.print();
+                Statistics.addToMap(stat);
+                Statistics.clear();
             }
-        } catch (OutOfMemoryError | Exception ex) {
-            System.err.print("FAIL: Exporting Failed on Exception - ");
-            logger.log(Level.SEVERE, null, ex);
-            System.exit(1);
         }
 
+        if (exportFormats.contains("fla")) {
+            System.out.println(logPrefix + "Exporting FLA...");
+            exportFla(true, outDir, inFile, swf, multipleExportTypes, formats, handler);
+        }
+
+        if (exportFormats.contains("xfl")) {
+            System.out.println(logPrefix + "Exporting XFL...");
+            exportFla(false, outDir, inFile, swf, multipleExportTypes, formats, handler);
+        }
+
+        if (!singleFile) {
+            long time = System.nanoTime() - startTimeSwf;
+            System.out.println("Export finished: " + inFile.getName() + " Export time: " + Helper.formatTimeSec(time / 1000000));
+            if (showStat) {
+                Statistics.addToMap(stat, "Export " + inFile.getName(), time);
+            }
+        }
+
+        swf.clearAllCache();
+        if (!batch) {
+            // in batch mode the other files are still being exported
+            CancellableWorker.cancelBackgroundThreads();
+        }
+
+        return exportOK;
+    }
+
+    private static boolean exportBatch(File[] inFiles, File outDirBase, List<String> exportFormats, Map<String, String> formats, Selection selection, Selection selectionIds, List<String> as3classes, AbortRetryIgnoreHandler handler, Level traceLevel, double zoom, Map<String, StatisticData> stat) throws InterruptedException {
+        int threadCount = Math.min(batchThreadCount, inFiles.length);
+        long memoryLimit = batchMemoryLimit > 0 ? batchMemoryLimit * 1024 * 1024 : Runtime.getRuntime().maxMemory() / 2;
+
+        // memory budget in kilobytes
+        final int memoryBudget = (int) Math.max(1, Math.min(memoryLimit / 1024, Integer.MAX_VALUE));
+        final Semaphore memory = new Semaphore(memoryBudget);
+        final Semaphore queueSlots = new Semaphore(threadCount * 2);
+        final AtomicBoolean exportOK = new AtomicBoolean(true);
+        final int timeout = Configuration.exportTimeout.get();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            for (int i = 0; i < inFiles.length; i++) {
+                final File inFile = inFiles[i];
+                final int fileIndex = i + 1;
+                final int memoryCost = (int) Math.min(estimateExportMemory(inFile) / 1024, memoryBudget);
+                queueSlots.acquire();
+                memory.acquire(memoryCost);
+                executor.execute(() -> {
+                    try {
+                        // run on this thread with a cooperative deadline, so the budget is released only after the export really stopped
+                        boolean ok = CancellableWorker.callWithDeadline(() -> {
+                            boolean result = exportSwf(inFile, fileIndex, inFiles.length, false, true, outDirBase, exportFormats, formats, selection, selectionIds, as3classes, handler, traceLevel, zoom, stat);
+                            if (CancellableWorker.isInterrupted()) {
+                                // the exporters stop early when the deadline elapses, report it as a timeout
+                                throw new InterruptedException();
+                            }
+                            return result;
+                        }, timeout, TimeUnit.SECONDS);
+                        if (!ok) {
+                            exportOK.set(false);
+                        }
+                    } catch (TimeoutException ex) {
+                        exportOK.set(false);
+                        logger.log(Level.SEVERE, Helper.formatTimeToText(timeout) + " export limit reached: " + inFile.getName());
+                    } catch (ExecutionException ex) {
+                        exportOK.set(false);
+                        logger.log(Level.SEVERE, "Exporting failed: " + inFile.getName(), ex.getCause());
+                    } catch (InterruptedException ex) {
+                        exportOK.set(false);
+                    } finally {
+                        memory.release(memoryCost);
+                        queueSlots.release();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+
+        CancellableWorker.cancelBackgroundThreads();
         if (showStat) {
-            Statistics.print(stat);
+            Statistics.addToMap(stat);
+            Statistics.clear();
         }
 
-        long stopTime = System.currentTimeMillis();
-        long time = stopTime - startTime;
-        System.out.println("Export finished. Total export time: " + Helper.formatTimeSec(time));
-        System.out.println(exportOK ? "OK" : "FAIL");
-        System.exit(exportOK ? 0 : 1);
+        return exportOK.get();
+    }
+
+    /**
+     * Estimates the memory needed to export the file from the uncompressed
+     * size in the SWF header.
+     */
+    private static long estimateExportMemory(File inFile) {
+        long size = inFile.length();
+        try (InputStream is = new FileInputStream(inFile)) {
+            byte[] hdr = new byte[8];
+            if (is.read(hdr) == 8) {
+                size = Math.max(size, SWF.decodeHeader(hdr).fileSize);
+            }
+        } catch (IOException ex) {
+            // use the file size
+        }
+
+        return size * BATCH_MEMORY_FACTOR;
     }
 
     private static void exportFla(boolean compressed, String outDir, File inFile, SWF swf, boolean multipleExportTypes, Map<String, String> formats, AbortRetryIgnoreHandler handler) throws IOException, InterruptedException {
@@ -616,7 +616,7 @@ public final class ImagePanel extends JPanel implements MediaDisplay {
             @Override
             public Object callFunction(long functionAddress, long functionLength, List<Object> args, Map<Integer, String> regNames, Object thisObj) {
                 try {
-                    SWFInputStream sis = new SWFInputStream(swf, swf.uncompressedData, functionAddress, (int) (functionAddress + functionLength));
+                    SWFInputStream sis = new SWFInputStream(swf, swf.getUncompressedRange(), functionAddress, (int) (functionAddress + functionLength));
                     return execute(sis);
                 } catch (IOException ex) {
                     Logger.getLogger(ImagePanel.class.getName()).log(Level.SEVERE, null, ex);
@@ -968,7 +968,7 @@ public final class ImagePanel extends JPanel implements MediaDisplay {
             try {
                 ByteArrayRange actionBytes = src.getActionBytes();
                 int prevLength = actionBytes.getPos();
-                SWFInputStream rri = new SWFInputStream(swf, actionBytes.getArray(), 0, prevLength + actionBytes.getLength());
+                SWFInputStream rri = new SWFInputStream(swf, actionBytes.getBacking(), 0, prevLength + actionBytes.getLength());
                 if (prevLength != 0) {
                     rri.seek(prevLength);
                 }
@@ -107,6 +107,7 @@ import com.jpexs.decompiler.flash.importers.SymbolClassImporter;
 import com.jpexs.decompiler.flash.importers.TextImporter;
 import com.jpexs.decompiler.flash.importers.svg.SvgImporter;
 import com.jpexs.decompiler.flash.search.ABCSearchResult;
+import com.jpexs.decompiler.flash.search.ActionScriptSearch;
 import com.jpexs.decompiler.flash.search.ActionSearchResult;
 import com.jpexs.decompiler.flash.tags.ABCContainerTag;
 import com.jpexs.decompiler.flash.tags.DefineBinaryDataTag;
@@ -810,6 +811,18 @@ public final class MainPanel extends JPanel implements TreeSelectionListener, Se
             updateUi(swf);
         }
 
+        if (Configuration.scriptSearchIndex.get()) {
+            for (SWF indexedSwf : newSwfs) {
+                new CancellableWorker<Void>() {
+                    @Override
+                    protected Void doInBackground() throws Exception {
+                        new ActionScriptSearch().buildIndex(indexedSwf);
+                        return null;
+                    }
+                }.execute();
+            }
+        }
+
         doFilter();
         reload(false);
     }
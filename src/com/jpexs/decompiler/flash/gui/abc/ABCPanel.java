@@ -1578,6 +1578,7 @@ public class ABCPanel extends JPanel implements ItemListener, SearchListener<ABC
             } else {
                 traitId = abc.class_info.get(class_index).static_traits.traits.size() + abc.instance_info.get(class_index).instance_traits.addTrait(t);
             }
+            abc.invalidateMultinameUsages();
             int scriptIndex = decompiledTextArea.getScriptLeaf().scriptIndex;
             if (scriptIndex >= 0 && scriptIndex < abc.script_info.size()) {
                 abc.script_info.get(scriptIndex).setModified(true);
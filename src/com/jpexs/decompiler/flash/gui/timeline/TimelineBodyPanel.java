@@ -242,7 +242,7 @@ public class TimelineBodyPanel extends JPanel implements MouseListener, KeyListe
                 } else {
                     for (; f + 1 < timeline.getFrameCount(); f++) {
                         fl = timeline.getFrame(f + 1).layers.get(d);
-                        if (fl == null || fl.key) {
+                        if (fl == null || fl.isKey(f + 1)) {
                             break;
                         }
 
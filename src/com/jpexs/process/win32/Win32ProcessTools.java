@@ -16,6 +16,7 @@
  */
 package com.jpexs.process.win32;
 
+import com.jpexs.helpers.MultiPatternMatcher;
 import com.jpexs.helpers.ProgressListener;
 import com.jpexs.process.ProcessTools;
 import com.sun.jna.Memory;
@@ -44,10 +45,10 @@ import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -136,14 +137,6 @@ public class Win32ProcessTools extends ProcessTools {
         System.out.println("========================");
     }
 
-    private static byte[] mergeArrays(byte[] one, byte[] two) {
-        byte[] combined = new byte[one.length + two.length];
-
-        System.arraycopy(one, 0, combined, 0, one.length);
-        System.arraycopy(two, 0, combined, one.length, two.length);
-        return combined;
-    }
-
     public static Map<String, Character> getDriveMappings() {
         Map<String, Character> ret = new HashMap<>();
         for (char d = 'A'; d <= 'Z'; d++) {
@@ -371,13 +364,8 @@ public class Win32ProcessTools extends ProcessTools {
     }
 
     public static Map<Long, InputStream> findBytesInProcessMemory(ProgressListener progListener, WinDef.DWORD dwProcessID, byte[][] findBytesAll) {
-        int maxFindLen = 0;
-        for (int i = 0; i < findBytesAll.length; i++) {
-            if (findBytesAll[i].length > maxFindLen) {
-                maxFindLen = findBytesAll[i].length;
-            }
-        }
-        Map<Long, InputStream> ret = new HashMap<>();
+        MultiPatternMatcher matcher = new MultiPatternMatcher(findBytesAll);
+        Map<Long, InputStream> ret = new TreeMap<>();
         WinNT.HANDLE hOtherProcess = Kernel32.INSTANCE.OpenProcess(Kernel32.PROCESS_VM_READ | Kernel32.PROCESS_VM_WRITE | Kernel32.PROCESS_QUERY_INFORMATION | Kernel32.PROCESS_VM_OPERATION /*for VirtualProtectEx*/, false, dwProcessID);
         List<MEMORY_BASIC_INFORMATION> pages = getPageRanges(hOtherProcess);
         long totalMemLen = 0;
@@ -395,6 +383,9 @@ public class Win32ProcessTools extends ProcessTools {
                 int maxsize = mbi.regionSize.intValue();
                 long pos = 0;
                 long bufSize = 1024 * 512;
+                final int page = pg;
+                // the matches can cross the buffers, but not the regions
+                int state = MultiPatternMatcher.INITIAL_STATE;
                 do {
                     NativeLongByReference bytesReadRef = new NativeLongByReference();
                     Memory buf = new Memory(bufSize);
@@ -407,25 +398,9 @@ public class Win32ProcessTools extends ProcessTools {
                     }
 
                     byte[] data = buf.getByteArray(0, bytesReadRef.getValue().intValue());
-
-                    byte[] prevBytes = Arrays.copyOfRange(data, data.length - maxFindLen, data.length);
-                    byte[] dataPlusPrev = mergeArrays(prevBytes, data);
-                    loopi:
-                    for (int i = 0; i < dataPlusPrev.length - maxFindLen; i++) {
-                        loopk:
-                        for (int k = 0; k < findBytesAll.length; k++) {
-                            if (dataPlusPrev[i] == findBytesAll[k][0]) {
-                                for (int p = 1; p < findBytesAll[k].length; p++) {
-                                    if (dataPlusPrev[i + p] != findBytesAll[k][p]) {
-                                        continue loopk;
-                                    }
-                                }
-                                long dataAddr = (long) (addr + pos - prevBytes.length + i);
-                                ret.put(dataAddr, new ProcessMemoryInputStream(pages, hOtherProcess, pg, pos - prevBytes.length + i));
-                            }
-                        }
-
-                    }
+                    state = matcher.scan(data, 0, data.length, state, pos, (long matchPos, int patternIndex) -> {
+                        ret.put(addr + matchPos, new ProcessMemoryInputStream(pages, hOtherProcess, page, matchPos));
+                    });
                     pos += bytesReadRef.getValue().longValue();
                     if (progListener != null) {
                         int newprogress = Math.round((actualPos + pos) * 100 / totalMemLen);